@@ -0,0 +1,55 @@
+package dev.jos.back.config;
+
+import dev.jos.back.properties.PasswordHashingProperties;
+import dev.jos.back.properties.TicketDeliveryProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Slf4j
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    public static final String TICKET_DELIVERY_EXECUTOR = "ticketDeliveryExecutor";
+    public static final String PASSWORD_HASHING_EXECUTOR = "passwordHashingExecutor";
+
+    /**
+     * Pool borné dédié au rendu PDF et à l'envoi des billets par email.
+     * Quand la file est pleine, la tâche est écartée sans bloquer la requête : la transaction reste en
+     * envoi {@code PENDING} et {@link dev.jos.back.service.TicketDeliveryService#redeliverPending} la
+     * reprend plus tard, en confiant ses envois à ce même pool.
+     */
+    @Bean(name = TICKET_DELIVERY_EXECUTOR)
+    public ThreadPoolTaskExecutor ticketDeliveryExecutor(TicketDeliveryProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getCorePoolSize());
+        executor.setMaxPoolSize(properties.getMaxPoolSize());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("ticket-delivery-");
+        executor.setRejectedExecutionHandler((task, pool) ->
+                log.warn("File d'envoi des billets pleine : envoi remis au prochain passage de reprise"));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Pool borné dédié aux calculs BCrypt ({@link BoundedPasswordEncoder}). Quand la file est pleine,
+     * la tâche est refusée : la requête reçoit une 503 au lieu de prendre du CPU aux autres requêtes.
+     */
+    @Bean(name = PASSWORD_HASHING_EXECUTOR)
+    public ThreadPoolTaskExecutor passwordHashingExecutor(PasswordHashingProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPoolSize());
+        executor.setMaxPoolSize(properties.getPoolSize());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("password-hashing-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+}
@@ -0,0 +1,99 @@
+package dev.jos.back.config;
+
+import dev.jos.back.exceptions.auth.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * Encodeur de mots de passe dont les calculs s'exécutent sur un pool dédié et borné
+ * ({@code password-hashing.*}) : pendant un afflux de connexions ou d'inscriptions, le hachage
+ * n'occupe que {@code pool-size} threads et les autres requêtes, comme le catalogue, gardent le
+ * reste du CPU. Le thread de la requête attend le résultat sans calculer.
+ * <p>
+ * Pool et file pleins, le calcul est refusé ({@link PasswordHashingBusyException}, réponse 503 avec
+ * {@code Retry-After}) plutôt que d'allonger l'attente de toutes les connexions.
+ * <p>
+ * Métriques : {@code password.hashing} (durée du calcul, par opération), {@code password.hashing.queue}
+ * (calculs en attente) et {@code password.hashing.rejected} (calculs refusés).
+ */
+class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final int retryAfterSeconds;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, ThreadPoolExecutor executor, int retryAfterSeconds,
+                           MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.encodeTimer = timer("encode", meterRegistry);
+        this.matchesTimer = timer("matches", meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Calculs de mot de passe refusés, pool et file pleins")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue", executor, pool -> pool.getQueue().size())
+                .description("Calculs de mot de passe en attente d'un thread")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    /**
+     * Vrai si le hachage est d'un coût inférieur au coût configuré et qu'aucun calcul n'attend : le
+     * recalcul ajoute un hachage à la connexion, il est remis à une connexion suivante pendant un pic.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return executor.getQueue().isEmpty() && delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Supplier<T> hashing, Timer timer) {
+        Future<T> result;
+        try {
+            result = executor.submit(() -> timer.record(hashing));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException("Service momentanément surchargé, veuillez réessayer", retryAfterSeconds);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Calcul du mot de passe interrompu", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Timer timer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("password.hashing")
+                .description("Durée d'un calcul de mot de passe")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -1,6 +1,7 @@
 package dev.jos.back.config;
 
 import dev.jos.back.dto.ErrorResponseDTO;
+import dev.jos.back.exceptions.auth.PasswordHashingBusyException;
 import dev.jos.back.exceptions.cart.CartItemNotFoundException;
 import dev.jos.back.exceptions.cart.CartNotFoundException;
 import dev.jos.back.exceptions.ticket.TicketAlreadyScannedException;
@@ -9,13 +10,21 @@ import dev.jos.back.exceptions.ticket.TicketNotValidException;
 import dev.jos.back.exceptions.email.EmailNotSentException;
 import dev.jos.back.exceptions.payment.CartAlreadyConvertedException;
 import dev.jos.back.exceptions.payment.CartEmptyException;
+import dev.jos.back.exceptions.payment.IdempotencyKeyConflictException;
 import dev.jos.back.exceptions.payment.PaymentDeclinedException;
+import dev.jos.back.exceptions.payment.ReservationExpiredException;
 import dev.jos.back.exceptions.payment.TransactionNotFoundException;
+import dev.jos.back.exceptions.catalog.InvalidFieldsException;
 import dev.jos.back.exceptions.event.EventAlreadyExistsException;
 import dev.jos.back.exceptions.event.EventNotFoundException;
 import dev.jos.back.exceptions.event.EventSoldOutException;
+import dev.jos.back.exceptions.event.InvalidPageTokenException;
+import dev.jos.back.exceptions.event.InvalidSyncCursorException;
+import dev.jos.back.exceptions.event.TooManyEventIdsException;
 import dev.jos.back.exceptions.offertype.OfferNotFoundException;
 import dev.jos.back.exceptions.offertype.OfferTypeAlreadyExistsException;
+import dev.jos.back.exceptions.queue.InvalidQueueTokenException;
+import dev.jos.back.exceptions.queue.QueueAdmissionRequiredException;
 import dev.jos.back.exceptions.sport.SportNotFoundException;
 import dev.jos.back.exceptions.twofactor.BadTwoFactorCodeException;
 import dev.jos.back.exceptions.twofactor.TwoFactorCodeNotFoundException;
@@ -26,9 +35,11 @@ import dev.jos.back.exceptions.user.UserNotFoundException;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -64,11 +75,19 @@ public class GlobalExceptionConfig {
             Map.entry(PaymentDeclinedException.class, HttpStatus.PAYMENT_REQUIRED),
             Map.entry(CartAlreadyConvertedException.class, HttpStatus.CONFLICT),
             Map.entry(CartEmptyException.class, HttpStatus.BAD_REQUEST),
+            Map.entry(ReservationExpiredException.class, HttpStatus.CONFLICT),
+            Map.entry(IdempotencyKeyConflictException.class, HttpStatus.CONFLICT),
             Map.entry(TransactionNotFoundException.class, HttpStatus.NOT_FOUND),
             Map.entry(UserNotFoundException.class, HttpStatus.NOT_FOUND),
             Map.entry(TicketNotFoundException.class, HttpStatus.NOT_FOUND),
             Map.entry(TicketAlreadyScannedException.class, HttpStatus.CONFLICT),
-            Map.entry(TicketNotValidException.class, HttpStatus.UNPROCESSABLE_ENTITY)
+            Map.entry(TicketNotValidException.class, HttpStatus.UNPROCESSABLE_ENTITY),
+            Map.entry(InvalidQueueTokenException.class, HttpStatus.BAD_REQUEST),
+            Map.entry(QueueAdmissionRequiredException.class, HttpStatus.TOO_MANY_REQUESTS),
+            Map.entry(InvalidPageTokenException.class, HttpStatus.BAD_REQUEST),
+            Map.entry(InvalidSyncCursorException.class, HttpStatus.BAD_REQUEST),
+            Map.entry(InvalidFieldsException.class, HttpStatus.BAD_REQUEST),
+            Map.entry(TooManyEventIdsException.class, HttpStatus.BAD_REQUEST)
     );
 
     @ExceptionHandler(Exception.class)
@@ -86,6 +105,30 @@ public class GlobalExceptionConfig {
         return ResponseEntity.status(status).body(ErrorResponseDTO.of(status.value(), message));
     }
 
+    /**
+     * Pool de hachage saturé : le client réessaie après le délai indiqué. Refus attendu pendant un pic,
+     * journalisé sans trace.
+     */
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ErrorResponseDTO> handlePasswordHashingBusy(PasswordHashingBusyException ex) {
+        log.warn("Exception: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ErrorResponseDTO.of(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage()));
+    }
+
+    /**
+     * Le fournisseur d'authentification enveloppe les erreurs levées en cherchant l'utilisateur, dont
+     * le hachage factice calculé pour un email inconnu : un refus du pool de hachage y reste un 503.
+     */
+    @ExceptionHandler(InternalAuthenticationServiceException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInternalAuthentication(InternalAuthenticationServiceException ex) {
+        if (ex.getCause() instanceof PasswordHashingBusyException busy) {
+            return handlePasswordHashingBusy(busy);
+        }
+        return handleAll(ex);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationErrors(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
@@ -3,6 +3,8 @@ package dev.jos.back.config;
 import dev.jos.back.properties.JwtProperties;
 import dev.jos.back.service.CustomUserDetailsService;
 import dev.jos.back.service.JwtService;
+import dev.jos.back.service.JwtService.TokenClaims;
+import dev.jos.back.service.TokenRevocationService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -10,7 +12,9 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -19,6 +23,13 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.util.Arrays;
 
+/**
+ * Authentifie la requête à partir du jeton d'accès du cookie. Dans tous les modes, un jeton révoqué
+ * à la déconnexion (par son {@code jti}) est refusé, ainsi qu'un jeton dont la version est dépassée
+ * (changement de mot de passe ou de rôle) s'il porte l'identifiant et la version des jetons de
+ * l'utilisateur. En mode {@code jwt.stateless}, ces jetons suffisent ensuite, sans requête ; les
+ * autres jetons (émis avant ce mode) et le mode par défaut relisent l'utilisateur en base.
+ */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -26,6 +37,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
     private final JwtProperties jwtProperties;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(
@@ -35,25 +47,46 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = getTokenFromCookies(request);
 
-        if (token != null && jwtService.validateToken(token)) {
-            String email = jwtService.getUsernameFromToken(token);
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-
-            UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
+        if (token != null) {
+            jwtService.parseAccessToken(token)
+                    .filter(claims -> !tokenRevocationService.isTokenRevoked(claims.tokenId()))
+                    .map(this::userDetailsOf)
+                    .ifPresent(userDetails -> authenticate(request, userDetails));
+        }
 
-            authentication.setDetails(
-                    new WebAuthenticationDetailsSource().buildDetails(request)
-            );
+        filterChain.doFilter(request, response);
+    }
 
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+    /**
+     * Utilisateur authentifié par le jeton, {@code null} si le jeton a été révoqué.
+     */
+    private UserDetails userDetailsOf(TokenClaims claims) {
+        boolean versioned = claims.userId() != null && claims.tokenVersion() != null;
+        if (versioned && tokenRevocationService.isRevoked(claims.userId(), claims.tokenVersion())) {
+            return null;
         }
+        if (!jwtProperties.isStateless() || !versioned) {
+            return userDetailsService.loadUserByUsername(claims.email());
+        }
+        return User.withUsername(claims.email())
+                .password("")
+                .authorities(claims.roles().stream().map(SimpleGrantedAuthority::new).toList())
+                .build();
+    }
 
-        filterChain.doFilter(request, response);
+    private void authenticate(HttpServletRequest request, UserDetails userDetails) {
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                );
+
+        authentication.setDetails(
+                new WebAuthenticationDetailsSource().buildDetails(request)
+        );
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
     }
 
     private String getTokenFromCookies(HttpServletRequest request) {
@@ -69,4 +102,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 .findFirst()
                 .orElse(null);
     }
-}
\ No newline at end of file
+}
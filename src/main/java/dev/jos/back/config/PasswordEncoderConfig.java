@@ -1,14 +1,25 @@
 package dev.jos.back.config;
 
+import dev.jos.back.properties.PasswordHashingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class PasswordEncoderConfig {
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            PasswordHashingProperties properties,
+            @Qualifier(AsyncConfig.PASSWORD_HASHING_EXECUTOR) ThreadPoolTaskExecutor executor,
+            MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(properties.getStrength()),
+                executor.getThreadPoolExecutor(),
+                properties.getRetryAfterSeconds(),
+                meterRegistry);
     }
 }
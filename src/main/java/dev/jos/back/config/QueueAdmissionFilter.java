@@ -0,0 +1,102 @@
+package dev.jos.back.config;
+
+import dev.jos.back.dto.queue.QueueStatusDTO;
+import dev.jos.back.properties.QueueProperties;
+import dev.jos.back.service.WaitingRoomService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Contrôle d'admission de la salle d'attente : quand {@code queue.enabled} est actif, l'ajout au
+ * panier et le paiement exigent au moins un jeton de file admis dans l'en-tête
+ * {@code X-Queue-Token} (un jeton par événement, séparés par des virgules).
+ * <p>
+ * Placé après {@link JwtAuthenticationFilter} : seuls les jetons remis à l'utilisateur authentifié
+ * sont retenus. Le filtre ne connaît pas les événements visés par la requête ; il dépose ceux des
+ * jetons admis dans l'attribut {@link WaitingRoomService#ADMITTED_EVENTS_ATTRIBUTE}, que le panier
+ * et le paiement confrontent aux événements réellement touchés
+ * ({@link WaitingRoomService#requireAdmitted}).
+ */
+@Component
+@RequiredArgsConstructor
+public class QueueAdmissionFilter extends OncePerRequestFilter {
+
+    public static final String TOKEN_HEADER = "X-Queue-Token";
+
+    private static final RequestMatcher GUARDED = new OrRequestMatcher(
+            PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.POST, "/api/cart/items"),
+            PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.PATCH, "/api/cart/items/*"),
+            PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.POST, "/api/checkout")
+    );
+
+    private final WaitingRoomService waitingRoomService;
+    private final QueueProperties queueProperties;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !queueProperties.isEnabled() || !GUARDED.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = authentication != null ? authentication.getName() : null;
+        List<QueueStatusDTO> statuses = email == null ? List.of() : Collections.list(request.getHeaders(TOKEN_HEADER)).stream()
+                .flatMap(header -> List.of(header.split(",")).stream())
+                .map(token -> waitingRoomService.check(token.trim(), email))
+                .flatMap(Optional::stream)
+                .toList();
+
+        Set<Long> admitted = statuses.stream()
+                .filter(QueueStatusDTO::admitted)
+                .map(QueueStatusDTO::eventId)
+                .collect(Collectors.toUnmodifiableSet());
+        if (!admitted.isEmpty()) {
+            request.setAttribute(WaitingRoomService.ADMITTED_EVENTS_ATTRIBUTE, admitted);
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Optional<QueueStatusDTO> status = statuses.stream().min(Comparator.comparingLong(QueueStatusDTO::estimatedWaitSeconds));
+        String message;
+        if (status.isPresent()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, status.get().estimatedWaitSeconds())));
+            message = "Vous êtes dans la file d'attente (position " + status.get().position() + ")";
+        } else {
+            message = "Veuillez rejoindre la file d'attente de l'événement";
+        }
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"status\":%d,\"message\":\"%s\",\"timestamp\":\"%s\"}"
+                .formatted(HttpStatus.TOO_MANY_REQUESTS.value(), message, LocalDateTime.now()));
+    }
+}
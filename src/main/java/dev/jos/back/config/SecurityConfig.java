@@ -1,8 +1,10 @@
 package dev.jos.back.config;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -20,6 +22,7 @@ public class SecurityConfig {
 
     private final CorsConfigurationSource corsConfigurationSource;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final QueueAdmissionFilter queueAdmissionFilter;
 
     String[] publicEndpoints = {
             "/api/auth/**",
@@ -27,12 +30,45 @@ public class SecurityConfig {
             "/api/users/validate-reset-token",
             "/api/2fa/send",
             "/api/2fa/verify",
+            "/api/queue/status",
             "/v3/api-docs/**",
             "/swagger-ui/**",
             "/actuator/**"
     };
 
+    /**
+     * Catalogue public, en lecture seule.
+     */
+    String[] publicCatalogEndpoints = {
+            "/api/events/**",
+            "/api/offer/**",
+            "/api/sport/**"
+    };
+
+    /**
+     * Lectures du catalogue, ouvertes à tous : ni {@link JwtAuthenticationFilter} ni
+     * {@link QueueAdmissionFilter}. Le cookie {@code access_token} qu'envoient les utilisateurs
+     * connectés n'est ni décodé ni vérifié, et l'utilisateur n'est pas relu en base.
+     */
     @Bean
+    @Order(1)
+    public SecurityFilterChain publicCatalogFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatchers(matchers -> matchers.requestMatchers(HttpMethod.GET, publicCatalogEndpoints))
+                .cors(cors -> cors.configurationSource(corsConfigurationSource))
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                )
+                .requestCache(AbstractHttpConfigurer::disable)
+                .logout(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource))
@@ -42,7 +78,6 @@ public class SecurityConfig {
                 )
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(publicEndpoints).permitAll()
-                        .requestMatchers(HttpMethod.GET,    "/api/events/**", "/api/offer/**", "/api/sport/**").permitAll()
                         .requestMatchers(HttpMethod.POST,   "/api/events/**", "/api/offer/**", "/api/sport/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT,    "/api/events/**", "/api/offer/**", "/api/sport/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/events/**", "/api/offer/**", "/api/sport/**").hasRole("ADMIN")
@@ -53,8 +88,28 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET,    "/api/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 ).addFilterBefore(jwtAuthenticationFilter,
-                        UsernamePasswordAuthenticationFilter.class);
+                        UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(queueAdmissionFilter,
+                        JwtAuthenticationFilter.class);
 
         return http.build();
     }
+
+    /**
+     * Les filtres JWT et de file d'attente ne s'exécutent que dans la chaîne de sécurité : déclarés
+     * en {@code @Component}, ils seraient sinon aussi enregistrés pour toutes les requêtes du servlet.
+     */
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration() {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(jwtAuthenticationFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueueAdmissionFilter> queueAdmissionFilterRegistration() {
+        FilterRegistrationBean<QueueAdmissionFilter> registration = new FilterRegistrationBean<>(queueAdmissionFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
 }
@@ -0,0 +1,69 @@
+package dev.jos.back.config;
+
+import dev.jos.back.exceptions.auth.PasswordHashingBusyException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Authentification par email et mot de passe qui recalcule, après une connexion réussie, les
+ * hachages d'un coût inférieur à {@code password-hashing.strength}.
+ * <p>
+ * Contrairement à {@link DaoAuthenticationProvider}, le recalcul est facultatif : si le pool de
+ * hachage le refuse ({@link PasswordHashingBusyException}), la connexion aboutit avec l'ancien
+ * hachage et le recalcul est remis à une connexion suivante.
+ */
+@Slf4j
+class UpgradingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final PasswordEncoder passwordEncoder;
+    private final UserDetailsPasswordService passwordService;
+
+    UpgradingAuthenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+                                    UserDetailsPasswordService passwordService) {
+        super(userDetailsService);
+        setPasswordEncoder(withoutUpgrade(passwordEncoder));
+        this.passwordEncoder = passwordEncoder;
+        this.passwordService = passwordService;
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication, UserDetails user) {
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            try {
+                String upgraded = passwordEncoder.encode(authentication.getCredentials().toString());
+                user = passwordService.updatePassword(user, upgraded);
+            } catch (PasswordHashingBusyException e) {
+                log.debug("Recalcul du hachage de {} remis à plus tard : {}", user.getUsername(), e.getMessage());
+            }
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+
+    /**
+     * Encodeur confié à la classe parente : il ne demande jamais de recalcul, pour que
+     * {@link DaoAuthenticationProvider} ne retente pas, sans filet, le recalcul déjà traité ici.
+     */
+    private static PasswordEncoder withoutUpgrade(PasswordEncoder delegate) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return delegate.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return delegate.matches(rawPassword, encodedPassword);
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return false;
+            }
+        };
+    }
+}
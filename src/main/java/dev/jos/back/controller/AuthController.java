@@ -16,12 +16,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.util.Optional;
 
 /**
  * Contrôleur REST pour la gestion de l'authentification.
@@ -41,11 +40,11 @@ public class AuthController {
     private final JwtService jwtService;
     private final CookieService cookieService;
     private final UserService userService;
-    private final CustomUserDetailsService userDetailsService;
     private final JwtProperties jwtProperties;
     private final UserRepository userRepository;
     private final TwoFactorService twoFactorService;
     private final UserMapper userMapper;
+    private final TokenRevocationService tokenRevocationService;
 
     /**
      * Inscrit un nouvel utilisateur et retourne des tokens d'authentification.
@@ -60,13 +59,11 @@ public class AuthController {
     public ResponseEntity<UserResponseDTO> register(@Valid @RequestBody CreateUserDTO request) {
         UserResponseDTO user = userService.createUser(request);
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(request.email());
-        List<String> roles = userDetails.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .toList();
+        User created = userRepository.findByEmail(request.email())
+                .orElseThrow(() -> new UsernameNotFoundException("Utilisateur introuvable"));
 
-        String accessToken = jwtService.generateAccessToken(request.email(), roles);
-        String refreshToken = jwtService.generateRefreshToken(request.email());
+        String accessToken = jwtService.generateAccessToken(created);
+        String refreshToken = jwtService.generateRefreshToken(created);
 
         return ResponseEntity.status(HttpStatus.CREATED)
                 .header(HttpHeaders.SET_COOKIE,
@@ -110,16 +107,8 @@ public class AuthController {
                     .body(userMapper.toResponseDTO(user));
         }
 
-
-        List<String> roles = null;
-        if (userDetails != null) {
-            roles = userDetails.getAuthorities().stream()
-                    .map(GrantedAuthority::getAuthority)
-                    .toList();
-        }
-
-        String accessToken = jwtService.generateAccessToken(email, roles);
-        String refreshToken = jwtService.generateRefreshToken(email);
+        String accessToken = jwtService.generateAccessToken(user);
+        String refreshToken = jwtService.generateRefreshToken(user);
 
         UserResponseDTO userResponse = userService.getUserResponseDto(email);
 
@@ -136,29 +125,28 @@ public class AuthController {
      *
      * @param refreshToken le refresh token provenant du cookie HTTP-only
      * @return {@code ResponseEntity<Void>} avec les nouveaux cookies JWT
-     * (nouvel access token et nouveau refresh token)
-     * @throws io.jsonwebtoken.ExpiredJwtException si le refresh token a expiré
-     * @throws io.jsonwebtoken.JwtException        si le refresh token est invalide ou corrompu
-     *
+     * (nouvel access token et nouveau refresh token) ; 401 si le refresh token est invalide, expiré,
+     * révoqué à la déconnexion ou antérieur à un changement de mot de passe, de rôle ou d'email
      */
     @PostMapping("/refresh")
     public ResponseEntity<Void> refresh(
             @CookieValue(name = "${jwt.refresh-token.cookie-name}") String refreshToken) {
 
-        if (!jwtService.validateToken(refreshToken)) {
+        JwtService.TokenClaims claims = jwtService.parseRefreshToken(refreshToken)
+                .filter(c -> !tokenRevocationService.isTokenRevoked(c.tokenId()))
+                .orElse(null);
+        if (claims == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        String email = jwtService.getUsernameFromToken(refreshToken);
-
-        UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-
-        List<String> roles = userDetails.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .toList();
+        User user = userRepository.findByEmail(claims.email())
+                .orElseThrow(() -> new UsernameNotFoundException("Utilisateur introuvable"));
+        if (claims.tokenVersion() != null && claims.tokenVersion() < user.getTokenVersion()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
 
-        String newAccessToken = jwtService.generateAccessToken(email, roles);
-        String newRefreshToken = jwtService.generateRefreshToken(email);
+        String newAccessToken = jwtService.generateAccessToken(user);
+        String newRefreshToken = jwtService.generateRefreshToken(user);
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.SET_COOKIE,
@@ -169,12 +157,20 @@ public class AuthController {
     }
 
     /**
-     * Déconnecte l'utilisateur en supprimant les cookies de tokens.
+     * Déconnecte l'utilisateur en supprimant les cookies de tokens. Les tokens présentés sont
+     * révoqués jusqu'à leur expiration : une copie du cookie n'est plus acceptée.
      *
+     * @param accessToken  l'access token du cookie, éventuellement absent
+     * @param refreshToken le refresh token du cookie, éventuellement absent
      * @return {@code ResponseEntity<Void>} vide avec les cookies de suppression
      */
     @PostMapping("/logout")
-    public ResponseEntity<Void> logout() {
+    public ResponseEntity<Void> logout(
+            @CookieValue(name = "${jwt.access-token.cookie-name}", required = false) String accessToken,
+            @CookieValue(name = "${jwt.refresh-token.cookie-name}", required = false) String refreshToken) {
+        revoke(jwtService.parseAccessToken(accessToken));
+        revoke(jwtService.parseRefreshToken(refreshToken));
+
         return ResponseEntity.noContent()
                 .header(HttpHeaders.SET_COOKIE,
                         cookieService.createDeleteCookie(
@@ -184,4 +180,9 @@ public class AuthController {
                                 jwtProperties.getRefreshToken().getCookieName()).toString())
                 .build();
     }
-}
\ No newline at end of file
+
+    private void revoke(Optional<JwtService.TokenClaims> claims) {
+        claims.filter(c -> c.tokenId() != null && c.expiresAt() != null)
+                .ifPresent(c -> tokenRevocationService.revokeToken(c.tokenId(), c.expiresAt()));
+    }
+}
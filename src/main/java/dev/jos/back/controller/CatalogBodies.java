@@ -0,0 +1,263 @@
+package dev.jos.back.controller;
+
+import dev.jos.back.dto.event.EventResponseDTO;
+import dev.jos.back.dto.offer.OfferResponseDTO;
+import dev.jos.back.dto.sport.SportResponseDTO;
+import dev.jos.back.exceptions.catalog.InvalidFieldsException;
+import dev.jos.back.service.CatalogSnapshot.LocalizedCatalog;
+import dev.jos.back.util.enums.SupportedLocale;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Corps JSON des listes du catalogue, déjà sérialisés et compressés. Chaque liste est sérialisée une
+ * seule fois par langue et par version du catalogue (son ETag), et compressée en gzip ou deflate à
+ * la première demande de ce codage ; les requêtes suivantes recopient ces octets dans la réponse,
+ * sans Jackson ni compression.
+ * <p>
+ * La variante est choisie d'après l'en-tête {@code Accept-Encoding} et porte son propre ETag, la
+ * représentation renvoyée n'étant pas la même octet par octet.
+ * <p>
+ * Le paramètre {@code fields} restreint chaque élément aux champs cités (ex.
+ * {@code ?fields=id,name,eventDate,availableSlots}). Chaque ensemble de champs est encodé et conservé
+ * comme la liste complète. Au-delà de {@value #MAX_ENTRIES} encodages, le moins récemment servi est
+ * écarté : des ensembles de champs arbitraires envoyés en masse ne peuvent pas évincer pour de bon
+ * ceux que le front demande à chaque appel.
+ */
+@Component
+class CatalogBodies {
+
+    static final int MAX_ENTRIES = 256;
+
+    /**
+     * Listes du catalogue servies depuis leur forme encodée.
+     */
+    enum View {
+        EVENTS(LocalizedCatalog::events, EventResponseDTO.class),
+        ACTIVE_EVENTS(LocalizedCatalog::activeEvents, EventResponseDTO.class),
+        AVAILABLE_EVENTS(LocalizedCatalog::availableEvents, EventResponseDTO.class),
+        SPORTS(LocalizedCatalog::sports, SportResponseDTO.class),
+        OFFERS(LocalizedCatalog::offers, OfferResponseDTO.class);
+
+        private final Function<LocalizedCatalog, List<?>> content;
+        private final List<String> fields;
+
+        View(Function<LocalizedCatalog, List<?>> content, Class<? extends Record> element) {
+            this.content = content;
+            this.fields = Arrays.stream(element.getRecordComponents()).map(RecordComponent::getName).toList();
+        }
+
+        /**
+         * Champs demandés, dans l'ordre des champs de l'élément, pour que {@code name,id} et
+         * {@code id,name} partagent le même encodage ; liste vide pour tous les champs.
+         *
+         * @throws InvalidFieldsException si un champ n'existe pas
+         */
+        List<String> select(String requested) {
+            if (requested == null || requested.isBlank()) {
+                return List.of();
+            }
+            Set<String> names = new HashSet<>();
+            for (String name : requested.split(",")) {
+                String field = name.trim();
+                if (!field.isEmpty() && !fields.contains(field)) {
+                    throw new InvalidFieldsException("Champ inconnu : " + field);
+                }
+                names.add(field);
+            }
+            List<String> selected = fields.stream().filter(names::contains).toList();
+            return selected.size() == fields.size() ? List.of() : selected;
+        }
+    }
+
+    enum Coding {
+        IDENTITY(null), GZIP("gzip"), DEFLATE("deflate");
+
+        final String token;
+
+        Coding(String token) {
+            this.token = token;
+        }
+
+        /**
+         * Variante à renvoyer : gzip de préférence, puis deflate, sinon le JSON brut. Un codage de
+         * qualité {@code q=0} est refusé ; {@code *} accepte tous les codages non cités.
+         */
+        static Coding negotiate(String acceptEncoding) {
+            if (acceptEncoding == null || acceptEncoding.isBlank()) {
+                return IDENTITY;
+            }
+            Boolean gzip = null;
+            Boolean deflate = null;
+            boolean any = false;
+            for (String part : acceptEncoding.split(",")) {
+                String[] params = part.split(";");
+                String name = params[0].trim().toLowerCase();
+                boolean accepted = true;
+                for (int i = 1; i < params.length; i++) {
+                    String param = params[i].trim();
+                    if (param.startsWith("q=")) {
+                        accepted = qualityOf(param.substring(2)) > 0;
+                    }
+                }
+                switch (name) {
+                    case "gzip", "x-gzip" -> gzip = accepted;
+                    case "deflate" -> deflate = accepted;
+                    case "*" -> any = accepted;
+                    default -> { }
+                }
+            }
+            if (gzip != null ? gzip : any) {
+                return GZIP;
+            }
+            if (deflate != null ? deflate : any) {
+                return DEFLATE;
+            }
+            return IDENTITY;
+        }
+
+        private static double qualityOf(String value) {
+            try {
+                return Double.parseDouble(value.trim());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+    }
+
+    private record Key(View view, SupportedLocale locale, List<String> fields) {}
+
+    /**
+     * Encodages d'une liste pour une version du catalogue : le JSON, et ses formes compressées
+     * calculées à la première demande de chaque codage.
+     */
+    private record EncodedBody(String etag, byte[] json, Map<Coding, byte[]> compressed) {
+
+        EncodedBody(String etag, byte[] json) {
+            this(etag, json, new ConcurrentHashMap<>());
+        }
+
+        byte[] bytes(Coding coding) {
+            return switch (coding) {
+                case IDENTITY -> json;
+                case GZIP -> compressed.computeIfAbsent(coding, c -> gzip(json));
+                case DEFLATE -> compressed.computeIfAbsent(coding, c -> deflate(json));
+            };
+        }
+    }
+
+    private final JsonMapper jsonMapper;
+    private final Map<Key, EncodedBody> bodies = Collections.synchronizedMap(
+            new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, EncodedBody> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            });
+
+    CatalogBodies(JsonMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * Réponse 200 portant la liste {@code view} du catalogue, dans l'encodage accepté par le client.
+     *
+     * @param locale         valeur de l'en-tête {@code Accept-Language}, qui a servi à choisir {@code catalog}
+     * @param fields         valeur du paramètre {@code fields}, absente pour tous les champs
+     * @param acceptEncoding valeur de l'en-tête {@code Accept-Encoding}, éventuellement absente
+     * @throws InvalidFieldsException si {@code fields} cite un champ inconnu
+     */
+    ResponseEntity<byte[]> ok(View view, String locale, LocalizedCatalog catalog, CacheControl cacheControl,
+                              String fields, String acceptEncoding) {
+        Key key = new Key(view, SupportedLocale.from(locale), view.select(fields));
+        EncodedBody body = encoded(key, catalog);
+        Coding coding = Coding.negotiate(acceptEncoding);
+        // la liste normalisée elle-même, et non un haché : deux sélections ne partagent jamais un ETag
+        String etag = key.fields().isEmpty() ? catalog.etag()
+                : catalog.etag() + "-f." + String.join(".", key.fields());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(coding == Coding.IDENTITY ? etag : etag + "-" + coding.token)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_LANGUAGE, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (coding != Coding.IDENTITY) {
+            response.header(HttpHeaders.CONTENT_ENCODING, coding.token);
+        }
+        return response.body(body.bytes(coding));
+    }
+
+    /**
+     * Encodage de la liste pour la version de {@code catalog}, calculé au premier appel hors du
+     * verrou du cache. L'entrée d'une version précédente est remplacée, une seule version est
+     * conservée par liste, langue et ensemble de champs.
+     */
+    private EncodedBody encoded(Key key, LocalizedCatalog catalog) {
+        EncodedBody current = bodies.get(key);
+        if (current != null && current.etag().equals(catalog.etag())) {
+            return current;
+        }
+        EncodedBody body = encode(key, catalog);
+        bodies.put(key, body);
+        return body;
+    }
+
+    private EncodedBody encode(Key key, LocalizedCatalog catalog) {
+        List<?> content = key.view().content.apply(catalog);
+        byte[] json;
+        if (key.fields().isEmpty()) {
+            json = jsonMapper.writeValueAsBytes(content);
+        } else {
+            ArrayNode elements = jsonMapper.valueToTree(content);
+            elements.forEach(element -> ((ObjectNode) element).retain(key.fields()));
+            json = jsonMapper.writeValueAsBytes(elements);
+        }
+        return new EncodedBody(catalog.etag(), json);
+    }
+
+    static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (OutputStream gzip = new GZIPOutputStream(out) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    static byte[] deflate(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (OutputStream deflate = new DeflaterOutputStream(out, deflater)) {
+            deflate.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,35 @@
+package dev.jos.back.controller;
+
+import dev.jos.back.service.CatalogSnapshot.LocalizedCatalog;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+
+/**
+ * Réponses des endpoints de lecture du catalogue. Elles portent l'ETag de la version du catalogue :
+ * Spring compare cet ETag à l'en-tête {@code If-None-Match} et répond 304 sans sérialiser le corps.
+ */
+final class CatalogResponses {
+
+    /**
+     * Événements : les places disponibles changent à chaque achat, le client revalide à chaque appel.
+     */
+    static final CacheControl EVENTS = CacheControl.noCache().cachePublic();
+
+    /**
+     * Sports et offres : modifiés seulement par un administrateur.
+     */
+    static final CacheControl REFERENCE_DATA = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic();
+
+    private CatalogResponses() {}
+
+    static <T> ResponseEntity<T> ok(LocalizedCatalog catalog, CacheControl cacheControl, T body) {
+        return ResponseEntity.ok()
+                .eTag(catalog.etag())
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_LANGUAGE)
+                .body(body);
+    }
+}
@@ -6,6 +6,7 @@ import dev.jos.back.dto.payment.TransactionResponseDTO;
 import dev.jos.back.exceptions.cart.CartNotFoundException;
 import dev.jos.back.exceptions.payment.CartAlreadyConvertedException;
 import dev.jos.back.exceptions.payment.CartEmptyException;
+import dev.jos.back.exceptions.payment.IdempotencyKeyConflictException;
 import dev.jos.back.exceptions.payment.PaymentDeclinedException;
 import dev.jos.back.exceptions.payment.TransactionNotFoundException;
 import dev.jos.back.service.ICheckoutService;
@@ -40,22 +41,30 @@ public class CheckoutController {
      * Le résultat dépend du numéro de carte fourni (système mock) :<br>
      * {@code 4242424242424242} → accepté, {@code 4000000000000002} → refusé, etc.
      *
+     * Avec un en-tête {@code Idempotency-Key}, un appel répété reçoit la réponse du premier
+     * sans nouveau paiement.
+     *
      * @param authentication l'objet d'authentification Spring Security injecté automatiquement
+     * @param idempotencyKey clé facultative choisie par le client, identique pour toutes les tentatives d'un même paiement
      * @param dto            les données de paiement (numéro de carte, expiry, CVV, méthode)
      * @return {@code ResponseEntity<TransactionResponseDTO>} contenant la transaction créée
-     * et les billets générés (201 CREATED)
+     * et les billets générés (201 CREATED) ; l'email des billets part en arrière-plan après le commit
      * @throws CartNotFoundException         si aucun panier actif n'existe ou si le panier a expiré
      * @throws CartEmptyException            si le panier est vide
      * @throws CartAlreadyConvertedException si le panier a déjà été converti en commande
      * @throws PaymentDeclinedException      si le paiement est refusé par le système mock
+     * @throws IdempotencyKeyConflictException si la clé a servi pour une autre requête ou si le premier appel est en cours
      */
     @PostMapping
     public ResponseEntity<TransactionResponseDTO> checkout(
             Authentication authentication,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody CheckoutRequestDTO dto
     ) {
         String email = authentication.getName();
-        TransactionResponseDTO transaction = transactionService.checkout(email, dto);
+        TransactionResponseDTO transaction = idempotencyKey == null || idempotencyKey.isBlank()
+                ? transactionService.checkout(email, dto)
+                : transactionService.checkout(email, idempotencyKey, dto);
         return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
     }
 
@@ -97,7 +106,8 @@ public class CheckoutController {
 
     /**
      * Récupère le détail d'une transaction par son identifiant pour la page de confirmation.
-     * L'utilisateur ne peut accéder qu'à ses propres transactions.
+     * L'utilisateur ne peut accéder qu'à ses propres transactions. Le champ {@code deliveryStatus}
+     * indique si l'email contenant les billets, envoyé après le paiement, est parti.
      *
      * @param authentication l'objet d'authentification Spring Security injecté automatiquement
      * @param transactionId  l'identifiant de la transaction à récupérer
@@ -2,23 +2,41 @@ package dev.jos.back.controller;
 
 import dev.jos.back.dto.event.BulkEventResponseDTO;
 import dev.jos.back.dto.event.CreateEventDTO;
+import dev.jos.back.dto.event.EventChangesDTO;
+import dev.jos.back.dto.event.EventFacetsDTO;
 import dev.jos.back.dto.event.EventResponseDTO;
+import dev.jos.back.dto.event.EventSearchCriteria;
+import dev.jos.back.dto.event.EventSearchPageDTO;
 import dev.jos.back.dto.event.UpdateEventDTO;
+import dev.jos.back.exceptions.event.TooManyEventIdsException;
+import dev.jos.back.service.AvailabilityStream;
+import dev.jos.back.service.CatalogSnapshot;
+import dev.jos.back.service.CatalogSnapshot.LocalizedCatalog;
 import dev.jos.back.service.EventService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Contrôleur REST pour la gestion des événements.
  * Fournit des endpoints pour créer, consulter et filtrer les événements.
  * Supporte l'internationalisation via l'en-tête {@code Accept-Language}.
+ * Les lectures sont servies depuis le catalogue en mémoire, avec un ETag : un client qui renvoie
+ * l'ETag reçu dans {@code If-None-Match} obtient un 304 tant que le catalogue n'a pas changé.
+ * Les listes complètes sont renvoyées déjà sérialisées et compressées ({@link CatalogBodies}).
  *
  * @see EventService
+ * @see CatalogSnapshot
  * @see EventResponseDTO
  */
 @RestController
@@ -26,7 +44,12 @@ import java.util.List;
 @RequiredArgsConstructor
 public class EventController {
 
+    static final int MAX_BATCH_SIZE = 100;
+
     private final EventService eventService;
+    private final CatalogSnapshot catalogSnapshot;
+    private final CatalogBodies catalogBodies;
+    private final AvailabilityStream availabilityStream;
 
     /**
      * Crée plusieurs événements en une seule opération.
@@ -61,37 +84,146 @@ public class EventController {
     /**
      * Récupère tous les événements.
      *
+     * @param fields champs à renvoyer pour chaque événement (ex. {@code id,name,eventDate,availableSlots}), tous si absent
      * @param locale locale extraite de l'en-tête {@code Accept-Language} (ex. {@code fr}, {@code en-US})
      */
     @GetMapping("/all")
-    public ResponseEntity<List<EventResponseDTO>> getAll(
-            @RequestHeader(value = "Accept-Language", defaultValue = "fr") String locale) {
-        List<EventResponseDTO> events = eventService.getAll(locale);
-        return ResponseEntity.ok(events);
+    public ResponseEntity<byte[]> getAll(
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = "Accept-Language", defaultValue = "fr") String locale,
+            @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding) {
+        LocalizedCatalog catalog = catalogSnapshot.forLocale(locale);
+        return catalogBodies.ok(CatalogBodies.View.EVENTS, locale, catalog, CatalogResponses.EVENTS, fields, acceptEncoding);
     }
 
     /**
      * Récupère uniquement les événements actifs.
      *
+     * @param fields champs à renvoyer pour chaque événement (ex. {@code id,name,eventDate,availableSlots}), tous si absent
      * @param locale locale extraite de l'en-tête {@code Accept-Language}
      */
     @GetMapping("/active")
-    public ResponseEntity<List<EventResponseDTO>> getActiveEvents(
-            @RequestHeader(value = "Accept-Language", defaultValue = "fr") String locale) {
-        List<EventResponseDTO> events = eventService.getActiveEvents(locale);
-        return ResponseEntity.ok(events);
+    public ResponseEntity<byte[]> getActiveEvents(
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = "Accept-Language", defaultValue = "fr") String locale,
+            @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding) {
+        LocalizedCatalog catalog = catalogSnapshot.forLocale(locale);
+        return catalogBodies.ok(CatalogBodies.View.ACTIVE_EVENTS, locale, catalog, CatalogResponses.EVENTS, fields, acceptEncoding);
     }
 
     /**
      * Récupère uniquement les événements disponibles.
      *
+     * @param fields champs à renvoyer pour chaque événement (ex. {@code id,name,eventDate,availableSlots}), tous si absent
      * @param locale locale extraite de l'en-tête {@code Accept-Language}
      */
     @GetMapping("/available")
-    public ResponseEntity<List<EventResponseDTO>> getAvailableEvents(
+    public ResponseEntity<byte[]> getAvailableEvents(
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = "Accept-Language", defaultValue = "fr") String locale,
+            @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding) {
+        LocalizedCatalog catalog = catalogSnapshot.forLocale(locale);
+        return catalogBodies.ok(CatalogBodies.View.AVAILABLE_EVENTS, locale, catalog, CatalogResponses.EVENTS, fields, acceptEncoding);
+    }
+
+    /**
+     * Recherche paginée des événements actifs, triés par date. Tous les filtres sont facultatifs
+     * (ex. {@code ?sport=Natation&city=Paris&from=2024-07-27T00:00:00&available=true}).
+     *
+     * @param criteria  les filtres de recherche
+     * @param pageToken le {@code nextPageToken} de la page précédente, absent pour la première page
+     * @param limit     le nombre d'événements par page (100 au plus)
+     * @param locale    locale extraite de l'en-tête {@code Accept-Language}
+     * @throws dev.jos.back.exceptions.event.InvalidPageTokenException si le jeton de page est illisible
+     */
+    @GetMapping("/search")
+    public ResponseEntity<EventSearchPageDTO> searchEvents(
+            EventSearchCriteria criteria,
+            @RequestParam(required = false) String pageToken,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestHeader(value = "Accept-Language", defaultValue = "fr") String locale) {
+        return ResponseEntity.ok(eventService.searchEvents(criteria, pageToken, limit, locale));
+    }
+
+    /**
+     * Nombre d'événements actifs par sport, ville, phase et jour, avec les mêmes filtres facultatifs
+     * que la recherche (ex. {@code ?sport=Natation&available=true}). Les compteurs sont lus dans le
+     * catalogue en mémoire, tenu à jour à chaque création, modification, suppression ou vente.
+     *
+     * @param criteria les filtres de recherche
+     * @param locale   locale extraite de l'en-tête {@code Accept-Language}
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<EventFacetsDTO> getFacets(
+            EventSearchCriteria criteria,
+            @RequestHeader(value = "Accept-Language", defaultValue = "fr") String locale) {
+        LocalizedCatalog catalog = catalogSnapshot.forLocale(locale);
+        return CatalogResponses.ok(catalog, CatalogResponses.EVENTS, catalog.facets(criteria));
+    }
+
+    /**
+     * Synchronisation par différence : événements créés ou modifiés et identifiants des événements
+     * supprimés depuis {@code since}. Sans {@code since}, renvoie tout le catalogue. Le client
+     * conserve le {@code cursor} reçu et le renvoie au prochain appel, aussitôt si {@code hasMore}.
+     *
+     * @param since  le {@code cursor} de la réponse précédente, absent pour une première synchronisation
+     * @param locale locale extraite de l'en-tête {@code Accept-Language}
+     * @throws dev.jos.back.exceptions.event.InvalidSyncCursorException si le curseur est illisible
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<EventChangesDTO> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestHeader(value = "Accept-Language", defaultValue = "fr") String locale) {
+        return ResponseEntity.ok(eventService.getChangesSince(since, locale));
+    }
+
+    /**
+     * Flux SSE de la disponibilité des places : des messages {@code availability} portant, pour les
+     * événements dont le stock a changé, les paires {@code {eventId, availableSlots}}, au plus un
+     * message toutes les {@code availability.stream.interval-ms}.
+     */
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability() {
+        return availabilityStream.subscribe();
+    }
+
+    /**
+     * Récupère plusieurs événements en un appel (ex. {@code ?ids=3,1,2}), dans l'ordre demandé, au
+     * plus {@value #MAX_BATCH_SIZE}. Les identifiants inconnus sont ignorés, les doublons renvoyés une
+     * fois. Les événements sont lus dans le catalogue en mémoire ; ceux qui n'y sont pas encore sont
+     * chargés ensemble en une requête.
+     *
+     * @param ids    les identifiants des événements
+     * @param locale locale extraite de l'en-tête {@code Accept-Language}
+     * @throws TooManyEventIdsException si plus de {@value #MAX_BATCH_SIZE} identifiants sont demandés
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<List<EventResponseDTO>> getEventsByIds(
+            @RequestParam(defaultValue = "") List<Long> ids,
             @RequestHeader(value = "Accept-Language", defaultValue = "fr") String locale) {
-        List<EventResponseDTO> events = eventService.getAvailableEvents(locale);
-        return ResponseEntity.ok(events);
+        List<Long> requested = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (requested.size() > MAX_BATCH_SIZE) {
+            throw new TooManyEventIdsException("Au plus " + MAX_BATCH_SIZE + " événements par appel");
+        }
+        LocalizedCatalog catalog = catalogSnapshot.forLocale(locale);
+        Map<Long, EventResponseDTO> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            EventResponseDTO event = catalog.eventsById().get(id);
+            if (event != null) {
+                found.put(id, event);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            eventService.getEventsByIds(missing, locale).forEach(event -> found.put(event.id(), event));
+        }
+        List<EventResponseDTO> events = requested.stream().map(found::get).filter(Objects::nonNull).toList();
+        if (!missing.isEmpty()) {
+            return ResponseEntity.ok(events);
+        }
+        return CatalogResponses.ok(catalog, CatalogResponses.EVENTS, events);
     }
 
     /**
@@ -104,8 +236,12 @@ public class EventController {
     public ResponseEntity<EventResponseDTO> getEventById(
             @PathVariable Long id,
             @RequestHeader(value = "Accept-Language", defaultValue = "fr") String locale) {
-        EventResponseDTO event = eventService.getEventById(id, locale);
-        return ResponseEntity.ok(event);
+        LocalizedCatalog catalog = catalogSnapshot.forLocale(locale);
+        EventResponseDTO event = catalog.eventsById().get(id);
+        if (event == null) {
+            return ResponseEntity.ok(eventService.getEventById(id, locale));
+        }
+        return CatalogResponses.ok(catalog, CatalogResponses.EVENTS, event);
     }
 
     /**
@@ -118,8 +254,8 @@ public class EventController {
     public ResponseEntity<List<EventResponseDTO>> getEventsBySport(
             @PathVariable String sport,
             @RequestHeader(value = "Accept-Language", defaultValue = "fr") String locale) {
-        List<EventResponseDTO> events = eventService.getEventsBySport(sport, locale);
-        return ResponseEntity.ok(events);
+        LocalizedCatalog catalog = catalogSnapshot.forLocale(locale);
+        return CatalogResponses.ok(catalog, CatalogResponses.EVENTS, catalog.eventsOfSport(sport));
     }
 
     /**
@@ -4,6 +4,8 @@ import dev.jos.back.dto.offer.BulkOfferResponseDTO;
 import dev.jos.back.dto.offer.CreateOfferDTO;
 import dev.jos.back.dto.offer.OfferResponseDTO;
 import dev.jos.back.dto.offer.UpdateOfferDTO;
+import dev.jos.back.service.CatalogSnapshot;
+import dev.jos.back.service.CatalogSnapshot.LocalizedCatalog;
 import dev.jos.back.service.OfferService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -16,8 +18,10 @@ import java.util.List;
 /**
  * Contrôleur REST pour la gestion des offres.
  * Permet de créer et consulter les différentes offres disponibles.
+ * Les lectures sont servies depuis le catalogue en mémoire, avec un ETag.
  *
  * @see OfferService
+ * @see CatalogSnapshot
  * @see OfferResponseDTO
  */
 @RestController
@@ -25,6 +29,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OfferController {
     private final OfferService offerService;
+    private final CatalogSnapshot catalogSnapshot;
+    private final CatalogBodies catalogBodies;
 
     /**
      * Créer en masse les offres.
@@ -72,13 +78,16 @@ public class OfferController {
     /**
      * Récupère tous les types d'offres.
      *
-     * @return {@code ResponseEntity<List<OfferResponseDTO>>} contenant la liste complète
-     * de toutes les offres
+     * @param fields champs à renvoyer pour chaque élément (ex. {@code id,name}), tous si absent
+     * @return la liste complète des offres ({@code List<OfferResponseDTO>} en JSON), éventuellement compressée
      */
     @GetMapping("/all")
-    public ResponseEntity<List<OfferResponseDTO>> getAllOfferTypes(
-            @RequestHeader(value = "Accept-Language", defaultValue = "fr") String locale) {
-        return ResponseEntity.ok(offerService.getAllOfferTypes(locale));
+    public ResponseEntity<byte[]> getAllOfferTypes(
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = "Accept-Language", defaultValue = "fr") String locale,
+            @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding) {
+        LocalizedCatalog catalog = catalogSnapshot.forLocale(locale);
+        return catalogBodies.ok(CatalogBodies.View.OFFERS, locale, catalog, CatalogResponses.REFERENCE_DATA, fields, acceptEncoding);
     }
 
     /**
@@ -0,0 +1,52 @@
+package dev.jos.back.controller;
+
+import dev.jos.back.config.QueueAdmissionFilter;
+import dev.jos.back.dto.queue.QueueStatusDTO;
+import dev.jos.back.exceptions.queue.InvalidQueueTokenException;
+import dev.jos.back.service.WaitingRoomService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Contrôleur REST de la salle d'attente virtuelle.
+ * L'entrée dans la file relit l'événement pour vérifier qu'il est en vente ; la consultation du
+ * rang n'accède pas à la base et peut être interrogée massivement pendant une ouverture de vente.
+ *
+ * @see WaitingRoomService
+ */
+@RestController
+@RequestMapping("/api/queue")
+@RequiredArgsConstructor
+public class QueueController {
+
+    private final WaitingRoomService waitingRoomService;
+
+    /**
+     * Place l'utilisateur authentifié dans la file d'attente d'un événement en vente.
+     *
+     * @param authentication l'objet d'authentification Spring Security injecté automatiquement
+     * @param eventId        l'identifiant de l'événement
+     * @return {@code ResponseEntity<QueueStatusDTO>} contenant le jeton et le rang attribué (201 CREATED)
+     * @throws dev.jos.back.exceptions.event.EventNotFoundException si l'événement n'existe pas ou n'est pas en vente
+     */
+    @PostMapping("/events/{eventId}")
+    public ResponseEntity<QueueStatusDTO> join(Authentication authentication, @PathVariable Long eventId) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(waitingRoomService.join(eventId, authentication.getName()));
+    }
+
+    /**
+     * Indique si le porteur du jeton est admis et, sinon, l'attente estimée.
+     *
+     * @param token le jeton reçu à l'entrée dans la file
+     * @return {@code ResponseEntity<QueueStatusDTO>} contenant la situation courante (200 OK)
+     * @throws InvalidQueueTokenException si le jeton est absent, altéré ou expiré
+     */
+    @GetMapping("/status")
+    public ResponseEntity<QueueStatusDTO> status(
+            @RequestHeader(value = QueueAdmissionFilter.TOKEN_HEADER, required = false) String token) {
+        return ResponseEntity.ok(waitingRoomService.status(token));
+    }
+}
@@ -4,6 +4,8 @@ import dev.jos.back.dto.sport.BulkSportResponseDTO;
 import dev.jos.back.dto.sport.CreateSportDTO;
 import dev.jos.back.dto.sport.SportResponseDTO;
 import dev.jos.back.dto.sport.UpdateSportDTO;
+import dev.jos.back.service.CatalogSnapshot;
+import dev.jos.back.service.CatalogSnapshot.LocalizedCatalog;
 import dev.jos.back.service.SportService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -16,8 +18,10 @@ import java.util.List;
 /**
  * Contrôleur REST pour la gestion des sports.
  * Fournit des endpoints pour créer, consulter et filtrer les sports.
+ * Les lectures sont servies depuis le catalogue en mémoire, avec un ETag.
  *
  * @see SportService
+ * @see CatalogSnapshot
  * @see SportResponseDTO
  */
 @RestController
@@ -26,16 +30,22 @@ import java.util.List;
 public class SportController {
 
     private final SportService sportService;
+    private final CatalogSnapshot catalogSnapshot;
+    private final CatalogBodies catalogBodies;
 
     /**
      * Récupère la liste de tous les sports disponibles.
      *
-     * @return {@code ResponseEntity<List<SportResponseDTO>>} contenant la liste complète des sports
+     * @param fields champs à renvoyer pour chaque élément (ex. {@code id,name}), tous si absent
+     * @return la liste complète des sports ({@code List<SportResponseDTO>} en JSON), éventuellement compressée
      */
     @GetMapping
-    public ResponseEntity<List<SportResponseDTO>> getAllSports(
-            @RequestHeader(value = "Accept-Language", defaultValue = "fr") String locale) {
-        return ResponseEntity.ok(sportService.getAllSports(locale));
+    public ResponseEntity<byte[]> getAllSports(
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = "Accept-Language", defaultValue = "fr") String locale,
+            @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding) {
+        LocalizedCatalog catalog = catalogSnapshot.forLocale(locale);
+        return catalogBodies.ok(CatalogBodies.View.SPORTS, locale, catalog, CatalogResponses.REFERENCE_DATA, fields, acceptEncoding);
     }
 
     /**
@@ -48,8 +58,12 @@ public class SportController {
     public ResponseEntity<SportResponseDTO> getSport(
             @PathVariable Long id,
             @RequestHeader(value = "Accept-Language", defaultValue = "fr") String locale) {
-        SportResponseDTO sport = sportService.getSportById(id, locale);
-        return ResponseEntity.ok(sport);
+        LocalizedCatalog catalog = catalogSnapshot.forLocale(locale);
+        SportResponseDTO sport = catalog.sportsById().get(id);
+        if (sport == null) {
+            return ResponseEntity.ok(sportService.getSportById(id, locale));
+        }
+        return CatalogResponses.ok(catalog, CatalogResponses.REFERENCE_DATA, sport);
     }
 
     /**
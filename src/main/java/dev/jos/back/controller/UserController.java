@@ -4,11 +4,15 @@ import dev.jos.back.dto.user.*;
 import dev.jos.back.exceptions.user.InvalidPasswordException;
 import dev.jos.back.exceptions.user.UserAlreadyExistsException;
 import dev.jos.back.exceptions.user.UserNotFoundException;
+import dev.jos.back.entities.User;
+import dev.jos.back.service.CookieService;
+import dev.jos.back.service.JwtService;
 import dev.jos.back.service.UserService;
 import dev.jos.back.util.enums.TokenValidationResult;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -29,6 +33,8 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final JwtService jwtService;
+    private final CookieService cookieService;
 
     /**
      * Récupère les informations de l'utilisateur actuellement authentifié.
@@ -55,7 +61,8 @@ public class UserController {
      *
      * @param auth    l'objet d'authentification Spring Security contenant l'email de l'utilisateur
      * @param request l'objet contenant l'ancien mot de passe et le nouveau mot de passe
-     * @return {@code ResponseEntity<Void>} vide (204 No Content) en cas de succès
+     * @return {@code ResponseEntity<Void>} vide (204 No Content) en cas de succès, avec de nouveaux
+     * cookies JWT ; les jetons émis auparavant, sur tous les appareils, sont révoqués
      * @throws InvalidPasswordException                        si le mot de passe actuel fourni est incorrect
      * @throws UserNotFoundException                           si l'utilisateur n'existe pas ou a été supprimé
      * @throws jakarta.validation.ConstraintViolationException si le nouveau mot de passe
@@ -68,8 +75,14 @@ public class UserController {
         String oldPassword = request.oldPassword();
         String newPassword = request.newPassword();
 
-        userService.updatePassword(email, oldPassword, newPassword);
-        return ResponseEntity.noContent().build();
+        User user = userService.updatePassword(email, oldPassword, newPassword);
+        // les jetons précédents sont révoqués : la session courante reçoit des jetons neufs
+        return ResponseEntity.noContent()
+                .header(HttpHeaders.SET_COOKIE,
+                        cookieService.createAccessTokenCookie(jwtService.generateAccessToken(user)).toString())
+                .header(HttpHeaders.SET_COOKIE,
+                        cookieService.createRefreshTokenCookie(jwtService.generateRefreshToken(user)).toString())
+                .build();
     }
 
 
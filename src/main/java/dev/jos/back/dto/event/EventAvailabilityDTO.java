@@ -0,0 +1,10 @@
+package dev.jos.back.dto.event;
+
+/**
+ * Nouvelle disponibilité d'un événement, poussée par le flux {@code /api/events/availability/stream}.
+ */
+public record EventAvailabilityDTO(
+        Long eventId,
+        Integer availableSlots
+) {
+}
@@ -0,0 +1,19 @@
+package dev.jos.back.dto.event;
+
+import java.util.List;
+
+/**
+ * Modifications du catalogue d'événements depuis un curseur de synchronisation.
+ *
+ * @param events  les événements créés ou modifiés, dans leur état actuel
+ * @param deleted les identifiants des événements supprimés
+ * @param cursor  curseur à renvoyer au prochain appel
+ * @param hasMore {@code true} si d'autres modifications attendent déjà : rappeler aussitôt avec {@code cursor}
+ */
+public record EventChangesDTO(
+        List<EventResponseDTO> events,
+        List<Long> deleted,
+        String cursor,
+        boolean hasMore
+) {
+}
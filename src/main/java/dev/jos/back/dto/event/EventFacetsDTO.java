@@ -0,0 +1,56 @@
+package dev.jos.back.dto.event;
+
+import dev.jos.back.util.enums.Phases;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Nombre d'événements par valeur de chaque critère de recherche. Les valeurs sont triées ; un
+ * événement sans ville, phase ou date n'est compté que dans {@code total}.
+ *
+ * @param total     le nombre d'événements comptés
+ * @param available le nombre de ces événements où il reste des places
+ * @param sports    le nombre d'événements par sport
+ * @param cities    le nombre d'événements par ville
+ * @param phases    le nombre d'événements par phase de compétition
+ * @param dates     le nombre d'événements par jour
+ */
+public record EventFacetsDTO(
+        int total,
+        int available,
+        Map<String, Integer> sports,
+        Map<String, Integer> cities,
+        Map<Phases, Integer> phases,
+        Map<LocalDate, Integer> dates
+) {
+
+    public static EventFacetsDTO of(Collection<EventResponseDTO> events) {
+        int available = 0;
+        Map<String, Integer> sports = new TreeMap<>();
+        Map<String, Integer> cities = new TreeMap<>();
+        Map<Phases, Integer> phases = new TreeMap<>();
+        Map<LocalDate, Integer> dates = new TreeMap<>();
+        for (EventResponseDTO event : events) {
+            if (event.availableSlots() != null && event.availableSlots() > 0) {
+                available++;
+            }
+            count(sports, event.sport());
+            count(cities, event.city());
+            count(phases, event.phase());
+            count(dates, event.eventDate() == null ? null : event.eventDate().toLocalDate());
+        }
+        return new EventFacetsDTO(events.size(), available, Collections.unmodifiableMap(sports),
+                Collections.unmodifiableMap(cities), Collections.unmodifiableMap(phases),
+                Collections.unmodifiableMap(dates));
+    }
+
+    private static <K> void count(Map<K, Integer> counts, K value) {
+        if (value != null) {
+            counts.merge(value, 1, Integer::sum);
+        }
+    }
+}
@@ -21,4 +21,9 @@ public record EventResponseDTO(
         Boolean isActive,
         String sport
 ) {
+
+    public EventResponseDTO withAvailableSlots(Integer availableSlots) {
+        return new EventResponseDTO(id, name, description, icon, category, phase, location, city,
+                eventDate, capacity, availableSlots, isActive, sport);
+    }
 }
\ No newline at end of file
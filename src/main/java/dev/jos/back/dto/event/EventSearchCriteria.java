@@ -0,0 +1,51 @@
+package dev.jos.back.dto.event;
+
+import dev.jos.back.util.enums.Phases;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtres de la recherche d'événements, tous facultatifs.
+ *
+ * @param sport     le nom du sport
+ * @param city      la ville
+ * @param phase     la phase de compétition
+ * @param category  la catégorie
+ * @param from      date de début incluse
+ * @param to        date de fin exclue
+ * @param available {@code true} pour ne garder que les événements où il reste des places
+ */
+public record EventSearchCriteria(
+        String sport,
+        String city,
+        Phases phase,
+        String category,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+        Boolean available
+) {
+
+    /**
+     * Vrai si aucun filtre n'est renseigné.
+     */
+    public boolean isEmpty() {
+        return sport == null && city == null && phase == null && category == null
+                && from == null && to == null && !Boolean.TRUE.equals(available);
+    }
+
+    /**
+     * Applique les filtres à un événement déjà chargé, avec les mêmes règles que la recherche en base
+     * ({@link dev.jos.back.repository.EventSpecifications#matching}), événements actifs compris.
+     */
+    public boolean matches(EventResponseDTO event) {
+        return Boolean.TRUE.equals(event.isActive())
+                && (sport == null || sport.equals(event.sport()))
+                && (city == null || city.equals(event.city()))
+                && (phase == null || phase == event.phase())
+                && (category == null || category.equals(event.category()))
+                && (from == null || event.eventDate() != null && !event.eventDate().isBefore(from))
+                && (to == null || event.eventDate() != null && event.eventDate().isBefore(to))
+                && (!Boolean.TRUE.equals(available) || event.availableSlots() != null && event.availableSlots() > 0);
+    }
+}
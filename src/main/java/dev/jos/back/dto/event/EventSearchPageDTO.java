@@ -0,0 +1,15 @@
+package dev.jos.back.dto.event;
+
+import java.util.List;
+
+/**
+ * Page de résultats de la recherche d'événements.
+ *
+ * @param events        les événements de la page, triés par date puis identifiant
+ * @param nextPageToken jeton à renvoyer pour obtenir la page suivante, {@code null} sur la dernière page
+ */
+public record EventSearchPageDTO(
+        List<EventResponseDTO> events,
+        String nextPageToken
+) {
+}
@@ -16,6 +16,7 @@ import java.util.List;
  * @param paymentReference la référence de paiement lisible (ex: REF-A1B2C3D4)
  * @param payedDate        la date et heure du paiement (null si FAILED)
  * @param tickets          la liste des billets générés (vide si FAILED)
+ * @param deliveryStatus   l'état de l'envoi des billets par email ({@code PENDING}, {@code SENDING}, {@code SENT} ou {@code FAILED})
  */
 @Builder
 public record TransactionResponseDTO(
@@ -25,5 +26,6 @@ public record TransactionResponseDTO(
         BigDecimal amount,
         String paymentReference,
         LocalDateTime payedDate,
-        List<TicketResponseDTO> tickets
+        List<TicketResponseDTO> tickets,
+        String deliveryStatus
 ) {}
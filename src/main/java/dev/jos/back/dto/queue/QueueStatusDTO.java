@@ -0,0 +1,20 @@
+package dev.jos.back.dto.queue;
+
+/**
+ * DTO représentant la place d'un acheteur dans la file d'attente d'un événement.
+ *
+ * @param token                le jeton signé à renvoyer dans l'en-tête {@code X-Queue-Token}
+ * @param eventId              l'événement concerné
+ * @param position             le rang de l'acheteur dans la file
+ * @param admittedUpTo         le dernier rang admis à ce jour
+ * @param admitted             {@code true} si l'acheteur peut accéder au panier et au paiement
+ * @param estimatedWaitSeconds l'attente estimée avant admission, 0 si déjà admis
+ */
+public record QueueStatusDTO(
+        String token,
+        Long eventId,
+        long position,
+        long admittedUpTo,
+        boolean admitted,
+        long estimatedWaitSeconds
+) {}
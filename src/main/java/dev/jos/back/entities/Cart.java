@@ -41,12 +41,7 @@ public class Cart {
     @OneToOne(mappedBy = "cart")
     private Transaction transaction;
 
-    public boolean expireIfNeeded() {
-        if (expiresAt == null) return false;
-        if (LocalDateTime.now().isAfter(expiresAt)) {
-            this.status = CartStatus.ABANDONED;
-            return true;
-        }
-        return false;
+    public boolean isExpired() {
+        return expiresAt != null && LocalDateTime.now().isAfter(expiresAt);
     }
 }
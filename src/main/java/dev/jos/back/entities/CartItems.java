@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 @Table(name = "cart_items")
 public class CartItems {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_items_seq")
+    @SequenceGenerator(name = "cart_items_seq", sequenceName = "cart_items_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
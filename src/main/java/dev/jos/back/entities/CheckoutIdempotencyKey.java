@@ -0,0 +1,52 @@
+package dev.jos.back.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "checkout_idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "idempotency_key"}))
+public class CheckoutIdempotencyKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    /**
+     * Réponse du premier appel sérialisée en JSON ; {@code null} tant que ce checkout est en cours.
+     */
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    /**
+     * Acceptation du paiement par la passerelle ; une clé payée n'est jamais libérée ni reprise.
+     */
+    @Column(name = "paid_at")
+    private LocalDateTime paidAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -7,12 +7,19 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.Set;
 
+/**
+ * Événement sportif. {@link DynamicUpdate} limite l'UPDATE aux colonnes modifiées : une mise à jour
+ * d'administration ne réécrit pas {@code available_slots} avec la valeur lue au chargement, ce qui
+ * effacerait les places prises entre-temps par {@code reserveSlots}/{@code adjustSlots}.
+ */
 @Entity
+@DynamicUpdate
 @Data
 @Builder
 @AllArgsConstructor
@@ -0,0 +1,39 @@
+package dev.jos.back.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trace d'un événement supprimé, renvoyée aux clients qui synchronisent le catalogue par différence
+ * pour qu'ils retirent l'événement de leur copie locale.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "event_deletions")
+public class EventDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Identifiant de l'événement supprimé ; sans clé étrangère, la ligne n'existant plus.
+     */
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @CreationTimestamp
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
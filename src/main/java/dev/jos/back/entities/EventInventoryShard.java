@@ -0,0 +1,32 @@
+package dev.jos.back.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "event_inventory_shards",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"event_id", "shard_no"}))
+public class EventInventoryShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "event_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Event event;
+
+    @Column(name = "shard_no", nullable = false)
+    private Integer shardNo;
+
+    @Column(nullable = false)
+    private Integer availableSlots;
+}
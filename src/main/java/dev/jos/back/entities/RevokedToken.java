@@ -0,0 +1,41 @@
+package dev.jos.back.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Jeton révoqué avant son expiration (déconnexion), identifié par son {@code jti}.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_id", nullable = false, length = 36)
+    private String tokenId;
+
+    /**
+     * Expiration du jeton : passé cette date, il est refusé de toute façon et la ligne peut être supprimée.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+}
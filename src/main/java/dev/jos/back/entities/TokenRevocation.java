@@ -0,0 +1,45 @@
+package dev.jos.back.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trace d'un changement de version des jetons d'un utilisateur, relue par chaque instance pour
+ * refuser les jetons d'accès émis avant ce changement.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "token_revocations")
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Identifiant de l'utilisateur ; sans clé étrangère, l'utilisateur pouvant avoir été supprimé.
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Plus petite version de jeton encore acceptée pour cet utilisateur.
+     */
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
+    @CreationTimestamp
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+}
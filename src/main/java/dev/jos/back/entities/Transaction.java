@@ -1,5 +1,6 @@
 package dev.jos.back.entities;
 
+import dev.jos.back.util.enums.DeliveryStatus;
 import dev.jos.back.util.enums.PaymentMethod;
 import dev.jos.back.util.enums.TransactionStatus;
 import jakarta.persistence.*;
@@ -19,7 +20,8 @@ import java.util.Set;
 @Table(name = "transactions")
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
     private String transactionKey;
@@ -40,6 +42,13 @@ public class Transaction {
     private LocalDateTime payedDate;
     private LocalDateTime cancelledDate;
 
+    @Enumerated(EnumType.STRING)
+    private DeliveryStatus deliveryStatus;
+
+    @Column(nullable = false)
+    private int deliveryAttempts;
+
+    private LocalDateTime deliveryClaimedAt;
 
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
@@ -40,6 +40,12 @@ public class User {
     @Column(length = 5, nullable = false)
     private String locale = "fr";
 
+    /**
+     * Version des jetons d'accès de l'utilisateur : les jetons émis avec une version antérieure sont refusés.
+     */
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
     @CreationTimestamp
     private LocalDateTime createdDate;
     @UpdateTimestamp
@@ -0,0 +1,14 @@
+package dev.jos.back.exceptions.auth;
+
+import lombok.Getter;
+
+@Getter
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public PasswordHashingBusyException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
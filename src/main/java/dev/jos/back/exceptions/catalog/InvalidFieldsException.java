@@ -0,0 +1,10 @@
+package dev.jos.back.exceptions.catalog;
+
+/**
+ * Exception levée lorsque le paramètre {@code fields} d'une liste du catalogue cite un champ inconnu.
+ */
+public class InvalidFieldsException extends RuntimeException {
+    public InvalidFieldsException(String message) {
+        super(message);
+    }
+}
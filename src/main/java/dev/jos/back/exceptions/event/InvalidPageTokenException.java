@@ -0,0 +1,10 @@
+package dev.jos.back.exceptions.event;
+
+/**
+ * Exception levée lorsqu'un jeton de page de la recherche d'événements est illisible.
+ */
+public class InvalidPageTokenException extends RuntimeException {
+    public InvalidPageTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package dev.jos.back.exceptions.event;
+
+/**
+ * Exception levée lorsqu'un curseur de synchronisation des événements est illisible.
+ */
+public class InvalidSyncCursorException extends RuntimeException {
+    public InvalidSyncCursorException(String message) {
+        super(message);
+    }
+}
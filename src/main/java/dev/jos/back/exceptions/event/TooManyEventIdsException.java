@@ -0,0 +1,10 @@
+package dev.jos.back.exceptions.event;
+
+/**
+ * Exception levée lorsqu'une lecture groupée d'événements demande trop d'identifiants à la fois.
+ */
+public class TooManyEventIdsException extends RuntimeException {
+    public TooManyEventIdsException(String message) {
+        super(message);
+    }
+}
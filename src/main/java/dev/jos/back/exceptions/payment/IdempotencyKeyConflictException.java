@@ -0,0 +1,11 @@
+package dev.jos.back.exceptions.payment;
+
+/**
+ * Exception levée lorsqu'une clé Idempotency-Key est réutilisée pour une autre requête de paiement,
+ * ou alors que le premier checkout portant cette clé est encore en cours.
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+}
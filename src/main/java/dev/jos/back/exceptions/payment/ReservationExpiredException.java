@@ -0,0 +1,11 @@
+package dev.jos.back.exceptions.payment;
+
+/**
+ * Exception levée lorsqu'un paiement aboutit alors que la réservation des places
+ * a déjà été libérée (délai de paiement dépassé).
+ */
+public class ReservationExpiredException extends RuntimeException {
+    public ReservationExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package dev.jos.back.exceptions.queue;
+
+/**
+ * Exception levée lorsqu'un jeton de file d'attente est absent, altéré ou expiré.
+ */
+public class InvalidQueueTokenException extends RuntimeException {
+    public InvalidQueueTokenException(String message) {
+        super(message);
+    }
+}
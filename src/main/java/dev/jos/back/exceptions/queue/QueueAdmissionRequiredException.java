@@ -0,0 +1,11 @@
+package dev.jos.back.exceptions.queue;
+
+/**
+ * Exception levée lorsqu'une requête prend des places pour un événement sans avoir présenté de
+ * jeton de file d'attente admis pour cet événement.
+ */
+public class QueueAdmissionRequiredException extends RuntimeException {
+    public QueueAdmissionRequiredException(String message) {
+        super(message);
+    }
+}
@@ -71,6 +71,7 @@ public class TicketMapper {
                 .paymentReference(transaction.getPaymentReference())
                 .payedDate(transaction.getPayedDate())
                 .tickets(tickets.stream().map(this::toTicketResponseDTO).toList())
+                .deliveryStatus(transaction.getDeliveryStatus() != null ? transaction.getDeliveryStatus().name() : null)
                 .build();
     }
 
@@ -13,6 +13,18 @@ public class JwtProperties {
     private AccessToken accessToken;
     private RefreshToken refreshToken;
 
+    /**
+     * Authentifie les requêtes à partir du contenu vérifié du jeton d'accès, sans relire l'utilisateur
+     * en base ; les jetons révoqués sont refusés par {@link dev.jos.back.service.TokenRevocationService}.
+     */
+    private boolean stateless;
+
+    /**
+     * Nombre maximal de jetons d'accès vérifiés gardés en mémoire par {@link dev.jos.back.service.JwtService} ;
+     * 0 pour vérifier chaque jeton à chaque requête.
+     */
+    private int claimsCacheSize;
+
     @Data
     public static class AccessToken {
         private Long expiration;
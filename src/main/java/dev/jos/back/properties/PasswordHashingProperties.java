@@ -0,0 +1,19 @@
+package dev.jos.back.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "password-hashing")
+@Data
+public class PasswordHashingProperties {
+
+    /**
+     * Coût BCrypt des nouveaux hachages ; un hachage de coût inférieur est recalculé à la connexion.
+     */
+    private int strength = 10;
+    private int poolSize = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private int queueCapacity = 64;
+    private int retryAfterSeconds = 2;
+}
@@ -0,0 +1,17 @@
+package dev.jos.back.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "queue")
+@Data
+public class QueueProperties {
+
+    private boolean enabled = false;
+    private String secret;
+    private double admitPerSecond = 50;
+    private int burst = 200;
+    private long tokenTtlMinutes = 60;
+}
@@ -0,0 +1,17 @@
+package dev.jos.back.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "ticket-delivery")
+@Data
+public class TicketDeliveryProperties {
+
+    private int corePoolSize = 2;
+    private int maxPoolSize = 4;
+    private int queueCapacity = 500;
+    private long retryAfterMinutes = 10;
+    private int maxAttempts = 5;
+}
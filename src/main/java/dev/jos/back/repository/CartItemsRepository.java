@@ -4,10 +4,26 @@ import dev.jos.back.entities.Cart;
 import dev.jos.back.entities.CartItems;
 import dev.jos.back.entities.Event;
 import dev.jos.back.entities.Offer;
+import dev.jos.back.util.enums.CartStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CartItemsRepository extends JpaRepository<CartItems, Long> {
     Optional<CartItems> findByCartAndEventAndOffer(Cart cart, Event event, Offer offer);
+
+    /**
+     * Places bloquées par événement pour les paniers dans l'un des statuts donnés.
+     *
+     * @return des paires {@code [eventId, places]}
+     */
+    @Query("""
+            SELECT i.event.id, SUM(i.quantity * i.offer.numberOfTickets) FROM CartItems i
+            WHERE i.cart.status IN :statuses GROUP BY i.event.id
+            """)
+    List<Object[]> sumSeatsPerEventByCartStatus(@Param("statuses") Collection<CartStatus> statuses);
 }
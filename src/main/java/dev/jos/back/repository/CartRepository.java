@@ -4,9 +4,12 @@ import dev.jos.back.entities.Cart;
 import dev.jos.back.entities.User;
 import dev.jos.back.util.enums.CartStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
@@ -14,4 +17,30 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
 
     @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.cartItems WHERE c.id = :id")
     Optional<Cart> findByIdWithItems(@Param("id") Long id);
+
+    List<Cart> findByStatusAndExpiresAtBefore(CartStatus status, LocalDateTime threshold);
+
+    /**
+     * Prolonge un panier encore actif. La mise à jour verrouille la ligne du panier, ce qui
+     * sérialise les modifications du panier avec son abandon par le balayage.
+     *
+     * @return 1 si le panier a été prolongé, 0 s'il n'est plus actif
+     */
+    @Modifying
+    @Query("UPDATE Cart c SET c.expiresAt = :expiresAt WHERE c.id = :id AND c.status = :active")
+    int extendExpiry(@Param("id") Long id, @Param("expiresAt") LocalDateTime expiresAt,
+                     @Param("active") CartStatus active);
+
+    /**
+     * Abandonne un panier seulement s'il est encore actif et toujours expiré.
+     *
+     * @return 1 si le panier a été abandonné, 0 sinon
+     */
+    @Modifying
+    @Query("""
+            UPDATE Cart c SET c.status = :abandoned
+            WHERE c.id = :id AND c.status = :active AND c.expiresAt < :now
+            """)
+    int abandonIfExpired(@Param("id") Long id, @Param("now") LocalDateTime now,
+                         @Param("active") CartStatus active, @Param("abandoned") CartStatus abandoned);
 }
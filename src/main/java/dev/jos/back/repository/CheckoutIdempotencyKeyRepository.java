@@ -0,0 +1,49 @@
+package dev.jos.back.repository;
+
+import dev.jos.back.entities.CheckoutIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface CheckoutIdempotencyKeyRepository extends JpaRepository<CheckoutIdempotencyKey, Long> {
+
+    Optional<CheckoutIdempotencyKey> findByUser_EmailAndIdempotencyKey(String email, String idempotencyKey);
+
+    @Modifying
+    @Query("UPDATE CheckoutIdempotencyKey k SET k.responseBody = :body WHERE k.id = :id")
+    int storeResponse(@Param("id") Long id, @Param("body") String body);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE CheckoutIdempotencyKey k SET k.paidAt = :paidAt WHERE k.id = :id")
+    int markPaid(@Param("id") Long id, @Param("paidAt") LocalDateTime paidAt);
+
+    /**
+     * Reprend une clé restée en cours depuis {@code staleBefore} sans paiement enregistré.
+     * Atomique : entre deux appels concurrents, un seul obtient 1.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE CheckoutIdempotencyKey k SET k.startedAt = :now
+            WHERE k.id = :id AND k.responseBody IS NULL AND k.paidAt IS NULL AND k.startedAt < :staleBefore
+            """)
+    int takeOverStale(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Supprime une clé expirée avant qu'elle ne soit réutilisée ; sans effet si elle ne l'est pas.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CheckoutIdempotencyKey k WHERE k.id = :id AND k.expiresAt < :now")
+    int deleteIfExpired(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM CheckoutIdempotencyKey k WHERE k.expiresAt < :threshold")
+    int deleteExpired(@Param("threshold") LocalDateTime threshold);
+}
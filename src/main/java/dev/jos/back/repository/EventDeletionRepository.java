@@ -0,0 +1,23 @@
+package dev.jos.back.repository;
+
+import dev.jos.back.entities.EventDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EventDeletionRepository extends JpaRepository<EventDeletion, Long> {
+
+    @Query("SELECT d FROM EventDeletion d WHERE d.id > :afterId AND d.deletedAt < :until ORDER BY d.id")
+    List<EventDeletion> findAfter(@Param("afterId") Long afterId,
+                                  @Param("until") LocalDateTime until,
+                                  Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(d.id), 0) FROM EventDeletion d WHERE d.deletedAt < :until")
+    Long findLastIdBefore(@Param("until") LocalDateTime until);
+}
@@ -0,0 +1,59 @@
+package dev.jos.back.repository;
+
+import dev.jos.back.entities.EventInventoryShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface EventInventoryShardRepository extends JpaRepository<EventInventoryShard, Long> {
+
+    long countByEvent_Id(Long eventId);
+
+    /**
+     * Prend des places sur un seul shard, uniquement s'il en reste assez.
+     *
+     * @return le nombre de lignes modifiées (0 si ce shard n'a plus assez de places)
+     */
+    @Modifying
+    @Query("""
+            UPDATE EventInventoryShard s SET s.availableSlots = s.availableSlots - :quantity
+            WHERE s.event.id = :eventId AND s.shardNo = :shardNo AND s.availableSlots >= :quantity
+            """)
+    int claim(@Param("eventId") Long eventId, @Param("shardNo") int shardNo, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("""
+            UPDATE EventInventoryShard s SET s.availableSlots = s.availableSlots + :quantity
+            WHERE s.event.id = :eventId AND s.shardNo = :shardNo
+            """)
+    int release(@Param("eventId") Long eventId, @Param("shardNo") int shardNo, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("""
+            UPDATE EventInventoryShard s SET s.availableSlots = :slots
+            WHERE s.event.id = :eventId AND s.shardNo = :shardNo
+            """)
+    int setSlots(@Param("eventId") Long eventId, @Param("shardNo") int shardNo, @Param("slots") int slots);
+
+    /**
+     * @return des paires {@code [eventId, somme des places des shards]}
+     */
+    @Query("SELECT s.event.id, SUM(s.availableSlots) FROM EventInventoryShard s WHERE s.event.id IN :eventIds GROUP BY s.event.id")
+    List<Object[]> sumSlotsByEventIds(@Param("eventIds") Collection<Long> eventIds);
+
+    /**
+     * Verrouille tous les shards d'un événement, toujours dans le même ordre, et lit leur stock
+     * directement en base.
+     *
+     * @return des paires {@code [shardNo, availableSlots]}
+     */
+    @Query(value = """
+            SELECT shard_no, available_slots FROM event_inventory_shards
+            WHERE event_id = :eventId ORDER BY shard_no FOR UPDATE
+            """, nativeQuery = true)
+    List<Object[]> lockSlotsByEventId(@Param("eventId") Long eventId);
+}
@@ -1,16 +1,74 @@
 package dev.jos.back.repository;
 
+import dev.jos.back.dto.event.EventResponseDTO;
 import dev.jos.back.entities.Event;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
+
+    /**
+     * Événements directement sous forme de {@link EventResponseDTO}, traduits dans {@code :locale} :
+     * le nom du sport et la traduction viennent de la même requête, sans charger d'entité.
+     * Sans traduction dans la langue demandée (dont le français, langue de référence), les textes
+     * d'origine sont renvoyés.
+     */
+    String LOCALIZED_EVENTS = """
+            SELECT new dev.jos.back.dto.event.EventResponseDTO(
+                e.id, COALESCE(t.name, e.name), COALESCE(t.description, e.description), e.icon, e.category,
+                e.phase, e.location, e.city, e.eventDate, e.capacity, e.availableSlots, e.isActive, s.name)
+            FROM Event e
+            LEFT JOIN e.sport s
+            LEFT JOIN EventTranslation t ON t.event = e AND t.locale = :locale
+            """;
+
+    @Query(LOCALIZED_EVENTS)
+    List<EventResponseDTO> findAllLocalized(@Param("locale") String locale);
+
+    @Query(LOCALIZED_EVENTS + "WHERE e.isActive = true")
+    List<EventResponseDTO> findActiveLocalized(@Param("locale") String locale);
+
+    @Query(LOCALIZED_EVENTS + "WHERE e.isActive = true AND e.availableSlots > 0")
+    List<EventResponseDTO> findAvailableLocalized(@Param("locale") String locale);
+
+    @Query(LOCALIZED_EVENTS + "WHERE s.name = :sport")
+    List<EventResponseDTO> findLocalizedBySportName(@Param("sport") String sport, @Param("locale") String locale);
+
+    @Query(LOCALIZED_EVENTS + "WHERE e.id = :id")
+    Optional<EventResponseDTO> findLocalizedById(@Param("id") Long id, @Param("locale") String locale);
+
+    @Query(LOCALIZED_EVENTS + "WHERE e.id IN :ids")
+    List<EventResponseDTO> findLocalizedByIds(@Param("ids") Collection<Long> ids, @Param("locale") String locale);
+
+    /**
+     * Clés {@code (updatedAt, id)} des événements modifiés après la position {@code (since, afterId)}
+     * et avant {@code until}, dans l'ordre de l'index {@code idx_events_updated_at}.
+     */
+    @Query("""
+            SELECT e.updatedAt, e.id FROM Event e
+            WHERE (e.updatedAt > :since OR (e.updatedAt = :since AND e.id > :afterId))
+              AND e.updatedAt < :until
+            ORDER BY e.updatedAt, e.id
+            """)
+    List<Object[]> findChangeKeysAfter(@Param("since") LocalDateTime since,
+                                       @Param("afterId") Long afterId,
+                                       @Param("until") LocalDateTime until,
+                                       Pageable pageable);
 
     List<Event> findByIsActiveTrue();
 
@@ -22,4 +80,64 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     List<Event> findBySportName(String name);
 
     Optional<Event> findByName(String name);
+
+    /**
+     * Décrémente atomiquement les places disponibles d'un événement, uniquement s'il en reste assez.
+     * Le contrôle et la mise à jour tiennent en une seule requête conditionnelle : deux achats
+     * concurrents ne peuvent pas s'écraser mutuellement ni faire passer le stock sous zéro.
+     *
+     * @param eventId  l'identifiant de l'événement
+     * @param quantity le nombre de places à réserver
+     * @return le nombre de lignes modifiées (0 si l'événement est complet ou introuvable)
+     */
+    @Modifying
+    @Query("""
+            UPDATE Event e SET e.availableSlots = e.availableSlots - :quantity
+            WHERE e.id = :eventId AND e.availableSlots >= :quantity
+            """)
+    int reserveSlots(@Param("eventId") Long eventId, @Param("quantity") int quantity);
+
+    /**
+     * Applique un écart au stock d'un événement : places rendues (paiement refusé, réservation
+     * expirée) ou écart cumulé de l'écriture différée du stock en mémoire.
+     */
+    @Modifying
+    @Query("UPDATE Event e SET e.availableSlots = e.availableSlots + :delta WHERE e.id = :eventId")
+    int adjustSlots(@Param("eventId") Long eventId, @Param("delta") int delta);
+
+    /**
+     * Fixe le stock d'un événement dans sa propre transaction, appelée après le commit d'une
+     * modification d'administration.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("UPDATE Event e SET e.availableSlots = :availableSlots WHERE e.id = :eventId")
+    int overwriteSlots(@Param("eventId") Long eventId, @Param("availableSlots") int availableSlots);
+
+    /**
+     * Recopie dans {@code availableSlots} la somme des shards de chaque événement réparti.
+     */
+    @Modifying
+    @Query("""
+            UPDATE Event e SET e.availableSlots =
+                (SELECT SUM(s.availableSlots) FROM EventInventoryShard s WHERE s.event.id = e.id)
+            WHERE EXISTS (SELECT 1 FROM EventInventoryShard s WHERE s.event.id = e.id)
+            """)
+    int refreshAvailableSlotsFromShards();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Event e WHERE e.id = :id")
+    Optional<Event> lockById(@Param("id") Long id);
+
+    @Query("SELECT e.availableSlots FROM Event e WHERE e.id = :id")
+    Optional<Integer> findAvailableSlotsById(@Param("id") Long id);
+
+    @Query("SELECT e.id, e.availableSlots FROM Event e WHERE e.id IN :ids")
+    List<Object[]> findAvailableSlotsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Places disponibles de tous les événements, sous forme de paires {@code [id, availableSlots]}.
+     */
+    @Query("SELECT e.id, e.availableSlots FROM Event e")
+    List<Object[]> findAllAvailableSlots();
 }
@@ -0,0 +1,57 @@
+package dev.jos.back.repository;
+
+import dev.jos.back.dto.event.EventSearchCriteria;
+import dev.jos.back.entities.Event;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Critères JPA de la recherche d'événements. Seuls les filtres renseignés produisent une condition,
+ * pour que la base puisse choisir l'index composite correspondant ({@code idx_events_*_date}).
+ */
+public final class EventSpecifications {
+
+    private EventSpecifications() {}
+
+    public static Specification<Event> matching(EventSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isTrue(root.get("isActive")));
+            if (criteria.sport() != null) {
+                predicates.add(cb.equal(root.get("sport").get("name"), criteria.sport()));
+            }
+            if (criteria.city() != null) {
+                predicates.add(cb.equal(root.get("city"), criteria.city()));
+            }
+            if (criteria.phase() != null) {
+                predicates.add(cb.equal(root.get("phase"), criteria.phase()));
+            }
+            if (criteria.category() != null) {
+                predicates.add(cb.equal(root.get("category"), criteria.category()));
+            }
+            if (criteria.from() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("eventDate"), criteria.from()));
+            }
+            if (criteria.to() != null) {
+                predicates.add(cb.lessThan(root.get("eventDate"), criteria.to()));
+            }
+            if (Boolean.TRUE.equals(criteria.available())) {
+                predicates.add(cb.greaterThan(root.get("availableSlots"), 0));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Événements situés après {@code (eventDate, id)} dans l'ordre de pagination.
+     */
+    public static Specification<Event> after(LocalDateTime eventDate, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("eventDate"), eventDate),
+                cb.and(cb.equal(root.get("eventDate"), eventDate), cb.greaterThan(root.get("id"), id)));
+    }
+}
@@ -0,0 +1,22 @@
+package dev.jos.back.repository;
+
+import dev.jos.back.entities.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    @Query("SELECT r FROM RevokedToken r WHERE r.revokedAt > :since AND r.expiresAt > :now ORDER BY r.revokedAt")
+    List<RevokedToken> findRevokedSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -21,6 +21,12 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
     @Query("SELECT COUNT(tk) FROM Ticket tk WHERE tk.transaction.status = 'COMPLETED'")
     Long countSoldTickets();
 
+    /**
+     * @return des paires {@code [eventId, nombre de billets émis]}
+     */
+    @Query("SELECT tk.event.id, COUNT(tk) FROM Ticket tk GROUP BY tk.event.id")
+    List<Object[]> countIssuedPerEvent();
+
     @Query("""
             SELECT new dev.jos.back.dto.admin.OfferSalesDTO(
                 tk.offer.name, COUNT(tk),
@@ -0,0 +1,22 @@
+package dev.jos.back.repository;
+
+import dev.jos.back.entities.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    @Query("SELECT r FROM TokenRevocation r WHERE r.revokedAt > :since ORDER BY r.revokedAt")
+    List<TokenRevocation> findRevokedSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM TokenRevocation r WHERE r.revokedAt < :before")
+    int deleteRevokedBefore(@Param("before") LocalDateTime before);
+}
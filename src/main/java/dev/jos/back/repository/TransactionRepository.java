@@ -1,10 +1,17 @@
 package dev.jos.back.repository;
 
 import dev.jos.back.entities.Transaction;
+import dev.jos.back.util.enums.DeliveryStatus;
+import dev.jos.back.util.enums.TransactionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +25,73 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 
     @Query("SELECT t.status, COUNT(t) FROM Transaction t GROUP BY t.status")
     List<Object[]> countByStatus();
+
+    /**
+     * Enregistre le résultat de l'envoi des billets dans sa propre transaction : appelé après le commit
+     * du checkout, il ne doit pas rejoindre la transaction déjà terminée.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("UPDATE Transaction t SET t.deliveryStatus = :status WHERE t.id = :id")
+    void updateDeliveryStatus(@Param("id") Long id, @Param("status") DeliveryStatus status);
+
+    /**
+     * Fait passer une transaction d'un statut à un autre, seulement si elle est encore dans le statut attendu.
+     * Sert d'arbitre entre la confirmation du paiement et la libération par le balayage.
+     *
+     * @return 1 si la transition a eu lieu, 0 si la transaction n'était plus dans le statut {@code from}
+     */
+    @Modifying
+    @Query("UPDATE Transaction t SET t.status = :to WHERE t.id = :id AND t.status = :from")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("from") TransactionStatus from,
+                         @Param("to") TransactionStatus to);
+
+    /**
+     * Réserve l'envoi des billets d'une transaction tout juste confirmée. Atomique : seul l'appel
+     * qui obtient 1 envoie les billets, les autres (reprise, autre instance) s'abstiennent.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("""
+            UPDATE Transaction t SET t.deliveryStatus = 'SENDING', t.deliveryClaimedAt = :now,
+                t.deliveryAttempts = t.deliveryAttempts + 1
+            WHERE t.id = :id AND t.deliveryStatus = 'PENDING'
+            """)
+    int claimDelivery(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Transactions dont l'envoi est à reprendre : restées {@code PENDING} depuis le paiement, en
+     * échec, ou en cours d'envoi par une instance arrêtée depuis, dans la limite des tentatives.
+     */
+    @Query("""
+            SELECT t.id FROM Transaction t
+            WHERE t.status = 'COMPLETED' AND t.deliveryAttempts < :maxAttempts
+              AND ((t.deliveryStatus = 'PENDING' AND t.payedDate < :threshold)
+                OR (t.deliveryStatus IN ('SENDING', 'FAILED') AND t.deliveryClaimedAt < :threshold))
+            """)
+    List<Long> findIdsToRedeliver(@Param("threshold") LocalDateTime threshold,
+                                  @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Réserve la reprise d'un envoi retenu par {@link #findIdsToRedeliver}, aux mêmes conditions.
+     * Atomique : entre deux instances, une seule obtient 1.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("""
+            UPDATE Transaction t SET t.deliveryStatus = 'SENDING', t.deliveryClaimedAt = :now,
+                t.deliveryAttempts = t.deliveryAttempts + 1
+            WHERE t.id = :id AND t.status = 'COMPLETED' AND t.deliveryAttempts < :maxAttempts
+              AND ((t.deliveryStatus = 'PENDING' AND t.payedDate < :threshold)
+                OR (t.deliveryStatus IN ('SENDING', 'FAILED') AND t.deliveryClaimedAt < :threshold))
+            """)
+    int claimRedelivery(@Param("id") Long id,
+                        @Param("now") LocalDateTime now,
+                        @Param("threshold") LocalDateTime threshold,
+                        @Param("maxAttempts") int maxAttempts);
+
+    @Query("SELECT t.id FROM Transaction t WHERE t.status = :status AND t.createdDate < :threshold")
+    List<Long> findIdsByStatusCreatedBefore(@Param("status") TransactionStatus status,
+                                            @Param("threshold") LocalDateTime threshold);
 }
@@ -0,0 +1,197 @@
+package dev.jos.back.service;
+
+import dev.jos.back.dto.event.EventAvailabilityDTO;
+import dev.jos.back.util.SeatsChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Flux SSE de la disponibilité des places, pour que les clients n'aient plus à relire la liste des
+ * événements pendant une mise en vente.
+ * <p>
+ * Les blocages et libérations de places ({@link SeatHoldService}) et les modifications d'administration
+ * signalent, après commit, les événements touchés ({@link SeatsChangedEvent}). Toutes les
+ * {@code availability.stream.interval-ms}, les événements signalés depuis le passage précédent sont
+ * relus dans le stock ({@link SeatInventory}) en un appel, et leurs nouvelles places envoyées en un
+ * seul message, sérialisé une fois pour tous les abonnés. Rien n'est lu si aucun événement n'a changé.
+ * <p>
+ * Une connexion au repos ne retient aucun thread du serveur (traitement asynchrone du servlet) : chaque
+ * abonné a un thread virtuel qui écrit ses messages depuis un tampon borné à
+ * {@code availability.stream.buffer-size} messages. Un abonné dont le tampon déborde ne lit plus assez
+ * vite ; il est déconnecté, et le navigateur se reconnecte de lui-même.
+ */
+@Slf4j
+@Service
+public class AvailabilityStream {
+
+    static final String EVENT_NAME = "availability";
+
+    private final SeatInventory seatInventory;
+    private final JsonMapper jsonMapper;
+    private final Executor writers;
+    private final int bufferSize;
+    private final long timeoutMs;
+
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public AvailabilityStream(SeatInventory seatInventory,
+                              JsonMapper jsonMapper,
+                              @Value("${availability.stream.buffer-size:16}") int bufferSize,
+                              @Value("${availability.stream.timeout-ms:1800000}") long timeoutMs) {
+        this(seatInventory, jsonMapper, task -> Thread.ofVirtual().name("availability-stream").start(task),
+                bufferSize, timeoutMs);
+    }
+
+    /**
+     * @param writers démarre la boucle d'écriture de chaque abonné
+     */
+    AvailabilityStream(SeatInventory seatInventory, JsonMapper jsonMapper, Executor writers,
+                       int bufferSize, long timeoutMs) {
+        this.seatInventory = seatInventory;
+        this.jsonMapper = jsonMapper;
+        this.writers = writers;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Ouvre un abonnement. Le client lit d'abord la liste des événements, puis applique les
+     * messages {@value #EVENT_NAME} reçus.
+     */
+    public SseEmitter subscribe() {
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMs), new ArrayBlockingQueue<>(bufferSize));
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+        subscribers.add(subscriber);
+        writers.execute(subscriber::write);
+        return subscriber.emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSeatsChanged(SeatsChangedEvent change) {
+        changed.add(change.eventId());
+    }
+
+    /**
+     * Envoie la disponibilité des événements signalés depuis le passage précédent.
+     */
+    @Scheduled(fixedDelayString = "${availability.stream.interval-ms:500}")
+    public void publishChanges() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(changed);
+        changed.removeAll(ids);
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        List<EventAvailabilityDTO> availability = new TreeMap<>(seatInventory.available(ids)).entrySet().stream()
+                .map(e -> new EventAvailabilityDTO(e.getKey(), e.getValue()))
+                .toList();
+        if (!availability.isEmpty()) {
+            broadcast(SseEmitter.event()
+                    .name(EVENT_NAME)
+                    .data(jsonMapper.writeValueAsString(availability), MediaType.APPLICATION_JSON)
+                    .build());
+        }
+    }
+
+    /**
+     * Commentaire SSE envoyé à intervalle régulier, pour que les proxies ne ferment pas les connexions
+     * au repos et que les clients partis soient détectés.
+     */
+    @Scheduled(fixedDelayString = "${availability.stream.heartbeat-ms:20000}")
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            broadcast(SseEmitter.event().comment("").build());
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void closeAll() {
+        subscribers.forEach(Subscriber::close);
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void broadcast(Set<DataWithMediaType> message) {
+        int evicted = 0;
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.buffer.offer(message)) {
+                subscriber.close();
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            log.info("{} abonné(s) au flux de disponibilité déconnecté(s) : tampon plein", evicted);
+        }
+    }
+
+    /**
+     * Retire l'abonné et arrête son thread d'écriture.
+     */
+    private void remove(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.buffer.clear();
+        Thread writer = subscriber.writer;
+        if (writer != null) {
+            writer.interrupt();
+        }
+    }
+
+    /**
+     * Un client abonné et les messages qui lui restent à écrire.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> buffer;
+        private volatile Thread writer;
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<Set<DataWithMediaType>> buffer) {
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+
+        private void write() {
+            writer = Thread.currentThread();
+            try {
+                while (subscribers.contains(this)) {
+                    emitter.send(buffer.take());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                remove(this);
+            }
+        }
+
+        private void close() {
+            remove(this);
+            emitter.complete();
+        }
+    }
+}
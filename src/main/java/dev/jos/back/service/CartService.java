@@ -7,8 +7,8 @@ import dev.jos.back.entities.*;
 import dev.jos.back.exceptions.cart.CartItemNotFoundException;
 import dev.jos.back.exceptions.cart.CartNotFoundException;
 import dev.jos.back.exceptions.event.EventNotFoundException;
-import dev.jos.back.exceptions.event.EventSoldOutException;
 import dev.jos.back.exceptions.offertype.OfferNotFoundException;
+import dev.jos.back.exceptions.payment.CartAlreadyConvertedException;
 import dev.jos.back.exceptions.user.UserNotFoundException;
 import dev.jos.back.mapper.CartMapper;
 import dev.jos.back.repository.*;
@@ -17,7 +17,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -30,6 +30,8 @@ public class CartService implements ICartService {
     private final EventRepository eventRepository;
     private final OfferRepository offerRepository;
     private final CartMapper cartMapper;
+    private final SeatHoldService seatHoldService;
+    private final WaitingRoomService waitingRoomService;
 
     @Transactional
     public CartResponseDTO getActiveCart(String email) {
@@ -39,14 +41,18 @@ public class CartService implements ICartService {
         Cart cart = cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)
                 .orElseThrow(() -> new CartNotFoundException("Aucun panier actif"));
 
-        if (cart.expireIfNeeded()) {
-            cartRepository.save(cart);
+        if (cart.isExpired()) {
+            seatHoldService.abandon(cart);
             throw new CartNotFoundException("Le panier a expiré");
         }
 
         return cartMapper.toCartResponseDTO(cart);
     }
 
+    /**
+     * Ajoute une offre au panier en bloquant aussitôt les places correspondantes, pour que
+     * l'utilisateur ne découvre pas au paiement que l'événement est complet.
+     */
     @Transactional
     public CartResponseDTO addItem(String email, CartItemRequestDTO dto) {
         User user = userRepository.findByEmail(email)
@@ -57,13 +63,16 @@ public class CartService implements ICartService {
         Event event = eventRepository.findById(dto.eventId())
                 .orElseThrow(() -> new EventNotFoundException("Évènement non trouvé : " + dto.eventId()));
 
-        if (event.getAvailableSlots() <= 0) {
-            throw new EventSoldOutException("Cet évènement est complet : " + event.getName());
-        }
-
         Offer offer = offerRepository.findById(dto.offerId())
                 .orElseThrow(() -> new OfferNotFoundException("Cette offre n'existe plus : " + dto.offerId()));
 
+        waitingRoomService.requireAdmitted(List.of(event.getId()));
+
+        // deux écritures : la prolongation verrouille la ligne du panier contre son abandon par le
+        // balayage, puis les places sont prises sur le stock, qui n'est pas forcément en base
+        seatHoldService.extend(cart);
+        seatHoldService.hold(event, dto.quantity() * offer.getNumberOfTickets());
+
         Optional<CartItems> existing = cartItemsRepository.findByCartAndEventAndOffer(cart, event, offer);
 
         if (existing.isPresent()) {
@@ -98,6 +107,9 @@ public class CartService implements ICartService {
         }
 
         Cart cart = item.getCart();
+        ensureEditable(cart);
+        seatHoldService.extend(cart);
+        seatHoldService.release(item.getEvent(), SeatHoldService.seatsOf(item));
         cartItemsRepository.delete(item);
         Cart refreshed = cartRepository.findByIdWithItems(cart.getId())
                 .orElseThrow(() -> new CartNotFoundException("Panier introuvable"));
@@ -117,10 +129,21 @@ public class CartService implements ICartService {
         }
 
         Cart cart = item.getCart();
+        ensureEditable(cart);
+        seatHoldService.extend(cart);
 
+        int heldSeats = SeatHoldService.seatsOf(item);
         if (dto.quantity() <= 0) {
+            seatHoldService.release(item.getEvent(), heldSeats);
             cartItemsRepository.delete(item);
         } else {
+            int seats = dto.quantity() * item.getOffer().getNumberOfTickets();
+            if (seats > heldSeats) {
+                waitingRoomService.requireAdmitted(List.of(item.getEvent().getId()));
+                seatHoldService.hold(item.getEvent(), seats - heldSeats);
+            } else {
+                seatHoldService.release(item.getEvent(), heldSeats - seats);
+            }
             item.setQuantity(dto.quantity());
             cartItemsRepository.save(item);
         }
@@ -138,19 +161,27 @@ public class CartService implements ICartService {
         Cart cart = cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)
                 .orElseThrow(() -> new CartNotFoundException("Aucun panier actif"));
 
+        seatHoldService.extend(cart);
+        seatHoldService.releaseAll(cart);
         cartItemsRepository.deleteAll(cart.getCartItems());
         Cart refreshed = cartRepository.findByIdWithItems(cart.getId())
                 .orElseThrow(() -> new CartNotFoundException("Panier introuvable"));
         return cartMapper.toCartResponseDTO(refreshed);
     }
 
+    private void ensureEditable(Cart cart) {
+        if (cart.getStatus() == CartStatus.PENDING_PAYMENT || cart.getStatus() == CartStatus.CONVERTED) {
+            throw new CartAlreadyConvertedException("Ce panier est en cours de paiement ou déjà payé");
+        }
+    }
+
     private Cart getOrCreateActiveCart(User user) {
         Optional<Cart> existing = cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE);
 
         if (existing.isPresent()) {
             Cart cart = existing.get();
-            if (cart.expireIfNeeded()) {
-                cartRepository.save(cart);
+            if (cart.isExpired()) {
+                seatHoldService.abandon(cart);
                 return createNewCart(user);
             }
             return cart;
@@ -163,7 +194,7 @@ public class CartService implements ICartService {
         Cart cart = new Cart();
         cart.setUser(user);
         cart.setStatus(CartStatus.ACTIVE);
-        cart.setExpiresAt(LocalDateTime.now().plusMinutes(30));
+        cart.setExpiresAt(seatHoldService.nextExpiry());
         return cartRepository.save(cart);
     }
 }
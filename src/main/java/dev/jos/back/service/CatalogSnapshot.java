@@ -0,0 +1,310 @@
+package dev.jos.back.service;
+
+import dev.jos.back.dto.event.EventFacetsDTO;
+import dev.jos.back.dto.event.EventResponseDTO;
+import dev.jos.back.dto.event.EventSearchCriteria;
+import dev.jos.back.dto.offer.OfferResponseDTO;
+import dev.jos.back.dto.sport.SportResponseDTO;
+import dev.jos.back.repository.EventRepository;
+import dev.jos.back.util.CatalogChangedEvent;
+import dev.jos.back.util.enums.SupportedLocale;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Catalogue (événements, sports, offres) déjà traduit et converti en DTO, une vue immuable par
+ * {@link SupportedLocale}. Les endpoints de lecture du catalogue sont servis depuis ces vues, sans
+ * requête ni conversion ; chaque mise à jour construit de nouvelles vues et les publie d'un bloc.
+ * <p>
+ * Après le commit d'une modification ({@link CatalogChangedEvent}), seule la partie touchée est
+ * rechargée : les événements concernés (et les sports, qui en comptent les lieux), ou la section des
+ * sports ou des offres. Les places disponibles, qui bougent à chaque achat, sont recopiées toutes les
+ * {@code catalog.slots-refresh-ms} en une requête. L'ensemble est reconstruit toutes les
+ * {@code catalog.full-refresh-ms}, pour rattraper les modifications faites par une autre instance.
+ * <p>
+ * L'ETag des endpoints de lecture est une empreinte du contenu de chaque vue : un client à jour reçoit
+ * un 304 sans corps, quelle que soit l'instance qui lui répond derrière le répartiteur de charge.
+ */
+@Slf4j
+@Service
+public class CatalogSnapshot {
+
+    private final EventService eventService;
+    private final SportService sportService;
+    private final OfferService offerService;
+    private final EventRepository eventRepository;
+    private final TransactionTemplate readTransaction;
+    private final ObjectWriter fingerprintWriter;
+
+    private volatile Map<SupportedLocale, LocalizedCatalog> catalogs = Map.of();
+
+    public CatalogSnapshot(EventService eventService,
+                           SportService sportService,
+                           OfferService offerService,
+                           EventRepository eventRepository,
+                           PlatformTransactionManager transactionManager,
+                           JsonMapper jsonMapper) {
+        this.eventService = eventService;
+        this.sportService = sportService;
+        this.offerService = offerService;
+        this.eventRepository = eventRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        this.fingerprintWriter = jsonMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    }
+
+    /**
+     * Vue du catalogue dans la langue demandée, construite au premier appel si besoin.
+     *
+     * @param locale valeur de l'en-tête {@code Accept-Language}
+     */
+    public LocalizedCatalog forLocale(String locale) {
+        Map<SupportedLocale, LocalizedCatalog> current = catalogs;
+        if (current.isEmpty()) {
+            current = loadIfEmpty();
+        }
+        return current.get(SupportedLocale.from(locale));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            loadIfEmpty();
+        } catch (RuntimeException e) {
+            log.warn("Catalogue en mémoire non construit au démarrage : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstruit toutes les vues à partir de la base.
+     */
+    @Scheduled(fixedDelayString = "${catalog.full-refresh-ms:300000}", initialDelayString = "${catalog.full-refresh-ms:300000}")
+    public synchronized void rebuild() {
+        Map<SupportedLocale, LocalizedCatalog> built = readTransaction.execute(status -> {
+            Map<SupportedLocale, LocalizedCatalog> loaded = new EnumMap<>(SupportedLocale.class);
+            for (SupportedLocale locale : SupportedLocale.values()) {
+                loaded.put(locale, LocalizedCatalog.of(
+                        byId(eventService.getAllEvents(locale.code)),
+                        sportService.getAllSports(locale.code),
+                        offerService.getAllOfferTypes(locale.code)));
+            }
+            return loaded;
+        });
+        if (!unchanged(built)) {
+            publish(built);
+        }
+    }
+
+    /**
+     * Recharge la partie du catalogue touchée par une modification commitée. En cas d'échec, les vues
+     * précédentes restent servies jusqu'à la prochaine reconstruction complète.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent change) {
+        if (catalogs.isEmpty()) {
+            return;
+        }
+        try {
+            switch (change.section()) {
+                case EVENTS -> reloadEvents(change.ids());
+                case SPORTS -> rebuild();
+                case OFFERS -> replace(locale -> catalog -> catalog.withOffers(offerService.getAllOfferTypes(locale.code)));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Mise à jour du catalogue en mémoire échouée ({}) : {}", change.section(), e.getMessage());
+        }
+    }
+
+    /**
+     * Recopie les places disponibles des événements dont le stock a changé depuis le dernier passage.
+     */
+    @Scheduled(fixedDelayString = "${catalog.slots-refresh-ms:2000}")
+    public synchronized void refreshAvailableSlots() {
+        if (catalogs.isEmpty()) {
+            return;
+        }
+        Map<Long, EventResponseDTO> reference = catalogs.get(SupportedLocale.DEFAULT).eventsById();
+        Map<Long, Integer> changed = new HashMap<>();
+        for (Object[] row : eventRepository.findAllAvailableSlots()) {
+            Long id = (Long) row[0];
+            Integer slots = (Integer) row[1];
+            EventResponseDTO event = reference.get(id);
+            if (event != null && !Objects.equals(event.availableSlots(), slots)) {
+                changed.put(id, slots);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        replace(locale -> catalog -> {
+            Map<Long, EventResponseDTO> events = new TreeMap<>(catalog.eventsById());
+            changed.forEach((id, slots) -> events.computeIfPresent(id, (key, event) -> event.withAvailableSlots(slots)));
+            return catalog.withEvents(events);
+        });
+    }
+
+    private synchronized Map<SupportedLocale, LocalizedCatalog> loadIfEmpty() {
+        if (catalogs.isEmpty()) {
+            rebuild();
+        }
+        return catalogs;
+    }
+
+    private void reloadEvents(List<Long> ids) {
+        replace(locale -> catalog -> {
+            Map<Long, EventResponseDTO> loaded = byId(eventService.getEventsByIds(ids, locale.code));
+            Map<Long, EventResponseDTO> events = new TreeMap<>(catalog.eventsById());
+            for (Long id : ids) {
+                EventResponseDTO event = loaded.get(id);
+                if (event != null) {
+                    events.put(id, event);
+                } else {
+                    events.remove(id);
+                }
+            }
+            return catalog.withEvents(events).withSports(sportService.getAllSports(locale.code));
+        });
+    }
+
+    /**
+     * Applique {@code update} à la vue de chaque langue, dans une même transaction de lecture,
+     * puis publie les nouvelles vues ensemble.
+     */
+    private void replace(Function<SupportedLocale, UnaryOperator<LocalizedCatalog>> update) {
+        Map<SupportedLocale, LocalizedCatalog> current = catalogs;
+        publish(readTransaction.execute(status -> {
+            Map<SupportedLocale, LocalizedCatalog> updated = new EnumMap<>(SupportedLocale.class);
+            current.forEach((locale, catalog) -> updated.put(locale, update.apply(locale).apply(catalog)));
+            return updated;
+        }));
+    }
+
+    /**
+     * Publie les vues, chacune étiquetée par l'empreinte de son contenu : deux instances qui ont
+     * chargé le même catalogue renvoient le même ETag, et un redémarrage ne le change pas.
+     */
+    private void publish(Map<SupportedLocale, LocalizedCatalog> updated) {
+        Map<SupportedLocale, LocalizedCatalog> tagged = new EnumMap<>(SupportedLocale.class);
+        updated.forEach((locale, catalog) -> tagged.put(locale, catalog.tagged(locale.code + "-" + fingerprint(catalog))));
+        catalogs = Collections.unmodifiableMap(tagged);
+    }
+
+    /**
+     * SHA-256 tronqué du JSON des listes de la vue, clés des maps triées pour ne pas dépendre de
+     * l'ordre d'itération.
+     */
+    private String fingerprint(LocalizedCatalog catalog) {
+        byte[] json = fingerprintWriter.writeValueAsBytes(List.of(catalog.events(), catalog.sports(), catalog.offers()));
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(hash, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Vrai si une reconstruction complète retrouve exactement les vues publiées : on les garde alors
+     * telles quelles, sans recalculer leur empreinte toutes les {@code catalog.full-refresh-ms}.
+     */
+    private boolean unchanged(Map<SupportedLocale, LocalizedCatalog> built) {
+        Map<SupportedLocale, LocalizedCatalog> current = catalogs;
+        return current.size() == built.size()
+                && built.entrySet().stream().allMatch(e -> e.getValue().equals(current.get(e.getKey()).tagged(null)));
+    }
+
+    private static Map<Long, EventResponseDTO> byId(List<EventResponseDTO> events) {
+        return events.stream().collect(Collectors.toMap(EventResponseDTO::id, e -> e, (a, b) -> a, TreeMap::new));
+    }
+
+    /**
+     * Catalogue d'une langue. Les listes dérivées (événements actifs, disponibles, par sport) et les
+     * compteurs par critère des événements actifs sont calculés à la construction pour être renvoyés
+     * tels quels.
+     *
+     * @param etag ETag fort des réponses construites à partir de cette vue
+     */
+    public record LocalizedCatalog(
+            Map<Long, EventResponseDTO> eventsById,
+            List<EventResponseDTO> events,
+            List<EventResponseDTO> activeEvents,
+            List<EventResponseDTO> availableEvents,
+            Map<String, List<EventResponseDTO>> eventsBySport,
+            EventFacetsDTO facets,
+            Map<Long, SportResponseDTO> sportsById,
+            List<SportResponseDTO> sports,
+            List<OfferResponseDTO> offers,
+            String etag
+    ) {
+
+        static LocalizedCatalog of(Map<Long, EventResponseDTO> eventsById,
+                                   List<SportResponseDTO> sports,
+                                   List<OfferResponseDTO> offers) {
+            List<EventResponseDTO> events = List.copyOf(eventsById.values());
+            List<EventResponseDTO> active = events.stream()
+                    .filter(e -> Boolean.TRUE.equals(e.isActive()))
+                    .toList();
+            List<EventResponseDTO> available = active.stream()
+                    .filter(e -> e.availableSlots() != null && e.availableSlots() > 0)
+                    .toList();
+            Map<String, List<EventResponseDTO>> bySport = events.stream()
+                    .collect(Collectors.groupingBy(EventResponseDTO::sport,
+                            Collectors.collectingAndThen(Collectors.toList(), List::copyOf)));
+            Map<Long, SportResponseDTO> sportsById = sports.stream()
+                    .collect(Collectors.toUnmodifiableMap(SportResponseDTO::id, s -> s));
+            return new LocalizedCatalog(Collections.unmodifiableMap(eventsById), events, active, available,
+                    Map.copyOf(bySport), EventFacetsDTO.of(active), sportsById, List.copyOf(sports), List.copyOf(offers), null);
+        }
+
+        LocalizedCatalog tagged(String etag) {
+            return new LocalizedCatalog(eventsById, events, activeEvents, availableEvents, eventsBySport,
+                    facets, sportsById, sports, offers, etag);
+        }
+
+        LocalizedCatalog withEvents(Map<Long, EventResponseDTO> eventsById) {
+            return of(eventsById, sports, offers);
+        }
+
+        LocalizedCatalog withSports(List<SportResponseDTO> sports) {
+            return of(eventsById, sports, offers);
+        }
+
+        LocalizedCatalog withOffers(List<OfferResponseDTO> offers) {
+            return of(eventsById, sports, offers);
+        }
+
+        public List<EventResponseDTO> eventsOfSport(String sport) {
+            return eventsBySport.getOrDefault(sport, List.of());
+        }
+
+        /**
+         * Compteurs des événements actifs qui répondent à {@code criteria} : ceux de la vue sans
+         * filtre, sinon comptés sur les événements en mémoire.
+         */
+        public EventFacetsDTO facets(EventSearchCriteria criteria) {
+            if (criteria == null || criteria.isEmpty()) {
+                return facets;
+            }
+            return EventFacetsDTO.of(activeEvents.stream().filter(criteria::matches).toList());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package dev.jos.back.service;
+
+import dev.jos.back.dto.payment.CheckoutRequestDTO;
+import dev.jos.back.dto.payment.TransactionResponseDTO;
+import dev.jos.back.entities.CheckoutIdempotencyKey;
+import dev.jos.back.entities.User;
+import dev.jos.back.exceptions.payment.IdempotencyKeyConflictException;
+import dev.jos.back.exceptions.user.UserNotFoundException;
+import dev.jos.back.repository.CheckoutIdempotencyKeyRepository;
+import dev.jos.back.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Rend le checkout idempotent pour les clients qui renvoient {@code POST /api/checkout} après un
+ * délai d'attente : la réponse du premier appel est conservée sous la clé {@code Idempotency-Key}
+ * et rejouée aux appels suivants, sans nouveau paiement ni nouvelle émission de billets.
+ * <p>
+ * Les clés sont propres à chaque utilisateur et purgées après {@code checkout.idempotency-ttl-hours}.
+ * Une clé restée en cours plus de {@code checkout.idempotency-stale-minutes} sans paiement
+ * enregistré (arrêt brutal du serveur) est reprise par l'appel suivant ; ce délai doit dépasser
+ * celui de la passerelle et {@code checkout.pending-timeout-minutes}.
+ */
+@Slf4j
+@Service
+public class CheckoutIdempotencyService {
+
+    private final CheckoutIdempotencyKeyRepository repository;
+    private final UserRepository userRepository;
+    private final JsonMapper jsonMapper;
+    private final long ttlHours;
+    private final long staleMinutes;
+
+    public CheckoutIdempotencyService(CheckoutIdempotencyKeyRepository repository,
+                                      UserRepository userRepository,
+                                      JsonMapper jsonMapper,
+                                      @Value("${checkout.idempotency-ttl-hours:24}") long ttlHours,
+                                      @Value("${checkout.idempotency-stale-minutes:15}") long staleMinutes) {
+        this.repository = repository;
+        this.userRepository = userRepository;
+        this.jsonMapper = jsonMapper;
+        this.ttlHours = ttlHours;
+        this.staleMinutes = staleMinutes;
+    }
+
+    /**
+     * Réserve la clé pour un nouveau checkout, ou retourne la réponse enregistrée par le premier appel.
+     * Un appel répété ne coûte ainsi qu'une lecture par index unique. Une clé dont
+     * {@code expires_at} est dépassé est supprimée et la requête exécutée comme un premier appel,
+     * sans attendre {@link #purgeExpired}.
+     *
+     * @param email l'email de l'utilisateur authentifié
+     * @param key   la valeur de l'en-tête {@code Idempotency-Key}
+     * @param dto   la requête de paiement, comparée à celle du premier appel
+     * @return la réponse à rejouer, ou vide si le checkout doit être exécuté
+     * @throws IdempotencyKeyConflictException si la clé a servi pour une autre requête, si le
+     *                                         premier appel est encore en cours ou si son paiement
+     *                                         est passé sans être confirmé
+     */
+    public Optional<TransactionResponseDTO> begin(String email, String key, CheckoutRequestDTO dto) {
+        String requestHash = fingerprint(dto);
+        LocalDateTime now = LocalDateTime.now();
+        Optional<CheckoutIdempotencyKey> existing = repository.findByUser_EmailAndIdempotencyKey(email, key);
+        if (existing.isPresent() && existing.get().getExpiresAt().isBefore(now)) {
+            // clé expirée que la purge n'a pas encore supprimée : traitée comme absente
+            repository.deleteIfExpired(existing.get().getId(), now);
+            existing = Optional.empty();
+        }
+        if (existing.isEmpty()) {
+            User user = userRepository.findByEmail(email)
+                    .orElseThrow(() -> new UserNotFoundException("Utilisateur introuvable"));
+            try {
+                repository.saveAndFlush(CheckoutIdempotencyKey.builder()
+                        .user(user)
+                        .idempotencyKey(key)
+                        .requestHash(requestHash)
+                        .startedAt(now)
+                        .expiresAt(now.plusHours(ttlHours))
+                        .build());
+                return Optional.empty();
+            } catch (DataIntegrityViolationException e) {
+                // un appel concurrent portant la même clé a été enregistré juste avant
+                existing = repository.findByUser_EmailAndIdempotencyKey(email, key);
+            }
+        }
+        CheckoutIdempotencyKey record = existing.orElseThrow(() ->
+                new IdempotencyKeyConflictException("Un paiement avec cette clé d'idempotence est déjà en cours"));
+        if (record.getRequestHash().equals(requestHash) && record.getResponseBody() == null && record.getPaidAt() == null) {
+            if (repository.takeOverStale(record.getId(), now, now.minusMinutes(staleMinutes)) == 1) {
+                log.warn("Clé d'idempotence {} reprise après {} min sans réponse", record.getId(), staleMinutes);
+                return Optional.empty();
+            }
+        }
+        return Optional.of(replay(record, requestHash));
+    }
+
+    /**
+     * Note sur la clé que la passerelle a accepté le paiement : à partir de là, un échec de la
+     * confirmation ne libère plus la clé et un nouvel appel ne peut plus débiter une seconde fois.
+     * Un échec d'écriture est journalisé sans interrompre la confirmation du paiement.
+     */
+    public void markPaid(String email, String key) {
+        try {
+            repository.findByUser_EmailAndIdempotencyKey(email, key).ifPresent(record ->
+                    repository.markPaid(record.getId(), LocalDateTime.now()));
+        } catch (DataAccessException e) {
+            log.error("Paiement accepté non noté sur la clé d'idempotence de {}", email, e);
+        }
+    }
+
+    /**
+     * Enregistre la réponse du checkout pour les appels répétés. Appelée par
+     * {@link CheckoutReservationService#confirm(Long, String)} dans la transaction qui émet les
+     * billets : la réponse et les billets sont écrits ensemble ou pas du tout.
+     */
+    @Transactional
+    public void complete(String email, String key, TransactionResponseDTO response) {
+        repository.findByUser_EmailAndIdempotencyKey(email, key).ifPresent(record ->
+                repository.storeResponse(record.getId(), jsonMapper.writeValueAsString(response)));
+    }
+
+    /**
+     * Libère la clé après un checkout dont le client n'a certainement pas été débité (échec avant
+     * l'appel à la passerelle ou refus explicite), pour qu'une nouvelle tentative soit réellement exécutée.
+     */
+    @Transactional
+    public void abandon(String email, String key) {
+        repository.findByUser_EmailAndIdempotencyKey(email, key).ifPresent(repository::delete);
+    }
+
+    @Transactional
+    public void purgeExpired() {
+        int deleted = repository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("{} clé(s) d'idempotence expirée(s) supprimée(s)", deleted);
+        }
+    }
+
+    private TransactionResponseDTO replay(CheckoutIdempotencyKey record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyConflictException("Cette clé d'idempotence a déjà servi pour une autre requête de paiement");
+        }
+        if (record.getResponseBody() == null && record.getPaidAt() != null) {
+            throw new IdempotencyKeyConflictException(
+                    "Le paiement avec cette clé d'idempotence a été accepté mais sa confirmation a échoué ; il ne sera pas débité à nouveau");
+        }
+        if (record.getResponseBody() == null) {
+            throw new IdempotencyKeyConflictException("Un paiement avec cette clé d'idempotence est déjà en cours");
+        }
+        return jsonMapper.readValue(record.getResponseBody(), TransactionResponseDTO.class);
+    }
+
+    /**
+     * Empreinte de la requête, pour détecter la réutilisation d'une clé avec un autre paiement.
+     * Elle ne retient que des données non sensibles (quatre derniers chiffres de la carte,
+     * expiration, méthode) : le haché d'un numéro complet se retrouve par force brute.
+     */
+    static String fingerprint(CheckoutRequestDTO dto) {
+        String card = dto.cardNumber().strip();
+        String payload = card.substring(Math.max(0, card.length() - 4)) + "|" + dto.expiryMonth() + "|"
+                + dto.expiryYear() + "|" + dto.paymentMethod();
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(payload.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package dev.jos.back.service;
+
+import dev.jos.back.dto.payment.TransactionResponseDTO;
+import dev.jos.back.entities.*;
+import dev.jos.back.exceptions.cart.CartNotFoundException;
+import dev.jos.back.exceptions.payment.CartAlreadyConvertedException;
+import dev.jos.back.exceptions.payment.CartEmptyException;
+import dev.jos.back.exceptions.payment.ReservationExpiredException;
+import dev.jos.back.exceptions.payment.TransactionNotFoundException;
+import dev.jos.back.exceptions.user.UserNotFoundException;
+import dev.jos.back.mapper.TicketMapper;
+import dev.jos.back.repository.CartRepository;
+import dev.jos.back.repository.TicketRepository;
+import dev.jos.back.repository.TransactionRepository;
+import dev.jos.back.repository.UserRepository;
+import dev.jos.back.util.TicketKeys;
+import dev.jos.back.util.TicketsIssuedEvent;
+import dev.jos.back.util.enums.CartStatus;
+import dev.jos.back.util.enums.DeliveryStatus;
+import dev.jos.back.util.enums.PaymentMethod;
+import dev.jos.back.util.enums.TransactionStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Étapes transactionnelles du checkout. Chaque méthode est une transaction courte :
+ * l'appel à la passerelle de paiement se fait entre {@link #reserve} et {@link #confirm}
+ * (ou {@link #release}), sans connexion ni verrou retenu.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CheckoutReservationService {
+
+    private final UserRepository userRepository;
+    private final CartRepository cartRepository;
+    private final TransactionRepository transactionRepository;
+    private final TicketRepository ticketRepository;
+    private final SeatHoldService seatHoldService;
+    private final TicketMapper ticketMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TicketKeyMinter ticketKeyMinter;
+    private final WaitingRoomService waitingRoomService;
+    private final CheckoutIdempotencyService idempotencyService;
+
+    @Value("${checkout.pending-timeout-minutes:10}")
+    private long pendingTimeoutMinutes;
+
+    /**
+     * Crée une transaction {@code PENDING} pour le panier actif, dont les places sont déjà bloquées
+     * depuis leur ajout. Le panier passe en {@code PENDING_PAYMENT} : il n'est plus modifiable
+     * ni balayé à l'expiration jusqu'à la fin du paiement.
+     *
+     * @return l'identifiant de la transaction en attente
+     */
+    @Transactional
+    public Long reserve(String email, PaymentMethod paymentMethod) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new UserNotFoundException("Utilisateur introuvable"));
+
+        Cart cart = cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)
+                .orElseThrow(() -> new CartNotFoundException("Aucun panier actif"));
+
+        if (cart.isExpired()) {
+            seatHoldService.abandon(cart);
+            throw new CartNotFoundException("Le panier a expiré");
+        }
+
+        if (cart.getStatus() == CartStatus.CONVERTED) {
+            throw new CartAlreadyConvertedException("Ce panier a déjà été payé");
+        }
+
+        if (cart.getCartItems().isEmpty()) {
+            throw new CartEmptyException("Le panier est vide");
+        }
+
+        waitingRoomService.requireAdmitted(cart.getCartItems().stream()
+                .map(item -> item.getEvent().getId())
+                .distinct()
+                .toList());
+
+        BigDecimal amount = cart.getCartItems().stream()
+                .map(item -> BigDecimal.valueOf(item.getUnitPrice() * item.getQuantity()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        Transaction transaction = new Transaction();
+        transaction.setTransactionKey(UUID.randomUUID().toString());
+        transaction.setPaymentReference("REF-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setAmount(amount);
+        transaction.setPaymentMethod(paymentMethod);
+        transaction.setUser(user);
+        transaction.setCart(cart);
+        transactionRepository.save(transaction);
+
+        cart.setStatus(CartStatus.PENDING_PAYMENT);
+        cartRepository.save(cart);
+
+        return transaction.getId();
+    }
+
+    /**
+     * Finalise une transaction payée : génère les billets, convertit le panier et
+     * déclenche l'envoi des billets après le commit.
+     *
+     * @throws ReservationExpiredException si la réservation a été libérée pendant le paiement ;
+     *                                     voir {@link #requireRefund}
+     */
+    public TransactionResponseDTO confirm(Long transactionId) {
+        return confirm(transactionId, null);
+    }
+
+    /**
+     * Comme {@link #confirm(Long)}, en enregistrant la réponse sous la clé d'idempotence dans la
+     * même transaction que les billets : un checkout confirmé a toujours une réponse à rejouer.
+     *
+     * @param idempotencyKey la clé {@code Idempotency-Key} du checkout, ou {@code null}
+     */
+    @Transactional
+    public TransactionResponseDTO confirm(Long transactionId, String idempotencyKey) {
+        if (transactionRepository.transitionStatus(
+                transactionId, TransactionStatus.PENDING, TransactionStatus.COMPLETED) == 0) {
+            log.error("Paiement accepté pour la transaction {} dont la réservation a expiré : remboursement requis",
+                    transactionId);
+            throw new ReservationExpiredException(
+                    "Le délai de paiement est dépassé, la réservation a été libérée et le paiement sera remboursé");
+        }
+
+        Transaction transaction = transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new TransactionNotFoundException("Transaction introuvable"));
+        Cart cart = transaction.getCart();
+        User user = transaction.getUser();
+
+        transaction.setPayedDate(LocalDateTime.now());
+        transaction.setDeliveryStatus(DeliveryStatus.PENDING);
+
+        List<Ticket> tickets = generateTickets(cart, transaction, user);
+        ticketRepository.saveAll(tickets);
+
+        cart.setStatus(CartStatus.CONVERTED);
+        cartRepository.save(cart);
+
+        TicketsIssuedEvent issued = ticketsIssued(transaction, tickets);
+        if (idempotencyKey != null) {
+            idempotencyService.complete(user.getEmail(), idempotencyKey, issued.transaction());
+        }
+        eventPublisher.publishEvent(issued);
+
+        return issued.transaction();
+    }
+
+    /**
+     * Enregistre qu'un paiement a été accepté pour une réservation déjà libérée par le balayage :
+     * la transaction passe de {@code EXPIRED} à {@code REFUND_REQUIRED}, trace durable du débit à
+     * rembourser, qui subsiste si le remboursement échoue.
+     *
+     * @return la transaction à rembourser, ou vide si elle n'était pas expirée
+     */
+    @Transactional
+    public Optional<Transaction> requireRefund(Long transactionId) {
+        if (transactionRepository.transitionStatus(
+                transactionId, TransactionStatus.EXPIRED, TransactionStatus.REFUND_REQUIRED) == 0) {
+            return Optional.empty();
+        }
+        return transactionRepository.findById(transactionId);
+    }
+
+    /**
+     * Clôt une transaction {@code REFUND_REQUIRED} une fois le remboursement accepté par la passerelle.
+     */
+    @Transactional
+    public void markRefunded(Long transactionId) {
+        transactionRepository.transitionStatus(transactionId, TransactionStatus.REFUND_REQUIRED, TransactionStatus.REFUNDED);
+    }
+
+    /**
+     * Billets d'une transaction confirmée, pour relancer leur envoi.
+     */
+    @Transactional(readOnly = true)
+    public TicketsIssuedEvent ticketsIssued(Long transactionId) {
+        Transaction transaction = transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new TransactionNotFoundException("Transaction introuvable"));
+        List<Ticket> tickets = transaction.getTickets().stream()
+                .sorted(Comparator.comparing(Ticket::getId))
+                .toList();
+        return ticketsIssued(transaction, tickets);
+    }
+
+    /**
+     * Annule une transaction encore {@code PENDING} et réactive le panier pour permettre un
+     * nouvel essai. Les places restent bloquées par le panier jusqu'à son expiration.
+     * Sans effet si la transaction a déjà été confirmée ou libérée.
+     *
+     * @param outcome le statut final ({@code FAILED} après un refus, {@code EXPIRED} pour le balayage)
+     */
+    @Transactional
+    public void release(Long transactionId, TransactionStatus outcome) {
+        if (transactionRepository.transitionStatus(transactionId, TransactionStatus.PENDING, outcome) == 0) {
+            return;
+        }
+
+        Transaction transaction = transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new TransactionNotFoundException("Transaction introuvable"));
+        Cart cart = transaction.getCart();
+
+        transaction.setCancelledDate(LocalDateTime.now());
+        transaction.setCart(null);
+        cart.setStatus(CartStatus.ACTIVE);
+        cartRepository.save(cart);
+    }
+
+    /**
+     * Libère les réservations restées {@code PENDING} au-delà du délai de paiement,
+     * par exemple après un crash entre la réservation et la confirmation.
+     *
+     * @return le nombre de transactions libérées
+     */
+    @Transactional
+    public int releaseStaleReservations() {
+        LocalDateTime threshold = LocalDateTime.now().minusMinutes(pendingTimeoutMinutes);
+        List<Long> staleIds = transactionRepository.findIdsByStatusCreatedBefore(TransactionStatus.PENDING, threshold);
+        staleIds.forEach(id -> release(id, TransactionStatus.EXPIRED));
+        if (!staleIds.isEmpty()) {
+            log.warn("{} réservation(s) en attente de paiement libérée(s)", staleIds.size());
+        }
+        return staleIds.size();
+    }
+
+    private TicketsIssuedEvent ticketsIssued(Transaction transaction, List<Ticket> tickets) {
+        User user = transaction.getUser();
+        String userLocale = user.getLocale() != null ? user.getLocale() : "fr";
+        return new TicketsIssuedEvent(user.getEmail(), user.getFirstName(), userLocale,
+                ticketMapper.toTransactionResponseDTO(transaction, tickets));
+    }
+
+    private List<Ticket> generateTickets(Cart cart, Transaction transaction, User user) {
+        int totalTickets = cart.getCartItems().stream()
+                .mapToInt(item -> item.getQuantity() * item.getOffer().getNumberOfTickets())
+                .sum();
+        Iterator<TicketKeys> keys = ticketKeyMinter.mint(totalTickets).iterator();
+        List<Ticket> tickets = new ArrayList<>(totalTickets);
+
+        for (CartItems item : cart.getCartItems()) {
+            int totalTicketCount = item.getQuantity() * item.getOffer().getNumberOfTickets();
+            double pricePerTicket = item.getUnitPrice() / item.getOffer().getNumberOfTickets();
+
+            for (int i = 0; i < totalTicketCount; i++) {
+                TicketKeys ticketKeys = keys.next();
+
+                Ticket ticket = new Ticket();
+                ticket.setUserKey(ticketKeys.userKey());
+                ticket.setTransactionKey(transaction.getTransactionKey());
+                ticket.setTicketKey(ticketKeys.ticketKey());
+                ticket.setCombinedKey(ticketKeys.combinedKey());
+                ticket.setBarcode(ticketKeys.barcode());
+                ticket.setPrice(pricePerTicket);
+                ticket.setExpiryAt(item.getEvent().getEventDate());
+                ticket.setIsValid(true);
+                ticket.setIsScanned(false);
+                ticket.setTransaction(transaction);
+                ticket.setUser(user);
+                ticket.setEvent(item.getEvent());
+                ticket.setOffer(item.getOffer());
+                tickets.add(ticket);
+            }
+        }
+
+        return tickets;
+    }
+}
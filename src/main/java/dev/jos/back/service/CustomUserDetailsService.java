@@ -5,6 +5,7 @@ import dev.jos.back.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -13,7 +14,7 @@ import java.util.Collections;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
 
     @Override
@@ -29,4 +30,19 @@ public class CustomUserDetailsService implements UserDetailsService {
                 ))
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Enregistre le hachage recalculé au coût configuré, après une connexion réussie avec un hachage
+     * plus ancien. Le mot de passe ne change pas : les jetons émis restent valides.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPasswordHash) {
+        userRepository.findByEmail(userDetails.getUsername()).ifPresent(user -> {
+            user.setPasswordHash(newPasswordHash);
+            userRepository.save(user);
+        });
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+                .password(newPasswordHash)
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package dev.jos.back.service;
+
+import dev.jos.back.repository.EventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stock tenu directement dans {@code events.available_slots}, par requêtes conditionnelles
+ * exécutées dans la transaction de l'appelant.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "inventory.mode", havingValue = "database", matchIfMissing = true)
+public class DatabaseSeatInventory implements SeatInventory {
+
+    private final EventRepository eventRepository;
+
+    @Override
+    public boolean tryClaim(Long eventId, int seats) {
+        return eventRepository.reserveSlots(eventId, seats) > 0;
+    }
+
+    @Override
+    public void release(Long eventId, int seats) {
+        eventRepository.adjustSlots(eventId, seats);
+    }
+
+    @Override
+    public void refresh(Long eventId, int availableSlots) {
+        // la base est déjà la référence
+    }
+
+    @Override
+    public Map<Long, Integer> available(Collection<Long> eventIds) {
+        Map<Long, Integer> available = new HashMap<>();
+        eventRepository.findAvailableSlotsByIds(eventIds).forEach(row -> available.put((Long) row[0], (Integer) row[1]));
+        return available;
+    }
+}
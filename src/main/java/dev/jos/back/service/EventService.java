@@ -1,24 +1,44 @@
 package dev.jos.back.service;
 
 import dev.jos.back.dto.event.CreateEventDTO;
+import dev.jos.back.dto.event.EventChangesDTO;
 import dev.jos.back.dto.event.EventResponseDTO;
+import dev.jos.back.dto.event.EventSearchCriteria;
+import dev.jos.back.dto.event.EventSearchPageDTO;
 import dev.jos.back.dto.event.UpdateEventDTO;
 import dev.jos.back.entities.Event;
+import dev.jos.back.entities.EventDeletion;
 import dev.jos.back.entities.EventTranslation;
 import dev.jos.back.entities.Sport;
 import dev.jos.back.exceptions.event.EventAlreadyExistsException;
 import dev.jos.back.exceptions.event.EventNotFoundException;
+import dev.jos.back.exceptions.event.InvalidPageTokenException;
+import dev.jos.back.exceptions.event.InvalidSyncCursorException;
 import dev.jos.back.exceptions.sport.SportNotFoundException;
 import dev.jos.back.mapper.EventMapper;
+import dev.jos.back.repository.EventDeletionRepository;
 import dev.jos.back.repository.EventRepository;
+import dev.jos.back.repository.EventSpecifications;
 import dev.jos.back.repository.EventTranslationRepository;
 import dev.jos.back.repository.SportRepository;
+import dev.jos.back.util.CatalogChangedEvent;
 import dev.jos.back.util.LocaleResolver;
+import dev.jos.back.util.SeatsChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -27,10 +47,21 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class EventService {
 
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_CHANGES = 500;
+    private static final Sort SEARCH_ORDER = Sort.by("eventDate", "id");
+    private static final LocalDateTime SYNC_ORIGIN = LocalDateTime.of(2000, 1, 1, 0, 0);
+
     private final EventRepository eventRepository;
     private final EventMapper eventMapper;
     private final SportRepository sportRepository;
     private final EventTranslationRepository eventTranslationRepository;
+    private final SeatInventory seatInventory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventDeletionRepository eventDeletionRepository;
+
+    @Value("${catalog.changes-settle-ms:2000}")
+    private long changesSettleMs;
 
     private Map<Long, EventTranslation> getTranslationMap(List<Event> events, String locale) {
         if ("fr".equals(locale)) return Collections.emptyMap();
@@ -73,6 +104,7 @@ public class EventService {
         });
 
         List<Event> savedEvents = eventRepository.saveAll(eventsToSave);
+        eventPublisher.publishEvent(CatalogChangedEvent.events(savedEvents.stream().map(Event::getId).toList()));
         return savedEvents.stream()
                 .map(eventMapper::toResponseDTO)
                 .toList();
@@ -101,50 +133,148 @@ public class EventService {
         event.setIsActive(dto.isActive() == null || dto.isActive());
 
         Event saved = eventRepository.save(event);
+        eventPublisher.publishEvent(CatalogChangedEvent.events(List.of(saved.getId())));
         return eventMapper.toResponseDTO(saved);
     }
 
     public List<EventResponseDTO> getAllEvents(String locale) {
-        String lang = LocaleResolver.resolve(locale);
-        List<Event> events = eventRepository.findAll();
-        Map<Long, EventTranslation> translations = getTranslationMap(events, lang);
-        return events.stream().map(e -> mapWithLocale(e, translations)).toList();
+        return eventRepository.findAllLocalized(LocaleResolver.resolve(locale));
     }
 
     public List<EventResponseDTO> getActiveEvents(String locale) {
-        String lang = LocaleResolver.resolve(locale);
-        List<Event> events = eventRepository.findByIsActiveTrue();
-        Map<Long, EventTranslation> translations = getTranslationMap(events, lang);
-        return events.stream().map(e -> mapWithLocale(e, translations)).toList();
+        return eventRepository.findActiveLocalized(LocaleResolver.resolve(locale));
     }
 
     public List<EventResponseDTO> getAvailableEvents(String locale) {
-        String lang = LocaleResolver.resolve(locale);
-        List<Event> events = eventRepository.findAvailableEvents();
-        Map<Long, EventTranslation> translations = getTranslationMap(events, lang);
-        return events.stream().map(e -> mapWithLocale(e, translations)).toList();
+        return eventRepository.findAvailableLocalized(LocaleResolver.resolve(locale));
     }
 
     public EventResponseDTO getEventById(Long id, String locale) {
-        String lang = LocaleResolver.resolve(locale);
-        Event event = eventRepository.findById(id)
+        return eventRepository.findLocalizedById(id, LocaleResolver.resolve(locale))
                 .orElseThrow(() -> new EventNotFoundException("Événement non trouvé"));
-        EventTranslation t = "fr".equals(lang) ? null :
-                eventTranslationRepository.findByEvent_IdAndLocale(event.getId(), lang).orElse(null);
-        String name = (t != null && t.getName() != null) ? t.getName() : event.getName();
-        String description = t != null ? t.getDescription() : event.getDescription();
-        return eventMapper.toResponseDTO(event, name, description);
     }
 
+    /**
+     * Événements traduits parmi {@code ids} ; les identifiants inconnus sont ignorés.
+     */
+    public List<EventResponseDTO> getEventsByIds(Collection<Long> ids, String locale) {
+        return eventRepository.findLocalizedByIds(ids, LocaleResolver.resolve(locale));
+    }
+
+    /**
+     * Recherche paginée par clé : chaque page reprend après le dernier couple {@code (eventDate, id)}
+     * de la précédente, sans {@code OFFSET}. Le coût d'une page ne dépend pas de sa position et un
+     * événement ajouté entre deux appels ne décale pas les suivants.
+     *
+     * @param pageToken jeton {@code nextPageToken} de la page précédente, {@code null} pour la première
+     * @param limit     taille de page souhaitée, ramenée entre 1 et {@value #MAX_PAGE_SIZE}
+     */
+    public EventSearchPageDTO searchEvents(EventSearchCriteria criteria, String pageToken, int limit, String locale) {
+        String lang = LocaleResolver.resolve(locale);
+        int size = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        Specification<Event> spec = EventSpecifications.matching(criteria);
+        if (pageToken != null && !pageToken.isBlank()) {
+            PageKey last = decodePageToken(pageToken);
+            spec = spec.and(EventSpecifications.after(last.eventDate(), last.id()));
+        }
+
+        List<Event> found = eventRepository.findBy(spec, query -> query.sortBy(SEARCH_ORDER).limit(size + 1).all());
+        List<Event> events = found.size() > size ? found.subList(0, size) : found;
+        String nextPageToken = found.size() > size ? encodePageToken(events.getLast()) : null;
+
+        Map<Long, EventTranslation> translations = getTranslationMap(events, lang);
+        return new EventSearchPageDTO(events.stream().map(e -> mapWithLocale(e, translations)).toList(), nextPageToken);
+    }
+
+    static String encodePageToken(Event last) {
+        String key = last.getEventDate() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PageKey decodePageToken(String token) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = key.indexOf('|');
+            return new PageKey(LocalDateTime.parse(key.substring(0, separator)), Long.parseLong(key.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new InvalidPageTokenException("Jeton de page invalide");
+        }
+    }
+
+    /**
+     * Position de reprise de la recherche : le dernier événement de la page précédente.
+     */
+    record PageKey(LocalDateTime eventDate, Long id) {}
+
+    /**
+     * Synchronisation par différence : événements créés ou modifiés et événements supprimés depuis
+     * {@code cursor}, au plus {@value #MAX_CHANGES} de chaque. Sans curseur, renvoie tout le catalogue
+     * (sans suppressions) et le curseur à partir duquel suivre les modifications.
+     * <p>
+     * Les modifications des {@code catalog.changes-settle-ms} dernières millisecondes ne sont pas encore
+     * renvoyées : une transaction horodatée avant le curseur mais validée après serait sinon manquée.
+     * Les places disponibles sont celles du moment, mais leur seule variation ne fait pas avancer
+     * {@code updatedAt}.
+     *
+     * @param cursor curseur renvoyé par l'appel précédent, {@code null} pour une première synchronisation
+     * @throws InvalidSyncCursorException si le curseur est illisible
+     */
+    @Transactional(readOnly = true)
+    public EventChangesDTO getChangesSince(String cursor, String locale) {
+        LocalDateTime until = LocalDateTime.now().minus(Duration.ofMillis(changesSettleMs));
+        boolean initial = cursor == null || cursor.isBlank();
+        SyncCursor from = initial
+                ? new SyncCursor(SYNC_ORIGIN, 0L, eventDeletionRepository.findLastIdBefore(until))
+                : decodeSyncCursor(cursor);
+        Pageable page = PageRequest.of(0, MAX_CHANGES);
+
+        List<Object[]> keys = eventRepository.findChangeKeysAfter(from.updatedAt(), from.eventId(), until, page);
+        List<EventDeletion> deletions = initial
+                ? List.of()
+                : eventDeletionRepository.findAfter(from.deletionId(), until, page);
+
+        List<Long> ids = keys.stream().map(key -> (Long) key[1]).toList();
+        Map<Long, EventResponseDTO> byId = ids.isEmpty() ? Map.of()
+                : eventRepository.findLocalizedByIds(ids, LocaleResolver.resolve(locale)).stream()
+                        .collect(Collectors.toMap(EventResponseDTO::id, e -> e));
+        SyncCursor next = new SyncCursor(
+                keys.isEmpty() ? from.updatedAt() : (LocalDateTime) keys.getLast()[0],
+                keys.isEmpty() ? from.eventId() : (Long) keys.getLast()[1],
+                deletions.isEmpty() ? from.deletionId() : deletions.getLast().getId());
+
+        return new EventChangesDTO(
+                ids.stream().map(byId::get).filter(Objects::nonNull).toList(),
+                deletions.stream().map(EventDeletion::getEventId).toList(),
+                encodeSyncCursor(next),
+                keys.size() == MAX_CHANGES || deletions.size() == MAX_CHANGES);
+    }
+
+    static String encodeSyncCursor(SyncCursor cursor) {
+        String key = cursor.updatedAt() + "|" + cursor.eventId() + "|" + cursor.deletionId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static SyncCursor decodeSyncCursor(String cursor) {
+        try {
+            String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new SyncCursor(LocalDateTime.parse(key[0]), Long.parseLong(key[1]), Long.parseLong(key[2]));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new InvalidSyncCursorException("Curseur de synchronisation invalide");
+        }
+    }
+
+    /**
+     * Position d'un client dans le flux des modifications : le dernier événement modifié et la
+     * dernière suppression qu'il a reçus.
+     */
+    record SyncCursor(LocalDateTime updatedAt, Long eventId, Long deletionId) {}
+
     public List<EventResponseDTO> getAll(String locale) {
         return getAllEvents(locale);
     }
 
     public List<EventResponseDTO> getEventsBySport(String sport, String locale) {
-        String lang = LocaleResolver.resolve(locale);
-        List<Event> events = eventRepository.findBySportName(sport);
-        Map<Long, EventTranslation> translations = getTranslationMap(events, lang);
-        return events.stream().map(e -> mapWithLocale(e, translations)).toList();
+        return eventRepository.findLocalizedBySportName(sport, LocaleResolver.resolve(locale));
     }
 
     @Transactional
@@ -167,7 +297,13 @@ public class EventService {
                     .orElseThrow(() -> new SportNotFoundException("Sport non trouvé : " + dto.sport()));
             event.setSport(sport);
         }
-        return eventMapper.toResponseDTO(eventRepository.saveAndFlush(event));
+        Event saved = eventRepository.saveAndFlush(event);
+        if (dto.availableSlots() != null) {
+            seatInventory.refresh(saved.getId(), saved.getAvailableSlots());
+            eventPublisher.publishEvent(new SeatsChangedEvent(saved.getId()));
+        }
+        eventPublisher.publishEvent(CatalogChangedEvent.events(List.of(saved.getId())));
+        return eventMapper.toResponseDTO(saved);
     }
 
     @Transactional
@@ -176,5 +312,7 @@ public class EventService {
             throw new EventNotFoundException("Événement non trouvé");
         }
         eventRepository.deleteById(id);
+        eventDeletionRepository.save(EventDeletion.builder().eventId(id).build());
+        eventPublisher.publishEvent(CatalogChangedEvent.events(List.of(id)));
     }
 }
@@ -8,6 +8,7 @@ import java.util.List;
 
 public interface ICheckoutService {
     TransactionResponseDTO checkout(String email, CheckoutRequestDTO dto);
+    TransactionResponseDTO checkout(String email, String idempotencyKey, CheckoutRequestDTO dto);
     TransactionResponseDTO getTransaction(String email, Long transactionId);
     byte[] getTicketsPdf(String email, Long transactionId);
     List<TicketGroupResponseDTO> getUserTicketGroups(String email);
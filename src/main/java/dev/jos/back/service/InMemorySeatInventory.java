@@ -0,0 +1,227 @@
+package dev.jos.back.service;
+
+import dev.jos.back.entities.Event;
+import dev.jos.back.repository.CartItemsRepository;
+import dev.jos.back.repository.EventRepository;
+import dev.jos.back.repository.TicketRepository;
+import dev.jos.back.util.enums.CartStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stock tenu en mémoire, un compteur atomique par événement : une prise de places est un
+ * compare-and-set, sans aller-retour base ni verrou de ligne sur {@code events}.
+ * <p>
+ * Les écarts sont cumulés par événement et écrits en base toutes les {@code inventory.flush-delay-ms}
+ * (une requête par événement modifié), puis à l'arrêt. Une modification d'administration remplace
+ * la valeur du compteur et écarte les écarts en attente, sous le même verrou que l'écriture. Au démarrage, le stock est rapproché des
+ * billets émis et des paniers en cours, pour rattraper des écarts perdus lors d'un arrêt brutal.
+ * <p>
+ * Réservé à un déploiement mono-instance : deux instances auraient chacune leur propre stock.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "inventory.mode", havingValue = "memory")
+public class InMemorySeatInventory implements SeatInventory {
+
+    private static final List<CartStatus> HOLDING_STATUSES = List.of(CartStatus.ACTIVE, CartStatus.PENDING_PAYMENT);
+
+    private final EventRepository eventRepository;
+    private final TicketRepository ticketRepository;
+    private final CartItemsRepository cartItemsRepository;
+
+    private final Map<Long, AtomicInteger> remaining = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> pending = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+
+    @Override
+    public boolean tryClaim(Long eventId, int seats) {
+        AtomicInteger counter = counter(eventId);
+        if (counter == null) {
+            return false;
+        }
+        int current;
+        do {
+            current = counter.get();
+            if (current < seats) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current - seats));
+
+        record(eventId, -seats);
+        afterRollback(() -> {
+            counter.addAndGet(seats);
+            record(eventId, seats);
+        });
+        return true;
+    }
+
+    @Override
+    public void release(Long eventId, int seats) {
+        afterCommit(() -> {
+            AtomicInteger counter = counter(eventId);
+            if (counter != null) {
+                counter.addAndGet(seats);
+                record(eventId, seats);
+            }
+        });
+    }
+
+    /**
+     * Adopte la valeur saisie par l'administrateur. Le compteur est modifié en place : une prise de
+     * places en cours porte sur le même objet. Les écarts en attente, relatifs à l'ancienne valeur,
+     * sont écartés, et la valeur est réécrite en base après une écriture différée éventuellement
+     * en cours, qui ne peut donc pas l'écraser.
+     */
+    @Override
+    public void refresh(Long eventId, int availableSlots) {
+        afterCommit(() -> {
+            synchronized (flushLock) {
+                remaining.computeIfAbsent(eventId, id -> new AtomicInteger()).set(availableSlots);
+                pending.remove(eventId);
+                eventRepository.overwriteSlots(eventId, availableSlots);
+            }
+        });
+    }
+
+    @Override
+    public Map<Long, Integer> available(Collection<Long> eventIds) {
+        Map<Long, Integer> available = new HashMap<>();
+        for (Long eventId : eventIds) {
+            AtomicInteger counter = counter(eventId);
+            if (counter != null) {
+                available.put(eventId, counter.get());
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Écrit en base les écarts accumulés depuis le dernier passage. Un écart qui n'a pas pu
+     * être écrit est remis dans le cumul pour le passage suivant.
+     */
+    @Scheduled(fixedDelayString = "${inventory.flush-delay-ms:200}")
+    @Transactional
+    public void flush() {
+        synchronized (flushLock) {
+            Map<Long, Integer> batch = new HashMap<>();
+            pending.forEach((eventId, delta) -> {
+                int value = delta.getAndSet(0);
+                if (value != 0) {
+                    batch.put(eventId, value);
+                }
+            });
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            afterRollback(() -> batch.forEach(this::record));
+            batch.forEach(eventRepository::adjustSlots);
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    @Transactional
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Rapproche le stock de chaque événement de ce qui est réellement engagé (billets émis et
+     * places bloquées par les paniers) puis amorce les compteurs. Le stock n'est jamais augmenté :
+     * on corrige seulement les décréments perdus, qui exposeraient à une survente.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconcile() {
+        Map<Long, Long> committed = new HashMap<>();
+        ticketRepository.countIssuedPerEvent()
+                .forEach(row -> committed.merge((Long) row[0], ((Number) row[1]).longValue(), Long::sum));
+        cartItemsRepository.sumSeatsPerEventByCartStatus(HOLDING_STATUSES)
+                .forEach(row -> committed.merge((Long) row[0], ((Number) row[1]).longValue(), Long::sum));
+
+        int corrected = 0;
+        for (Event event : eventRepository.findAll()) {
+            int correction = 0;
+            if (event.getCapacity() != null) {
+                long ceiling = Math.max(0, event.getCapacity() - committed.getOrDefault(event.getId(), 0L));
+                correction = (int) Math.min(0, ceiling - event.getAvailableSlots());
+            }
+            if (correction != 0) {
+                eventRepository.adjustSlots(event.getId(), correction);
+                corrected++;
+            }
+            AtomicInteger seeded = new AtomicInteger(event.getAvailableSlots() + correction);
+            AtomicInteger existing = remaining.putIfAbsent(event.getId(), seeded);
+            if (existing != null && correction != 0) {
+                existing.addAndGet(correction);
+            }
+        }
+        if (corrected > 0) {
+            log.warn("Stock rapproché au démarrage pour {} événement(s)", corrected);
+        }
+    }
+
+    private AtomicInteger counter(Long eventId) {
+        AtomicInteger counter = remaining.get(eventId);
+        if (counter != null) {
+            return counter;
+        }
+        return eventRepository.findAvailableSlotsById(eventId)
+                .map(slots -> remaining.computeIfAbsent(eventId, id -> new AtomicInteger(slots + pendingDelta(id))))
+                .orElse(null);
+    }
+
+    private void record(Long eventId, int delta) {
+        pending.computeIfAbsent(eventId, id -> new AtomicInteger()).addAndGet(delta);
+    }
+
+    private int pendingDelta(Long eventId) {
+        AtomicInteger delta = pending.get(eventId);
+        return delta != null ? delta.get() : 0;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
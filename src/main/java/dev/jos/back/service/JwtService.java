@@ -1,42 +1,115 @@
 package dev.jos.back.service;
 
+import dev.jos.back.entities.User;
 import dev.jos.back.properties.JwtProperties;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Émission et vérification des jetons JWT. La clé HMAC et le parseur sont construits une fois, au
+ * démarrage, et partagés par toutes les requêtes (ils sont sans état).
+ * <p>
+ * Les jetons d'accès déjà vérifiés peuvent être gardés en mémoire avec leur contenu, dans la limite
+ * de {@code jwt.claims-cache-size} jetons (0 pour ne rien garder) : un client renvoie le même jeton
+ * à chaque requête pendant sa durée de vie, il n'est décodé et sa signature vérifiée qu'une fois.
+ * Une entrée est retirée à l'expiration du jeton ; les jetons invalides ne sont jamais gardés.
+ * <p>
+ * Chaque jeton porte un identifiant unique ({@code jti}), qui permet de le révoquer seul
+ * ({@link TokenRevocationService#revokeToken}).
+ */
 @Service
-@RequiredArgsConstructor
 public class JwtService {
 
+    static final String ROLES_CLAIM = "roles";
+    static final String USER_ID_CLAIM = "uid";
+    static final String TOKEN_VERSION_CLAIM = "ver";
+
+    /**
+     * Intervalle minimal entre deux balayages des entrées expirées quand le cache est plein.
+     */
+    private static final long SWEEP_INTERVAL_MS = 1_000;
+
     private final JwtProperties jwtProperties;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private volatile long nextSweep;
+
+    public JwtService(JwtProperties jwtProperties) {
+        this.jwtProperties = jwtProperties;
+        this.signingKey = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+    }
 
     public String generateAccessToken(String username, List<String> roles) {
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(username)
-                .claim("roles", roles)
+                .claim(ROLES_CLAIM, roles)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() +
                         jwtProperties.getAccessToken().getExpiration()))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
+                .compact();
+    }
+
+    /**
+     * Jeton d'accès portant, en plus de l'email et du rôle, l'identifiant de l'utilisateur et la version
+     * de ses jetons : il suffit à authentifier les requêtes sans relire l'utilisateur.
+     */
+    public String generateAccessToken(User user) {
+        return Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject(user.getEmail())
+                .claim(ROLES_CLAIM, List.of(user.getRole().name()))
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(TOKEN_VERSION_CLAIM, user.getTokenVersion())
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() +
+                        jwtProperties.getAccessToken().getExpiration()))
+                .signWith(signingKey)
                 .compact();
     }
 
     public String generateRefreshToken(String username) {
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(username)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() +
                         jwtProperties.getRefreshToken().getExpiration()))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
+                .compact();
+    }
+
+    /**
+     * Jeton de rafraîchissement portant la version des jetons de l'utilisateur : il est refusé après
+     * un changement de mot de passe, de rôle ou d'email.
+     */
+    public String generateRefreshToken(User user) {
+        return Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject(user.getEmail())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(TOKEN_VERSION_CLAIM, user.getTokenVersion())
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() +
+                        jwtProperties.getRefreshToken().getExpiration()))
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -44,6 +117,37 @@ public class JwtService {
         return getClaims(token).getSubject();
     }
 
+    /**
+     * Contenu vérifié d'un jeton d'accès, vide si le jeton est invalide ou expiré. Le jeton n'est
+     * décodé qu'une fois, et pas du tout s'il est déjà en cache. Les champs {@code userId} et
+     * {@code tokenVersion} sont absents des jetons émis par {@link #generateAccessToken(String, List)}.
+     */
+    public Optional<TokenClaims> parseAccessToken(String token) {
+        int cacheSize = jwtProperties.getClaimsCacheSize();
+        if (cacheSize <= 0 || token == null) {
+            return verify(token).map(VerifiedToken::claims);
+        }
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = verifiedTokens.get(token);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                return Optional.of(cached.claims());
+            }
+            verifiedTokens.remove(token, cached);
+        }
+        Optional<VerifiedToken> verified = verify(token);
+        verified.ifPresent(v -> remember(token, v, cacheSize, now));
+        return verified.map(VerifiedToken::claims);
+    }
+
+    /**
+     * Contenu vérifié d'un jeton de rafraîchissement, vide si le jeton est invalide ou expiré. Ces
+     * jetons ne servent qu'une fois par rotation et ne sont pas gardés en cache.
+     */
+    public Optional<TokenClaims> parseRefreshToken(String token) {
+        return verify(token).map(VerifiedToken::claims);
+    }
+
     public boolean validateToken(String token) {
         try {
             getClaims(token);
@@ -53,16 +157,61 @@ public class JwtService {
         }
     }
 
-    private Claims getClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    int cachedTokenCount() {
+        return verifiedTokens.size();
+    }
+
+    private Optional<VerifiedToken> verify(String token) {
+        try {
+            Claims claims = getClaims(token);
+            List<?> roles = claims.get(ROLES_CLAIM, List.class);
+            Number userId = claims.get(USER_ID_CLAIM, Number.class);
+            Number tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Number.class);
+            Date expiration = claims.getExpiration();
+            TokenClaims tokenClaims = new TokenClaims(
+                    claims.getSubject(),
+                    roles == null ? List.of() : roles.stream().map(String::valueOf).toList(),
+                    userId == null ? null : userId.longValue(),
+                    tokenVersion == null ? null : tokenVersion.intValue(),
+                    claims.getId(),
+                    expiration == null ? null : expiration.toInstant());
+            return Optional.of(new VerifiedToken(tokenClaims,
+                    expiration == null ? Long.MAX_VALUE : expiration.getTime()));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Garde le jeton vérifié. Cache plein : les entrées expirées sont retirées, au plus une fois par
+     * {@value #SWEEP_INTERVAL_MS} ms ; s'il reste plein, le jeton n'est pas gardé.
+     */
+    private void remember(String token, VerifiedToken verified, int cacheSize, long now) {
+        if (verifiedTokens.size() >= cacheSize && now >= nextSweep) {
+            nextSweep = now + SWEEP_INTERVAL_MS;
+            verifiedTokens.values().removeIf(cached -> cached.expiresAt() <= now);
+        }
+        if (verifiedTokens.size() < cacheSize) {
+            verifiedTokens.put(token, verified);
+        }
     }
-}
\ No newline at end of file
+
+    private Claims getClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    private record VerifiedToken(TokenClaims claims, long expiresAt) {}
+
+    /**
+     * Contenu d'un jeton.
+     *
+     * @param email        l'email de l'utilisateur (sujet du jeton)
+     * @param roles        les rôles de l'utilisateur, vide pour un jeton de rafraîchissement
+     * @param userId       l'identifiant de l'utilisateur, absent des jetons plus anciens
+     * @param tokenVersion la version des jetons de l'utilisateur, absente des jetons plus anciens
+     * @param tokenId      l'identifiant unique du jeton ({@code jti}), absent des jetons plus anciens
+     * @param expiresAt    l'expiration du jeton
+     */
+    public record TokenClaims(String email, List<String> roles, Long userId, Integer tokenVersion,
+                              String tokenId, Instant expiresAt) {}
+}
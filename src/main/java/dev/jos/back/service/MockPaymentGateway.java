@@ -2,8 +2,12 @@ package dev.jos.back.service;
 
 import dev.jos.back.util.PaymentResult;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class MockPaymentGateway implements PaymentGateway {
@@ -17,4 +21,9 @@ public class MockPaymentGateway implements PaymentGateway {
                 ? PaymentResult.success()
                 : PaymentResult.failure(inner.declineReason());
     }
+
+    @Override
+    public void refund(String paymentReference, BigDecimal amount) {
+        log.info("Remboursement simulé de {} € pour le paiement {}", amount, paymentReference);
+    }
 }
@@ -12,9 +12,11 @@ import dev.jos.back.exceptions.offertype.OfferTypeAlreadyExistsException;
 import dev.jos.back.mapper.OfferMapper;
 import dev.jos.back.repository.OfferRepository;
 import dev.jos.back.repository.OfferTranslationRepository;
+import dev.jos.back.util.CatalogChangedEvent;
 import dev.jos.back.util.LocaleResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,6 +35,7 @@ public class OfferService {
     private final OfferRepository repository;
     private final OfferMapper mapper;
     private final OfferTranslationRepository offerTranslationRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     private List<String> deserializeFeatures(String json, List<String> fallback) {
         try {
@@ -71,6 +74,7 @@ public class OfferService {
         }
         Offer offerType = mapper.toEntity(dto);
         Offer savedOfferType = repository.save(offerType);
+        eventPublisher.publishEvent(CatalogChangedEvent.offers());
         return mapper.toResponseDTO(savedOfferType);
     }
 
@@ -78,6 +82,7 @@ public class OfferService {
         List<Offer> offersToSave = new ArrayList<>();
         dtoRequest.forEach(dto -> offersToSave.add(mapper.toEntity(dto)));
         List<Offer> savedOfferTypes = repository.saveAll(offersToSave);
+        eventPublisher.publishEvent(CatalogChangedEvent.offers());
         return savedOfferTypes.stream().map(mapper::toResponseDTO).toList();
     }
 
@@ -92,7 +97,9 @@ public class OfferService {
         if (dto.isActive() != null) offer.setIsActive(dto.isActive());
         if (dto.displayOrder() != null) offer.setDisplayOrder(dto.displayOrder());
         if (dto.features() != null) offer.setFeatures(dto.features());
-        return mapper.toResponseDTO(repository.saveAndFlush(offer));
+        Offer saved = repository.saveAndFlush(offer);
+        eventPublisher.publishEvent(CatalogChangedEvent.offers());
+        return mapper.toResponseDTO(saved);
     }
 
     @Transactional
@@ -101,5 +108,6 @@ public class OfferService {
             throw new OfferNotFoundException("Offre non trouvée");
         }
         repository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.offers());
     }
 }
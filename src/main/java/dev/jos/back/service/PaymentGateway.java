@@ -2,6 +2,13 @@ package dev.jos.back.service;
 
 import dev.jos.back.util.PaymentResult;
 
+import java.math.BigDecimal;
+
 public interface PaymentGateway {
     PaymentResult processPayment(String cardNumber);
+
+    /**
+     * Rembourse un paiement accepté dont les billets n'ont pas pu être émis.
+     */
+    void refund(String paymentReference, BigDecimal amount);
 }
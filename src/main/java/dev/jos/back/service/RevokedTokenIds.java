@@ -0,0 +1,68 @@
+package dev.jos.back.service;
+
+import dev.jos.back.util.BloomFilter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Identifiants ({@code jti}) des jetons révoqués et non encore expirés. La plupart des jetons
+ * présentés ne sont pas révoqués : un filtre de Bloom les écarte sans toucher à l'ensemble exact,
+ * qui tranche seulement quand le filtre répond peut-être.
+ * <p>
+ * Un filtre de Bloom ne sait pas retirer d'élément : après le retrait des jetons expirés, ou quand
+ * l'ensemble dépasse sa capacité, le filtre est reconstruit à partir de l'ensemble exact, puis
+ * substitué au précédent.
+ */
+class RevokedTokenIds {
+
+    private final int initialCapacity;
+    private final Map<String, Long> expiresAtById = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    RevokedTokenIds(int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+        this.filter = new BloomFilter(initialCapacity);
+    }
+
+    boolean contains(String tokenId) {
+        return tokenId != null && filter.mightContain(tokenId) && expiresAtById.containsKey(tokenId);
+    }
+
+    /**
+     * @param expiresAt expiration du jeton, en millisecondes depuis l'epoch
+     */
+    synchronized void add(String tokenId, long expiresAt) {
+        expiresAtById.put(tokenId, expiresAt);
+        if (expiresAtById.size() > filter.capacity()) {
+            rebuild();
+        } else {
+            filter.add(tokenId);
+        }
+    }
+
+    /**
+     * Oublie les jetons expirés à {@code now}.
+     *
+     * @return le nombre de jetons oubliés
+     */
+    synchronized int prune(long now) {
+        int before = expiresAtById.size();
+        expiresAtById.values().removeIf(expiresAt -> expiresAt <= now);
+        int pruned = before - expiresAtById.size();
+        if (pruned > 0) {
+            rebuild();
+        }
+        return pruned;
+    }
+
+    int size() {
+        return expiresAtById.size();
+    }
+
+    private void rebuild() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(initialCapacity, expiresAtById.size() * 2));
+        expiresAtById.keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+    }
+}
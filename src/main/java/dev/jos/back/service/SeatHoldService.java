@@ -0,0 +1,139 @@
+package dev.jos.back.service;
+
+import dev.jos.back.entities.Cart;
+import dev.jos.back.entities.CartItems;
+import dev.jos.back.entities.Event;
+import dev.jos.back.exceptions.cart.CartNotFoundException;
+import dev.jos.back.exceptions.event.EventSoldOutException;
+import dev.jos.back.repository.CartRepository;
+import dev.jos.back.util.SeatsChangedEvent;
+import dev.jos.back.util.enums.CartStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Blocage des places mises au panier. Une place ajoutée est prise immédiatement sur le stock
+ * ({@link SeatInventory}) ; elle reste bloquée tant que le panier est actif ou en paiement,
+ * et revient au stock au retrait de l'article, au vidage du panier ou à son expiration.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeatHoldService {
+
+    private final SeatInventory seatInventory;
+    private final CartRepository cartRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${cart.hold-minutes:30}")
+    private long holdMinutes;
+
+    /**
+     * Bloque des places sur un événement.
+     *
+     * @throws EventSoldOutException s'il ne reste pas assez de places
+     */
+    public void hold(Event event, int seats) {
+        if (!seatInventory.tryClaim(event.getId(), seats)) {
+            throw new EventSoldOutException("Plus assez de places pour l'évènement : " + event.getName());
+        }
+        eventPublisher.publishEvent(new SeatsChangedEvent(event.getId()));
+    }
+
+    public void release(Event event, int seats) {
+        if (seats > 0) {
+            seatInventory.release(event.getId(), seats);
+            eventPublisher.publishEvent(new SeatsChangedEvent(event.getId()));
+        }
+    }
+
+    /**
+     * Rend au stock toutes les places bloquées par le panier.
+     */
+    public void releaseAll(Cart cart) {
+        seatsPerEvent(cart).forEach(this::release);
+    }
+
+    public LocalDateTime nextExpiry() {
+        return LocalDateTime.now().plusMinutes(holdMinutes);
+    }
+
+    /**
+     * Repousse l'expiration du panier, et donc de ses blocages, après une activité de l'utilisateur.
+     * À appeler avant de toucher aux places : la ligne du panier reste verrouillée jusqu'au commit.
+     *
+     * @throws CartNotFoundException si le panier a été abandonné entre-temps
+     */
+    @Transactional
+    public void extend(Cart cart) {
+        LocalDateTime expiresAt = nextExpiry();
+        if (cartRepository.extendExpiry(cart.getId(), expiresAt, CartStatus.ACTIVE) == 0) {
+            throw new CartNotFoundException("Le panier a expiré");
+        }
+        cart.setExpiresAt(expiresAt);
+    }
+
+    /**
+     * Abandonne un panier expiré et libère ses places. Le changement de statut est conditionnel :
+     * si le panier vient d'être prolongé, de passer en paiement ou d'être abandonné ailleurs,
+     * rien n'est libéré.
+     *
+     * @return {@code true} si le panier a été abandonné par cet appel
+     */
+    @Transactional
+    public boolean abandon(Cart cart) {
+        if (cartRepository.abandonIfExpired(
+                cart.getId(), LocalDateTime.now(), CartStatus.ACTIVE, CartStatus.ABANDONED) == 0) {
+            return false;
+        }
+        cart.setStatus(CartStatus.ABANDONED);
+        releaseAll(cart);
+        return true;
+    }
+
+    /**
+     * Abandonne les paniers actifs expirés, y compris ceux que l'utilisateur n'a jamais rouverts.
+     *
+     * @return le nombre de paniers abandonnés
+     */
+    @Transactional
+    public int releaseExpiredHolds() {
+        List<Cart> expired = cartRepository.findByStatusAndExpiresAtBefore(CartStatus.ACTIVE, LocalDateTime.now());
+        int abandoned = 0;
+        for (Cart cart : expired) {
+            if (abandon(cart)) {
+                abandoned++;
+            }
+        }
+        if (abandoned > 0) {
+            log.info("{} panier(s) expiré(s) abandonné(s), places libérées", abandoned);
+        }
+        return abandoned;
+    }
+
+    public static int seatsOf(CartItems item) {
+        return item.getQuantity() * item.getOffer().getNumberOfTickets();
+    }
+
+    /**
+     * Regroupe les places du panier par événement, triés par identifiant pour que deux paniers
+     * concurrents verrouillent les lignes {@code events} dans le même ordre.
+     */
+    private Map<Event, Integer> seatsPerEvent(Cart cart) {
+        Map<Event, Integer> seatsPerEvent = new TreeMap<>(Comparator.comparing(Event::getId));
+        for (CartItems item : cart.getCartItems()) {
+            seatsPerEvent.merge(item.getEvent(), seatsOf(item), Integer::sum);
+        }
+        return seatsPerEvent;
+    }
+}
@@ -0,0 +1,31 @@
+package dev.jos.back.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Stock de places des événements. L'implémentation est choisie par {@code inventory.mode} :
+ * {@code database} (par défaut) ou {@code memory}.
+ */
+public interface SeatInventory {
+
+    /**
+     * Prend des places sur un événement, sans jamais descendre sous zéro.
+     *
+     * @return {@code false} si l'événement est complet ou introuvable
+     */
+    boolean tryClaim(Long eventId, int seats);
+
+    void release(Long eventId, int seats);
+
+    /**
+     * Signale que {@code availableSlots} a été modifié directement en base (administration).
+     */
+    void refresh(Long eventId, int availableSlots);
+
+    /**
+     * Places restantes des événements {@code eventIds}, telles que ce stock les voit ; les
+     * événements introuvables sont absents du résultat.
+     */
+    Map<Long, Integer> available(Collection<Long> eventIds);
+}
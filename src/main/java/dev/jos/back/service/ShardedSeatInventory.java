@@ -0,0 +1,214 @@
+package dev.jos.back.service;
+
+import dev.jos.back.entities.Event;
+import dev.jos.back.entities.EventInventoryShard;
+import dev.jos.back.repository.EventInventoryShardRepository;
+import dev.jos.back.repository.EventRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stock réparti sur {@code inventory.shards.count} lignes de {@code event_inventory_shards} par
+ * événement. Une prise de places vise un shard tiré au hasard puis les suivants : les achats
+ * concurrents verrouillent des lignes différentes au lieu de se sérialiser sur celle d'{@code events}.
+ * <p>
+ * {@code Event.availableSlots} devient un total recalculé toutes les
+ * {@code inventory.shards.refresh-delay-ms}, utilisé pour l'affichage du catalogue.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "inventory.mode", havingValue = "sharded")
+public class ShardedSeatInventory implements SeatInventory {
+
+    private final EventRepository eventRepository;
+    private final EventInventoryShardRepository shardRepository;
+    private final TransactionTemplate newTransaction;
+    private final EntityManager entityManager;
+    private final int shardCount;
+
+    private final Map<Long, Integer> shardsPerEvent = new ConcurrentHashMap<>();
+
+    public ShardedSeatInventory(EventRepository eventRepository,
+                                EventInventoryShardRepository shardRepository,
+                                PlatformTransactionManager transactionManager,
+                                EntityManager entityManager,
+                                @Value("${inventory.shards.count:8}") int shardCount) {
+        this.eventRepository = eventRepository;
+        this.shardRepository = shardRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.entityManager = entityManager;
+        this.shardCount = shardCount;
+    }
+
+    @Override
+    @Transactional
+    public boolean tryClaim(Long eventId, int seats) {
+        int shards = shards(eventId);
+        if (shards == 0) {
+            return false;
+        }
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            if (attempt(eventId, (start + i) % shards, seats)) {
+                return true;
+            }
+        }
+        return claimAcrossShards(eventId, seats);
+    }
+
+    /**
+     * Tente une prise sur un shard dans un savepoint : en cas d'échec après attente, certaines bases
+     * (H2, MySQL) gardent le verrou de la ligne jusqu'au commit, ce qui ferait se croiser des acheteurs
+     * partis de shards différents. Revenir au savepoint libère ce verrou.
+     */
+    private boolean attempt(Long eventId, int shardNo, int seats) {
+        Session session = entityManager.unwrap(Session.class);
+        Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+        if (shardRepository.claim(eventId, shardNo, seats) > 0) {
+            return true;
+        }
+        session.doWork(connection -> connection.rollback(savepoint));
+        return false;
+    }
+
+    @Override
+    public void release(Long eventId, int seats) {
+        int shards = shards(eventId);
+        if (shards > 0) {
+            shardRepository.release(eventId, ThreadLocalRandom.current().nextInt(shards), seats);
+        }
+    }
+
+    @Override
+    public void refresh(Long eventId, int availableSlots) {
+        if (!shardsPerEvent.containsKey(eventId) && shardRepository.countByEvent_Id(eventId) == 0) {
+            return; // les shards seront créés à partir de la nouvelle valeur
+        }
+        List<Object[]> locked = shardRepository.lockSlotsByEventId(eventId);
+        int[] split = split(availableSlots, locked.size());
+        for (int i = 0; i < locked.size(); i++) {
+            shardRepository.setSlots(eventId, ((Number) locked.get(i)[0]).intValue(), split[i]);
+        }
+    }
+
+    /**
+     * Somme des shards, ou {@code events.available_slots} pour un événement pas encore réparti.
+     */
+    @Override
+    public Map<Long, Integer> available(Collection<Long> eventIds) {
+        Map<Long, Integer> available = new HashMap<>();
+        eventRepository.findAvailableSlotsByIds(eventIds).forEach(row -> available.put((Long) row[0], (Integer) row[1]));
+        shardRepository.sumSlotsByEventIds(eventIds)
+                .forEach(row -> available.put((Long) row[0], ((Number) row[1]).intValue()));
+        return available;
+    }
+
+    /**
+     * Recopie la somme des shards dans {@code events.available_slots}.
+     */
+    @Scheduled(fixedDelayString = "${inventory.shards.refresh-delay-ms:1000}")
+    @Transactional
+    public void refreshTotals() {
+        eventRepository.refreshAvailableSlotsFromShards();
+    }
+
+    /**
+     * Répartit au démarrage le stock des événements qui n'ont pas encore de shards.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeShards() {
+        eventRepository.findAll().forEach(event -> shards(event.getId()));
+    }
+
+    /**
+     * Chemin lent, quand aucun shard ne peut servir seul la demande alors que leur total suffirait :
+     * on verrouille tous les shards de l'événement et on prélève sur plusieurs d'entre eux.
+     */
+    private boolean claimAcrossShards(Long eventId, int seats) {
+        List<Object[]> locked = shardRepository.lockSlotsByEventId(eventId);
+        int total = locked.stream().mapToInt(row -> ((Number) row[1]).intValue()).sum();
+        if (total < seats) {
+            return false;
+        }
+        int missing = seats;
+        for (Object[] row : locked) {
+            int take = Math.min(((Number) row[1]).intValue(), missing);
+            if (take > 0) {
+                shardRepository.claim(eventId, ((Number) row[0]).intValue(), take);
+                missing -= take;
+            }
+            if (missing == 0) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Nombre de shards de l'événement, créés à la première utilisation dans leur propre transaction
+     * pour qu'un achat annulé ne les fasse pas disparaître.
+     *
+     * @return 0 si l'événement n'existe pas
+     */
+    private int shards(Long eventId) {
+        Integer known = shardsPerEvent.get(eventId);
+        if (known != null) {
+            return known;
+        }
+        Integer created = newTransaction.execute(status -> createShardsIfMissing(eventId));
+        if (created != null && created > 0) {
+            shardsPerEvent.put(eventId, created);
+        }
+        return created != null ? created : 0;
+    }
+
+    private int createShardsIfMissing(Long eventId) {
+        Event event = eventRepository.lockById(eventId).orElse(null);
+        if (event == null) {
+            return 0;
+        }
+        long existing = shardRepository.countByEvent_Id(eventId);
+        if (existing > 0) {
+            return (int) existing;
+        }
+        int[] split = split(event.getAvailableSlots(), shardCount);
+        for (int shardNo = 0; shardNo < shardCount; shardNo++) {
+            shardRepository.save(EventInventoryShard.builder()
+                    .event(event)
+                    .shardNo(shardNo)
+                    .availableSlots(split[shardNo])
+                    .build());
+        }
+        log.info("Stock de l'événement {} réparti sur {} shards", eventId, shardCount);
+        return shardCount;
+    }
+
+    private static int[] split(int slots, int shards) {
+        int[] split = new int[shards];
+        for (int i = 0; i < shards; i++) {
+            split[i] = slots / shards + (i < slots % shards ? 1 : 0);
+        }
+        return split;
+    }
+}
@@ -9,9 +9,11 @@ import dev.jos.back.exceptions.sport.SportNotFoundException;
 import dev.jos.back.mapper.SportMapper;
 import dev.jos.back.repository.SportRepository;
 import dev.jos.back.repository.SportTranslationRepository;
+import dev.jos.back.util.CatalogChangedEvent;
 import dev.jos.back.util.LocaleResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +31,7 @@ public class SportService {
     private final SportRepository sportRepository;
     private final SportMapper sportMapper;
     private final SportTranslationRepository sportTranslationRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     private Map<Long, SportTranslation> getTranslationMap(List<Sport> sports, String locale) {
         if ("fr".equals(locale)) return Collections.emptyMap();
@@ -89,6 +92,7 @@ public class SportService {
         });
 
         List<Sport> savedSports = sportRepository.saveAll(sportsToSave);
+        eventPublisher.publishEvent(CatalogChangedEvent.sports());
         return savedSports.stream()
                 .map(sportMapper::toDto)
                 .toList();
@@ -103,7 +107,9 @@ public class SportService {
         if (dto.icon() != null) sport.setIcon(dto.icon());
         if (dto.phases() != null) sport.setPhases(dto.phases());
         if (dto.places() != null) sport.setPlaces(dto.places());
-        return sportMapper.toDto(sportRepository.saveAndFlush(sport));
+        Sport saved = sportRepository.saveAndFlush(sport);
+        eventPublisher.publishEvent(CatalogChangedEvent.sports());
+        return sportMapper.toDto(saved);
     }
 
     @Transactional
@@ -112,5 +118,6 @@ public class SportService {
             throw new SportNotFoundException("Sport non trouvé");
         }
         sportRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.sports());
     }
 }
@@ -0,0 +1,100 @@
+package dev.jos.back.service;
+
+import dev.jos.back.config.AsyncConfig;
+import dev.jos.back.dto.payment.TransactionResponseDTO;
+import dev.jos.back.properties.TicketDeliveryProperties;
+import dev.jos.back.repository.TransactionRepository;
+import dev.jos.back.util.TicketsIssuedEvent;
+import dev.jos.back.util.enums.DeliveryStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Service
+public class TicketDeliveryService {
+
+    private final PdfTicketService pdfTicketService;
+    private final EmailService emailService;
+    private final TransactionRepository transactionRepository;
+    private final CheckoutReservationService checkoutReservationService;
+    private final TicketDeliveryProperties properties;
+    private final TaskExecutor deliveryExecutor;
+
+    public TicketDeliveryService(PdfTicketService pdfTicketService,
+                                 EmailService emailService,
+                                 TransactionRepository transactionRepository,
+                                 CheckoutReservationService checkoutReservationService,
+                                 TicketDeliveryProperties properties,
+                                 @Qualifier(AsyncConfig.TICKET_DELIVERY_EXECUTOR) TaskExecutor deliveryExecutor) {
+        this.pdfTicketService = pdfTicketService;
+        this.emailService = emailService;
+        this.transactionRepository = transactionRepository;
+        this.checkoutReservationService = checkoutReservationService;
+        this.properties = properties;
+        this.deliveryExecutor = deliveryExecutor;
+    }
+
+    /**
+     * Génère le PDF des billets et l'envoie par email une fois le checkout commité.
+     * Le traitement tourne sur le pool {@link AsyncConfig#TICKET_DELIVERY_EXECUTOR} : ni la connexion
+     * du checkout ni ses verrous ne sont retenus pendant l'appel à Resend. L'envoi est d'abord
+     * réservé ({@code SENDING}) ; s'il a déjà été repris par {@link #redeliverPending}, il n'est pas
+     * refait. Le résultat est enregistré sur la transaction pour que l'utilisateur puisse suivre l'envoi.
+     */
+    @Async(AsyncConfig.TICKET_DELIVERY_EXECUTOR)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTicketsIssued(TicketsIssuedEvent event) {
+        if (transactionRepository.claimDelivery(event.transaction().id(), LocalDateTime.now()) == 1) {
+            deliver(event);
+        }
+    }
+
+    /**
+     * Relance, au-delà de {@code ticket-delivery.retry-after-minutes}, les envois restés
+     * {@code PENDING} (tâche écartée par le pool saturé), en échec ({@code FAILED}, par exemple
+     * limite de débit de Resend) ou bloqués en {@code SENDING} par une instance arrêtée, dans la limite
+     * de {@code ticket-delivery.max-attempts} tentatives. Les envois sont confiés au pool d'envoi :
+     * le thread du planificateur ne rend ni PDF ni email. Chaque envoi est réservé avant d'être
+     * fait, pour qu'une autre instance ou l'envoi initial ne le double pas.
+     *
+     * @return le nombre d'envois relancés
+     */
+    public int redeliverPending() {
+        LocalDateTime threshold = LocalDateTime.now().minusMinutes(properties.getRetryAfterMinutes());
+        List<Long> ids = transactionRepository.findIdsToRedeliver(threshold, properties.getMaxAttempts());
+        ids.forEach(id -> deliveryExecutor.execute(() -> redeliver(id, threshold)));
+        if (!ids.isEmpty()) {
+            log.warn("{} envoi(s) de billets relancé(s)", ids.size());
+        }
+        return ids.size();
+    }
+
+    private void redeliver(Long transactionId, LocalDateTime threshold) {
+        if (transactionRepository.claimRedelivery(
+                transactionId, LocalDateTime.now(), threshold, properties.getMaxAttempts()) == 1) {
+            deliver(checkoutReservationService.ticketsIssued(transactionId));
+        }
+    }
+
+    private void deliver(TicketsIssuedEvent event) {
+        TransactionResponseDTO transaction = event.transaction();
+        DeliveryStatus status;
+        try {
+            byte[] pdf = pdfTicketService.generate(transaction, event.locale());
+            emailService.sendTicketsEmail(event.email(), event.firstName(), transaction, pdf, event.locale());
+            status = DeliveryStatus.SENT;
+        } catch (Exception e) {
+            log.warn("Envoi email billets échoué pour transaction {} : {}", transaction.id(), e.getMessage());
+            status = DeliveryStatus.FAILED;
+        }
+        transactionRepository.updateDeliveryStatus(transaction.id(), status);
+    }
+}
@@ -0,0 +1,173 @@
+package dev.jos.back.service;
+
+import dev.jos.back.util.TicketKeys;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Produit en lot les clés des billets émis au checkout.
+ * <p>
+ * Les clés aléatoires sont tirées d'un générateur DRBG propre à chaque thread, en un seul appel
+ * par lot, au lieu du générateur partagé de {@link UUID#randomUUID()}. Le SHA-256 de la clé combinée
+ * réutilise lui aussi une instance par thread.
+ * <p>
+ * Les codes-barres ne sont plus tirés au hasard : leurs numéros viennent de la séquence
+ * {@code ticket_barcode_seq}, réservée par blocs de {@value #BARCODE_BLOCK}, et portent un chiffre
+ * de contrôle de Luhn. Deux billets ne peuvent donc pas recevoir le même code.
+ */
+@Component
+public class TicketKeyMinter {
+
+    public static final String BARCODE_PREFIX = "JO2024-";
+    static final int BARCODE_BLOCK = 100;
+    private static final String BARCODE_SEQUENCE = "ticket_barcode_seq";
+    private static final int BARCODE_DIGITS = 9;
+
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(TicketKeyMinter::newRandom);
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(TicketKeyMinter::newDigest);
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final LongSupplier barcodeBlocks;
+    private long nextBarcode;
+    private long blockEnd;
+
+    @Autowired
+    public TicketKeyMinter(EntityManager entityManager) {
+        this(() -> nextSequenceValue(entityManager));
+    }
+
+    /**
+     * @param barcodeBlocks fournit le premier numéro de chaque nouveau bloc de {@value #BARCODE_BLOCK} codes
+     */
+    public TicketKeyMinter(LongSupplier barcodeBlocks) {
+        this.barcodeBlocks = barcodeBlocks;
+    }
+
+    /**
+     * Produit les clés de {@code count} billets.
+     */
+    public List<TicketKeys> mint(int count) {
+        byte[] random = new byte[count * 32];
+        RANDOM.get().nextBytes(random);
+        MessageDigest digest = SHA_256.get();
+        long[] numbers = allocateBarcodes(count);
+
+        List<TicketKeys> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String userKey = uuid(random, i * 32);
+            String ticketKey = uuid(random, i * 32 + 16);
+            byte[] hash = digest.digest((userKey + ":" + ticketKey).getBytes(StandardCharsets.UTF_8));
+            keys.add(new TicketKeys(userKey, ticketKey, HEX.formatHex(hash), barcode(numbers[i])));
+        }
+        return keys;
+    }
+
+    /**
+     * Vérifie le format et le chiffre de contrôle d'un code-barre, par exemple avant une recherche
+     * sur saisie manuelle. Les codes antérieurs, à 8 caractères hexadécimaux, ne sont pas reconnus.
+     */
+    public static boolean isValidBarcode(String barcode) {
+        if (barcode == null || !barcode.startsWith(BARCODE_PREFIX)
+                || barcode.length() != BARCODE_PREFIX.length() + BARCODE_DIGITS + 1) {
+            return false;
+        }
+        String digits = barcode.substring(BARCODE_PREFIX.length());
+        for (int i = 0; i < digits.length(); i++) {
+            if (!Character.isDigit(digits.charAt(i))) {
+                return false;
+            }
+        }
+        return checkDigit(digits.substring(0, BARCODE_DIGITS)) == digits.charAt(BARCODE_DIGITS) - '0';
+    }
+
+    private synchronized long[] allocateBarcodes(int count) {
+        long[] numbers = new long[count];
+        for (int i = 0; i < count; i++) {
+            if (nextBarcode == blockEnd) {
+                nextBarcode = barcodeBlocks.getAsLong();
+                blockEnd = nextBarcode + BARCODE_BLOCK;
+            }
+            numbers[i] = nextBarcode++;
+        }
+        return numbers;
+    }
+
+    static String barcode(long number) {
+        String digits = String.valueOf(number);
+        if (digits.length() > BARCODE_DIGITS) {
+            throw new IllegalStateException("Numéros de code-barre épuisés");
+        }
+        String padded = "0".repeat(BARCODE_DIGITS - digits.length()) + digits;
+        return BARCODE_PREFIX + padded + checkDigit(padded);
+    }
+
+    /**
+     * Chiffre de contrôle de Luhn : détecte toute erreur sur un chiffre et la plupart des inversions.
+     */
+    private static int checkDigit(String digits) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = digits.charAt(i) - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    /**
+     * UUID version 4 construit à partir de 16 octets aléatoires, comme {@link UUID#randomUUID()}.
+     */
+    private static String uuid(byte[] random, int offset) {
+        random[offset + 6] = (byte) ((random[offset + 6] & 0x0f) | 0x40);
+        random[offset + 8] = (byte) ((random[offset + 8] & 0x3f) | 0x80);
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = (msb << 8) | (random[offset + i] & 0xff);
+            lsb = (lsb << 8) | (random[offset + 8 + i] & 0xff);
+        }
+        return new UUID(msb, lsb).toString();
+    }
+
+    private static long nextSequenceValue(EntityManager entityManager) {
+        String sql = entityManager.unwrap(Session.class).getFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport().getSequenceNextValString(BARCODE_SEQUENCE);
+        return ((Number) entityManager.createNativeQuery(sql).getSingleResult()).longValue();
+    }
+
+    private static SecureRandom newRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package dev.jos.back.service;
+
+import dev.jos.back.entities.RevokedToken;
+import dev.jos.back.entities.TokenRevocation;
+import dev.jos.back.entities.User;
+import dev.jos.back.properties.JwtProperties;
+import dev.jos.back.repository.RevokedTokenRepository;
+import dev.jos.back.repository.TokenRevocationRepository;
+import dev.jos.back.util.TokenIdRevokedEvent;
+import dev.jos.back.util.TokensRevokedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Révocation des jetons, vérifiée en mémoire à chaque requête, sans lecture en base.
+ * <p>
+ * Par utilisateur : chaque jeton porte la version des jetons de son utilisateur
+ * ({@link User#getTokenVersion()}) ; un changement de rôle, d'email ou de mot de passe, ou une
+ * suppression, incrémente cette version et les jetons plus anciens sont refusés. Passé la durée de vie
+ * d'un jeton d'accès, tous les jetons émis avant la révocation ont expiré et elle est oubliée.
+ * <p>
+ * Par jeton : à la déconnexion, l'identifiant ({@code jti}) des jetons du client est révoqué
+ * jusqu'à leur expiration ({@link RevokedTokenIds}).
+ * <p>
+ * L'instance qui révoque applique la révocation après le commit ; les autres relisent les nouvelles
+ * lignes de {@code token_revocations} et {@code revoked_tokens} toutes les
+ * {@code jwt.revocation-refresh-ms}. La relecture se fait sur la date de révocation et non sur
+ * l'identifiant : une ligne peut être validée après une autre d'identifiant plus grand. Chaque
+ * passage relit donc aussi les {@code jwt.revocation-poll-overlap-ms} précédant la révocation la plus
+ * récente déjà vue ; ce recouvrement doit dépasser la plus longue transaction et le décalage
+ * d'horloge entre instances. Les lignes relues deux fois s'appliquent sans effet.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final TokenRevocationRepository revocationRepository;
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JwtProperties jwtProperties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, Revocation> revocations = new ConcurrentHashMap<>();
+    private final RevokedTokenIds revokedTokenIds;
+    private final Duration pollOverlap;
+    private LocalDateTime lastRevokedAt;
+    private LocalDateTime lastTokenRevokedAt;
+
+    @Autowired
+    public TokenRevocationService(TokenRevocationRepository revocationRepository,
+                                  RevokedTokenRepository revokedTokenRepository,
+                                  JwtProperties jwtProperties,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${jwt.revoked-tokens-capacity:100000}") int revokedTokensCapacity,
+                                  @Value("${jwt.revocation-poll-overlap-ms:60000}") long pollOverlapMs) {
+        this.revocationRepository = revocationRepository;
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.jwtProperties = jwtProperties;
+        this.eventPublisher = eventPublisher;
+        this.revokedTokenIds = new RevokedTokenIds(revokedTokensCapacity);
+        this.pollOverlap = Duration.ofMillis(pollOverlapMs);
+    }
+
+    /**
+     * Refuse les jetons déjà émis pour {@code user}, dans la transaction de l'appelant. Les jetons émis
+     * ensuite portent la nouvelle version.
+     */
+    public void revoke(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        record(user.getId(), user.getTokenVersion());
+    }
+
+    /**
+     * Refuse tous les jetons de l'utilisateur supprimé {@code userId}.
+     */
+    public void revokeAll(Long userId) {
+        record(userId, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Vrai si un jeton de version {@code tokenVersion} a été révoqué pour {@code userId}.
+     */
+    public boolean isRevoked(Long userId, int tokenVersion) {
+        Revocation revocation = revocations.get(userId);
+        return revocation != null && tokenVersion < revocation.tokenVersion();
+    }
+
+    /**
+     * Refuse le jeton {@code tokenId} jusqu'à son expiration, dans la transaction de l'appelant.
+     */
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        LocalDateTime expiration = LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault());
+        revokedTokenRepository.save(RevokedToken.builder().tokenId(tokenId).expiresAt(expiration).build());
+        eventPublisher.publishEvent(new TokenIdRevokedEvent(tokenId, expiration));
+    }
+
+    /**
+     * Vrai si le jeton {@code tokenId} a été révoqué ; {@code false} pour un jeton sans identifiant.
+     */
+    public boolean isTokenRevoked(String tokenId) {
+        return revokedTokenIds.contains(tokenId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTokensRevoked(TokensRevokedEvent revoked) {
+        apply(revoked.userId(), revoked.tokenVersion(), LocalDateTime.now());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTokenIdRevoked(TokenIdRevokedEvent revoked) {
+        revokedTokenIds.add(revoked.tokenId(), epochMillis(revoked.expiresAt()));
+    }
+
+    /**
+     * Relit les révocations enregistrées depuis le passage précédent, y compris par les autres
+     * instances, et oublie celles dont tous les jetons ont expiré.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation-refresh-ms:5000}")
+    public synchronized void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expired = now.minusNanos(jwtProperties.getAccessToken().getExpiration() * 1_000_000);
+        for (TokenRevocation revocation : revocationRepository.findRevokedSince(since(lastRevokedAt, expired))) {
+            apply(revocation.getUserId(), revocation.getTokenVersion(), revocation.getRevokedAt());
+            lastRevokedAt = latest(lastRevokedAt, revocation.getRevokedAt());
+        }
+        revocations.values().removeIf(revocation -> revocation.revokedAt().isBefore(expired));
+
+        for (RevokedToken revoked : revokedTokenRepository.findRevokedSince(since(lastTokenRevokedAt, EPOCH), now)) {
+            revokedTokenIds.add(revoked.getTokenId(), epochMillis(revoked.getExpiresAt()));
+            lastTokenRevokedAt = latest(lastTokenRevokedAt, revoked.getRevokedAt());
+        }
+        revokedTokenIds.prune(System.currentTimeMillis());
+    }
+
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime before = LocalDateTime.now().minusNanos(jwtProperties.getAccessToken().getExpiration() * 1_000_000);
+        int deleted = revocationRepository.deleteRevokedBefore(before) + revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("{} révocation(s) de jetons expirée(s) supprimée(s)", deleted);
+        }
+    }
+
+    int revokedTokenCount() {
+        return revokedTokenIds.size();
+    }
+
+    private void record(Long userId, int tokenVersion) {
+        revocationRepository.save(TokenRevocation.builder().userId(userId).tokenVersion(tokenVersion).build());
+        eventPublisher.publishEvent(new TokensRevokedEvent(userId, tokenVersion));
+    }
+
+    private void apply(Long userId, int tokenVersion, LocalDateTime revokedAt) {
+        revocations.merge(userId, new Revocation(tokenVersion, revokedAt), (current, added) ->
+                added.tokenVersion() >= current.tokenVersion() ? added : current);
+    }
+
+    /**
+     * Début de la fenêtre relue : la révocation la plus récente déjà vue moins le recouvrement,
+     * sans remonter avant {@code floor} ; {@code floor} au premier passage.
+     */
+    private LocalDateTime since(LocalDateTime lastSeen, LocalDateTime floor) {
+        if (lastSeen == null) {
+            return floor;
+        }
+        LocalDateTime since = lastSeen.minus(pollOverlap);
+        return since.isBefore(floor) ? floor : since;
+    }
+
+    private static LocalDateTime latest(LocalDateTime current, LocalDateTime candidate) {
+        return current == null || candidate.isAfter(current) ? candidate : current;
+    }
+
+    private static long epochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record Revocation(int tokenVersion, LocalDateTime revokedAt) {}
+}
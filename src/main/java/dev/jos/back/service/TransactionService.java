@@ -5,30 +5,20 @@ import dev.jos.back.dto.payment.TicketGroupResponseDTO;
 import dev.jos.back.dto.payment.TransactionResponseDTO;
 import dev.jos.back.mapper.TicketMapper;
 import dev.jos.back.entities.*;
-import dev.jos.back.exceptions.cart.CartNotFoundException;
-import dev.jos.back.exceptions.payment.CartAlreadyConvertedException;
-import dev.jos.back.exceptions.payment.CartEmptyException;
 import dev.jos.back.exceptions.payment.PaymentDeclinedException;
+import dev.jos.back.exceptions.payment.ReservationExpiredException;
 import dev.jos.back.exceptions.payment.TransactionNotFoundException;
 import dev.jos.back.exceptions.user.UserNotFoundException;
-import dev.jos.back.repository.CartRepository;
-import dev.jos.back.repository.EventRepository;
 import dev.jos.back.repository.TicketRepository;
 import dev.jos.back.repository.TransactionRepository;
 import dev.jos.back.repository.UserRepository;
 import dev.jos.back.util.PaymentResult;
-import dev.jos.back.util.enums.CartStatus;
 import dev.jos.back.util.enums.TransactionStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -39,84 +29,102 @@ import java.util.stream.Collectors;
 public class TransactionService implements ICheckoutService {
 
     private final UserRepository userRepository;
-    private final CartRepository cartRepository;
     private final TransactionRepository transactionRepository;
     private final TicketRepository ticketRepository;
-    private final EventRepository eventRepository;
     private final PaymentGateway paymentGateway;
     private final PdfTicketService pdfTicketService;
-    private final EmailService emailService;
     private final TicketMapper ticketMapper;
-
-    @Transactional
+    private final CheckoutReservationService reservationService;
+    private final CheckoutIdempotencyService idempotencyService;
+
+    /**
+     * Enchaîne les trois phases du checkout : réservation des places (transaction courte),
+     * appel à la passerelle de paiement hors transaction, puis confirmation ou libération
+     * (transaction courte). Une passerelle lente ne retient ainsi aucune connexion ni verrou.
+     */
     public TransactionResponseDTO checkout(String email, CheckoutRequestDTO dto) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UserNotFoundException("Utilisateur introuvable"));
-
-        Cart cart = cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)
-                .orElseThrow(() -> new CartNotFoundException("Aucun panier actif"));
+        return checkout(email, dto, null);
+    }
 
-        if (cart.expireIfNeeded()) {
-            cartRepository.save(cart);
-            throw new CartNotFoundException("Le panier a expiré");
+    /**
+     * Checkout protégé par une clé {@code Idempotency-Key} : un appel répété avec la même clé
+     * reçoit la réponse du premier sans repasser par la passerelle de paiement. La clé n'est libérée
+     * que lorsque le client n'a certainement pas été débité (échec avant l'appel à la passerelle ou
+     * refus explicite), pour que sa nouvelle tentative soit réellement exécutée. Après une erreur de
+     * la passerelle (délai dépassé, coupure), l'issue du paiement est inconnue : la clé reste
+     * réservée et absorbe la nouvelle tentative. Une fois le paiement accepté, la clé le mémorise et
+     * la réponse est enregistrée dans la transaction qui émet les billets.
+     */
+    public TransactionResponseDTO checkout(String email, String idempotencyKey, CheckoutRequestDTO dto) {
+        Optional<TransactionResponseDTO> previous = idempotencyService.begin(email, idempotencyKey, dto);
+        if (previous.isPresent()) {
+            return previous.get();
         }
+        return checkout(email, dto, idempotencyKey);
+    }
 
-        if (cart.getStatus() == CartStatus.CONVERTED) {
-            throw new CartAlreadyConvertedException("Ce panier a déjà été payé");
+    /**
+     * @param idempotencyKey la clé réservée par {@link CheckoutIdempotencyService#begin}, ou {@code null}
+     */
+    private TransactionResponseDTO checkout(String email, CheckoutRequestDTO dto, String idempotencyKey) {
+        Long transactionId;
+        try {
+            transactionId = reservationService.reserve(email, dto.paymentMethod());
+        } catch (RuntimeException e) {
+            abandon(email, idempotencyKey);
+            throw e;
         }
 
-        if (cart.getCartItems().isEmpty()) {
-            throw new CartEmptyException("Le panier est vide");
+        PaymentResult result;
+        try {
+            result = paymentGateway.processPayment(dto.cardNumber());
+        } catch (PaymentDeclinedException e) {
+            reservationService.release(transactionId, TransactionStatus.FAILED);
+            abandon(email, idempotencyKey);
+            throw e;
+        } catch (RuntimeException e) {
+            // issue inconnue : la clé reste réservée pour ne pas débiter une seconde fois
+            reservationService.release(transactionId, TransactionStatus.FAILED);
+            throw e;
         }
 
-        BigDecimal amount = cart.getCartItems().stream()
-                .map(item -> BigDecimal.valueOf(item.getUnitPrice() * item.getQuantity()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        PaymentResult result = paymentGateway.processPayment(dto.cardNumber());
-
         if (!result.succeeded()) {
+            reservationService.release(transactionId, TransactionStatus.FAILED);
+            abandon(email, idempotencyKey);
             throw new PaymentDeclinedException(result.declineReason());
         }
 
-        String transactionKey = UUID.randomUUID().toString();
-        String paymentReference = "REF-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-
-        Transaction transaction = new Transaction();
-        transaction.setTransactionKey(transactionKey);
-        transaction.setPaymentReference(paymentReference);
-        transaction.setStatus(TransactionStatus.COMPLETED);
-        transaction.setAmount(amount);
-        transaction.setPaymentMethod(dto.paymentMethod());
-        transaction.setPayedDate(LocalDateTime.now());
-        transaction.setUser(user);
-        transaction.setCart(cart);
-        transactionRepository.save(transaction);
-
-        List<Ticket> tickets = generateTickets(cart, transaction, user);
-        ticketRepository.saveAll(tickets);
-
-        Map<Event, Long> ticketsPerEvent = tickets.stream()
-                .collect(Collectors.groupingBy(Ticket::getEvent, Collectors.counting()));
-        ticketsPerEvent.forEach((event, count) -> {
-            event.setAvailableSlots(Math.max(0, event.getAvailableSlots() - count.intValue()));
-            eventRepository.save(event);
-        });
-
-        cart.setStatus(CartStatus.CONVERTED);
-        cartRepository.save(cart);
-
-        TransactionResponseDTO responseDTO = ticketMapper.toTransactionResponseDTO(transaction, tickets);
-
+        if (idempotencyKey != null) {
+            idempotencyService.markPaid(email, idempotencyKey);
+        }
         try {
-            String userLocale = user.getLocale() != null ? user.getLocale() : "fr";
-            byte[] pdf = pdfTicketService.generate(responseDTO, userLocale);
-            emailService.sendTicketsEmail(user.getEmail(), user.getFirstName(), responseDTO, pdf, userLocale);
-        } catch (Exception e) {
-            log.warn("Envoi email billets échoué pour transaction {} : {}", responseDTO.id(), e.getMessage());
+            return reservationService.confirm(transactionId, idempotencyKey);
+        } catch (ReservationExpiredException e) {
+            refundExpired(transactionId);
+            throw e;
         }
+    }
+
+    /**
+     * Compense un paiement accepté après la libération de sa réservation par le balayage : la
+     * transaction est marquée {@code REFUND_REQUIRED} puis remboursée hors transaction. Si la
+     * passerelle échoue, le statut reste {@code REFUND_REQUIRED} pour un remboursement manuel.
+     */
+    private void refundExpired(Long transactionId) {
+        reservationService.requireRefund(transactionId).ifPresent(transaction -> {
+            try {
+                paymentGateway.refund(transaction.getPaymentReference(), transaction.getAmount());
+                reservationService.markRefunded(transactionId);
+            } catch (RuntimeException e) {
+                log.error("Remboursement de la transaction {} échoué, à traiter manuellement", transactionId, e);
+            }
+        });
+    }
 
-        return responseDTO;
+    private void abandon(String email, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            idempotencyService.abandon(email, idempotencyKey);
+        }
     }
 
     @Transactional(readOnly = true)
@@ -166,46 +174,4 @@ public class TransactionService implements ICheckoutService {
                 .toList();
     }
 
-    private List<Ticket> generateTickets(Cart cart, Transaction transaction, User user) {
-        List<Ticket> tickets = new ArrayList<>();
-
-        for (CartItems item : cart.getCartItems()) {
-            int totalTicketCount = item.getQuantity() * item.getOffer().getNumberOfTickets();
-            double pricePerTicket = item.getUnitPrice() / item.getOffer().getNumberOfTickets();
-
-            for (int i = 0; i < totalTicketCount; i++) {
-                String ticketKey = UUID.randomUUID().toString();
-
-                Ticket ticket = new Ticket();
-                String userKey = UUID.randomUUID().toString();
-                ticket.setUserKey(userKey);
-                ticket.setTransactionKey(transaction.getTransactionKey());
-                ticket.setTicketKey(ticketKey);
-                ticket.setCombinedKey(computeCombinedKey(userKey, ticketKey));
-                ticket.setBarcode("JO2024-" + ticketKey.substring(0, 8).toUpperCase());
-                ticket.setPrice(pricePerTicket);
-                ticket.setExpiryAt(item.getEvent().getEventDate());
-                ticket.setIsValid(true);
-                ticket.setIsScanned(false);
-                ticket.setTransaction(transaction);
-                ticket.setUser(user);
-                ticket.setEvent(item.getEvent());
-                ticket.setOffer(item.getOffer());
-                tickets.add(ticket);
-            }
-        }
-
-        return tickets;
-    }
-
-    private String computeCombinedKey(String userKey, String ticketKey) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest((userKey + ":" + ticketKey).getBytes(StandardCharsets.UTF_8));
-            return HexFormat.of().formatHex(hash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException(e);
-        }
-    }
-
 }
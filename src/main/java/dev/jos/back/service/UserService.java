@@ -28,6 +28,7 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
     private final UserMapper userMapper;
+    private final TokenRevocationService tokenRevocationService;
 
     public UserResponseDTO createUser(CreateUserDTO dto) {
         if (userRepository.existsByEmail(dto.email())) {
@@ -50,6 +51,10 @@ public class UserService {
 
         User user = userRepository.findByEmail(authEmail)
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur introuvable"));
+        if (!newEmail.equals(authEmail)) {
+            // les jetons émis portent l'ancien email
+            tokenRevocationService.revoke(user);
+        }
         user.setEmail(newEmail);
         user.setFirstName(newFirstName);
         user.setLastName(newLastName);
@@ -65,8 +70,13 @@ public class UserService {
         return userMapper.toResponseDTO(user);
     }
 
+    /**
+     * Change le mot de passe et révoque les jetons déjà émis pour l'utilisateur.
+     *
+     * @return l'utilisateur modifié, pour émettre les jetons de la session courante
+     */
     @Transactional
-    public void updatePassword(String email, String oldPassword, String newPassword) {
+    public User updatePassword(String email, String oldPassword, String newPassword) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé"));
         if (!passwordEncoder.matches(oldPassword, user.getPasswordHash())) {
@@ -75,7 +85,8 @@ public class UserService {
 
         String encodedPassword = passwordEncoder.encode(newPassword);
         user.setPasswordHash(encodedPassword);
-        userRepository.saveAndFlush(user);
+        tokenRevocationService.revoke(user);
+        return userRepository.saveAndFlush(user);
     }
 
     public void resetPassword(String email) {
@@ -115,6 +126,7 @@ public class UserService {
             throw new UserNotFoundException("Utilisateur non trouvé");
         }
         userRepository.deleteById(id);
+        tokenRevocationService.revokeAll(id);
     }
 
     @Transactional
@@ -122,6 +134,7 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("Utilisateur non trouvé"));
         user.setRole(role);
+        tokenRevocationService.revoke(user);
         return userMapper.toResponseDTO(userRepository.saveAndFlush(user));
     }
 }
\ No newline at end of file
@@ -0,0 +1,267 @@
+package dev.jos.back.service;
+
+import dev.jos.back.dto.queue.QueueStatusDTO;
+import dev.jos.back.entities.Event;
+import dev.jos.back.exceptions.event.EventNotFoundException;
+import dev.jos.back.exceptions.queue.InvalidQueueTokenException;
+import dev.jos.back.exceptions.queue.QueueAdmissionRequiredException;
+import dev.jos.back.properties.QueueProperties;
+import dev.jos.back.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Salle d'attente virtuelle placée devant le panier et le paiement lors des ouvertures de vente.
+ * <p>
+ * Chaque acheteur qui rejoint la file d'un événement en vente reçoit un rang et un jeton signé
+ * (HMAC, clé {@code queue.secret}) qui porte l'événement, le rang et l'email de l'acheteur : la
+ * vérification d'un jeton ne demande ni base ni session, et un jeton ne sert qu'à son titulaire. Le front d'admission de chaque
+ * événement avance de {@code queue.admit-per-second} rangs par seconde, avec une réserve de
+ * {@code queue.burst} rangs : hors affluence, un acheteur est admis dès son arrivée.
+ * <p>
+ * Les rangs sont tenus en mémoire : réservé à un déploiement mono-instance, et un redémarrage
+ * remet les files à zéro. Seuls les événements en vente ont une file, et une file sans nouvel
+ * arrivant depuis la durée de vie d'un jeton est supprimée par {@link #purgeIdleQueues()}.
+ */
+@Service
+public class WaitingRoomService {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * Attribut de requête où {@code QueueAdmissionFilter} dépose les événements pour lesquels
+     * l'appelant a présenté un jeton admis.
+     */
+    public static final String ADMITTED_EVENTS_ATTRIBUTE = WaitingRoomService.class.getName() + ".ADMITTED_EVENTS";
+
+    private final QueueProperties properties;
+    private final EventRepository eventRepository;
+    private final Clock clock;
+    private final SecretKeySpec signingKey;
+    private final Map<Long, EventQueue> queues = new ConcurrentHashMap<>();
+
+    @Autowired
+    public WaitingRoomService(QueueProperties properties, EventRepository eventRepository) {
+        this(properties, eventRepository, Clock.systemUTC());
+    }
+
+    WaitingRoomService(QueueProperties properties, EventRepository eventRepository, Clock clock) {
+        this.properties = properties;
+        this.eventRepository = eventRepository;
+        this.clock = clock;
+        this.signingKey = new SecretKeySpec(secret(properties), "HmacSHA256");
+    }
+
+    /**
+     * Clé de signature des jetons, distincte de la clé JWT. Exigée quand la file est active ;
+     * sinon une clé aléatoire suffit, les jetons n'étant vérifiés nulle part.
+     */
+    private static byte[] secret(QueueProperties properties) {
+        if (properties.getSecret() != null && !properties.getSecret().isBlank()) {
+            return properties.getSecret().getBytes(StandardCharsets.UTF_8);
+        }
+        if (properties.isEnabled()) {
+            throw new IllegalStateException("queue.secret est obligatoire quand queue.enabled est actif");
+        }
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+
+    /**
+     * Place l'acheteur en fin de file de l'événement et lui remet un jeton à son nom.
+     *
+     * @param eventId l'événement dont la vente est visée
+     * @param email   l'email de l'acheteur authentifié, seul porteur valide du jeton
+     * @return le rang attribué, le jeton et l'attente estimée
+     * @throws EventNotFoundException si l'événement n'existe pas ou n'est pas en vente
+     */
+    public QueueStatusDTO join(Long eventId, String email) {
+        Event event = eventRepository.findById(eventId)
+                .filter(this::isOnSale)
+                .orElseThrow(() -> new EventNotFoundException("Aucune vente ouverte pour l'évènement : " + eventId));
+
+        EventQueue queue = queues.computeIfAbsent(event.getId(), id -> new EventQueue(properties.getBurst(), clock.millis()));
+        long position = queue.issued.incrementAndGet();
+        queue.lastJoin = clock.millis();
+        String token = sign(eventId + ":" + position + ":" + clock.millis() + ":" + email);
+        return status(token, queue, eventId, position);
+    }
+
+    /**
+     * Retourne la situation du porteur du jeton dans sa file, sans accès à la base.
+     *
+     * @param token le jeton remis par {@link #join(Long, String)}
+     * @return la situation courante du porteur
+     * @throws InvalidQueueTokenException si le jeton est absent, altéré ou expiré
+     */
+    public QueueStatusDTO status(String token) {
+        return check(token).orElseThrow(() -> new InvalidQueueTokenException("Jeton de file d'attente invalide ou expiré"));
+    }
+
+    /**
+     * Variante de {@link #status(String)} sans exception.
+     *
+     * @param token le jeton reçu, éventuellement {@code null}
+     * @return vide si le jeton est absent, altéré, expiré ou si sa file a été supprimée
+     */
+    public Optional<QueueStatusDTO> check(String token) {
+        return check(token, null);
+    }
+
+    /**
+     * Variante de {@link #check(String)} qui n'accepte que les jetons remis à {@code email},
+     * pour le filtre d'admission.
+     *
+     * @param token le jeton reçu, éventuellement {@code null}
+     * @param email l'email de l'appelant authentifié
+     * @return vide si le jeton est absent, altéré, expiré ou remis à un autre acheteur
+     */
+    public Optional<QueueStatusDTO> check(String token, String email) {
+        String[] fields = verify(token);
+        if (fields == null || (email != null && !email.equals(fields[3]))) {
+            return Optional.empty();
+        }
+        try {
+            Long eventId = Long.parseLong(fields[0]);
+            long position = Long.parseLong(fields[1]);
+            long issuedAt = Long.parseLong(fields[2]);
+            EventQueue queue = queues.get(eventId);
+            if (queue == null || clock.millis() - issuedAt > tokenTtlMillis()) {
+                return Optional.empty();
+            }
+            return Optional.of(status(token, queue, eventId, position));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Vérifie que la requête en cours a présenté un jeton admis pour chacun des événements visés.
+     * Sans effet hors d'une requête gardée par {@code QueueAdmissionFilter} (file inactive,
+     * traitement planifié) : le filtre dépose la liste des événements admis, le service qui
+     * connaît les événements réellement touchés par le panier ou le paiement la contrôle ici.
+     *
+     * @param eventIds les événements dont des places vont être prises
+     * @throws QueueAdmissionRequiredException si l'un d'eux n'est couvert par aucun jeton admis
+     */
+    public void requireAdmitted(Collection<Long> eventIds) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null
+                || !(request.getAttribute(ADMITTED_EVENTS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Set<?> admitted)) {
+            return;
+        }
+        for (Long eventId : eventIds) {
+            if (!admitted.contains(eventId)) {
+                throw new QueueAdmissionRequiredException(
+                        "Veuillez rejoindre la file d'attente de l'évènement " + eventId);
+            }
+        }
+    }
+
+    /**
+     * Supprime les files sans nouvel arrivant depuis la durée de vie d'un jeton : plus aucun
+     * jeton valide n'y fait référence.
+     */
+    public void purgeIdleQueues() {
+        long threshold = clock.millis() - tokenTtlMillis();
+        queues.values().removeIf(queue -> queue.lastJoin < threshold);
+    }
+
+    private boolean isOnSale(Event event) {
+        return Boolean.TRUE.equals(event.getIsActive())
+                && event.getEventDate().isAfter(LocalDateTime.ofInstant(clock.instant(), ZoneOffset.UTC));
+    }
+
+    private long tokenTtlMillis() {
+        return TimeUnit.MINUTES.toMillis(properties.getTokenTtlMinutes());
+    }
+
+    private QueueStatusDTO status(String token, EventQueue queue, Long eventId, long position) {
+        long admittedUpTo = queue.admittedUpTo(clock.millis());
+        boolean admitted = position <= admittedUpTo;
+        long wait = admitted ? 0 : (long) Math.ceil((position - admittedUpTo) / properties.getAdmitPerSecond());
+        return new QueueStatusDTO(token, eventId, position, admittedUpTo, admitted, wait);
+    }
+
+    private String sign(String payload) {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(bytes) + "." + ENCODER.encodeToString(hmac(bytes));
+    }
+
+    private String[] verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+        try {
+            byte[] payload = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(hmac(payload), signature)) {
+                return null;
+            }
+            String[] fields = new String(payload, StandardCharsets.UTF_8).split(":", 4);
+            return fields.length == 4 ? fields : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] hmac(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(signingKey);
+            return mac.doFinal(payload);
+        } catch (Exception e) {
+            throw new IllegalStateException("HMAC computation failed", e);
+        }
+    }
+
+    /**
+     * File d'un événement : rangs distribués et front d'admission, alimenté comme un seau à jetons
+     * et plafonné à {@code burst} rangs au-delà du dernier rang distribué.
+     */
+    private final class EventQueue {
+
+        private final AtomicLong issued = new AtomicLong();
+        private volatile long lastJoin;
+        private double frontier;
+        private long lastRefill;
+
+        private EventQueue(int burst, long now) {
+            this.frontier = burst;
+            this.lastRefill = now;
+            this.lastJoin = now;
+        }
+
+        private synchronized long admittedUpTo(long now) {
+            double refill = (now - lastRefill) / 1000.0 * properties.getAdmitPerSecond();
+            frontier = Math.min(issued.get() + properties.getBurst(), frontier + Math.max(0, refill));
+            lastRefill = now;
+            return (long) frontier;
+        }
+    }
+}
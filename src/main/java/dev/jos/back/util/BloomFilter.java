@@ -0,0 +1,68 @@
+package dev.jos.back.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtre de Bloom de chaînes : {@link #mightContain} ne répond jamais {@code false} pour une chaîne
+ * ajoutée, et répond {@code true} à tort pour environ 1 % des autres tant que le filtre ne dépasse
+ * pas sa capacité. Dix bits par élément attendu, sept fonctions de hachage dérivées de deux
+ * (Kirsch–Mitzenmacher). Les ajouts et les lectures peuvent être concurrents.
+ */
+public final class BloomFilter {
+
+    private static final int HASHES = 7;
+    private static final int BITS_PER_ELEMENT = 10;
+
+    private final AtomicLongArray words;
+    private final int capacity;
+    private final long bitCount;
+
+    public BloomFilter(int capacity) {
+        this.capacity = Math.max(capacity, 64);
+        this.words = new AtomicLongArray((int) Math.ceilDiv((long) this.capacity * BITS_PER_ELEMENT, 64));
+        this.bitCount = (long) words.length() * 64;
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            long mask = 1L << bit;
+            words.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * FNV-1a 64 bits, suivi d'un mélange final pour répartir les bits de poids faible.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
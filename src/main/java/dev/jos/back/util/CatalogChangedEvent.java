@@ -0,0 +1,28 @@
+package dev.jos.back.util;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Événement applicatif publié par les services du catalogue à chaque modification.
+ * Il n'est traité qu'après le commit, pour recharger la partie concernée du catalogue en mémoire.
+ *
+ * @param section la partie du catalogue modifiée
+ * @param ids     les événements créés, modifiés ou supprimés ({@link Section#EVENTS} uniquement)
+ */
+public record CatalogChangedEvent(Section section, List<Long> ids) {
+
+    public enum Section { EVENTS, SPORTS, OFFERS }
+
+    public static CatalogChangedEvent events(Collection<Long> ids) {
+        return new CatalogChangedEvent(Section.EVENTS, List.copyOf(ids));
+    }
+
+    public static CatalogChangedEvent sports() {
+        return new CatalogChangedEvent(Section.SPORTS, List.of());
+    }
+
+    public static CatalogChangedEvent offers() {
+        return new CatalogChangedEvent(Section.OFFERS, List.of());
+    }
+}
@@ -1,7 +1,13 @@
 package dev.jos.back.util;
 
+import dev.jos.back.service.CheckoutIdempotencyService;
+import dev.jos.back.service.CheckoutReservationService;
 import dev.jos.back.service.PasswordResetTokenService;
+import dev.jos.back.service.SeatHoldService;
+import dev.jos.back.service.TicketDeliveryService;
+import dev.jos.back.service.TokenRevocationService;
 import dev.jos.back.service.TwoFactorService;
+import dev.jos.back.service.WaitingRoomService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -12,6 +18,12 @@ public class CleanUp {
 
     private final TwoFactorService twoFactorService;
     private final PasswordResetTokenService passwordResetTokenService;
+    private final CheckoutReservationService checkoutReservationService;
+    private final SeatHoldService seatHoldService;
+    private final CheckoutIdempotencyService checkoutIdempotencyService;
+    private final TokenRevocationService tokenRevocationService;
+    private final TicketDeliveryService ticketDeliveryService;
+    private final WaitingRoomService waitingRoomService;
 
     @Scheduled(cron = "0 0 3 * * *")
     public void cleanTwoFactorCodes() {
@@ -22,4 +34,34 @@ public class CleanUp {
     public void cleanResetPasswordTokens() {
         passwordResetTokenService.purgeExpiredCodes();
     }
+
+    @Scheduled(cron = "0 0 * * * *")
+    public void cleanCheckoutIdempotencyKeys() {
+        checkoutIdempotencyService.purgeExpired();
+    }
+
+    @Scheduled(cron = "0 0 * * * *")
+    public void cleanTokenRevocations() {
+        tokenRevocationService.purgeExpired();
+    }
+
+    @Scheduled(cron = "0 0 * * * *")
+    public void cleanIdleWaitingRoomQueues() {
+        waitingRoomService.purgeIdleQueues();
+    }
+
+    @Scheduled(fixedDelayString = "${checkout.sweeper-delay-ms:60000}")
+    public void releaseStaleReservations() {
+        checkoutReservationService.releaseStaleReservations();
+    }
+
+    @Scheduled(fixedDelayString = "${cart.sweeper-delay-ms:60000}")
+    public void releaseExpiredCartHolds() {
+        seatHoldService.releaseExpiredHolds();
+    }
+
+    @Scheduled(fixedDelayString = "${ticket-delivery.retry-delay-ms:300000}")
+    public void redeliverPendingTickets() {
+        ticketDeliveryService.redeliverPending();
+    }
 }
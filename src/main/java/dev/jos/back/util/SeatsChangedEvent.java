@@ -0,0 +1,11 @@
+package dev.jos.back.util;
+
+/**
+ * Événement applicatif publié quand le stock de places d'un événement change (blocage ou libération
+ * de places par un panier, modification par un administrateur). Il n'est traité qu'après le commit,
+ * pour pousser la nouvelle disponibilité aux clients abonnés au flux.
+ *
+ * @param eventId l'événement dont le stock a changé
+ */
+public record SeatsChangedEvent(Long eventId) {
+}
@@ -0,0 +1,11 @@
+package dev.jos.back.util;
+
+/**
+ * Clés d'un billet produites par {@link dev.jos.back.service.TicketKeyMinter}.
+ *
+ * @param userKey     clé aléatoire propre au porteur (UUID)
+ * @param ticketKey   clé aléatoire du billet (UUID)
+ * @param combinedKey SHA-256 hexadécimal de {@code userKey:ticketKey}, encodé dans le QR code
+ * @param barcode     code-barre unique {@code JO2024-} suivi de 9 chiffres et d'un chiffre de contrôle
+ */
+public record TicketKeys(String userKey, String ticketKey, String combinedKey, String barcode) {}
@@ -0,0 +1,19 @@
+package dev.jos.back.util;
+
+import dev.jos.back.dto.payment.TransactionResponseDTO;
+
+/**
+ * Événement applicatif publié par le checkout une fois les billets générés.
+ * Il n'est traité qu'après le commit de la transaction, hors du thread de la requête.
+ *
+ * @param email       l'adresse email de l'acheteur
+ * @param firstName   le prénom de l'acheteur
+ * @param locale      la langue dans laquelle rendre le PDF et l'email
+ * @param transaction la transaction et ses billets, tels que renvoyés au client
+ */
+public record TicketsIssuedEvent(
+        String email,
+        String firstName,
+        String locale,
+        TransactionResponseDTO transaction
+) {}
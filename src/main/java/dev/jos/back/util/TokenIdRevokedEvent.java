@@ -0,0 +1,13 @@
+package dev.jos.back.util;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement applicatif publié quand un jeton est révoqué par son identifiant (déconnexion). Il
+ * n'est traité qu'après le commit, pour refuser aussitôt le jeton sur cette instance.
+ *
+ * @param tokenId   l'identifiant {@code jti} du jeton
+ * @param expiresAt l'expiration du jeton
+ */
+public record TokenIdRevokedEvent(String tokenId, LocalDateTime expiresAt) {
+}
@@ -0,0 +1,12 @@
+package dev.jos.back.util;
+
+/**
+ * Événement applicatif publié quand la version des jetons d'un utilisateur change (rôle, email,
+ * suppression). Il n'est traité qu'après le commit, pour refuser aussitôt sur cette instance les
+ * jetons d'accès de version antérieure.
+ *
+ * @param userId       l'utilisateur concerné
+ * @param tokenVersion la plus petite version de jeton encore acceptée
+ */
+public record TokensRevokedEvent(Long userId, int tokenVersion) {
+}
@@ -2,6 +2,7 @@ package dev.jos.back.util.enums;
 
 public enum CartStatus {
     ACTIVE,
+    PENDING_PAYMENT,
     ABANDONED,
     CONVERTED
 }
@@ -0,0 +1,8 @@
+package dev.jos.back.util.enums;
+
+public enum DeliveryStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
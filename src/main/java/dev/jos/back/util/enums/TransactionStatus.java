@@ -4,5 +4,8 @@ public enum TransactionStatus {
     PENDING,
     COMPLETED,
     CANCELED,
-    FAILED
+    FAILED,
+    EXPIRED,
+    REFUND_REQUIRED,
+    REFUNDED
 }
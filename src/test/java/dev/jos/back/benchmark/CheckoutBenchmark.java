@@ -0,0 +1,100 @@
+package dev.jos.back.benchmark;
+
+import dev.jos.back.BackApplication;
+import dev.jos.back.entities.Cart;
+import dev.jos.back.entities.CartItems;
+import dev.jos.back.entities.Event;
+import dev.jos.back.entities.Offer;
+import dev.jos.back.entities.Sport;
+import dev.jos.back.entities.User;
+import dev.jos.back.repository.*;
+import dev.jos.back.service.CheckoutReservationService;
+import dev.jos.back.support.TestFixtures;
+import dev.jos.back.util.enums.CartStatus;
+import dev.jos.back.util.enums.PaymentMethod;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latence de la réservation puis de la confirmation d'un checkout selon le nombre de billets émis.
+ * Chaque appel est annulé en fin de mesure : le panier reste actif pour l'appel suivant et
+ * l'envoi des billets, déclenché après le commit, ne parasite pas la mesure.
+ * <p>
+ * {@code mvn -Pbenchmark -DskipTests verify -Dbenchmark=CheckoutBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    private static final String EMAIL = "bench@jo2024.fr";
+
+    @Param({"1", "10", "100"})
+    private int tickets;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private CheckoutReservationService reservationService;
+    private EntityManager entityManager;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(BackApplication.class)
+                .profiles("test")
+                .run(
+                        "--spring.main.web-application-type=none",
+                        "--spring.datasource.url=jdbc:h2:mem:bench-checkout-" + tickets + ";DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        reservationService = context.getBean(CheckoutReservationService.class);
+        entityManager = context.getBean(EntityManager.class);
+
+        User user = context.getBean(UserRepository.class).save(TestFixtures.user(EMAIL));
+        Sport sport = context.getBean(SportRepository.class).save(Sport.builder()
+                .name("Athlétisme").description("desc").icon("icon.svg").build());
+        Event event = TestFixtures.event("100m Finale", 1_000_000);
+        event.setSport(sport);
+        event = context.getBean(EventRepository.class).save(event);
+        Offer offer = context.getBean(OfferRepository.class).save(TestFixtures.offer("Solo", 50.0, 1));
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cart.setStatus(CartStatus.ACTIVE);
+        cart.setExpiresAt(LocalDateTime.now().plusDays(1));
+        cart = context.getBean(CartRepository.class).save(cart);
+
+        CartItems item = new CartItems();
+        item.setCart(cart);
+        item.setEvent(event);
+        item.setOffer(offer);
+        item.setQuantity(tickets);
+        item.setUnitPrice(50.0);
+        context.getBean(CartItemsRepository.class).save(item);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object checkout() {
+        return transactionTemplate.execute(status -> {
+            Long transactionId = reservationService.reserve(EMAIL, PaymentMethod.CREDIT_CARD);
+            Object response = reservationService.confirm(transactionId);
+            entityManager.flush();
+            status.setRollbackOnly();
+            return response;
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package dev.jos.back.benchmark;
+
+import dev.jos.back.config.JwtAuthenticationFilter;
+import dev.jos.back.entities.User;
+import dev.jos.back.properties.JwtProperties;
+import dev.jos.back.service.JwtService;
+import dev.jos.back.service.TokenRevocationService;
+import dev.jos.back.util.enums.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût par requête de l'authentification par jeton d'accès, hors lecture de l'utilisateur en base :
+ * traitement d'origine (clé HMAC et parseur reconstruits à chaque appel, jeton décodé deux fois par
+ * {@code validateToken} puis {@code getUsernameFromToken}) contre {@link JwtAuthenticationFilter} en
+ * mode {@code jwt.stateless}, sans puis avec le cache des jetons vérifiés.
+ * <p>
+ * {@code mvn -Pbenchmark -DskipTests verify -Dbenchmark=JwtFilterBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private String token;
+    private JwtAuthenticationFilter uncachedFilter;
+    private JwtAuthenticationFilter cachedFilter;
+
+    @Setup
+    public void setUp() {
+        JwtService uncached = new JwtService(properties(0));
+        JwtService cached = new JwtService(properties(10_000));
+        token = uncached.generateAccessToken(User.builder()
+                .id(42L).email("alice@example.com").role(Role.ROLE_USER).tokenVersion(1).build());
+        uncachedFilter = filter(uncached, properties(0));
+        cachedFilter = filter(cached, properties(10_000));
+    }
+
+    @Benchmark
+    public Authentication legacy() {
+        if (!legacyValidate(token)) {
+            return null;
+        }
+        String email = legacyClaims(token).getSubject();
+        // l'utilisateur était ensuite relu en base : ce coût n'est pas mesuré ici
+        return new UsernamePasswordAuthenticationToken(email, null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Benchmark
+    public Authentication statelessFilter() throws Exception {
+        return run(uncachedFilter);
+    }
+
+    @Benchmark
+    public Authentication statelessFilter_cachedClaims() throws Exception {
+        return run(cachedFilter);
+    }
+
+    private Authentication run(JwtAuthenticationFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie("access_token", token));
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    private static boolean legacyValidate(String token) {
+        try {
+            legacyClaims(token);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    private static JwtAuthenticationFilter filter(JwtService jwtService, JwtProperties properties) {
+        // aucune révocation : la vérification en mémoire ne lit pas la base
+        TokenRevocationService revocations = new TokenRevocationService(null, null, properties, null, 1_000, 60_000);
+        return new JwtAuthenticationFilter(jwtService, null, properties, revocations);
+    }
+
+    private static JwtProperties properties(int claimsCacheSize) {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        JwtProperties.AccessToken accessToken = new JwtProperties.AccessToken();
+        accessToken.setExpiration(3_600_000L);
+        accessToken.setCookieName("access_token");
+        properties.setAccessToken(accessToken);
+        properties.setStateless(true);
+        properties.setClaimsCacheSize(claimsCacheSize);
+        return properties;
+    }
+}
@@ -0,0 +1,86 @@
+package dev.jos.back.benchmark;
+
+import dev.jos.back.BackApplication;
+import dev.jos.back.entities.User;
+import dev.jos.back.repository.UserRepository;
+import dev.jos.back.service.JwtService;
+import dev.jos.back.support.TestFixtures;
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.SecurityFilterChain;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Surcoût de la sécurité sur {@code GET /api/events/available} pour un utilisateur connecté (cookie
+ * {@code access_token} présent), hors contrôleur : chaîne authentifiée seule, comme avant la chaîne
+ * publique, contre les deux chaînes de {@link dev.jos.back.config.SecurityConfig}. Mesuré avec la
+ * relecture de l'utilisateur en base (H2 en mémoire) et en mode {@code jwt.stateless}.
+ * <p>
+ * {@code mvn -Pbenchmark -DskipTests verify -Dbenchmark=PublicCatalogChainBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PublicCatalogChainBenchmark {
+
+    @Param({"false", "true"})
+    private boolean stateless;
+
+    private ConfigurableApplicationContext context;
+    private FilterChainProxy authenticatedOnly;
+    private FilterChainProxy withPublicChain;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(BackApplication.class)
+                .profiles("test")
+                .run(
+                        "--spring.main.web-application-type=none",
+                        "--spring.datasource.url=jdbc:h2:mem:bench-public-chain-" + stateless + ";DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.jpa.show-sql=false",
+                        "--jwt.stateless=" + stateless,
+                        "--logging.level.root=WARN");
+        User user = context.getBean(UserRepository.class).save(TestFixtures.user("bench@jo2024.fr"));
+        token = context.getBean(JwtService.class).generateAccessToken(user);
+
+        SecurityFilterChain publicChain = context.getBean("publicCatalogFilterChain", SecurityFilterChain.class);
+        SecurityFilterChain mainChain = context.getBean("filterChain", SecurityFilterChain.class);
+        authenticatedOnly = new FilterChainProxy(mainChain);
+        withPublicChain = new FilterChainProxy(List.of(publicChain, mainChain));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse authenticatedChain() throws Exception {
+        return run(authenticatedOnly);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse publicChain() throws Exception {
+        return run(withPublicChain);
+    }
+
+    private MockHttpServletResponse run(FilterChainProxy proxy) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/events/available");
+        request.setCookies(new Cookie("access_token", token));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        proxy.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
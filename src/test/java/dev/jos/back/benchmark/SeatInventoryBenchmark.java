@@ -0,0 +1,102 @@
+package dev.jos.back.benchmark;
+
+import dev.jos.back.BackApplication;
+import dev.jos.back.entities.Event;
+import dev.jos.back.entities.Sport;
+import dev.jos.back.repository.EventRepository;
+import dev.jos.back.repository.SportRepository;
+import dev.jos.back.service.DatabaseSeatInventory;
+import dev.jos.back.service.SeatInventory;
+import dev.jos.back.support.TestFixtures;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit de prise de places sur un seul événement très demandé, selon trois chemins :
+ * lecture-modification-écriture JPA (checkout d'origine), requête conditionnelle
+ * ({@code inventory.mode=database}) et compteur en mémoire ({@code inventory.mode=memory}).
+ * <p>
+ * {@code mvn -Pbenchmark -DskipTests verify -Dbenchmark=SeatInventoryBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(8)
+public class SeatInventoryBenchmark {
+
+    private static final int SLOTS = 1_000_000_000;
+
+    private ConfigurableApplicationContext context;
+    private EventRepository eventRepository;
+    private TransactionTemplate transactionTemplate;
+    private SeatInventory memoryInventory;
+    private SeatInventory databaseInventory;
+    private Long eventId;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(BackApplication.class)
+                .profiles("test")
+                .run(
+                        "--spring.main.web-application-type=none",
+                        "--spring.datasource.url=jdbc:h2:mem:bench-inventory;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--inventory.mode=memory");
+        eventRepository = context.getBean(EventRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        memoryInventory = context.getBean(SeatInventory.class);
+        databaseInventory = new DatabaseSeatInventory(eventRepository);
+
+        Sport sport = context.getBean(SportRepository.class).save(Sport.builder()
+                .name("Athlétisme").description("desc").icon("icon.svg").build());
+        Event event = TestFixtures.event("100m Finale", SLOTS);
+        event.setCapacity(SLOTS);
+        event.setSport(sport);
+        eventId = eventRepository.save(event).getId();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStock() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Event event = eventRepository.findById(eventId).orElseThrow();
+            event.setAvailableSlots(SLOTS);
+        });
+        memoryInventory.refresh(eventId, SLOTS);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean jpaReadModifyWrite() {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Event event = eventRepository.findById(eventId).orElseThrow();
+            if (event.getAvailableSlots() < 1) {
+                return false;
+            }
+            event.setAvailableSlots(event.getAvailableSlots() - 1);
+            eventRepository.save(event);
+            return true;
+        }));
+    }
+
+    @Benchmark
+    public boolean conditionalUpdate() {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> databaseInventory.tryClaim(eventId, 1)));
+    }
+
+    @Benchmark
+    public boolean inMemory() {
+        return memoryInventory.tryClaim(eventId, 1);
+    }
+}
@@ -0,0 +1,83 @@
+package dev.jos.back.benchmark;
+
+import dev.jos.back.BackApplication;
+import dev.jos.back.entities.Event;
+import dev.jos.back.entities.Sport;
+import dev.jos.back.repository.EventRepository;
+import dev.jos.back.repository.SportRepository;
+import dev.jos.back.service.ShardedSeatInventory;
+import dev.jos.back.support.TestFixtures;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit de prise de places sur un seul événement selon le nombre de shards
+ * ({@code inventory.mode=sharded}). Chaque achat garde son verrou 5 ms, comme le reste de la
+ * transaction d'ajout au panier : avec un seul shard, les acheteurs se sérialisent sur la même ligne.
+ * <p>
+ * {@code mvn -Pbenchmark -DskipTests verify -Dbenchmark=ShardedSeatInventoryBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(16)
+public class ShardedSeatInventoryBenchmark {
+
+    private static final int SLOTS = 1_000_000_000;
+
+    @Param({"1", "8"})
+    private int shards;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private ShardedSeatInventory inventory;
+    private Long eventId;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(BackApplication.class)
+                .profiles("test")
+                .run(
+                        "--spring.main.web-application-type=none",
+                        "--spring.datasource.url=jdbc:h2:mem:bench-shards-" + shards + ";DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--inventory.mode=sharded",
+                        "--inventory.shards.count=" + shards);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        inventory = context.getBean(ShardedSeatInventory.class);
+
+        Sport sport = context.getBean(SportRepository.class).save(Sport.builder()
+                .name("Athlétisme").description("desc").icon("icon.svg").build());
+        Event event = TestFixtures.event("100m Finale", SLOTS);
+        event.setCapacity(SLOTS);
+        event.setSport(sport);
+        eventId = context.getBean(EventRepository.class).save(event).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean claimHoldingTheLock() {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            boolean claimed = inventory.tryClaim(eventId, 1);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return claimed;
+        }));
+    }
+}
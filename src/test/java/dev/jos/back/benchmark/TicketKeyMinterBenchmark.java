@@ -0,0 +1,84 @@
+package dev.jos.back.benchmark;
+
+import dev.jos.back.service.TicketKeyMinter;
+import dev.jos.back.util.TicketKeys;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Débit de production des clés de billets par cœur, pour un checkout de 40 billets : génération
+ * d'origine (deux {@link UUID#randomUUID()} et un {@link MessageDigest} neuf par billet) contre
+ * {@link TicketKeyMinter}. La séquence des codes-barres est simulée en mémoire.
+ * <p>
+ * {@code mvn -Pbenchmark -DskipTests verify -Dbenchmark=TicketKeyMinterBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TicketKeyMinterBenchmark {
+
+    private static final int TICKETS = 40;
+
+    private final AtomicLong sequence = new AtomicLong(1);
+    private final TicketKeyMinter minter = new TicketKeyMinter(() -> sequence.getAndAdd(100) % 900_000_000L);
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(TICKETS)
+    public List<String[]> uuidPerTicket_oneThread() {
+        return legacy();
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(TICKETS)
+    public List<TicketKeys> minter_oneThread() {
+        return minter.mint(TICKETS);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    @OperationsPerInvocation(TICKETS)
+    public List<String[]> uuidPerTicket_allCores() {
+        return legacy();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    @OperationsPerInvocation(TICKETS)
+    public List<TicketKeys> minter_allCores() {
+        return minter.mint(TICKETS);
+    }
+
+    private static List<String[]> legacy() {
+        List<String[]> keys = new ArrayList<>(TICKETS);
+        for (int i = 0; i < TICKETS; i++) {
+            String ticketKey = UUID.randomUUID().toString();
+            String userKey = UUID.randomUUID().toString();
+            keys.add(new String[]{userKey, ticketKey, combinedKey(userKey, ticketKey),
+                    "JO2024-" + ticketKey.substring(0, 8).toUpperCase()});
+        }
+        return keys;
+    }
+
+    private static String combinedKey(String userKey, String ticketKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest((userKey + ":" + ticketKey).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package dev.jos.back.config;
+
+import dev.jos.back.exceptions.auth.PasswordHashingBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void encodeAndMatches_runOnThePool_andRecordTheirDuration() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), pool, 2, meterRegistry);
+
+        String hash = encoder.encode("secret");
+
+        assertThat(encoder.matches("secret", hash)).isTrue();
+        assertThat(encoder.matches("wrong", hash)).isFalse();
+        assertThat(meterRegistry.get("password.hashing").tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("password.hashing").tag("operation", "matches").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void encode_isRejected_whenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking(started, release), pool, 2, meterRegistry);
+        callers.submit(() -> encoder.encode("first"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        callers.submit(() -> encoder.encode("queued"));
+        waitForQueued(1);
+
+        assertThatThrownBy(() -> encoder.encode("rejected"))
+                .isInstanceOf(PasswordHashingBusyException.class)
+                .extracting(e -> ((PasswordHashingBusyException) e).getRetryAfterSeconds()).isEqualTo(2);
+        assertThat(meterRegistry.get("password.hashing.queue").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("password.hashing.rejected").counter().count()).isEqualTo(1);
+        // un pic en cours remet le recalcul des hachages à plus tard
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("old"))).isFalse();
+        release.countDown();
+    }
+
+    @Test
+    void upgradeEncoding_asksForCheaperHashes_only() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), pool, 2, meterRegistry);
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("old"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("current"))).isFalse();
+    }
+
+    private void waitForQueued(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (pool.getQueue().size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(pool.getQueue()).hasSize(count);
+    }
+
+    private static PasswordEncoder blocking(CountDownLatch started, CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return false;
+            }
+        };
+    }
+}
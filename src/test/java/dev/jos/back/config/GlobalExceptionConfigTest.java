@@ -0,0 +1,33 @@
+package dev.jos.back.config;
+
+import dev.jos.back.dto.ErrorResponseDTO;
+import dev.jos.back.exceptions.auth.PasswordHashingBusyException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionConfigTest {
+
+    private final GlobalExceptionConfig config = new GlobalExceptionConfig();
+
+    @Test
+    void internalAuthenticationError_causedByTheHashingPool_answers503WithRetryAfter() {
+        ResponseEntity<ErrorResponseDTO> response = config.handleInternalAuthentication(
+                new InternalAuthenticationServiceException("occupé", new PasswordHashingBusyException("occupé", 2)));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+    }
+
+    @Test
+    void otherInternalAuthenticationErrors_remain500() {
+        ResponseEntity<ErrorResponseDTO> response = config.handleInternalAuthentication(
+                new InternalAuthenticationServiceException("base indisponible", new IllegalStateException()));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
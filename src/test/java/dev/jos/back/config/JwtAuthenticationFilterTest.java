@@ -0,0 +1,138 @@
+package dev.jos.back.config;
+
+import dev.jos.back.entities.User;
+import dev.jos.back.properties.JwtProperties;
+import dev.jos.back.service.CustomUserDetailsService;
+import dev.jos.back.service.JwtService;
+import dev.jos.back.service.TokenRevocationService;
+import dev.jos.back.util.enums.Role;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock CustomUserDetailsService userDetailsService;
+    @Mock TokenRevocationService tokenRevocationService;
+
+    JwtProperties props;
+    JwtService jwtService;
+    JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        props = new JwtProperties();
+        props.setSecret("12345678901234567890123456789012");
+        JwtProperties.AccessToken accessToken = new JwtProperties.AccessToken();
+        accessToken.setExpiration(900_000L);
+        accessToken.setCookieName("access_token");
+        props.setAccessToken(accessToken);
+        props.setStateless(true);
+        jwtService = new JwtService(props);
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService, props, tokenRevocationService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void stateless_authenticatesFromClaims_withoutLoadingTheUser() throws Exception {
+        Authentication authentication = filterWith(jwtService.generateAccessToken(user(2)));
+
+        assertThat(authentication.getName()).isEqualTo("alice@example.com");
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_STAFF");
+        verify(tokenRevocationService).isRevoked(5L, 2);
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void stateless_leavesRequestAnonymous_whenTokenIsRevoked() throws Exception {
+        when(tokenRevocationService.isRevoked(5L, 1)).thenReturn(true);
+
+        assertThat(filterWith(jwtService.generateAccessToken(user(1)))).isNull();
+    }
+
+    @Test
+    void stateless_loadsTheUser_forTokensWithoutVersion() throws Exception {
+        when(userDetailsService.loadUserByUsername("alice@example.com")).thenReturn(
+                org.springframework.security.core.userdetails.User.withUsername("alice@example.com")
+                        .password("").authorities("ROLE_USER").build());
+
+        Authentication authentication = filterWith(jwtService.generateAccessToken("alice@example.com", List.of("ROLE_ADMIN")));
+
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void defaultMode_loadsTheUser() throws Exception {
+        props.setStateless(false);
+        when(userDetailsService.loadUserByUsername("alice@example.com")).thenReturn(
+                org.springframework.security.core.userdetails.User.withUsername("alice@example.com")
+                        .password("").authorities("ROLE_STAFF").build());
+
+        assertThat(filterWith(jwtService.generateAccessToken(user(2))).getName()).isEqualTo("alice@example.com");
+        verify(tokenRevocationService).isRevoked(5L, 2);
+    }
+
+    @Test
+    void defaultMode_leavesRequestAnonymous_whenTokenVersionIsRevoked() throws Exception {
+        props.setStateless(false);
+        when(tokenRevocationService.isRevoked(5L, 1)).thenReturn(true);
+
+        assertThat(filterWith(jwtService.generateAccessToken(user(1)))).isNull();
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void tokenRevokedAtLogout_leavesRequestAnonymous_inBothModes() throws Exception {
+        when(tokenRevocationService.isTokenRevoked(anyString())).thenReturn(true);
+
+        assertThat(filterWith(jwtService.generateAccessToken(user(2)))).isNull();
+        props.setStateless(false);
+        assertThat(filterWith(jwtService.generateAccessToken(user(2)))).isNull();
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void invalidToken_leavesRequestAnonymous() throws Exception {
+        assertThat(filterWith("not.a.valid.jwt")).isNull();
+    }
+
+    private Authentication filterWith(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie("access_token", token));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static User user(int tokenVersion) {
+        return User.builder().id(5L).email("alice@example.com").role(Role.ROLE_STAFF).tokenVersion(tokenVersion).build();
+    }
+}
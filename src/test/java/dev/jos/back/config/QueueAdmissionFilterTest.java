@@ -0,0 +1,95 @@
+package dev.jos.back.config;
+
+import dev.jos.back.entities.Event;
+import dev.jos.back.properties.QueueProperties;
+import dev.jos.back.repository.EventRepository;
+import dev.jos.back.service.WaitingRoomService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QueueAdmissionFilterTest {
+
+    @Mock EventRepository eventRepository;
+
+    WaitingRoomService waitingRoomService;
+    QueueAdmissionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        QueueProperties properties = new QueueProperties();
+        properties.setEnabled(true);
+        properties.setSecret("test-secret-key-for-unit-tests-only");
+        when(eventRepository.findById(anyLong())).thenAnswer(call -> {
+            Event event = new Event();
+            event.setId(call.getArgument(0));
+            event.setIsActive(true);
+            event.setEventDate(LocalDateTime.now().plusDays(30));
+            return Optional.of(event);
+        });
+        waitingRoomService = new WaitingRoomService(properties, eventRepository);
+        filter = new QueueAdmissionFilter(waitingRoomService, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void admittedTokens_ofTheCaller_passWithTheirEvents() throws Exception {
+        String first = waitingRoomService.join(1L, "buyer@test.com").token();
+        String second = waitingRoomService.join(2L, "buyer@test.com").token();
+        authenticate("buyer@test.com");
+
+        MockHttpServletRequest request = checkout(first + ", " + second);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(request.getAttribute(WaitingRoomService.ADMITTED_EVENTS_ATTRIBUTE)).isEqualTo(Set.of(1L, 2L));
+    }
+
+    @Test
+    void tokenOfAnotherUser_isRejected() throws Exception {
+        String token = waitingRoomService.join(1L, "buyer@test.com").token();
+        authenticate("other@test.com");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(checkout(token), response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(429);
+    }
+
+    private static MockHttpServletRequest checkout(String tokens) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/checkout");
+        request.addHeader(QueueAdmissionFilter.TOKEN_HEADER, tokens);
+        return request;
+    }
+
+    private static void authenticate(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+}
@@ -0,0 +1,59 @@
+package dev.jos.back.config;
+
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie le choix de la chaîne de sécurité : les lectures du catalogue passent par la chaîne
+ * publique, sans filtre JWT, et tout le reste par la chaîne authentifiée.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:security-config")
+@ActiveProfiles("test")
+class SecurityConfigTest {
+
+    @Autowired FilterChainProxy springSecurityFilterChain;
+    @Autowired List<FilterRegistrationBean<?>> registrations;
+
+    @Test
+    void catalogReads_skipJwtProcessing() {
+        assertThat(filtersFor("GET", "/api/events/available")).noneMatch(JwtAuthenticationFilter.class::isInstance);
+        assertThat(filtersFor("GET", "/api/offer/all")).noneMatch(JwtAuthenticationFilter.class::isInstance);
+        assertThat(filtersFor("GET", "/api/sport/3")).noneMatch(JwtAuthenticationFilter.class::isInstance);
+    }
+
+    @Test
+    void catalogWrites_andOtherEndpoints_keepJwtProcessing() {
+        assertThat(filtersFor("POST", "/api/events")).anyMatch(JwtAuthenticationFilter.class::isInstance);
+        assertThat(filtersFor("DELETE", "/api/sport/3")).anyMatch(JwtAuthenticationFilter.class::isInstance);
+        assertThat(filtersFor("GET", "/api/cart")).anyMatch(JwtAuthenticationFilter.class::isInstance)
+                .anyMatch(QueueAdmissionFilter.class::isInstance);
+    }
+
+    @Test
+    void jwtFilter_isNotRegisteredOutsideTheSecurityChain() {
+        assertThat(registrations)
+                .filteredOn(r -> r.getFilter() instanceof JwtAuthenticationFilter || r.getFilter() instanceof QueueAdmissionFilter)
+                .hasSize(2)
+                .noneMatch(FilterRegistrationBean::isEnabled);
+    }
+
+    private List<Filter> filtersFor(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        return springSecurityFilterChain.getFilterChains().stream()
+                .filter(chain -> chain.matches(request))
+                .findFirst()
+                .map(SecurityFilterChain::getFilters)
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,81 @@
+package dev.jos.back.config;
+
+import dev.jos.back.exceptions.auth.PasswordHashingBusyException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UpgradingAuthenticationProviderTest {
+
+    @Mock UserDetailsService userDetailsService;
+    @Mock UserDetailsPasswordService passwordService;
+    @Mock PasswordEncoder passwordEncoder;
+
+    @Test
+    void authenticate_succeeds_withTheOldHash_whenTheUpgradeIsRejected() {
+        UserDetails user = User.withUsername("alice@example.com").password("old-hash").roles("USER").build();
+        when(userDetailsService.loadUserByUsername("alice@example.com")).thenReturn(user);
+        when(passwordEncoder.matches("secret", "old-hash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("old-hash")).thenReturn(true);
+        when(passwordEncoder.encode(any())).thenAnswer(call -> {
+            if ("secret".equals(call.getArgument(0))) {
+                throw new PasswordHashingBusyException("occupé", 2);
+            }
+            return "dummy-hash";
+        });
+
+        Authentication result = provider().authenticate(
+                new UsernamePasswordAuthenticationToken("alice@example.com", "secret"));
+
+        assertThat(result.isAuthenticated()).isTrue();
+        verify(passwordService, never()).updatePassword(any(), any());
+    }
+
+    @Test
+    void authenticate_storesTheUpgradedHash_whenThePoolAccepts() {
+        UserDetails user = User.withUsername("alice@example.com").password("old-hash").roles("USER").build();
+        when(userDetailsService.loadUserByUsername("alice@example.com")).thenReturn(user);
+        when(passwordEncoder.matches("secret", "old-hash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("old-hash")).thenReturn(true);
+        when(passwordEncoder.encode(any())).thenAnswer(call -> "secret".equals(call.getArgument(0)) ? "new-hash" : "dummy-hash");
+        when(passwordService.updatePassword(user, "new-hash")).thenReturn(user);
+
+        provider().authenticate(new UsernamePasswordAuthenticationToken("alice@example.com", "secret"));
+
+        verify(passwordService).updatePassword(user, "new-hash");
+    }
+
+    @Test
+    void authenticate_ofUnknownEmail_letsTheRejectionThrough_whenTheDummyHashIsRejected() {
+        when(passwordEncoder.encode(any())).thenReturn("dummy-hash");
+        when(userDetailsService.loadUserByUsername("ghost@example.com")).thenThrow(new UsernameNotFoundException("ghost"));
+        when(passwordEncoder.matches("secret", "dummy-hash")).thenThrow(new PasswordHashingBusyException("occupé", 2));
+
+        Throwable thrown = catchThrowable(() -> provider().authenticate(
+                new UsernamePasswordAuthenticationToken("ghost@example.com", "secret")));
+
+        // ni BadCredentialsException (401) ni erreur interne : GlobalExceptionConfig répond 503
+        assertThat(thrown).isInstanceOf(PasswordHashingBusyException.class);
+    }
+
+    private UpgradingAuthenticationProvider provider() {
+        return new UpgradingAuthenticationProvider(userDetailsService, passwordEncoder, passwordService);
+    }
+}
@@ -0,0 +1,148 @@
+package dev.jos.back.controller;
+
+import dev.jos.back.controller.CatalogBodies.Coding;
+import dev.jos.back.dto.event.EventResponseDTO;
+import dev.jos.back.exceptions.catalog.InvalidFieldsException;
+import dev.jos.back.service.CatalogSnapshot.LocalizedCatalog;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.http.ResponseEntity;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogBodiesTest {
+
+    @Test
+    void negotiate_prefersGzip_thenDeflate_andHonoursZeroQuality() {
+        assertThat(Coding.negotiate(null)).isEqualTo(Coding.IDENTITY);
+        assertThat(Coding.negotiate("gzip, deflate, br")).isEqualTo(Coding.GZIP);
+        assertThat(Coding.negotiate("deflate")).isEqualTo(Coding.DEFLATE);
+        assertThat(Coding.negotiate("gzip;q=0, deflate;q=0.5")).isEqualTo(Coding.DEFLATE);
+        assertThat(Coding.negotiate("*")).isEqualTo(Coding.GZIP);
+        assertThat(Coding.negotiate("*;q=0, gzip;q=0")).isEqualTo(Coding.IDENTITY);
+        assertThat(Coding.negotiate("br, identity")).isEqualTo(Coding.IDENTITY);
+    }
+
+    @Test
+    void ok_encodesOncePerCatalogVersion_andReencodesAfterAnUpdate() throws IOException {
+        JsonMapper jsonMapper = mock(JsonMapper.class);
+        when(jsonMapper.writeValueAsBytes(List.of(event("100m")))).thenReturn("[{\"name\":\"100m\"}]".getBytes());
+        CatalogBodies bodies = new CatalogBodies(jsonMapper);
+        LocalizedCatalog v1 = catalog("v1", event("100m"));
+
+        ResponseEntity<byte[]> first = bodies.ok(CatalogBodies.View.EVENTS, "fr", v1, CatalogResponses.EVENTS, null, null);
+        ResponseEntity<byte[]> second = bodies.ok(CatalogBodies.View.EVENTS, "fr-FR", v1, CatalogResponses.EVENTS, null, null);
+        ResponseEntity<byte[]> deflated = bodies.ok(CatalogBodies.View.EVENTS, "fr", v1, CatalogResponses.EVENTS, null, "deflate");
+
+        assertThat(second.getBody()).isSameAs(first.getBody());
+        try (InflaterInputStream inflater = new InflaterInputStream(new ByteArrayInputStream(deflated.getBody()))) {
+            assertThat(inflater.readAllBytes()).isEqualTo(first.getBody());
+        }
+        verify(jsonMapper, times(1)).writeValueAsBytes(List.of(event("100m")));
+
+        bodies.ok(CatalogBodies.View.EVENTS, "fr", catalog("v2", event("100m")), CatalogResponses.EVENTS, null, null);
+
+        verify(jsonMapper, times(2)).writeValueAsBytes(List.of(event("100m")));
+    }
+
+    @Test
+    void ok_keepsOnlyRequestedFields_andSharesTheEncodingWhateverTheirOrder() {
+        CatalogBodies bodies = new CatalogBodies(JsonMapper.builder().build());
+        LocalizedCatalog v1 = catalog("v1", event("100m"));
+
+        ResponseEntity<byte[]> sparse = bodies.ok(CatalogBodies.View.EVENTS, "fr", v1, CatalogResponses.EVENTS, "name, id", null);
+        ResponseEntity<byte[]> reordered = bodies.ok(CatalogBodies.View.EVENTS, "fr", v1, CatalogResponses.EVENTS, "id,name", null);
+        ResponseEntity<byte[]> full = bodies.ok(CatalogBodies.View.EVENTS, "fr", v1, CatalogResponses.EVENTS, null, null);
+
+        assertThat(new String(sparse.getBody(), StandardCharsets.UTF_8)).isEqualTo("[{\"id\":1,\"name\":\"100m\"}]");
+        assertThat(reordered.getBody()).isSameAs(sparse.getBody());
+        assertThat(sparse.getHeaders().getETag()).isNotEqualTo(full.getHeaders().getETag());
+        assertThat(reordered.getHeaders().getETag()).isEqualTo(sparse.getHeaders().getETag()).isEqualTo("\"v1-f.id.name\"");
+    }
+
+    @Test
+    void ok_stillCachesNewFieldSets_afterArbitrarySetsFloodedTheCache() {
+        JsonMapper jsonMapper = spy(JsonMapper.builder().build());
+        CatalogBodies bodies = new CatalogBodies(jsonMapper);
+        LocalizedCatalog v1 = catalog("v1", event("100m"));
+        List<String> fields = Arrays.stream(EventResponseDTO.class.getRecordComponents())
+                .map(RecordComponent::getName).toList();
+
+        // ensembles qui contiennent tous "id" : aucun ne vaut l'ensemble "name" demandé ensuite
+        for (int i = 0; i < CatalogBodies.MAX_ENTRIES * 2; i++) {
+            bodies.ok(CatalogBodies.View.EVENTS, "fr", v1, CatalogResponses.EVENTS, subset(fields, 2 * i + 1), null);
+        }
+        clearInvocations(jsonMapper);
+        for (int i = 0; i < 3; i++) {
+            bodies.ok(CatalogBodies.View.EVENTS, "fr", v1, CatalogResponses.EVENTS, "name", null);
+        }
+
+        verify(jsonMapper, times(1)).valueToTree(any());
+    }
+
+    @Test
+    void ok_compressesOnlyTheNegotiatedCoding() throws IOException {
+        CatalogBodies bodies = new CatalogBodies(JsonMapper.builder().build());
+        LocalizedCatalog v1 = catalog("v1", event("100m"));
+
+        try (MockedStatic<CatalogBodies> codings = mockStatic(CatalogBodies.class, CALLS_REAL_METHODS)) {
+            bodies.ok(CatalogBodies.View.EVENTS, "fr", v1, CatalogResponses.EVENTS, null, "gzip");
+            bodies.ok(CatalogBodies.View.EVENTS, "fr", v1, CatalogResponses.EVENTS, null, "gzip");
+
+            codings.verify(() -> CatalogBodies.gzip(any()), times(1));
+            codings.verify(() -> CatalogBodies.deflate(any()), never());
+        }
+    }
+
+    @Test
+    void ok_rejectsUnknownFields() {
+        CatalogBodies bodies = new CatalogBodies(JsonMapper.builder().build());
+
+        assertThatThrownBy(() -> bodies.ok(CatalogBodies.View.SPORTS, "fr", catalog("v1", event("100m")),
+                CatalogResponses.REFERENCE_DATA, "id,availableSlots", null))
+                .isInstanceOf(InvalidFieldsException.class);
+    }
+
+    /**
+     * Champs dont le rang correspond à un bit de {@code mask}.
+     */
+    private static String subset(List<String> fields, int mask) {
+        return IntStream.range(0, fields.size())
+                .filter(bit -> (mask & (1 << bit)) != 0)
+                .mapToObj(fields::get)
+                .collect(Collectors.joining(","));
+    }
+
+    private static LocalizedCatalog catalog(String etag, EventResponseDTO event) {
+        LocalizedCatalog catalog = mock(LocalizedCatalog.class);
+        when(catalog.etag()).thenReturn(etag);
+        when(catalog.events()).thenReturn(List.of(event));
+        return catalog;
+    }
+
+    private static EventResponseDTO event(String name) {
+        return EventResponseDTO.builder().id(1L).name(name).build();
+    }
+}
@@ -0,0 +1,205 @@
+package dev.jos.back.controller;
+
+import dev.jos.back.config.GlobalExceptionConfig;
+import dev.jos.back.dto.event.EventResponseDTO;
+import dev.jos.back.repository.EventRepository;
+import dev.jos.back.service.AvailabilityStream;
+import dev.jos.back.service.CatalogSnapshot;
+import dev.jos.back.service.EventService;
+import dev.jos.back.service.OfferService;
+import dev.jos.back.service.SeatInventory;
+import dev.jos.back.service.SportService;
+import dev.jos.back.util.SeatsChangedEvent;
+import dev.jos.back.util.enums.SupportedLocale;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.json.JsonCompareMode;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class EventControllerTest {
+
+    @Mock EventService eventService;
+    @Mock SportService sportService;
+    @Mock OfferService offerService;
+    @Mock EventRepository eventRepository;
+    @Mock PlatformTransactionManager transactionManager;
+    @Mock SeatInventory seatInventory;
+
+    AvailabilityStream availabilityStream;
+    MockMvc mockMvc;
+    String etag;
+
+    @BeforeEach
+    void setUp() {
+        for (SupportedLocale locale : SupportedLocale.values()) {
+            when(eventService.getAllEvents(locale.code)).thenReturn(List.of(EventResponseDTO.builder()
+                    .id(1L).name("100m").sport("Athlétisme").isActive(true).availableSlots(5).build()));
+            when(sportService.getAllSports(locale.code)).thenReturn(List.of());
+            when(offerService.getAllOfferTypes(locale.code)).thenReturn(List.of());
+        }
+        CatalogSnapshot catalogSnapshot = new CatalogSnapshot(eventService, sportService, offerService,
+                eventRepository, transactionManager, JsonMapper.builder().build());
+        availabilityStream = new AvailabilityStream(seatInventory, JsonMapper.builder().build(), 16, 60_000);
+        etag = "\"" + catalogSnapshot.forLocale("fr").etag() + "\"";
+        mockMvc = MockMvcBuilders.standaloneSetup(new EventController(eventService, catalogSnapshot,
+                        new CatalogBodies(JsonMapper.builder().build()), availabilityStream))
+                .setControllerAdvice(new GlobalExceptionConfig())
+                .build();
+    }
+
+    @Test
+    void getAvailableEvents_returnsBodyWithEtagAndCacheHeaders() throws Exception {
+        mockMvc.perform(get("/api/events/available"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE + ", " + HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(jsonPath("$[0].name").value("100m"));
+    }
+
+    @Test
+    void getAvailableEvents_returns304WithoutBody_whenEtagMatches() throws Exception {
+        mockMvc.perform(get("/api/events/available").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getEventById_returns304_whenEtagMatches_withoutCallingTheService() throws Exception {
+        mockMvc.perform(get("/api/events/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        verify(eventService, never()).getEventById(anyLong(), anyString());
+    }
+
+    @Test
+    void getAvailableEvents_returnsBody_whenEtagIsForAnotherLocale() throws Exception {
+        mockMvc.perform(get("/api/events/available")
+                        .header(HttpHeaders.ACCEPT_LANGUAGE, "en")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getAvailableEvents_returnsPrecompressedGzip_withItsOwnEtag() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/events/available").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, etag.replaceFirst("\"$", "-gzip\"")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8)).contains("\"name\":\"100m\"");
+        }
+    }
+
+    @Test
+    void getAvailableEvents_returns304_forTheGzipEtag() throws Exception {
+        mockMvc.perform(get("/api/events/available")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag.replaceFirst("\"$", "-gzip\"")))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getAll_returnsOnlyRequestedFields() throws Exception {
+        mockMvc.perform(get("/api/events/all").param("fields", "id,name,availableSlots"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":1,\"name\":\"100m\",\"availableSlots\":5}]", JsonCompareMode.STRICT));
+    }
+
+    @Test
+    void getFacets_isServedFromTheCatalog_withEtag() throws Exception {
+        mockMvc.perform(get("/api/events/facets"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.sports.Athlétisme").value(1));
+        mockMvc.perform(get("/api/events/facets").param("sport", "Natation"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(0));
+    }
+
+    @Test
+    void getEventsByIds_keepsRequestedOrder_andLoadsOnlyMissingEventsInOneCall() throws Exception {
+        when(eventService.getEventsByIds(List.of(9L, 7L), "fr")).thenReturn(List.of(
+                EventResponseDTO.builder().id(7L).name("Relais").build()));
+
+        mockMvc.perform(get("/api/events/batch").param("ids", "9,1,7,1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$[*].id").value(contains(1, 7)));
+    }
+
+    @Test
+    void getEventsByIds_isServedFromTheCatalog_withEtag() throws Exception {
+        mockMvc.perform(get("/api/events/batch").param("ids", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(jsonPath("$[0].name").value("100m"));
+
+        verify(eventService, never()).getEventsByIds(anyList(), anyString());
+    }
+
+    @Test
+    void getEventsByIds_rejectsTooManyIds() throws Exception {
+        String ids = LongStream.rangeClosed(1, EventController.MAX_BATCH_SIZE + 1)
+                .mapToObj(Long::toString).collect(Collectors.joining(","));
+
+        mockMvc.perform(get("/api/events/batch").param("ids", ids))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamAvailability_pushesCoalescedChanges() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/api/events/availability/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        when(seatInventory.available(List.of(1L))).thenReturn(Map.of(1L, 4));
+
+        availabilityStream.onSeatsChanged(new SeatsChangedEvent(1L));
+        availabilityStream.onSeatsChanged(new SeatsChangedEvent(1L));
+        availabilityStream.publishChanges();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!response.getContentAsString().endsWith("\n\n") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(response.getContentType()).startsWith("text/event-stream");
+        assertThat(response.getContentAsString())
+                .isEqualTo("event:availability\ndata:[{\"eventId\":1,\"availableSlots\":4}]\n\n");
+    }
+}
@@ -1,6 +1,5 @@
 package dev.jos.back.entities;
 
-import dev.jos.back.util.enums.CartStatus;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
@@ -10,38 +9,26 @@ import static org.assertj.core.api.Assertions.assertThat;
 class CartTest {
 
     @Test
-    void expireIfNeeded_returnsTrue_whenExpired() {
+    void isExpired_returnsTrue_whenExpiresAtIsPast() {
         Cart cart = new Cart();
-        cart.setStatus(CartStatus.ACTIVE);
         cart.setExpiresAt(LocalDateTime.now().minusMinutes(1));
 
-        boolean expired = cart.expireIfNeeded();
-
-        assertThat(expired).isTrue();
-        assertThat(cart.getStatus()).isEqualTo(CartStatus.ABANDONED);
+        assertThat(cart.isExpired()).isTrue();
     }
 
     @Test
-    void expireIfNeeded_returnsFalse_whenNotExpired() {
+    void isExpired_returnsFalse_whenExpiresAtIsFuture() {
         Cart cart = new Cart();
-        cart.setStatus(CartStatus.ACTIVE);
         cart.setExpiresAt(LocalDateTime.now().plusMinutes(30));
 
-        boolean expired = cart.expireIfNeeded();
-
-        assertThat(expired).isFalse();
-        assertThat(cart.getStatus()).isEqualTo(CartStatus.ACTIVE);
+        assertThat(cart.isExpired()).isFalse();
     }
 
     @Test
-    void expireIfNeeded_returnsFalse_whenExpiresAtIsNull() {
+    void isExpired_returnsFalse_whenExpiresAtIsNull() {
         Cart cart = new Cart();
-        cart.setStatus(CartStatus.ACTIVE);
         cart.setExpiresAt(null);
 
-        boolean expired = cart.expireIfNeeded();
-
-        assertThat(expired).isFalse();
-        assertThat(cart.getStatus()).isEqualTo(CartStatus.ACTIVE);
+        assertThat(cart.isExpired()).isFalse();
     }
 }
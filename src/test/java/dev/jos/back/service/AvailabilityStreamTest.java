@@ -0,0 +1,82 @@
+package dev.jos.back.service;
+
+import dev.jos.back.util.SeatsChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityStreamTest {
+
+    @Mock SeatInventory seatInventory;
+
+    AvailabilityStream stream;
+
+    @BeforeEach
+    void setUp() {
+        // aucun thread d'écriture : les messages restent dans le tampon de chaque abonné
+        stream = new AvailabilityStream(seatInventory, JsonMapper.builder().build(), task -> { }, 2, 60_000);
+    }
+
+    @Test
+    void publishChanges_readsTheStockOnce_forEveryEventChangedSinceLastTick() {
+        stream.subscribe();
+        when(seatInventory.available(any())).thenReturn(Map.of(1L, 7, 2L, 0));
+
+        stream.onSeatsChanged(new SeatsChangedEvent(1L));
+        stream.onSeatsChanged(new SeatsChangedEvent(2L));
+        stream.onSeatsChanged(new SeatsChangedEvent(1L));
+        stream.publishChanges();
+        stream.publishChanges();
+
+        verify(seatInventory).available(argThat(ids -> ids.size() == 2 && Set.copyOf(ids).equals(Set.of(1L, 2L))));
+    }
+
+    @Test
+    void publishChanges_doesNothing_withoutChanges() {
+        stream.subscribe();
+
+        stream.publishChanges();
+
+        verifyNoInteractions(seatInventory);
+    }
+
+    @Test
+    void publishChanges_dropsChanges_withoutSubscribers() {
+        stream.onSeatsChanged(new SeatsChangedEvent(1L));
+
+        stream.publishChanges();
+
+        verify(seatInventory, never()).available(any());
+    }
+
+    @Test
+    void slowSubscriber_isEvicted_whenItsBufferOverflows() {
+        stream.subscribe();
+        when(seatInventory.available(any())).thenReturn(Map.of(1L, 7));
+
+        for (int i = 0; i < 2; i++) {
+            stream.onSeatsChanged(new SeatsChangedEvent(1L));
+            stream.publishChanges();
+        }
+        assertThat(stream.subscriberCount()).isEqualTo(1);
+
+        stream.heartbeat();
+
+        assertThat(stream.subscriberCount()).isZero();
+    }
+}
@@ -9,6 +9,7 @@ import dev.jos.back.exceptions.cart.CartNotFoundException;
 import dev.jos.back.exceptions.event.EventNotFoundException;
 import dev.jos.back.exceptions.event.EventSoldOutException;
 import dev.jos.back.exceptions.offertype.OfferNotFoundException;
+import dev.jos.back.exceptions.queue.QueueAdmissionRequiredException;
 import dev.jos.back.exceptions.user.UserNotFoundException;
 import dev.jos.back.mapper.CartMapper;
 import dev.jos.back.repository.*;
@@ -20,11 +21,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -37,6 +42,8 @@ class CartServiceTest {
     @Mock EventRepository eventRepository;
     @Mock OfferRepository offerRepository;
     @Mock CartMapper cartMapper;
+    @Mock SeatHoldService seatHoldService;
+    @Mock WaitingRoomService waitingRoomService;
     @InjectMocks CartService cartService;
 
     // ── getActiveCart ─────────────────────────────────────────────────────────
@@ -97,10 +104,10 @@ class CartServiceTest {
 
         when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(user));
         when(cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)).thenReturn(Optional.of(cart));
-        when(cartRepository.save(cart)).thenReturn(cart);
 
         assertThatThrownBy(() -> cartService.getActiveCart("test@test.com"))
                 .isInstanceOf(CartNotFoundException.class);
+        verify(seatHoldService).abandon(cart);
     }
 
     // ── addItem ───────────────────────────────────────────────────────────────
@@ -123,6 +130,7 @@ class CartServiceTest {
         Offer offer = new Offer();
         offer.setId(20L);
         offer.setPrice(50.0);
+        offer.setNumberOfTickets(1);
 
         CartItemRequestDTO dto = new CartItemRequestDTO(10L, 20L, 2);
         CartResponseDTO expected = CartResponseDTO.builder().id(1L).build();
@@ -139,6 +147,37 @@ class CartServiceTest {
 
         assertThat(result.id()).isEqualTo(1L);
         verify(cartItemsRepository).save(any(CartItems.class));
+        verify(seatHoldService).extend(cart);
+        verify(seatHoldService).hold(event, 2);
+    }
+
+    @Test
+    void addItem_throws_andHoldsNothing_whenEventNotAdmitted() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("test@test.com");
+
+        Cart cart = new Cart();
+        cart.setId(1L);
+        cart.setStatus(CartStatus.ACTIVE);
+        cart.setExpiresAt(LocalDateTime.now().plusMinutes(30));
+
+        Event event = new Event();
+        event.setId(10L);
+
+        Offer offer = new Offer();
+        offer.setId(20L);
+        offer.setNumberOfTickets(1);
+
+        when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(user));
+        when(cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)).thenReturn(Optional.of(cart));
+        when(eventRepository.findById(10L)).thenReturn(Optional.of(event));
+        when(offerRepository.findById(20L)).thenReturn(Optional.of(offer));
+        doThrow(new QueueAdmissionRequiredException("file")).when(waitingRoomService).requireAdmitted(List.of(10L));
+
+        assertThatThrownBy(() -> cartService.addItem("test@test.com", new CartItemRequestDTO(10L, 20L, 2)))
+                .isInstanceOf(QueueAdmissionRequiredException.class);
+        verify(seatHoldService, never()).hold(any(), anyInt());
     }
 
     @Test
@@ -159,6 +198,7 @@ class CartServiceTest {
         Offer offer = new Offer();
         offer.setId(20L);
         offer.setPrice(50.0);
+        offer.setNumberOfTickets(1);
 
         CartItems existingItem = new CartItems();
         existingItem.setId(100L);
@@ -225,16 +265,22 @@ class CartServiceTest {
 
         Event event = new Event();
         event.setId(10L);
-        event.setAvailableSlots(0);
+        event.setAvailableSlots(1);
+
+        Offer offer = buildOffer(2);
+        offer.setId(20L);
 
         CartItemRequestDTO dto = new CartItemRequestDTO(10L, 20L, 1);
 
         when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(user));
         when(cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)).thenReturn(Optional.of(cart));
         when(eventRepository.findById(10L)).thenReturn(Optional.of(event));
+        when(offerRepository.findById(20L)).thenReturn(Optional.of(offer));
+        doThrow(new EventSoldOutException("complet")).when(seatHoldService).hold(event, 2);
 
         assertThatThrownBy(() -> cartService.addItem("test@test.com", dto))
                 .isInstanceOf(EventSoldOutException.class);
+        verify(cartItemsRepository, never()).save(any(CartItems.class));
     }
 
     @Test
@@ -281,6 +327,7 @@ class CartServiceTest {
         Offer offer = new Offer();
         offer.setId(20L);
         offer.setPrice(50.0);
+        offer.setNumberOfTickets(1);
 
         CartItemRequestDTO dto = new CartItemRequestDTO(10L, 20L, 1);
         CartResponseDTO expected = CartResponseDTO.builder().id(1L).build();
@@ -315,6 +362,8 @@ class CartServiceTest {
         CartItems item = new CartItems();
         item.setId(100L);
         item.setCart(cart);
+        item.setQuantity(1);
+        item.setOffer(buildOffer(1));
 
         CartResponseDTO expected = CartResponseDTO.builder().id(1L).build();
 
@@ -327,6 +376,7 @@ class CartServiceTest {
 
         assertThat(result.id()).isEqualTo(1L);
         verify(cartItemsRepository).delete(item);
+        verify(seatHoldService).release(item.getEvent(), 1);
     }
 
     @Test
@@ -390,6 +440,10 @@ class CartServiceTest {
         item.setId(100L);
         item.setQuantity(2);
         item.setCart(cart);
+        item.setOffer(buildOffer(1));
+        Event event = new Event();
+        event.setId(10L);
+        item.setEvent(event);
 
         CartItemUpdateDTO dto = new CartItemUpdateDTO(5);
         CartResponseDTO expected = CartResponseDTO.builder().id(1L).build();
@@ -404,6 +458,8 @@ class CartServiceTest {
         assertThat(result.id()).isEqualTo(1L);
         assertThat(item.getQuantity()).isEqualTo(5);
         verify(cartItemsRepository).save(item);
+        verify(waitingRoomService).requireAdmitted(List.of(10L));
+        verify(seatHoldService).hold(event, 3);
     }
 
     @Test
@@ -420,6 +476,7 @@ class CartServiceTest {
         item.setId(100L);
         item.setQuantity(3);
         item.setCart(cart);
+        item.setOffer(buildOffer(1));
 
         CartItemUpdateDTO dto = new CartItemUpdateDTO(0);
         CartResponseDTO expected = CartResponseDTO.builder().id(1L).build();
@@ -448,6 +505,7 @@ class CartServiceTest {
         item.setId(100L);
         item.setQuantity(3);
         item.setCart(cart);
+        item.setOffer(buildOffer(1));
 
         CartItemUpdateDTO dto = new CartItemUpdateDTO(-1);
         CartResponseDTO expected = CartResponseDTO.builder().id(1L).build();
@@ -531,6 +589,7 @@ class CartServiceTest {
 
         assertThat(result.id()).isEqualTo(1L);
         verify(cartItemsRepository).deleteAll(cart.getCartItems());
+        verify(seatHoldService).releaseAll(cart);
     }
 
     @Test
@@ -553,4 +612,13 @@ class CartServiceTest {
         assertThatThrownBy(() -> cartService.clearCart("test@test.com"))
                 .isInstanceOf(CartNotFoundException.class);
     }
+
+    // ── helpers ───────────────────────────────────────────────────────────────
+
+    private Offer buildOffer(int numberOfTickets) {
+        Offer offer = new Offer();
+        offer.setPrice(50.0);
+        offer.setNumberOfTickets(numberOfTickets);
+        return offer;
+    }
 }
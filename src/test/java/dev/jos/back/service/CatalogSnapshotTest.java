@@ -0,0 +1,241 @@
+package dev.jos.back.service;
+
+import dev.jos.back.dto.event.EventFacetsDTO;
+import dev.jos.back.dto.event.EventResponseDTO;
+import dev.jos.back.dto.event.EventSearchCriteria;
+import dev.jos.back.dto.offer.OfferResponseDTO;
+import dev.jos.back.dto.sport.SportResponseDTO;
+import dev.jos.back.repository.EventRepository;
+import dev.jos.back.util.CatalogChangedEvent;
+import dev.jos.back.util.enums.Phases;
+import dev.jos.back.util.enums.SupportedLocale;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotTest {
+
+    @Mock EventService eventService;
+    @Mock SportService sportService;
+    @Mock OfferService offerService;
+    @Mock EventRepository eventRepository;
+    @Mock PlatformTransactionManager transactionManager;
+
+    CatalogSnapshot catalogSnapshot;
+
+    @BeforeEach
+    void setUp() {
+        catalogSnapshot = new CatalogSnapshot(eventService, sportService, offerService, eventRepository, transactionManager,
+                JsonMapper.builder().build());
+    }
+
+    private void stubCatalog() {
+        for (SupportedLocale locale : SupportedLocale.values()) {
+            when(eventService.getAllEvents(locale.code)).thenReturn(List.of(
+                    event(1L, locale.code + "-100m", "Athlétisme", true, 10),
+                    event(2L, locale.code + "-200m", "Athlétisme", true, 0),
+                    event(3L, locale.code + "-4x100m", "Natation", false, 5)));
+            when(sportService.getAllSports(locale.code)).thenReturn(List.of(sport(7L, locale.code + "-athle")));
+            when(offerService.getAllOfferTypes(locale.code)).thenReturn(List.of(offer(1L, locale.code + "-solo")));
+        }
+    }
+
+    @Test
+    void forLocale_buildsEveryLocaleOnce_thenServesWithoutQueries() {
+        stubCatalog();
+        catalogSnapshot.forLocale("en-US");
+        CatalogSnapshot.LocalizedCatalog en = catalogSnapshot.forLocale("en");
+        CatalogSnapshot.LocalizedCatalog fr = catalogSnapshot.forLocale(null);
+
+        verify(eventService, times(1)).getAllEvents("en");
+        verify(eventService, times(1)).getAllEvents("fr");
+        assertThat(en.events()).extracting(EventResponseDTO::name).containsExactly("en-100m", "en-200m", "en-4x100m");
+        assertThat(en.activeEvents()).extracting(EventResponseDTO::id).containsExactly(1L, 2L);
+        assertThat(en.availableEvents()).extracting(EventResponseDTO::id).containsExactly(1L);
+        assertThat(en.eventsOfSport("Natation")).extracting(EventResponseDTO::id).containsExactly(3L);
+        assertThat(en.eventsOfSport("Escrime")).isEmpty();
+        assertThat(en.sportsById().get(7L).name()).isEqualTo("en-athle");
+        assertThat(fr.offers()).extracting(OfferResponseDTO::name).containsExactly("fr-solo");
+    }
+
+    @Test
+    void onCatalogChanged_reloadsOnlyTheChangedEvents_andTheSports() {
+        stubCatalog();
+        catalogSnapshot.forLocale("fr");
+        clearInvocations(eventService, sportService, offerService);
+        for (SupportedLocale locale : SupportedLocale.values()) {
+            when(eventService.getEventsByIds(List.of(2L, 3L), locale.code))
+                    .thenReturn(List.of(event(2L, locale.code + "-200m renommé", "Athlétisme", true, 0)));
+        }
+
+        catalogSnapshot.onCatalogChanged(CatalogChangedEvent.events(List.of(2L, 3L)));
+
+        CatalogSnapshot.LocalizedCatalog de = catalogSnapshot.forLocale("de");
+        assertThat(de.events()).extracting(EventResponseDTO::name).containsExactly("de-100m", "de-200m renommé");
+        assertThat(de.eventsOfSport("Natation")).isEmpty();
+        verify(eventService, never()).getAllEvents(anyString());
+        verify(sportService, times(SupportedLocale.values().length)).getAllSports(anyString());
+        verifyNoInteractions(offerService);
+    }
+
+    @Test
+    void onCatalogChanged_reloadsOnlyOffers_whenOffersChange() {
+        stubCatalog();
+        catalogSnapshot.forLocale("fr");
+        clearInvocations(eventService, sportService, offerService);
+        when(offerService.getAllOfferTypes("es")).thenReturn(List.of(offer(1L, "es-solo"), offer(2L, "es-duo")));
+
+        catalogSnapshot.onCatalogChanged(CatalogChangedEvent.offers());
+
+        assertThat(catalogSnapshot.forLocale("es").offers()).hasSize(2);
+        verifyNoInteractions(eventService, sportService);
+    }
+
+    @Test
+    void onCatalogChanged_isIgnored_beforeFirstBuild() {
+        catalogSnapshot.onCatalogChanged(CatalogChangedEvent.events(List.of(1L)));
+
+        verify(eventService, never()).getEventsByIds(any(), anyString());
+    }
+
+    @Test
+    void refreshAvailableSlots_updatesChangedEventsInEveryLocale() {
+        stubCatalog();
+        catalogSnapshot.forLocale("fr");
+        when(eventRepository.findAllAvailableSlots()).thenReturn(List.of(
+                new Object[]{1L, 0}, new Object[]{2L, 4}, new Object[]{3L, 5}));
+
+        catalogSnapshot.refreshAvailableSlots();
+
+        CatalogSnapshot.LocalizedCatalog en = catalogSnapshot.forLocale("en");
+        assertThat(en.eventsById().get(1L).availableSlots()).isZero();
+        assertThat(en.eventsById().get(1L).name()).isEqualTo("en-100m");
+        assertThat(en.availableEvents()).extracting(EventResponseDTO::id).containsExactly(2L);
+        verify(eventService, times(1)).getAllEvents("en");
+    }
+
+    @Test
+    void refreshAvailableSlots_keepsCurrentViews_whenNothingChanged() {
+        stubCatalog();
+        CatalogSnapshot.LocalizedCatalog before = catalogSnapshot.forLocale("fr");
+        when(eventRepository.findAllAvailableSlots()).thenReturn(List.of(
+                new Object[]{1L, 10}, new Object[]{2L, 0}, new Object[]{3L, 5}));
+
+        catalogSnapshot.refreshAvailableSlots();
+
+        assertThat(catalogSnapshot.forLocale("fr")).isSameAs(before);
+    }
+
+    @Test
+    void etag_changesWithEveryPublishedUpdate_andDiffersPerLocale() {
+        stubCatalog();
+        String before = catalogSnapshot.forLocale("fr").etag();
+        when(eventRepository.findAllAvailableSlots()).thenReturn(List.<Object[]>of(new Object[]{1L, 9}));
+
+        catalogSnapshot.refreshAvailableSlots();
+
+        assertThat(catalogSnapshot.forLocale("fr").etag()).isNotEqualTo(before);
+        assertThat(catalogSnapshot.forLocale("en").etag()).isNotEqualTo(catalogSnapshot.forLocale("fr").etag());
+    }
+
+    @Test
+    void etag_isDerivedFromTheContent_soEveryInstanceAgreesOnIt() {
+        stubCatalog();
+        CatalogSnapshot other = new CatalogSnapshot(eventService, sportService, offerService, eventRepository,
+                transactionManager, JsonMapper.builder().build());
+
+        assertThat(other.forLocale("fr").etag()).isEqualTo(catalogSnapshot.forLocale("fr").etag());
+    }
+
+    @Test
+    void rebuild_keepsEtag_whenCatalogIsUnchanged() {
+        stubCatalog();
+        CatalogSnapshot.LocalizedCatalog before = catalogSnapshot.forLocale("fr");
+
+        catalogSnapshot.rebuild();
+
+        assertThat(catalogSnapshot.forLocale("fr")).isSameAs(before);
+        assertThat(before.etag()).isNotBlank();
+    }
+
+    @Test
+    void facets_countActiveEvents_andFollowSoldOutEvents() {
+        stubCatalog();
+        EventFacetsDTO before = catalogSnapshot.forLocale("fr").facets(null);
+        when(eventRepository.findAllAvailableSlots()).thenReturn(List.<Object[]>of(new Object[]{1L, 0}));
+
+        catalogSnapshot.refreshAvailableSlots();
+
+        EventFacetsDTO after = catalogSnapshot.forLocale("fr").facets(null);
+        assertThat(before.total()).isEqualTo(2);
+        assertThat(before.available()).isEqualTo(1);
+        assertThat(before.sports()).containsExactly(Map.entry("Athlétisme", 2));
+        assertThat(after.available()).isZero();
+        verify(eventRepository, never()).findAll();
+    }
+
+    @Test
+    void facets_applySearchCriteria_inMemory() {
+        for (SupportedLocale locale : SupportedLocale.values()) {
+            when(eventService.getAllEvents(locale.code)).thenReturn(List.of(
+                    located(1L, "Paris", Phases.FINALE, 26, 10),
+                    located(2L, "Paris", Phases.QUALIFICATION, 27, 0),
+                    located(3L, "Lyon", Phases.FINALE, 27, 3)));
+            when(sportService.getAllSports(locale.code)).thenReturn(List.of());
+            when(offerService.getAllOfferTypes(locale.code)).thenReturn(List.of());
+        }
+        CatalogSnapshot.LocalizedCatalog fr = catalogSnapshot.forLocale("fr");
+
+        EventFacetsDTO all = fr.facets(new EventSearchCriteria(null, null, null, null, null, null, null));
+        EventFacetsDTO paris = fr.facets(new EventSearchCriteria(null, "Paris", null, null, null, null, null));
+        EventFacetsDTO open = fr.facets(new EventSearchCriteria(null, null, Phases.FINALE, null,
+                null, LocalDateTime.of(2024, 7, 27, 0, 0), true));
+
+        assertThat(all.cities()).containsExactly(Map.entry("Lyon", 1), Map.entry("Paris", 2));
+        assertThat(all.dates()).containsExactly(
+                Map.entry(LocalDate.of(2024, 7, 26), 1), Map.entry(LocalDate.of(2024, 7, 27), 2));
+        assertThat(paris.total()).isEqualTo(2);
+        assertThat(paris.phases()).containsOnly(Map.entry(Phases.FINALE, 1), Map.entry(Phases.QUALIFICATION, 1));
+        assertThat(open.total()).isEqualTo(1);
+        assertThat(open.cities()).containsExactly(Map.entry("Paris", 1));
+    }
+
+    private static EventResponseDTO located(Long id, String city, Phases phase, int day, int slots) {
+        return EventResponseDTO.builder().id(id).name("épreuve " + id).sport("Natation").isActive(true)
+                .city(city).phase(phase).eventDate(LocalDateTime.of(2024, 7, day, 10, 0))
+                .capacity(100).availableSlots(slots).build();
+    }
+
+    private static EventResponseDTO event(Long id, String name, String sport, boolean active, int slots) {
+        return EventResponseDTO.builder().id(id).name(name).sport(sport).isActive(active)
+                .capacity(100).availableSlots(slots).build();
+    }
+
+    private static SportResponseDTO sport(Long id, String name) {
+        return SportResponseDTO.builder().id(id).name(name).phases(List.of()).places(List.of()).build();
+    }
+
+    private static OfferResponseDTO offer(Long id, String name) {
+        return OfferResponseDTO.builder().id(id).name(name).features(List.of()).build();
+    }
+}
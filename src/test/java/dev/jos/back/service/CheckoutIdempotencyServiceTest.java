@@ -0,0 +1,201 @@
+package dev.jos.back.service;
+
+import dev.jos.back.dto.payment.CheckoutRequestDTO;
+import dev.jos.back.dto.payment.TicketResponseDTO;
+import dev.jos.back.dto.payment.TransactionResponseDTO;
+import dev.jos.back.entities.CheckoutIdempotencyKey;
+import dev.jos.back.entities.User;
+import dev.jos.back.exceptions.payment.IdempotencyKeyConflictException;
+import dev.jos.back.repository.CheckoutIdempotencyKeyRepository;
+import dev.jos.back.repository.UserRepository;
+import dev.jos.back.util.enums.PaymentMethod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CheckoutIdempotencyServiceTest {
+
+    private static final CheckoutRequestDTO CHECKOUT_DTO =
+            new CheckoutRequestDTO("4111111111111111", 12, 2030, "123", PaymentMethod.CREDIT_CARD);
+
+    @Mock CheckoutIdempotencyKeyRepository repository;
+    @Mock UserRepository userRepository;
+
+    private CheckoutIdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CheckoutIdempotencyService(repository, userRepository, JsonMapper.builder().build(), 24, 15);
+    }
+
+    @Test
+    void begin_reservesKey_onFirstCall() {
+        User user = new User();
+        when(repository.findByUser_EmailAndIdempotencyKey("alice@example.com", "key-1")).thenReturn(Optional.empty());
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
+
+        Optional<TransactionResponseDTO> result = service.begin("alice@example.com", "key-1", CHECKOUT_DTO);
+
+        assertThat(result).isEmpty();
+        ArgumentCaptor<CheckoutIdempotencyKey> saved = ArgumentCaptor.forClass(CheckoutIdempotencyKey.class);
+        verify(repository).saveAndFlush(saved.capture());
+        assertThat(saved.getValue().getUser()).isSameAs(user);
+        assertThat(saved.getValue().getRequestHash()).hasSize(64).doesNotContain("4111");
+        assertThat(saved.getValue().getResponseBody()).isNull();
+        assertThat(saved.getValue().getStartedAt()).isNotNull();
+        assertThat(saved.getValue().getExpiresAt()).isAfter(LocalDateTime.now().plusHours(23));
+    }
+
+    @Test
+    void begin_replaysStoredResponse_withSameRequest() {
+        TransactionResponseDTO response = response();
+        CheckoutIdempotencyKey record = stored(CHECKOUT_DTO, response);
+        when(repository.findByUser_EmailAndIdempotencyKey("alice@example.com", "key-1")).thenReturn(Optional.of(record));
+
+        Optional<TransactionResponseDTO> result = service.begin("alice@example.com", "key-1", CHECKOUT_DTO);
+
+        assertThat(result).contains(response);
+        verify(repository, never()).saveAndFlush(any());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void begin_throws_whenKeyReusedForAnotherRequest() {
+        CheckoutIdempotencyKey record = stored(CHECKOUT_DTO, response());
+        when(repository.findByUser_EmailAndIdempotencyKey("alice@example.com", "key-1")).thenReturn(Optional.of(record));
+        CheckoutRequestDTO other = new CheckoutRequestDTO("5555555555554444", 1, 2031, "321", PaymentMethod.CREDIT_CARD);
+
+        assertThatThrownBy(() -> service.begin("alice@example.com", "key-1", other))
+                .isInstanceOf(IdempotencyKeyConflictException.class)
+                .hasMessageContaining("autre requête");
+    }
+
+    @Test
+    void begin_throws_whenFirstCallStillInProgress() {
+        when(repository.findByUser_EmailAndIdempotencyKey("alice@example.com", "key-1"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(stored(CHECKOUT_DTO, null)));
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(new User()));
+        when(repository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("uq_checkout_idempotency_keys_user_key"));
+
+        assertThatThrownBy(() -> service.begin("alice@example.com", "key-1", CHECKOUT_DTO))
+                .isInstanceOf(IdempotencyKeyConflictException.class)
+                .hasMessageContaining("en cours");
+    }
+
+    @Test
+    void begin_takesOverStaleKey_withoutPayment() {
+        when(repository.findByUser_EmailAndIdempotencyKey("alice@example.com", "key-1"))
+                .thenReturn(Optional.of(stored(CHECKOUT_DTO, null)));
+        when(repository.takeOverStale(eq(5L), any(), any())).thenReturn(1);
+
+        assertThat(service.begin("alice@example.com", "key-1", CHECKOUT_DTO)).isEmpty();
+        verify(repository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void begin_neverReleasesPaidKey_whoseConfirmationFailed() {
+        CheckoutIdempotencyKey record = stored(CHECKOUT_DTO, null);
+        record.setPaidAt(LocalDateTime.now().minusHours(2));
+        when(repository.findByUser_EmailAndIdempotencyKey("alice@example.com", "key-1")).thenReturn(Optional.of(record));
+
+        assertThatThrownBy(() -> service.begin("alice@example.com", "key-1", CHECKOUT_DTO))
+                .isInstanceOf(IdempotencyKeyConflictException.class)
+                .hasMessageContaining("accepté");
+        verify(repository, never()).takeOverStale(any(), any(), any());
+    }
+
+    @Test
+    void begin_treatsExpiredKeyAsAbsent_beforeItIsPurged() {
+        User user = new User();
+        CheckoutIdempotencyKey record = stored(CHECKOUT_DTO, response());
+        record.setPaidAt(LocalDateTime.now().minusHours(25));
+        record.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        when(repository.findByUser_EmailAndIdempotencyKey("alice@example.com", "key-1")).thenReturn(Optional.of(record));
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
+
+        assertThat(service.begin("alice@example.com", "key-1", CHECKOUT_DTO)).isEmpty();
+        verify(repository).deleteIfExpired(eq(5L), any());
+        verify(repository).saveAndFlush(any());
+    }
+
+    @Test
+    void fingerprint_ignoresAllButTheLastFourDigits() {
+        CheckoutRequestDTO sameLastFour = new CheckoutRequestDTO("4000000000001111", 12, 2030, "999", PaymentMethod.CREDIT_CARD);
+        CheckoutRequestDTO otherExpiry = new CheckoutRequestDTO("4111111111111111", 1, 2031, "123", PaymentMethod.CREDIT_CARD);
+
+        assertThat(CheckoutIdempotencyService.fingerprint(sameLastFour)).isEqualTo(CheckoutIdempotencyService.fingerprint(CHECKOUT_DTO));
+        assertThat(CheckoutIdempotencyService.fingerprint(otherExpiry)).isNotEqualTo(CheckoutIdempotencyService.fingerprint(CHECKOUT_DTO));
+    }
+
+    @Test
+    void markPaid_recordsPaymentOnKey() {
+        when(repository.findByUser_EmailAndIdempotencyKey("alice@example.com", "key-1"))
+                .thenReturn(Optional.of(stored(CHECKOUT_DTO, null)));
+
+        service.markPaid("alice@example.com", "key-1");
+
+        verify(repository).markPaid(eq(5L), any());
+    }
+
+    @Test
+    void complete_storesSerializedResponse() {
+        CheckoutIdempotencyKey record = stored(CHECKOUT_DTO, null);
+        when(repository.findByUser_EmailAndIdempotencyKey("alice@example.com", "key-1")).thenReturn(Optional.of(record));
+
+        service.complete("alice@example.com", "key-1", response());
+
+        verify(repository).storeResponse(eq(5L), argThat(json -> json.contains("REF-A1B2C3D4")));
+    }
+
+    @Test
+    void abandon_deletesKey() {
+        CheckoutIdempotencyKey record = stored(CHECKOUT_DTO, null);
+        when(repository.findByUser_EmailAndIdempotencyKey("alice@example.com", "key-1")).thenReturn(Optional.of(record));
+
+        service.abandon("alice@example.com", "key-1");
+
+        verify(repository).delete(record);
+    }
+
+    private static CheckoutIdempotencyKey stored(CheckoutRequestDTO dto, TransactionResponseDTO response) {
+        return CheckoutIdempotencyKey.builder()
+                .id(5L)
+                .idempotencyKey("key-1")
+                .requestHash(CheckoutIdempotencyService.fingerprint(dto))
+                .responseBody(response != null ? JsonMapper.builder().build().writeValueAsString(response) : null)
+                .startedAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plusHours(24))
+                .build();
+    }
+
+    private static TransactionResponseDTO response() {
+        return TransactionResponseDTO.builder()
+                .id(7L)
+                .transactionKey("tx-key")
+                .status("COMPLETED")
+                .amount(new BigDecimal("150.00"))
+                .paymentReference("REF-A1B2C3D4")
+                .payedDate(LocalDateTime.of(2026, 7, 26, 20, 0))
+                .tickets(List.of(TicketResponseDTO.builder().id(1L).barcode("JO2024-AAAA1111").build()))
+                .deliveryStatus("PENDING")
+                .build();
+    }
+}
@@ -0,0 +1,323 @@
+package dev.jos.back.service;
+
+import dev.jos.back.dto.payment.TransactionResponseDTO;
+import dev.jos.back.entities.*;
+import dev.jos.back.exceptions.cart.CartNotFoundException;
+import dev.jos.back.exceptions.payment.CartEmptyException;
+import dev.jos.back.exceptions.payment.ReservationExpiredException;
+import dev.jos.back.exceptions.user.UserNotFoundException;
+import dev.jos.back.mapper.TicketMapper;
+import dev.jos.back.repository.*;
+import dev.jos.back.util.TicketsIssuedEvent;
+import dev.jos.back.util.enums.CartStatus;
+import dev.jos.back.util.enums.DeliveryStatus;
+import dev.jos.back.util.enums.PaymentMethod;
+import dev.jos.back.util.enums.TransactionStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CheckoutReservationServiceTest {
+
+    @Mock UserRepository userRepository;
+    @Mock CartRepository cartRepository;
+    @Mock TransactionRepository transactionRepository;
+    @Mock TicketRepository ticketRepository;
+    @Mock SeatHoldService seatHoldService;
+    @Mock WaitingRoomService waitingRoomService;
+    @Mock TicketMapper ticketMapper;
+    @Mock ApplicationEventPublisher eventPublisher;
+    @Mock CheckoutIdempotencyService idempotencyService;
+    private final AtomicLong barcodeBlocks = new AtomicLong(1);
+    @Spy TicketKeyMinter ticketKeyMinter = new TicketKeyMinter(() -> barcodeBlocks.getAndAdd(100));
+    @InjectMocks CheckoutReservationService reservationService;
+
+    // ── reserve ───────────────────────────────────────────────────────────────
+
+    @Test
+    void reserve_createsPendingTransaction_andLocksCart() {
+        User user = buildUser("alice@example.com");
+        Event event = buildEvent(1L, "100m Finale");
+        CartItems item = buildItem(event, buildOffer(1), 2, 75.0); // 2 × 75 = 150
+        Cart cart = buildActiveCart(Set.of(item));
+
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
+        when(cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)).thenReturn(Optional.of(cart));
+
+        reservationService.reserve("alice@example.com", PaymentMethod.CREDIT_CARD);
+
+        ArgumentCaptor<Transaction> txCaptor = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository).save(txCaptor.capture());
+        Transaction saved = txCaptor.getValue();
+        assertThat(saved.getStatus()).isEqualTo(TransactionStatus.PENDING);
+        assertThat(saved.getAmount()).isEqualByComparingTo(BigDecimal.valueOf(150.0));
+        assertThat(saved.getPayedDate()).isNull();
+        assertThat(saved.getCart()).isSameAs(cart);
+        assertThat(cart.getStatus()).isEqualTo(CartStatus.PENDING_PAYMENT);
+        verify(ticketRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void reserve_throwsUserNotFoundException_whenUserNotFound() {
+        when(userRepository.findByEmail("unknown@example.com")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> reservationService.reserve("unknown@example.com", PaymentMethod.CREDIT_CARD))
+                .isInstanceOf(UserNotFoundException.class);
+    }
+
+    @Test
+    void reserve_throwsCartNotFoundException_whenNoActiveCart() {
+        User user = buildUser("alice@example.com");
+
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
+        when(cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> reservationService.reserve("alice@example.com", PaymentMethod.CREDIT_CARD))
+                .isInstanceOf(CartNotFoundException.class);
+    }
+
+    @Test
+    void reserve_throwsCartNotFoundException_whenCartExpired() {
+        User user = buildUser("alice@example.com");
+        Cart cart = new Cart();
+        cart.setStatus(CartStatus.ACTIVE);
+        cart.setExpiresAt(LocalDateTime.now().minusMinutes(1)); // déjà expiré
+
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
+        when(cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)).thenReturn(Optional.of(cart));
+
+        assertThatThrownBy(() -> reservationService.reserve("alice@example.com", PaymentMethod.CREDIT_CARD))
+                .isInstanceOf(CartNotFoundException.class);
+        verify(seatHoldService).abandon(cart);
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void reserve_throwsCartEmptyException_whenCartHasNoItems() {
+        User user = buildUser("alice@example.com");
+        Cart cart = buildActiveCart(Set.of()); // panier vide
+
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
+        when(cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)).thenReturn(Optional.of(cart));
+
+        assertThatThrownBy(() -> reservationService.reserve("alice@example.com", PaymentMethod.CREDIT_CARD))
+                .isInstanceOf(CartEmptyException.class);
+    }
+
+    // ── confirm ───────────────────────────────────────────────────────────────
+
+    @Test
+    void confirm_generatesTickets_convertsCart_andPublishesEvent() {
+        User user = buildUser("alice@example.com");
+        Event event = buildEvent(1L, "100m Finale");
+        CartItems item = buildItem(event, buildOffer(2), 3, 200.0); // 3 × 2 = 6 billets attendus
+        Cart cart = buildActiveCart(Set.of(item));
+        cart.setStatus(CartStatus.PENDING_PAYMENT);
+        Transaction transaction = buildPendingTransaction(10L, user, cart);
+
+        TransactionResponseDTO expectedDTO = TransactionResponseDTO.builder().id(10L).build();
+
+        when(transactionRepository.transitionStatus(10L, TransactionStatus.PENDING, TransactionStatus.COMPLETED))
+                .thenReturn(1);
+        when(transactionRepository.findById(10L)).thenReturn(Optional.of(transaction));
+        when(ticketMapper.toTransactionResponseDTO(any(Transaction.class), anyList())).thenReturn(expectedDTO);
+
+        TransactionResponseDTO result = reservationService.confirm(10L);
+
+        assertThat(result).isSameAs(expectedDTO);
+        assertThat(cart.getStatus()).isEqualTo(CartStatus.CONVERTED);
+        assertThat(transaction.getPayedDate()).isNotNull();
+        assertThat(transaction.getDeliveryStatus()).isEqualTo(DeliveryStatus.PENDING);
+        verify(ticketRepository).saveAll(argThat(list -> list != null && ((List<?>) list).size() == 6));
+        verify(ticketKeyMinter).mint(6);
+        verify(eventPublisher).publishEvent(
+                new TicketsIssuedEvent("alice@example.com", "Alice", "fr", expectedDTO));
+        verify(idempotencyService, never()).complete(any(), any(), any());
+    }
+
+    @Test
+    void confirm_storesTheResponseUnderTheIdempotencyKey_withTheTickets() {
+        User user = buildUser("alice@example.com");
+        Cart cart = buildActiveCart(Set.of(buildItem(buildEvent(1L, "100m Finale"), buildOffer(1), 1, 50.0)));
+        cart.setStatus(CartStatus.PENDING_PAYMENT);
+        Transaction transaction = buildPendingTransaction(10L, user, cart);
+        TransactionResponseDTO expectedDTO = TransactionResponseDTO.builder().id(10L).build();
+
+        when(transactionRepository.transitionStatus(10L, TransactionStatus.PENDING, TransactionStatus.COMPLETED))
+                .thenReturn(1);
+        when(transactionRepository.findById(10L)).thenReturn(Optional.of(transaction));
+        when(ticketMapper.toTransactionResponseDTO(any(Transaction.class), anyList())).thenReturn(expectedDTO);
+
+        reservationService.confirm(10L, "key-1");
+
+        verify(idempotencyService).complete("alice@example.com", "key-1", expectedDTO);
+    }
+
+    @Test
+    void confirm_throwsReservationExpiredException_whenAlreadyReleased() {
+        when(transactionRepository.transitionStatus(10L, TransactionStatus.PENDING, TransactionStatus.COMPLETED))
+                .thenReturn(0);
+
+        assertThatThrownBy(() -> reservationService.confirm(10L))
+                .isInstanceOf(ReservationExpiredException.class);
+        verify(ticketRepository, never()).saveAll(anyList());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void requireRefund_recordsThePaymentOfAnExpiredReservation() {
+        Transaction transaction = buildPendingTransaction(10L, buildUser("alice@example.com"), null);
+        when(transactionRepository.transitionStatus(10L, TransactionStatus.EXPIRED, TransactionStatus.REFUND_REQUIRED))
+                .thenReturn(1);
+        when(transactionRepository.findById(10L)).thenReturn(Optional.of(transaction));
+
+        assertThat(reservationService.requireRefund(10L)).contains(transaction);
+    }
+
+    @Test
+    void requireRefund_returnsEmpty_whenTheTransactionWasNotExpired() {
+        when(transactionRepository.transitionStatus(10L, TransactionStatus.EXPIRED, TransactionStatus.REFUND_REQUIRED))
+                .thenReturn(0);
+
+        assertThat(reservationService.requireRefund(10L)).isEmpty();
+        verify(transactionRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void ticketsIssued_rebuildsTheDeliveryOfAConfirmedTransaction() {
+        User user = buildUser("alice@example.com");
+        Transaction transaction = buildPendingTransaction(10L, user, null);
+        Ticket second = new Ticket();
+        second.setId(2L);
+        Ticket first = new Ticket();
+        first.setId(1L);
+        transaction.setTickets(Set.of(second, first));
+        TransactionResponseDTO expectedDTO = TransactionResponseDTO.builder().id(10L).build();
+        when(transactionRepository.findById(10L)).thenReturn(Optional.of(transaction));
+        when(ticketMapper.toTransactionResponseDTO(transaction, List.of(first, second))).thenReturn(expectedDTO);
+
+        assertThat(reservationService.ticketsIssued(10L))
+                .isEqualTo(new TicketsIssuedEvent("alice@example.com", "Alice", "fr", expectedDTO));
+    }
+
+    // ── release ───────────────────────────────────────────────────────────────
+
+    @Test
+    void release_reactivatesCart_keepingItsSeatHolds() {
+        User user = buildUser("alice@example.com");
+        Event event = buildEvent(1L, "100m Finale");
+        CartItems item = buildItem(event, buildOffer(2), 2, 200.0); // 4 places
+        Cart cart = buildActiveCart(Set.of(item));
+        cart.setStatus(CartStatus.PENDING_PAYMENT);
+        Transaction transaction = buildPendingTransaction(10L, user, cart);
+
+        when(transactionRepository.transitionStatus(10L, TransactionStatus.PENDING, TransactionStatus.FAILED))
+                .thenReturn(1);
+        when(transactionRepository.findById(10L)).thenReturn(Optional.of(transaction));
+
+        reservationService.release(10L, TransactionStatus.FAILED);
+
+        verify(seatHoldService, never()).releaseAll(any(Cart.class));
+        assertThat(cart.getStatus()).isEqualTo(CartStatus.ACTIVE);
+        assertThat(transaction.getCart()).isNull();
+        assertThat(transaction.getCancelledDate()).isNotNull();
+    }
+
+    @Test
+    void release_doesNothing_whenTransactionNoLongerPending() {
+        when(transactionRepository.transitionStatus(10L, TransactionStatus.PENDING, TransactionStatus.EXPIRED))
+                .thenReturn(0);
+
+        reservationService.release(10L, TransactionStatus.EXPIRED);
+
+        verify(transactionRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void releaseStaleReservations_expiresEveryStalePendingTransaction() {
+        when(transactionRepository.findIdsByStatusCreatedBefore(any(), any())).thenReturn(List.of(10L, 11L));
+        when(transactionRepository.transitionStatus(anyLong(), any(), any())).thenReturn(0);
+
+        int released = reservationService.releaseStaleReservations();
+
+        assertThat(released).isEqualTo(2);
+        verify(transactionRepository).transitionStatus(10L, TransactionStatus.PENDING, TransactionStatus.EXPIRED);
+        verify(transactionRepository).transitionStatus(11L, TransactionStatus.PENDING, TransactionStatus.EXPIRED);
+    }
+
+    // ── helpers ───────────────────────────────────────────────────────────────
+
+    private User buildUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFirstName("Alice");
+        user.setLocale("fr");
+        return user;
+    }
+
+    private Event buildEvent(Long id, String name) {
+        Event event = new Event();
+        event.setId(id);
+        event.setName(name);
+        event.setAvailableSlots(50);
+        event.setEventDate(LocalDateTime.of(2024, 7, 26, 10, 0));
+        return event;
+    }
+
+    private Offer buildOffer(int numberOfTickets) {
+        Offer offer = new Offer();
+        offer.setNumberOfTickets(numberOfTickets);
+        return offer;
+    }
+
+    private CartItems buildItem(Event event, Offer offer, int quantity, double unitPrice) {
+        CartItems item = new CartItems();
+        item.setEvent(event);
+        item.setOffer(offer);
+        item.setQuantity(quantity);
+        item.setUnitPrice(unitPrice);
+        return item;
+    }
+
+    private Cart buildActiveCart(Set<CartItems> items) {
+        Cart cart = new Cart();
+        cart.setId(1L);
+        cart.setStatus(CartStatus.ACTIVE);
+        cart.setExpiresAt(LocalDateTime.now().plusMinutes(30));
+        items.forEach(cart.getCartItems()::add);
+        return cart;
+    }
+
+    private Transaction buildPendingTransaction(Long id, User user, Cart cart) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setTransactionKey("tx-key");
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setUser(user);
+        transaction.setCart(cart);
+        return transaction;
+    }
+}
@@ -15,6 +15,7 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -61,4 +62,20 @@ class CustomUserDetailsServiceTest {
         assertThatThrownBy(() -> service.loadUserByUsername("unknown@example.com"))
                 .isInstanceOf(UsernameNotFoundException.class);
     }
+
+    @Test
+    void updatePassword_storesTheUpgradedHash() {
+        User user = new User();
+        user.setEmail("alice@example.com");
+        user.setPasswordHash("$2a$04$old");
+        user.setRole(Role.ROLE_USER);
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
+
+        UserDetails upgraded = service.updatePassword(service.loadUserByUsername("alice@example.com"), "$2a$10$new");
+
+        assertThat(upgraded.getPassword()).isEqualTo("$2a$10$new");
+        assertThat(upgraded.getAuthorities()).hasSize(1);
+        assertThat(user.getPasswordHash()).isEqualTo("$2a$10$new");
+        verify(userRepository).save(user);
+    }
 }
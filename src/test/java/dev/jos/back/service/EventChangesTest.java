@@ -0,0 +1,129 @@
+package dev.jos.back.service;
+
+import dev.jos.back.dto.event.EventChangesDTO;
+import dev.jos.back.dto.event.EventResponseDTO;
+import dev.jos.back.dto.event.UpdateEventDTO;
+import dev.jos.back.entities.Event;
+import dev.jos.back.entities.Sport;
+import dev.jos.back.exceptions.event.InvalidSyncCursorException;
+import dev.jos.back.repository.EventDeletionRepository;
+import dev.jos.back.repository.EventRepository;
+import dev.jos.back.repository.SportRepository;
+import dev.jos.back.support.TestFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie sur H2 la synchronisation par différence : premier appel complet, puis seulement les
+ * événements modifiés et supprimés depuis le curseur.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:event-changes",
+        "catalog.changes-settle-ms=0"
+})
+@ActiveProfiles("test")
+class EventChangesTest {
+
+    @Autowired EventService eventService;
+    @Autowired EventRepository eventRepository;
+    @Autowired EventDeletionRepository eventDeletionRepository;
+    @Autowired SportRepository sportRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    Sport sport;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository.deleteAll();
+        eventDeletionRepository.deleteAll();
+        sport = sportRepository.findByName("Natation").orElseGet(() -> sportRepository.save(Sport.builder()
+                .name("Natation").description("desc").icon("icon.svg").build()));
+    }
+
+    @Test
+    void changes_returnsEverything_thenOnlyWhatChangedSinceTheCursor() throws Exception {
+        List<Long> ids = createEvents(5);
+
+        EventChangesDTO initial = eventService.getChangesSince(null, "fr");
+        assertThat(initial.events()).extracting(EventResponseDTO::id).containsExactlyElementsOf(ids);
+        assertThat(initial.deleted()).isEmpty();
+        assertThat(initial.hasMore()).isFalse();
+
+        Thread.sleep(5);
+        eventService.updateEvent(ids.get(1), new UpdateEventDTO("Finale renommée", null, null, null, null,
+                null, null, null, null, null, null, null));
+        eventService.deleteEvent(ids.get(3));
+        Thread.sleep(5);
+
+        EventChangesDTO delta = eventService.getChangesSince(initial.cursor(), "fr");
+        assertThat(delta.events()).extracting(EventResponseDTO::name).containsExactly("Finale renommée");
+        assertThat(delta.deleted()).containsExactly(ids.get(3));
+
+        EventChangesDTO nothing = eventService.getChangesSince(delta.cursor(), "fr");
+        assertThat(nothing.events()).isEmpty();
+        assertThat(nothing.deleted()).isEmpty();
+        assertThat(nothing.cursor()).isEqualTo(delta.cursor());
+    }
+
+    @Test
+    void changes_arePagedByUpdatedAtThenId() {
+        List<Long> ids = createEvents(EventService.MAX_CHANGES + 20);
+
+        EventChangesDTO first = eventService.getChangesSince(null, "fr");
+        EventChangesDTO second = eventService.getChangesSince(first.cursor(), "fr");
+
+        assertThat(first.hasMore()).isTrue();
+        assertThat(first.events()).hasSize(EventService.MAX_CHANGES);
+        assertThat(second.hasMore()).isFalse();
+        List<Long> seen = new ArrayList<>(first.events().stream().map(EventResponseDTO::id).toList());
+        second.events().forEach(e -> seen.add(e.id()));
+        assertThat(seen).containsExactlyInAnyOrderElementsOf(ids).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void updateEvent_keepsSlotsTakenAfterTheEventWasLoaded() {
+        Long id = createEvents(1).getFirst();
+        TransactionTemplate outer = new TransactionTemplate(transactionManager);
+        TransactionTemplate concurrent = new TransactionTemplate(transactionManager);
+        concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        outer.executeWithoutResult(status -> {
+            eventRepository.findById(id).orElseThrow();
+            concurrent.executeWithoutResult(inner -> eventRepository.reserveSlots(id, 3));
+            eventService.updateEvent(id, new UpdateEventDTO("Finale renommée", null, null, null, null,
+                    null, null, null, null, null, null, null));
+        });
+
+        Event saved = eventRepository.findById(id).orElseThrow();
+        assertThat(saved.getName()).isEqualTo("Finale renommée");
+        assertThat(saved.getAvailableSlots()).isEqualTo(7);
+    }
+
+    @Test
+    void changes_rejectsTamperedCursor() {
+        assertThatThrownBy(() -> eventService.getChangesSince("pas-un-curseur", "fr"))
+                .isInstanceOf(InvalidSyncCursorException.class);
+    }
+
+    private List<Long> createEvents(int count) {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Event event = TestFixtures.event("Épreuve " + i, 10);
+            event.setSport(sport);
+            events.add(event);
+        }
+        return eventRepository.saveAll(events).stream().map(Event::getId).toList();
+    }
+}
@@ -0,0 +1,117 @@
+package dev.jos.back.service;
+
+import dev.jos.back.dto.event.EventResponseDTO;
+import dev.jos.back.entities.Event;
+import dev.jos.back.entities.EventTranslation;
+import dev.jos.back.entities.Sport;
+import dev.jos.back.repository.EventRepository;
+import dev.jos.back.repository.EventTranslationRepository;
+import dev.jos.back.repository.SportRepository;
+import dev.jos.back.support.RecordingStatementInspector;
+import dev.jos.back.support.TestFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie sur H2 que chaque lecture localisée d'événements tient en une seule requête SQL,
+ * quel que soit le nombre d'événements, et qu'elle retombe sur les textes d'origine sans traduction.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:event-localized",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=dev.jos.back.support.RecordingStatementInspector",
+        // pas de rafraîchissement du catalogue en mémoire pendant le comptage des requêtes
+        "catalog.slots-refresh-ms=3600000"
+})
+@ActiveProfiles("test")
+class EventLocalizedQueryTest {
+
+    private static final int EVENTS = 30;
+
+    @Autowired EventService eventService;
+    @Autowired EventRepository eventRepository;
+    @Autowired EventTranslationRepository eventTranslationRepository;
+    @Autowired SportRepository sportRepository;
+
+    List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        eventTranslationRepository.deleteAll();
+        eventRepository.deleteAll();
+        Sport natation = sportRepository.findByName("Natation").orElseGet(() -> sportRepository.save(Sport.builder()
+                .name("Natation").description("desc").icon("icon.svg").build()));
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            Event event = TestFixtures.event("Épreuve " + i, i % 3 == 0 ? 0 : 10);
+            event.setSport(natation);
+            event.setIsActive(i != 1);
+            events.add(event);
+        }
+        events = eventRepository.saveAll(events);
+        ids = events.stream().map(Event::getId).toList();
+
+        List<EventTranslation> translations = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i += 2) {
+            EventTranslation translation = new EventTranslation();
+            translation.setEvent(events.get(i));
+            translation.setLocale("en");
+            // une traduction sans nom garde le nom d'origine
+            translation.setName(i % 4 == 0 ? "Heat " + i : null);
+            translation.setDescription("Description " + i);
+            translations.add(translation);
+        }
+        eventTranslationRepository.saveAll(translations);
+    }
+
+    @Test
+    void everyLocalizedRead_isASingleQuery() {
+        assertThat(statementsOf(() -> eventService.getAllEvents("en"))).isEqualTo(1);
+        assertThat(statementsOf(() -> eventService.getActiveEvents("en"))).isEqualTo(1);
+        assertThat(statementsOf(() -> eventService.getAvailableEvents("en"))).isEqualTo(1);
+        assertThat(statementsOf(() -> eventService.getEventsBySport("Natation", "en"))).isEqualTo(1);
+        assertThat(statementsOf(() -> eventService.getEventsByIds(ids, "en"))).isEqualTo(1);
+        assertThat(statementsOf(() -> eventService.getEventById(ids.getFirst(), "en"))).isEqualTo(1);
+        assertThat(statementsOf(() -> eventService.getAllEvents("fr"))).isEqualTo(1);
+    }
+
+    @Test
+    void getAllEvents_mergesTranslationWithBaseTexts() {
+        List<EventResponseDTO> events = eventService.getAllEvents("en");
+
+        assertThat(events).hasSize(EVENTS).allSatisfy(e -> assertThat(e.sport()).isEqualTo("Natation"));
+        assertThat(byId(events, 0)).extracting(EventResponseDTO::name, EventResponseDTO::description)
+                .containsExactly("Heat 0", "Description 0");
+        assertThat(byId(events, 2)).extracting(EventResponseDTO::name, EventResponseDTO::description)
+                .containsExactly("Épreuve 2", "Description 2");
+        assertThat(byId(events, 3).name()).isEqualTo("Épreuve 3");
+        assertThat(eventService.getEventById(ids.get(4), "fr").name()).isEqualTo("Épreuve 4");
+    }
+
+    @Test
+    void filteredReads_keepTheirFilters() {
+        assertThat(eventService.getActiveEvents("en")).hasSize(EVENTS - 1);
+        assertThat(eventService.getAvailableEvents("en"))
+                .hasSize(EVENTS - 1 - EVENTS / 3)
+                .allSatisfy(e -> assertThat(e.availableSlots()).isPositive());
+        assertThat(eventService.getEventsBySport("Escrime", "en")).isEmpty();
+    }
+
+    private EventResponseDTO byId(List<EventResponseDTO> events, int index) {
+        return events.stream().filter(e -> e.id().equals(ids.get(index))).findFirst().orElseThrow();
+    }
+
+    private static int statementsOf(Supplier<?> read) {
+        RecordingStatementInspector.clear();
+        read.get();
+        return RecordingStatementInspector.statements().size();
+    }
+}
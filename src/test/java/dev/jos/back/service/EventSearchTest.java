@@ -0,0 +1,189 @@
+package dev.jos.back.service;
+
+import dev.jos.back.dto.event.EventResponseDTO;
+import dev.jos.back.dto.event.EventSearchCriteria;
+import dev.jos.back.dto.event.EventSearchPageDTO;
+import dev.jos.back.entities.Event;
+import dev.jos.back.entities.Sport;
+import dev.jos.back.exceptions.event.InvalidPageTokenException;
+import dev.jos.back.repository.CartItemsRepository;
+import dev.jos.back.repository.EventRepository;
+import dev.jos.back.repository.SportRepository;
+import dev.jos.back.repository.TicketRepository;
+import dev.jos.back.support.RecordingStatementInspector;
+import dev.jos.back.support.TestFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie sur H2 la pagination par clé de la recherche d'événements et l'usage des index
+ * composites par les requêtes générées. Le schéma est construit par le changelog Liquibase,
+ * seule définition des index, et non par Hibernate.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:event-search",
+        "spring.liquibase.enabled=true",
+        "spring.liquibase.change-log=classpath:db/changelog/db.changelog-master.xml",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=dev.jos.back.support.RecordingStatementInspector"
+})
+@ActiveProfiles("test")
+class EventSearchTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 7, 27, 9, 0);
+    private static final int EVENTS = 240;
+    private static final List<String> CITIES = List.of("Paris", "Marseille", "Lyon", "Lille", "Nice", "Bordeaux", "Nantes", "Saint-Étienne");
+    private static final List<String> CATEGORIES = List.of("Athlétisme", "Natation", "Escrime", "Judo", "Aviron");
+    private static final EventSearchCriteria NO_FILTER = new EventSearchCriteria(null, null, null, null, null, null, null);
+
+    @Autowired EventService eventService;
+    @Autowired EventRepository eventRepository;
+    @Autowired SportRepository sportRepository;
+    @Autowired TicketRepository ticketRepository;
+    @Autowired CartItemsRepository cartItemsRepository;
+    @Autowired DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        // le changelog insère aussi les données de démonstration, ventes comprises
+        ticketRepository.deleteAllInBatch();
+        cartItemsRepository.deleteAllInBatch();
+        eventRepository.deleteAll();
+        Sport natation = sport("Natation");
+        Sport escrime = sport("Escrime");
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            Event event = TestFixtures.event("Épreuve " + i, i % 4 == 0 ? 0 : 10);
+            event.setSport(i % 2 == 0 ? natation : escrime);
+            event.setCity(CITIES.get(i % CITIES.size()));
+            event.setCategory(CATEGORIES.get(i % CATEGORIES.size()));
+            // plusieurs événements à la même heure : l'identifiant départage
+            event.setEventDate(START.plusHours(i / 3));
+            event.setIsActive(i != EVENTS - 1);
+            events.add(event);
+        }
+        eventRepository.saveAll(events);
+    }
+
+    @Test
+    void searchEvents_walksEveryPageOnce_inDateThenIdOrder() {
+        List<EventResponseDTO> seen = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+        do {
+            EventSearchPageDTO page = eventService.searchEvents(NO_FILTER, token, 25, "fr");
+            seen.addAll(page.events());
+            token = page.nextPageToken();
+            pages++;
+        } while (token != null);
+
+        assertThat(pages).isEqualTo(10);
+        assertThat(seen).hasSize(EVENTS - 1).doesNotHaveDuplicates();
+        assertThat(seen).isSortedAccordingTo((a, b) -> a.eventDate().equals(b.eventDate())
+                ? a.id().compareTo(b.id()) : a.eventDate().compareTo(b.eventDate()));
+    }
+
+    @Test
+    void searchEvents_appliesEveryFilter() {
+        EventSearchCriteria criteria = new EventSearchCriteria("Natation", "Lyon", null, null,
+                START.plusHours(2), START.plusHours(60), true);
+
+        List<EventResponseDTO> events = eventService.searchEvents(criteria, null, 100, "fr").events();
+
+        assertThat(events).isNotEmpty().allSatisfy(e -> {
+            assertThat(e.sport()).isEqualTo("Natation");
+            assertThat(e.city()).isEqualTo("Lyon");
+            assertThat(e.availableSlots()).isPositive();
+            assertThat(e.eventDate()).isAfterOrEqualTo(START.plusHours(2)).isBefore(START.plusHours(60));
+        });
+    }
+
+    @Test
+    void searchEvents_nextPageIsStable_whenEarlierEventsAreAdded() {
+        EventSearchPageDTO first = eventService.searchEvents(NO_FILTER, null, 10, "fr");
+        Event earlier = TestFixtures.event("Cérémonie", 10);
+        earlier.setSport(sportRepository.findByName("Natation").orElseThrow());
+        earlier.setEventDate(START.minusDays(1));
+        eventRepository.save(earlier);
+
+        EventSearchPageDTO second = eventService.searchEvents(NO_FILTER, first.nextPageToken(), 10, "fr");
+
+        assertThat(second.events().getFirst().eventDate()).isAfterOrEqualTo(first.events().getLast().eventDate());
+        assertThat(second.events()).extracting(EventResponseDTO::name).doesNotContain("Cérémonie");
+    }
+
+    @Test
+    void searchEvents_capsPageSize() {
+        assertThat(eventService.searchEvents(NO_FILTER, null, 10_000, "fr").events()).hasSize(100);
+        assertThat(eventService.searchEvents(NO_FILTER, null, 0, "fr").events()).hasSize(1);
+    }
+
+    @Test
+    void searchEvents_rejectsTamperedToken() {
+        assertThatThrownBy(() -> eventService.searchEvents(NO_FILTER, "pas-un-jeton", 10, "fr"))
+                .isInstanceOf(InvalidPageTokenException.class);
+    }
+
+    @Test
+    void searchQueries_useCompositeIndexes() throws Exception {
+        assertThat(planOf(new EventSearchCriteria(null, "Paris", null, null, null, null, null)))
+                .containsIgnoringCase("IDX_EVENTS_CITY_DATE");
+        assertThat(planOf(new EventSearchCriteria(null, null, null, "Athlétisme", null, null, null)))
+                .containsIgnoringCase("IDX_EVENTS_CATEGORY_DATE");
+        // H2 indexe aussi la clé étrangère sport_id et peut préférer cet index équivalent
+        assertThat(planOf(new EventSearchCriteria("Natation", null, null, null, null, null, null)))
+                .contains("SPORT_ID = S1_0.ID")
+                .doesNotContain("tableScan");
+        assertThat(planOf(NO_FILTER))
+                .containsIgnoringCase("IDX_EVENTS_ACTIVE_DATE");
+    }
+
+    /**
+     * Plan H2 de la requête de recherche réellement émise par Hibernate pour la seconde page.
+     */
+    private String planOf(EventSearchCriteria criteria) throws Exception {
+        String token = eventService.searchEvents(criteria, null, 2, "fr").nextPageToken();
+        RecordingStatementInspector.clear();
+        eventService.searchEvents(criteria, token, 2, "fr");
+        String sql = RecordingStatementInspector.statements().stream()
+                .filter(s -> s.contains("order by"))
+                .findFirst().orElseThrow();
+
+        try (Connection connection = dataSource.getConnection()) {
+            // statistiques de sélectivité, comme en production
+            connection.createStatement().execute("ANALYZE");
+            return explain(connection, sql);
+        }
+    }
+
+    private static String explain(Connection connection, String sql) throws Exception {
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 1; i <= explain.getParameterMetaData().getParameterCount(); i++) {
+                explain.setObject(i, null);
+            }
+            try (ResultSet plan = explain.executeQuery()) {
+                plan.next();
+                return plan.getString(1);
+            }
+        }
+    }
+
+    private Sport sport(String name) {
+        return sportRepository.findByName(name).orElseGet(() -> sportRepository.save(Sport.builder()
+                .name(name).description("desc").icon("icon.svg").build()));
+    }
+}
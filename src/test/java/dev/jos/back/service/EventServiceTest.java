@@ -4,20 +4,23 @@ import dev.jos.back.dto.event.CreateEventDTO;
 import dev.jos.back.dto.event.EventResponseDTO;
 import dev.jos.back.dto.event.UpdateEventDTO;
 import dev.jos.back.entities.Event;
-import dev.jos.back.entities.EventTranslation;
+import dev.jos.back.entities.EventDeletion;
 import dev.jos.back.entities.Sport;
 import dev.jos.back.exceptions.event.EventAlreadyExistsException;
 import dev.jos.back.exceptions.event.EventNotFoundException;
 import dev.jos.back.exceptions.sport.SportNotFoundException;
 import dev.jos.back.mapper.EventMapper;
+import dev.jos.back.repository.EventDeletionRepository;
 import dev.jos.back.repository.EventRepository;
 import dev.jos.back.repository.EventTranslationRepository;
 import dev.jos.back.repository.SportRepository;
+import dev.jos.back.util.CatalogChangedEvent;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -26,6 +29,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -37,6 +41,9 @@ class EventServiceTest {
     @Mock EventMapper eventMapper;
     @Mock SportRepository sportRepository;
     @Mock EventTranslationRepository eventTranslationRepository;
+    @Mock SeatInventory seatInventory;
+    @Mock ApplicationEventPublisher eventPublisher;
+    @Mock EventDeletionRepository eventDeletionRepository;
     @InjectMocks EventService eventService;
 
     @Test
@@ -71,12 +78,14 @@ class EventServiceTest {
     }
 
     @Test
-    void deleteEvent_callsDeleteById() {
+    void deleteEvent_callsDeleteById_andRecordsTheDeletion() {
         when(eventRepository.existsById(1L)).thenReturn(true);
 
         eventService.deleteEvent(1L);
 
         verify(eventRepository).deleteById(1L);
+        verify(eventDeletionRepository).save(argThat((EventDeletion d) -> d.getEventId().equals(1L)));
+        verify(eventPublisher).publishEvent(CatalogChangedEvent.events(List.of(1L)));
     }
 
     @Test
@@ -139,6 +148,7 @@ class EventServiceTest {
         );
 
         Event mappedNew = new Event();
+        mappedNew.setId(2L);
         mappedNew.setName("Nouveau");
         EventResponseDTO expectedDTO = EventResponseDTO.builder().id(2L).name("Nouveau").build();
 
@@ -169,200 +179,63 @@ class EventServiceTest {
                 .isInstanceOf(SportNotFoundException.class);
     }
 
-    // ── getAllEvents ──────────────────────────────────────────────────────────
+    // ── lectures localisées ───────────────────────────────────────────────────
 
     @Test
-    void getAllEvents_doesNotQueryTranslations_forFrLocale() {
-        when(eventRepository.findAll()).thenReturn(List.of());
+    void getAllEvents_returnsLocalizedProjection_forResolvedLocale() {
+        EventResponseDTO expected = EventResponseDTO.builder().id(1L).name("Translated").sport("Natation").build();
+        when(eventRepository.findAllLocalized("en")).thenReturn(List.of(expected));
 
-        eventService.getAllEvents("fr");
+        List<EventResponseDTO> result = eventService.getAllEvents("en-US,en;q=0.9");
 
+        assertThat(result).containsExactly(expected);
+        verify(eventRepository, never()).findAll();
         verify(eventTranslationRepository, never()).findByEventIdsAndLocale(any(), any());
     }
 
     @Test
-    void getAllEvents_queriesTranslationsAndMergesNames_forNonFrLocale() {
-        Event event = new Event();
-        event.setId(1L);
-        event.setName("Original");
-        event.setDescription("Desc");
-
-        EventTranslation translation = new EventTranslation();
-        translation.setEvent(event);
-        translation.setName("Translated");
-        translation.setDescription("Translated desc");
-
-        EventResponseDTO expected = EventResponseDTO.builder().id(1L).name("Translated").build();
-
-        when(eventRepository.findAll()).thenReturn(List.of(event));
-        when(eventTranslationRepository.findByEventIdsAndLocale(List.of(1L), "en"))
-                .thenReturn(List.of(translation));
-        when(eventMapper.toResponseDTO(event, "Translated", "Translated desc")).thenReturn(expected);
+    void getActiveEvents_returnsLocalizedProjection() {
+        when(eventRepository.findActiveLocalized("fr")).thenReturn(List.of());
 
-        List<EventResponseDTO> result = eventService.getAllEvents("en");
-
-        assertThat(result.get(0).name()).isEqualTo("Translated");
-        verify(eventTranslationRepository).findByEventIdsAndLocale(List.of(1L), "en");
+        assertThat(eventService.getActiveEvents(null)).isEmpty();
+        verify(eventRepository).findActiveLocalized("fr");
     }
 
-    // ── getActiveEvents ───────────────────────────────────────────────────────
-
     @Test
-    void getActiveEvents_doesNotQueryTranslations_forFrLocale() {
-        when(eventRepository.findByIsActiveTrue()).thenReturn(List.of());
-
-        eventService.getActiveEvents("fr");
+    void getAvailableEvents_returnsLocalizedProjection() {
+        EventResponseDTO expected = EventResponseDTO.builder().id(1L).name("Translated").availableSlots(3).build();
+        when(eventRepository.findAvailableLocalized("en")).thenReturn(List.of(expected));
 
-        verify(eventTranslationRepository, never()).findByEventIdsAndLocale(any(), any());
+        assertThat(eventService.getAvailableEvents("en")).containsExactly(expected);
     }
 
     @Test
-    void getActiveEvents_queriesTranslations_forNonFrLocale() {
-        Event event = new Event();
-        event.setId(1L);
-        event.setName("Original");
-        event.setDescription("Desc");
-
-        EventTranslation translation = new EventTranslation();
-        translation.setEvent(event);
-        translation.setName("Translated");
-        translation.setDescription("Translated desc");
-
-        EventResponseDTO expected = EventResponseDTO.builder().id(1L).name("Translated").build();
-
-        when(eventRepository.findByIsActiveTrue()).thenReturn(List.of(event));
-        when(eventTranslationRepository.findByEventIdsAndLocale(List.of(1L), "en"))
-                .thenReturn(List.of(translation));
-        when(eventMapper.toResponseDTO(event, "Translated", "Translated desc")).thenReturn(expected);
-
-        List<EventResponseDTO> result = eventService.getActiveEvents("en");
+    void getEventsBySport_returnsLocalizedProjection() {
+        EventResponseDTO expected = EventResponseDTO.builder().id(1L).sport("Natation").build();
+        when(eventRepository.findLocalizedBySportName("Natation", "en")).thenReturn(List.of(expected));
 
-        assertThat(result).hasSize(1);
-        verify(eventTranslationRepository).findByEventIdsAndLocale(List.of(1L), "en");
+        assertThat(eventService.getEventsBySport("Natation", "en")).containsExactly(expected);
     }
 
-    // ── getEventById ──────────────────────────────────────────────────────────
-
     @Test
-    void getEventById_returnsDTOWithOwnName_forFrLocale() {
-        Event event = new Event();
-        event.setId(1L);
-        event.setName("100m Hommes");
-        event.setDescription("Description");
-        EventResponseDTO expected = EventResponseDTO.builder().id(1L).name("100m Hommes").build();
-
-        when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
-        when(eventMapper.toResponseDTO(event, "100m Hommes", "Description")).thenReturn(expected);
-
-        EventResponseDTO result = eventService.getEventById(1L, "fr");
-
-        assertThat(result.name()).isEqualTo("100m Hommes");
-        verify(eventTranslationRepository, never()).findByEvent_IdAndLocale(any(), any());
-    }
-
-    @Test
-    void getEventById_returnsTranslatedName_forNonFrLocale() {
-        Event event = new Event();
-        event.setId(1L);
-        event.setName("100m Hommes");
-        event.setDescription("Description");
-
-        EventTranslation translation = new EventTranslation();
-        translation.setName("100m Men");
-        translation.setDescription("Description EN");
-
+    void getEventById_returnsLocalizedProjection() {
         EventResponseDTO expected = EventResponseDTO.builder().id(1L).name("100m Men").build();
-
-        when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
-        when(eventTranslationRepository.findByEvent_IdAndLocale(1L, "en"))
-                .thenReturn(Optional.of(translation));
-        when(eventMapper.toResponseDTO(event, "100m Men", "Description EN")).thenReturn(expected);
+        when(eventRepository.findLocalizedById(1L, "en")).thenReturn(Optional.of(expected));
 
         EventResponseDTO result = eventService.getEventById(1L, "en");
 
         assertThat(result.name()).isEqualTo("100m Men");
+        verify(eventTranslationRepository, never()).findByEvent_IdAndLocale(any(), any());
     }
 
     @Test
     void getEventById_throwsEventNotFoundException_whenNotFound() {
-        when(eventRepository.findById(99L)).thenReturn(Optional.empty());
+        when(eventRepository.findLocalizedById(99L, "fr")).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> eventService.getEventById(99L, "fr"))
                 .isInstanceOf(EventNotFoundException.class);
     }
 
-    // ── getAvailableEvents ────────────────────────────────────────────────────
-
-    @Test
-    void getAvailableEvents_doesNotQueryTranslations_forFrLocale() {
-        when(eventRepository.findAvailableEvents()).thenReturn(List.of());
-
-        eventService.getAvailableEvents("fr");
-
-        verify(eventTranslationRepository, never()).findByEventIdsAndLocale(any(), any());
-    }
-
-    @Test
-    void getAvailableEvents_queriesTranslations_forNonFrLocale() {
-        Event event = new Event();
-        event.setId(1L);
-        event.setName("Original");
-        event.setDescription("Desc");
-
-        EventTranslation translation = new EventTranslation();
-        translation.setEvent(event);
-        translation.setName("Translated");
-        translation.setDescription("Translated desc");
-
-        EventResponseDTO expected = EventResponseDTO.builder().id(1L).name("Translated").build();
-
-        when(eventRepository.findAvailableEvents()).thenReturn(List.of(event));
-        when(eventTranslationRepository.findByEventIdsAndLocale(List.of(1L), "en"))
-                .thenReturn(List.of(translation));
-        when(eventMapper.toResponseDTO(event, "Translated", "Translated desc")).thenReturn(expected);
-
-        List<EventResponseDTO> result = eventService.getAvailableEvents("en");
-
-        assertThat(result).hasSize(1);
-        verify(eventTranslationRepository).findByEventIdsAndLocale(List.of(1L), "en");
-    }
-
-    // ── getEventsBySport ──────────────────────────────────────────────────────
-
-    @Test
-    void getEventsBySport_doesNotQueryTranslations_forFrLocale() {
-        when(eventRepository.findBySportName("Natation")).thenReturn(List.of());
-
-        eventService.getEventsBySport("Natation", "fr");
-
-        verify(eventTranslationRepository, never()).findByEventIdsAndLocale(any(), any());
-    }
-
-    @Test
-    void getEventsBySport_queriesTranslations_forNonFrLocale() {
-        Event event = new Event();
-        event.setId(1L);
-        event.setName("Original");
-        event.setDescription("Desc");
-
-        EventTranslation translation = new EventTranslation();
-        translation.setEvent(event);
-        translation.setName("Translated");
-        translation.setDescription("Translated desc");
-
-        EventResponseDTO expected = EventResponseDTO.builder().id(1L).name("Translated").build();
-
-        when(eventRepository.findBySportName("Natation")).thenReturn(List.of(event));
-        when(eventTranslationRepository.findByEventIdsAndLocale(List.of(1L), "en"))
-                .thenReturn(List.of(translation));
-        when(eventMapper.toResponseDTO(event, "Translated", "Translated desc")).thenReturn(expected);
-
-        List<EventResponseDTO> result = eventService.getEventsBySport("Natation", "en");
-
-        assertThat(result).hasSize(1);
-        verify(eventTranslationRepository).findByEventIdsAndLocale(List.of(1L), "en");
-    }
-
     // ── updateEvent (supplement) ──────────────────────────────────────────────
 
     @Test
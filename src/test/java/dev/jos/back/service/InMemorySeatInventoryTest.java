@@ -0,0 +1,188 @@
+package dev.jos.back.service;
+
+import dev.jos.back.entities.Event;
+import dev.jos.back.repository.CartItemsRepository;
+import dev.jos.back.repository.EventRepository;
+import dev.jos.back.repository.TicketRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InMemorySeatInventoryTest {
+
+    @Mock EventRepository eventRepository;
+    @Mock TicketRepository ticketRepository;
+    @Mock CartItemsRepository cartItemsRepository;
+    @InjectMocks InMemorySeatInventory inventory;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void tryClaim_neverGoesBelowZero_underContention() throws Exception {
+        when(eventRepository.findAvailableSlotsById(1L)).thenReturn(Optional.of(50));
+
+        AtomicInteger claimed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    if (inventory.tryClaim(1L, 1)) {
+                        claimed.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(claimed.get()).isEqualTo(50);
+        assertThat(inventory.tryClaim(1L, 1)).isFalse();
+    }
+
+    @Test
+    void tryClaim_returnsFalse_whenEventUnknown() {
+        when(eventRepository.findAvailableSlotsById(99L)).thenReturn(Optional.empty());
+
+        assertThat(inventory.tryClaim(99L, 1)).isFalse();
+    }
+
+    @Test
+    void tryClaim_isUndone_whenTransactionRollsBack() {
+        when(eventRepository.findAvailableSlotsById(1L)).thenReturn(Optional.of(2));
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertThat(inventory.tryClaim(1L, 2)).isTrue();
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(inventory.tryClaim(1L, 2)).isTrue();
+        inventory.flush();
+        verify(eventRepository).adjustSlots(1L, -2);
+    }
+
+    @Test
+    void release_isAppliedOnlyAfterCommit() {
+        when(eventRepository.findAvailableSlotsById(1L)).thenReturn(Optional.of(0));
+        TransactionSynchronizationManager.initSynchronization();
+
+        inventory.release(1L, 3);
+        assertThat(inventory.tryClaim(1L, 1)).isFalse();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(inventory.tryClaim(1L, 3)).isTrue();
+    }
+
+    @Test
+    void flush_writesOneCoalescedDeltaPerEvent() {
+        when(eventRepository.findAvailableSlotsById(1L)).thenReturn(Optional.of(100));
+
+        inventory.tryClaim(1L, 4);
+        inventory.tryClaim(1L, 2);
+        inventory.release(1L, 1);
+        inventory.flush();
+        inventory.flush();
+
+        verify(eventRepository).adjustSlots(1L, -5);
+    }
+
+    @Test
+    void flush_doesNothing_whenNoPendingChange() {
+        inventory.flush();
+
+        verify(eventRepository, never()).adjustSlots(anyLong(), anyInt());
+    }
+
+    @Test
+    void refresh_replacesTheValueInPlace_andDropsPendingDeltas() {
+        when(eventRepository.findAvailableSlotsById(1L)).thenReturn(Optional.of(100));
+        inventory.tryClaim(1L, 10);
+        TransactionSynchronizationManager.initSynchronization();
+
+        inventory.refresh(1L, 40);
+        assertThat(inventory.available(List.of(1L))).containsEntry(1L, 90);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(inventory.available(List.of(1L))).containsEntry(1L, 40);
+        verify(eventRepository).overwriteSlots(1L, 40);
+        inventory.flush();
+        verify(eventRepository, never()).adjustSlots(anyLong(), anyInt());
+        assertThat(inventory.tryClaim(1L, 40)).isTrue();
+        assertThat(inventory.tryClaim(1L, 1)).isFalse();
+    }
+
+    @Test
+    void reconcile_lowersStock_whenDecrementsWereLost() {
+        Event event = new Event();
+        event.setId(1L);
+        event.setCapacity(100);
+        event.setAvailableSlots(95); // 10 places réellement engagées : 90 attendues
+
+        when(ticketRepository.countIssuedPerEvent()).thenReturn(List.<Object[]>of(new Object[]{1L, 6L}));
+        when(cartItemsRepository.sumSeatsPerEventByCartStatus(any())).thenReturn(List.<Object[]>of(new Object[]{1L, 4L}));
+        when(eventRepository.findAll()).thenReturn(List.of(event));
+
+        inventory.reconcile();
+
+        verify(eventRepository).adjustSlots(1L, -5);
+        assertThat(inventory.tryClaim(1L, 90)).isTrue();
+        assertThat(inventory.tryClaim(1L, 1)).isFalse();
+    }
+
+    @Test
+    void reconcile_neverRaisesStock() {
+        Event event = new Event();
+        event.setId(1L);
+        event.setCapacity(80000);
+        event.setAvailableSlots(18600);
+
+        when(ticketRepository.countIssuedPerEvent()).thenReturn(List.of());
+        when(cartItemsRepository.sumSeatsPerEventByCartStatus(any())).thenReturn(List.of());
+        when(eventRepository.findAll()).thenReturn(List.of(event));
+
+        inventory.reconcile();
+
+        verify(eventRepository, never()).adjustSlots(anyLong(), anyInt());
+        assertThat(inventory.tryClaim(1L, 18601)).isFalse();
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(status));
+    }
+}
@@ -1,6 +1,8 @@
 package dev.jos.back.service;
 
+import dev.jos.back.entities.User;
 import dev.jos.back.properties.JwtProperties;
+import dev.jos.back.util.enums.Role;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -15,12 +17,13 @@ class JwtServiceTest {
     private static final long   ACCESS_EXP  = 900_000L;       // 15 min
     private static final long   REFRESH_EXP = 604_800_000L;   // 7 jours
 
+    private JwtProperties props;
     private JwtService jwtService;
 
     @BeforeEach
     void setUp() {
         // JwtProperties est un POJO @Data — on l'instancie directement sans Mockito
-        JwtProperties props = new JwtProperties();
+        props = new JwtProperties();
         props.setSecret(SECRET);
 
         JwtProperties.AccessToken accessToken = new JwtProperties.AccessToken();
@@ -55,6 +58,87 @@ class JwtServiceTest {
         assertThat(jwtService.getUsernameFromToken(token)).isEqualTo("admin@example.com");
     }
 
+    @Test
+    void generateAccessToken_forUser_carriesIdAndTokenVersion() {
+        User user = User.builder().id(42L).email("carol@example.com").role(Role.ROLE_ADMIN).tokenVersion(3).build();
+
+        JwtService.TokenClaims claims = jwtService.parseAccessToken(jwtService.generateAccessToken(user)).orElseThrow();
+
+        assertThat(claims.email()).isEqualTo("carol@example.com");
+        assertThat(claims.roles()).containsExactly("ROLE_ADMIN");
+        assertThat(claims.userId()).isEqualTo(42L);
+        assertThat(claims.tokenVersion()).isEqualTo(3);
+        assertThat(claims.tokenId()).isNotBlank();
+        assertThat(claims.expiresAt()).isAfter(java.time.Instant.now());
+    }
+
+    @Test
+    void generateAccessToken_givesEachTokenItsOwnId() {
+        User user = User.builder().id(42L).email("carol@example.com").role(Role.ROLE_ADMIN).build();
+
+        String first = jwtService.parseAccessToken(jwtService.generateAccessToken(user)).orElseThrow().tokenId();
+        String second = jwtService.parseAccessToken(jwtService.generateAccessToken(user)).orElseThrow().tokenId();
+
+        assertThat(first).isNotEqualTo(second);
+    }
+
+    @Test
+    void parseAccessToken_leavesIdAndVersionEmpty_forOlderTokens() {
+        JwtService.TokenClaims claims = jwtService.parseAccessToken(
+                jwtService.generateAccessToken("alice@example.com", List.of("ROLE_USER"))).orElseThrow();
+
+        assertThat(claims.roles()).containsExactly("ROLE_USER");
+        assertThat(claims.userId()).isNull();
+        assertThat(claims.tokenVersion()).isNull();
+        assertThat(jwtService.parseAccessToken("not.a.valid.jwt")).isEmpty();
+    }
+
+    // ── cache des jetons vérifiés ─────────────────────────────────────────────
+
+    @Test
+    void parseAccessToken_keepsNothing_whenCacheIsDisabled() {
+        String token = jwtService.generateAccessToken("alice@example.com", List.of("ROLE_USER"));
+
+        jwtService.parseAccessToken(token);
+
+        assertThat(jwtService.cachedTokenCount()).isZero();
+    }
+
+    @Test
+    void parseAccessToken_servesRepeatedTokens_fromTheCache() {
+        props.setClaimsCacheSize(10);
+        String token = jwtService.generateAccessToken(User.builder().id(1L).email("alice@example.com").role(Role.ROLE_USER).build());
+
+        JwtService.TokenClaims first = jwtService.parseAccessToken(token).orElseThrow();
+        JwtService.TokenClaims second = jwtService.parseAccessToken(token).orElseThrow();
+
+        assertThat(second).isSameAs(first);
+        assertThat(jwtService.cachedTokenCount()).isEqualTo(1);
+        assertThat(jwtService.parseAccessToken("not.a.valid.jwt")).isEmpty();
+        assertThat(jwtService.cachedTokenCount()).isEqualTo(1);
+    }
+
+    @Test
+    void parseAccessToken_stopsCaching_whenCacheIsFull() {
+        props.setClaimsCacheSize(1);
+
+        jwtService.parseAccessToken(jwtService.generateAccessToken("alice@example.com", List.of("ROLE_USER")));
+        JwtService.TokenClaims bob = jwtService.parseAccessToken(
+                jwtService.generateAccessToken("bob@example.com", List.of("ROLE_USER"))).orElseThrow();
+
+        assertThat(bob.email()).isEqualTo("bob@example.com");
+        assertThat(jwtService.cachedTokenCount()).isEqualTo(1);
+    }
+
+    @Test
+    void parseAccessToken_rejectsExpiredTokens_evenWithCache() {
+        props.setClaimsCacheSize(10);
+        props.getAccessToken().setExpiration(-1_000L);
+
+        assertThat(jwtService.parseAccessToken(jwtService.generateAccessToken("alice@example.com", List.of()))).isEmpty();
+        assertThat(jwtService.cachedTokenCount()).isZero();
+    }
+
     // ── generateRefreshToken ──────────────────────────────────────────────────
 
     @Test
@@ -66,6 +150,22 @@ class JwtServiceTest {
         assertThat(jwtService.getUsernameFromToken(token)).isEqualTo("bob@example.com");
     }
 
+    @Test
+    void parseRefreshToken_forUser_carriesIdVersionAndTokenId() {
+        User user = User.builder().id(42L).email("carol@example.com").role(Role.ROLE_ADMIN).tokenVersion(3).build();
+        props.setClaimsCacheSize(10);
+
+        JwtService.TokenClaims claims = jwtService.parseRefreshToken(jwtService.generateRefreshToken(user)).orElseThrow();
+
+        assertThat(claims.email()).isEqualTo("carol@example.com");
+        assertThat(claims.roles()).isEmpty();
+        assertThat(claims.userId()).isEqualTo(42L);
+        assertThat(claims.tokenVersion()).isEqualTo(3);
+        assertThat(claims.tokenId()).isNotBlank();
+        assertThat(jwtService.cachedTokenCount()).isZero();
+        assertThat(jwtService.parseRefreshToken(null)).isEmpty();
+    }
+
     // ── validateToken ─────────────────────────────────────────────────────────
 
     @Test
@@ -10,11 +10,13 @@ import dev.jos.back.exceptions.offertype.OfferTypeAlreadyExistsException;
 import dev.jos.back.mapper.OfferMapper;
 import dev.jos.back.repository.OfferRepository;
 import dev.jos.back.repository.OfferTranslationRepository;
+import dev.jos.back.util.CatalogChangedEvent;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
@@ -32,6 +34,7 @@ class OfferServiceTest {
     @Mock OfferRepository repository;
     @Mock OfferMapper mapper;
     @Mock OfferTranslationRepository offerTranslationRepository;
+    @Mock ApplicationEventPublisher eventPublisher;
     @InjectMocks OfferService offerService;
 
     @Test
@@ -70,6 +73,7 @@ class OfferServiceTest {
         offerService.deleteOffer(1L);
 
         verify(repository).deleteById(1L);
+        verify(eventPublisher).publishEvent(CatalogChangedEvent.offers());
     }
 
     @Test
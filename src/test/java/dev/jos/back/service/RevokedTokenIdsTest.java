@@ -0,0 +1,45 @@
+package dev.jos.back.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevokedTokenIdsTest {
+
+    @Test
+    void contains_findsRevokedIds_only() {
+        RevokedTokenIds ids = new RevokedTokenIds(16);
+        ids.add("jti-1", 1_000L);
+
+        assertThat(ids.contains("jti-1")).isTrue();
+        assertThat(ids.contains("jti-2")).isFalse();
+        assertThat(ids.contains(null)).isFalse();
+    }
+
+    @Test
+    void add_beyondCapacity_keepsEveryId() {
+        RevokedTokenIds ids = new RevokedTokenIds(4);
+        for (int i = 0; i < 100; i++) {
+            ids.add("jti-" + i, 1_000L);
+        }
+
+        assertThat(ids.size()).isEqualTo(100);
+        for (int i = 0; i < 100; i++) {
+            assertThat(ids.contains("jti-" + i)).isTrue();
+        }
+        assertThat(ids.contains("jti-100")).isFalse();
+    }
+
+    @Test
+    void prune_forgetsExpiredIds() {
+        RevokedTokenIds ids = new RevokedTokenIds(16);
+        ids.add("expired", 1_000L);
+        ids.add("valid", 3_000L);
+
+        assertThat(ids.prune(2_000L)).isEqualTo(1);
+
+        assertThat(ids.contains("expired")).isFalse();
+        assertThat(ids.contains("valid")).isTrue();
+        assertThat(ids.prune(2_000L)).isZero();
+    }
+}
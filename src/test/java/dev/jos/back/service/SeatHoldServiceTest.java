@@ -0,0 +1,156 @@
+package dev.jos.back.service;
+
+import dev.jos.back.entities.Cart;
+import dev.jos.back.entities.CartItems;
+import dev.jos.back.entities.Event;
+import dev.jos.back.entities.Offer;
+import dev.jos.back.exceptions.cart.CartNotFoundException;
+import dev.jos.back.exceptions.event.EventSoldOutException;
+import dev.jos.back.repository.CartRepository;
+import dev.jos.back.util.SeatsChangedEvent;
+import dev.jos.back.util.enums.CartStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SeatHoldServiceTest {
+
+    @Mock SeatInventory seatInventory;
+    @Mock CartRepository cartRepository;
+    @Mock ApplicationEventPublisher eventPublisher;
+    @InjectMocks SeatHoldService seatHoldService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(seatHoldService, "holdMinutes", 30L);
+    }
+
+    @Test
+    void hold_reservesSeats_whenEnoughAvailable() {
+        Event event = buildEvent(1L, "100m Finale");
+        when(seatInventory.tryClaim(1L, 4)).thenReturn(true);
+
+        seatHoldService.hold(event, 4);
+
+        verify(seatInventory).tryClaim(1L, 4);
+        verify(eventPublisher).publishEvent(new SeatsChangedEvent(1L));
+    }
+
+    @Test
+    void hold_throwsEventSoldOutException_whenNotEnoughSeats() {
+        Event event = buildEvent(1L, "100m Finale");
+        when(seatInventory.tryClaim(1L, 4)).thenReturn(false);
+
+        assertThatThrownBy(() -> seatHoldService.hold(event, 4))
+                .isInstanceOf(EventSoldOutException.class)
+                .hasMessageContaining("100m Finale");
+    }
+
+    @Test
+    void extend_pushesExpiry_whenCartStillActive() {
+        Cart cart = buildCart();
+        cart.setExpiresAt(LocalDateTime.now().plusMinutes(1));
+        when(cartRepository.extendExpiry(eq(1L), any(), eq(CartStatus.ACTIVE))).thenReturn(1);
+
+        seatHoldService.extend(cart);
+
+        assertThat(cart.getExpiresAt()).isAfter(LocalDateTime.now().plusMinutes(29));
+    }
+
+    @Test
+    void extend_throwsCartNotFoundException_whenCartAbandonedMeanwhile() {
+        Cart cart = buildCart();
+        when(cartRepository.extendExpiry(eq(1L), any(), eq(CartStatus.ACTIVE))).thenReturn(0);
+
+        assertThatThrownBy(() -> seatHoldService.extend(cart))
+                .isInstanceOf(CartNotFoundException.class);
+    }
+
+    @Test
+    void abandon_releasesSeatsPerEvent_summingItemsOfSameEvent() {
+        Event event = buildEvent(1L, "100m Finale");
+        Cart cart = buildCart();
+        cart.getCartItems().add(buildItem(event, 1, 2));   // 2 places
+        cart.getCartItems().add(buildItem(event, 2, 1));   // 2 places
+        when(cartRepository.abandonIfExpired(eq(1L), any(), eq(CartStatus.ACTIVE), eq(CartStatus.ABANDONED)))
+                .thenReturn(1);
+
+        boolean abandoned = seatHoldService.abandon(cart);
+
+        assertThat(abandoned).isTrue();
+        assertThat(cart.getStatus()).isEqualTo(CartStatus.ABANDONED);
+        verify(seatInventory).release(1L, 4);
+    }
+
+    @Test
+    void abandon_releasesNothing_whenCartNoLongerExpiredOrActive() {
+        Cart cart = buildCart();
+        cart.getCartItems().add(buildItem(buildEvent(1L, "100m Finale"), 1, 2));
+        when(cartRepository.abandonIfExpired(eq(1L), any(), eq(CartStatus.ACTIVE), eq(CartStatus.ABANDONED)))
+                .thenReturn(0);
+
+        boolean abandoned = seatHoldService.abandon(cart);
+
+        assertThat(abandoned).isFalse();
+        verify(seatInventory, never()).release(anyLong(), anyInt());
+    }
+
+    @Test
+    void releaseExpiredHolds_countsOnlyCartsActuallyAbandoned() {
+        Cart first = buildCart();
+        Cart second = buildCart();
+        second.setId(2L);
+        when(cartRepository.findByStatusAndExpiresAtBefore(eq(CartStatus.ACTIVE), any()))
+                .thenReturn(List.of(first, second));
+        when(cartRepository.abandonIfExpired(eq(1L), any(), any(), any())).thenReturn(1);
+        when(cartRepository.abandonIfExpired(eq(2L), any(), any(), any())).thenReturn(0);
+
+        assertThat(seatHoldService.releaseExpiredHolds()).isEqualTo(1);
+    }
+
+    // ── helpers ───────────────────────────────────────────────────────────────
+
+    private Event buildEvent(Long id, String name) {
+        Event event = new Event();
+        event.setId(id);
+        event.setName(name);
+        return event;
+    }
+
+    private Cart buildCart() {
+        Cart cart = new Cart();
+        cart.setId(1L);
+        cart.setStatus(CartStatus.ACTIVE);
+        cart.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        return cart;
+    }
+
+    private CartItems buildItem(Event event, int numberOfTickets, int quantity) {
+        Offer offer = new Offer();
+        offer.setNumberOfTickets(numberOfTickets);
+        CartItems item = new CartItems();
+        item.setEvent(event);
+        item.setOffer(offer);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
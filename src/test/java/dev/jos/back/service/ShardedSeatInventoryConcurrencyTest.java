@@ -0,0 +1,146 @@
+package dev.jos.back.service;
+
+import dev.jos.back.entities.Event;
+import dev.jos.back.entities.EventInventoryShard;
+import dev.jos.back.entities.Sport;
+import dev.jos.back.repository.EventInventoryShardRepository;
+import dev.jos.back.repository.EventRepository;
+import dev.jos.back.repository.SportRepository;
+import dev.jos.back.support.TestFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie sur H2 que le stock réparti ne survend jamais et que les achats d'un même événement se
+ * répartissent sur plusieurs shards. Le gain de débit est mesuré par
+ * {@link dev.jos.back.benchmark.ShardedSeatInventoryBenchmark}.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharded-inventory",
+        "inventory.mode=sharded"
+})
+@ActiveProfiles("test")
+class ShardedSeatInventoryConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired EventRepository eventRepository;
+    @Autowired EventInventoryShardRepository shardRepository;
+    @Autowired SportRepository sportRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired ShardedSeatInventory inventory;
+
+    TransactionTemplate transactionTemplate;
+    Sport sport;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        sport = sportRepository.findByName("Athlétisme").orElseGet(() -> sportRepository.save(Sport.builder()
+                .name("Athlétisme").description("desc").icon("icon.svg").build()));
+    }
+
+    @Test
+    void parallelClaims_neverSellMoreThanCapacity() throws Exception {
+        Long eventId = createEvent("Finale 1", 50);
+
+        AtomicInteger claimed = new AtomicInteger();
+        runInParallel(300, () -> {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> inventory.tryClaim(eventId, 1)))) {
+                claimed.incrementAndGet();
+            }
+        });
+
+        assertThat(claimed.get()).isEqualTo(50);
+        assertThat(totalOfShards(eventId)).isZero();
+    }
+
+    @Test
+    void claims_spreadOverSeveralShards() {
+        Long eventId = createEvent("Finale 2", 80); // 8 shards de 10 places
+
+        for (int i = 0; i < 40; i++) {
+            Boolean claimed = transactionTemplate.execute(status -> inventory.tryClaim(eventId, 1));
+            assertThat(claimed).isTrue();
+        }
+
+        List<EventInventoryShard> shards = shardsOf(eventId);
+        assertThat(shards).hasSize(8);
+        assertThat(shards).filteredOn(shard -> shard.getAvailableSlots() < 10).hasSizeGreaterThan(1);
+        assertThat(totalOfShards(eventId)).isEqualTo(40);
+    }
+
+    @Test
+    void tryClaim_takesFromSeveralShards_whenNoSingleShardIsEnough() {
+        Long eventId = createEvent("Finale 4", 10); // 8 shards : 2, 2, 1, 1, 1, 1, 1, 1
+
+        Boolean claimed = transactionTemplate.execute(status -> inventory.tryClaim(eventId, 5));
+        Boolean refused = transactionTemplate.execute(status -> inventory.tryClaim(eventId, 6));
+
+        assertThat(claimed).isTrue();
+        assertThat(refused).isFalse();
+        assertThat(totalOfShards(eventId)).isEqualTo(5);
+    }
+
+    @Test
+    void refreshTotals_copiesShardSumIntoAvailableSlots() {
+        Long eventId = createEvent("Finale 5", 40);
+        transactionTemplate.executeWithoutResult(status -> inventory.tryClaim(eventId, 3));
+
+        inventory.refreshTotals();
+
+        assertThat(eventRepository.findAvailableSlotsById(eventId)).contains(37);
+    }
+
+    private Long createEvent(String name, int slots) {
+        Event event = TestFixtures.event(name, slots);
+        event.setCapacity(slots);
+        event.setSport(sport);
+        return eventRepository.save(event).getId();
+    }
+
+    private List<EventInventoryShard> shardsOf(Long eventId) {
+        return shardRepository.findAll().stream()
+                .filter(shard -> shard.getEvent().getId().equals(eventId))
+                .toList();
+    }
+
+    private int totalOfShards(Long eventId) {
+        return shardsOf(eventId).stream()
+                .mapToInt(EventInventoryShard::getAvailableSlots)
+                .sum();
+    }
+
+    private void runInParallel(int tasks, Runnable task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -9,11 +9,13 @@ import dev.jos.back.exceptions.sport.SportNotFoundException;
 import dev.jos.back.mapper.SportMapper;
 import dev.jos.back.repository.SportRepository;
 import dev.jos.back.repository.SportTranslationRepository;
+import dev.jos.back.util.CatalogChangedEvent;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
@@ -31,6 +33,7 @@ class SportServiceTest {
     @Mock SportRepository sportRepository;
     @Mock SportMapper sportMapper;
     @Mock SportTranslationRepository sportTranslationRepository;
+    @Mock ApplicationEventPublisher eventPublisher;
     @InjectMocks SportService sportService;
 
     @Test
@@ -68,6 +71,7 @@ class SportServiceTest {
         sportService.deleteSport(1L);
 
         verify(sportRepository).deleteById(1L);
+        verify(eventPublisher).publishEvent(CatalogChangedEvent.sports());
     }
 
     @Test
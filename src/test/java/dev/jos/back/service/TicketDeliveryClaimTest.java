@@ -0,0 +1,97 @@
+package dev.jos.back.service;
+
+import dev.jos.back.entities.Transaction;
+import dev.jos.back.entities.User;
+import dev.jos.back.repository.TransactionRepository;
+import dev.jos.back.repository.UserRepository;
+import dev.jos.back.support.TestFixtures;
+import dev.jos.back.util.enums.DeliveryStatus;
+import dev.jos.back.util.enums.PaymentMethod;
+import dev.jos.back.util.enums.TransactionStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie sur H2 la réservation des envois de billets : un envoi n'est pris que par un seul appel,
+ * les échecs sont repris après le délai et dans la limite des tentatives.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:ticket-delivery-claim")
+@ActiveProfiles("test")
+class TicketDeliveryClaimTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired TransactionRepository transactionRepository;
+    @Autowired UserRepository userRepository;
+
+    User user;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        user = userRepository.findByEmail("buyer@jo2024.fr")
+                .orElseGet(() -> userRepository.save(TestFixtures.user("buyer@jo2024.fr")));
+    }
+
+    @Test
+    void claimDelivery_succeedsOnce() {
+        Long id = completed(DeliveryStatus.PENDING, LocalDateTime.now(), 0, null);
+
+        assertThat(transactionRepository.claimDelivery(id, LocalDateTime.now())).isEqualTo(1);
+        assertThat(transactionRepository.claimDelivery(id, LocalDateTime.now())).isZero();
+
+        Transaction claimed = transactionRepository.findById(id).orElseThrow();
+        assertThat(claimed.getDeliveryStatus()).isEqualTo(DeliveryStatus.SENDING);
+        assertThat(claimed.getDeliveryAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void redelivery_takesOldPendingFailedAndStuckDeliveries_withinTheAttemptLimit() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime threshold = now.minusMinutes(10);
+        LocalDateTime old = now.minusMinutes(30);
+        Long oldPending = completed(DeliveryStatus.PENDING, old, 0, null);
+        Long recentPending = completed(DeliveryStatus.PENDING, now, 0, null);
+        Long oldFailed = completed(DeliveryStatus.FAILED, old, 1, old);
+        Long recentFailed = completed(DeliveryStatus.FAILED, old, 1, now);
+        Long stuckSending = completed(DeliveryStatus.SENDING, old, 1, old);
+        Long sendingNow = completed(DeliveryStatus.SENDING, old, 1, now);
+        Long exhausted = completed(DeliveryStatus.FAILED, old, MAX_ATTEMPTS, old);
+        completed(DeliveryStatus.SENT, old, 1, old);
+
+        assertThat(transactionRepository.findIdsToRedeliver(threshold, MAX_ATTEMPTS))
+                .containsExactlyInAnyOrder(oldPending, oldFailed, stuckSending);
+
+        assertThat(transactionRepository.claimRedelivery(oldFailed, now, threshold, MAX_ATTEMPTS)).isEqualTo(1);
+        assertThat(transactionRepository.claimRedelivery(oldFailed, now, threshold, MAX_ATTEMPTS)).isZero();
+        assertThat(transactionRepository.claimRedelivery(recentPending, now, threshold, MAX_ATTEMPTS)).isZero();
+        assertThat(transactionRepository.claimRedelivery(recentFailed, now, threshold, MAX_ATTEMPTS)).isZero();
+        assertThat(transactionRepository.claimRedelivery(sendingNow, now, threshold, MAX_ATTEMPTS)).isZero();
+        assertThat(transactionRepository.claimRedelivery(exhausted, now, threshold, MAX_ATTEMPTS)).isZero();
+        assertThat(transactionRepository.findById(oldFailed).orElseThrow().getDeliveryAttempts()).isEqualTo(2);
+    }
+
+    private Long completed(DeliveryStatus deliveryStatus, LocalDateTime payedDate, int attempts, LocalDateTime claimedAt) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionKey(UUID.randomUUID().toString());
+        transaction.setPaymentReference("REF-" + UUID.randomUUID());
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setAmount(BigDecimal.TEN);
+        transaction.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+        transaction.setUser(user);
+        transaction.setPayedDate(payedDate);
+        transaction.setDeliveryStatus(deliveryStatus);
+        transaction.setDeliveryAttempts(attempts);
+        transaction.setDeliveryClaimedAt(claimedAt);
+        return transactionRepository.save(transaction).getId();
+    }
+}
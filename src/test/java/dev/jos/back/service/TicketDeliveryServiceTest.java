@@ -0,0 +1,122 @@
+package dev.jos.back.service;
+
+import dev.jos.back.dto.payment.TransactionResponseDTO;
+import dev.jos.back.exceptions.email.EmailNotSentException;
+import dev.jos.back.properties.TicketDeliveryProperties;
+import dev.jos.back.repository.TransactionRepository;
+import dev.jos.back.support.TestFixtures;
+import dev.jos.back.util.TicketsIssuedEvent;
+import dev.jos.back.util.enums.DeliveryStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TicketDeliveryServiceTest {
+
+    @Mock PdfTicketService pdfTicketService;
+    @Mock EmailService emailService;
+    @Mock TransactionRepository transactionRepository;
+    @Mock CheckoutReservationService checkoutReservationService;
+    @Spy TicketDeliveryProperties properties = new TicketDeliveryProperties();
+    @Spy SyncTaskExecutor deliveryExecutor = new SyncTaskExecutor();
+    @InjectMocks TicketDeliveryService ticketDeliveryService;
+
+    private final TransactionResponseDTO transaction =
+            TestFixtures.transaction(List.of(TestFixtures.ticket("ABC", 50.0)));
+
+    private final TicketsIssuedEvent event =
+            new TicketsIssuedEvent("alice@example.com", "Alice", "en", transaction);
+
+    @Test
+    void onTicketsIssued_rendersPdfSendsEmail_andMarksSent() {
+        byte[] pdf = new byte[]{1, 2, 3};
+        when(transactionRepository.claimDelivery(eq(42L), any())).thenReturn(1);
+        when(pdfTicketService.generate(transaction, "en")).thenReturn(pdf);
+
+        ticketDeliveryService.onTicketsIssued(event);
+
+        verify(emailService).sendTicketsEmail("alice@example.com", "Alice", transaction, pdf, "en");
+        verify(transactionRepository).updateDeliveryStatus(42L, DeliveryStatus.SENT);
+    }
+
+    @Test
+    void onTicketsIssued_sendsNothing_whenTheDeliveryWasAlreadyClaimed() {
+        when(transactionRepository.claimDelivery(eq(42L), any())).thenReturn(0);
+
+        ticketDeliveryService.onTicketsIssued(event);
+
+        verify(pdfTicketService, never()).generate(any(), any());
+        verify(emailService, never()).sendTicketsEmail(any(), any(), any(), any(), any());
+        verify(transactionRepository, never()).updateDeliveryStatus(anyLong(), any());
+    }
+
+    @Test
+    void onTicketsIssued_marksFailed_whenEmailCannotBeSent() {
+        byte[] pdf = new byte[]{1, 2, 3};
+        when(transactionRepository.claimDelivery(eq(42L), any())).thenReturn(1);
+        when(pdfTicketService.generate(transaction, "en")).thenReturn(pdf);
+        doThrow(new EmailNotSentException("Échec de l'envoi d'email"))
+                .when(emailService).sendTicketsEmail("alice@example.com", "Alice", transaction, pdf, "en");
+
+        ticketDeliveryService.onTicketsIssued(event);
+
+        verify(transactionRepository).updateDeliveryStatus(42L, DeliveryStatus.FAILED);
+    }
+
+    @Test
+    void onTicketsIssued_marksFailed_whenPdfRenderingFails() {
+        when(transactionRepository.claimDelivery(eq(42L), any())).thenReturn(1);
+        when(pdfTicketService.generate(transaction, "en")).thenThrow(new IllegalStateException("boom"));
+
+        ticketDeliveryService.onTicketsIssued(event);
+
+        verify(emailService, never()).sendTicketsEmail(any(), any(), any(), any(), any());
+        verify(transactionRepository).updateDeliveryStatus(42L, DeliveryStatus.FAILED);
+    }
+
+    @Test
+    void redeliverPending_claimsThenSendsOnTheDeliveryPool_pastTheRetryDelay() {
+        byte[] pdf = new byte[]{1, 2, 3};
+        when(transactionRepository.findIdsToRedeliver(
+                argThat(threshold -> threshold.isBefore(LocalDateTime.now().minusMinutes(9))), eq(5)))
+                .thenReturn(List.of(42L));
+        when(transactionRepository.claimRedelivery(eq(42L), any(), any(), eq(5))).thenReturn(1);
+        when(checkoutReservationService.ticketsIssued(42L)).thenReturn(event);
+        when(pdfTicketService.generate(transaction, "en")).thenReturn(pdf);
+
+        assertThat(ticketDeliveryService.redeliverPending()).isEqualTo(1);
+
+        verify(deliveryExecutor).execute(any(Runnable.class));
+        verify(emailService).sendTicketsEmail("alice@example.com", "Alice", transaction, pdf, "en");
+        verify(transactionRepository).updateDeliveryStatus(42L, DeliveryStatus.SENT);
+    }
+
+    @Test
+    void redeliverPending_skipsDeliveriesClaimedElsewhere() {
+        when(transactionRepository.findIdsToRedeliver(any(), eq(5))).thenReturn(List.of(42L));
+        when(transactionRepository.claimRedelivery(eq(42L), any(), any(), eq(5))).thenReturn(0);
+
+        ticketDeliveryService.redeliverPending();
+
+        verify(checkoutReservationService, never()).ticketsIssued(anyLong());
+        verify(emailService, never()).sendTicketsEmail(any(), any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,87 @@
+package dev.jos.back.service;
+
+import dev.jos.back.util.TicketKeys;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TicketKeyMinterTest {
+
+    private final AtomicInteger blocksFetched = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong(1);
+    private final TicketKeyMinter minter = new TicketKeyMinter(() -> {
+        blocksFetched.incrementAndGet();
+        return sequence.getAndAdd(TicketKeyMinter.BARCODE_BLOCK);
+    });
+
+    @Test
+    void mint_producesUuidKeys_andSha256CombinedKey() throws Exception {
+        TicketKeys keys = minter.mint(1).getFirst();
+
+        assertThat(UUID.fromString(keys.userKey()).version()).isEqualTo(4);
+        assertThat(UUID.fromString(keys.ticketKey()).version()).isEqualTo(4);
+        byte[] expected = MessageDigest.getInstance("SHA-256")
+                .digest((keys.userKey() + ":" + keys.ticketKey()).getBytes(StandardCharsets.UTF_8));
+        assertThat(keys.combinedKey()).isEqualTo(HexFormat.of().formatHex(expected));
+    }
+
+    @Test
+    void mint_allocatesConsecutiveBarcodes_fromOneSequenceCallPerBlock() {
+        List<TicketKeys> keys = minter.mint(250);
+
+        assertThat(keys.getFirst().barcode()).startsWith("JO2024-000000001");
+        assertThat(keys.get(249).barcode()).startsWith("JO2024-000000250");
+        assertThat(keys).allMatch(k -> TicketKeyMinter.isValidBarcode(k.barcode()));
+        assertThat(blocksFetched.get()).isEqualTo(3);
+    }
+
+    @Test
+    void mint_neverRepeatsBarcodesOrKeys_acrossThreads() throws Exception {
+        Set<String> barcodes = ConcurrentHashMap.newKeySet();
+        Set<String> ticketKeys = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(pool.submit(() -> minter.mint(37).forEach(k -> {
+                    barcodes.add(k.barcode());
+                    ticketKeys.add(k.ticketKey());
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(barcodes).hasSize(200 * 37);
+        assertThat(ticketKeys).hasSize(200 * 37);
+    }
+
+    @Test
+    void isValidBarcode_detectsSingleDigitErrorsAndSwaps() {
+        String barcode = TicketKeyMinter.barcode(123456789);
+
+        assertThat(barcode).isEqualTo("JO2024-1234567897");
+        assertThat(TicketKeyMinter.isValidBarcode(barcode)).isTrue();
+        assertThat(TicketKeyMinter.isValidBarcode("JO2024-1234567891")).isFalse();
+        assertThat(TicketKeyMinter.isValidBarcode("JO2024-2134567897")).isFalse();
+        assertThat(TicketKeyMinter.isValidBarcode("JO2024-A1B2C3D4")).isFalse();
+        assertThat(TicketKeyMinter.isValidBarcode(null)).isFalse();
+    }
+
+    @Test
+    void barcode_throws_whenNumberSpaceExhausted() {
+        assertThatThrownBy(() -> TicketKeyMinter.barcode(1_000_000_000L))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
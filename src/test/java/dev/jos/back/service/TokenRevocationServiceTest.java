@@ -0,0 +1,163 @@
+package dev.jos.back.service;
+
+import dev.jos.back.entities.RevokedToken;
+import dev.jos.back.entities.TokenRevocation;
+import dev.jos.back.entities.User;
+import dev.jos.back.properties.JwtProperties;
+import dev.jos.back.repository.RevokedTokenRepository;
+import dev.jos.back.repository.TokenRevocationRepository;
+import dev.jos.back.util.TokenIdRevokedEvent;
+import dev.jos.back.util.TokensRevokedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    private static final long ACCESS_EXP = 900_000L;
+    private static final long OVERLAP_MS = 60_000L;
+
+    @Mock TokenRevocationRepository revocationRepository;
+    @Mock RevokedTokenRepository revokedTokenRepository;
+    @Mock ApplicationEventPublisher eventPublisher;
+
+    TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties props = new JwtProperties();
+        JwtProperties.AccessToken accessToken = new JwtProperties.AccessToken();
+        accessToken.setExpiration(ACCESS_EXP);
+        props.setAccessToken(accessToken);
+        tokenRevocationService = new TokenRevocationService(revocationRepository, revokedTokenRepository, props, eventPublisher, 64, OVERLAP_MS);
+    }
+
+    @Test
+    void revoke_bumpsVersion_recordsIt_andPublishesForAfterCommit() {
+        User user = User.builder().id(7L).tokenVersion(2).build();
+
+        tokenRevocationService.revoke(user);
+
+        assertThat(user.getTokenVersion()).isEqualTo(3);
+        verify(revocationRepository).save(argThat(r -> r.getUserId() == 7L && r.getTokenVersion() == 3));
+        verify(eventPublisher).publishEvent(new TokensRevokedEvent(7L, 3));
+        // appliquée seulement après le commit
+        assertThat(tokenRevocationService.isRevoked(7L, 2)).isFalse();
+    }
+
+    @Test
+    void isRevoked_refusesOlderVersions_once_committed() {
+        tokenRevocationService.onTokensRevoked(new TokensRevokedEvent(7L, 3));
+
+        assertThat(tokenRevocationService.isRevoked(7L, 2)).isTrue();
+        assertThat(tokenRevocationService.isRevoked(7L, 3)).isFalse();
+        assertThat(tokenRevocationService.isRevoked(8L, 0)).isFalse();
+    }
+
+    @Test
+    void revokeAll_refusesEveryToken() {
+        tokenRevocationService.revokeAll(9L);
+        tokenRevocationService.onTokensRevoked(new TokensRevokedEvent(9L, Integer.MAX_VALUE));
+
+        verify(revocationRepository).save(argThat(r -> r.getUserId() == 9L && r.getTokenVersion() == Integer.MAX_VALUE));
+        assertThat(tokenRevocationService.isRevoked(9L, 1_000)).isTrue();
+    }
+
+    @Test
+    void refresh_appliesRevocationsFromOtherInstances_andRereadsAnOverlapBeforeTheLatestOne() {
+        LocalDateTime latest = LocalDateTime.now().minusSeconds(5);
+        when(revocationRepository.findRevokedSince(any())).thenReturn(List.of(
+                revocation(2L, 7L, 2, latest), revocation(1L, 7L, 1, latest.minusSeconds(1))));
+
+        tokenRevocationService.refresh();
+        tokenRevocationService.refresh();
+
+        assertThat(tokenRevocationService.isRevoked(7L, 1)).isTrue();
+        assertThat(tokenRevocationService.isRevoked(7L, 2)).isFalse();
+        // une ligne d'identifiant plus petit validée plus tard reste dans la fenêtre relue
+        verify(revocationRepository).findRevokedSince(latest.minusNanos(OVERLAP_MS * 1_000_000));
+    }
+
+    @Test
+    void refresh_appliesRevocation_committedAfterOneWithAGreaterId() {
+        LocalDateTime latest = LocalDateTime.now().minusSeconds(5);
+        when(revocationRepository.findRevokedSince(any()))
+                .thenReturn(List.of(revocation(2L, 7L, 1, latest)))
+                .thenReturn(List.of(revocation(2L, 7L, 1, latest), revocation(1L, 8L, 4, latest.minusSeconds(2))));
+
+        tokenRevocationService.refresh();
+        tokenRevocationService.refresh();
+
+        assertThat(tokenRevocationService.isRevoked(7L, 0)).isTrue();
+        assertThat(tokenRevocationService.isRevoked(8L, 3)).isTrue();
+    }
+
+    @Test
+    void refresh_readsOnlyRevocations_youngerThanAnAccessToken() {
+        LocalDateTime before = LocalDateTime.now();
+
+        tokenRevocationService.refresh();
+
+        verify(revocationRepository).findRevokedSince(argThat(since ->
+                !since.isAfter(LocalDateTime.now().minusNanos(ACCESS_EXP * 1_000_000))
+                        && !since.isBefore(before.minusNanos(ACCESS_EXP * 1_000_000))));
+    }
+
+    @Test
+    void revokeToken_recordsIt_andRefusesTheTokenOnceCommitted() {
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        LocalDateTime expiration = LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault());
+
+        tokenRevocationService.revokeToken("jti-1", expiresAt);
+
+        verify(revokedTokenRepository).save(argThat(r -> r.getTokenId().equals("jti-1") && r.getExpiresAt().equals(expiration)));
+        verify(eventPublisher).publishEvent(new TokenIdRevokedEvent("jti-1", expiration));
+        assertThat(tokenRevocationService.isTokenRevoked("jti-1")).isFalse();
+
+        tokenRevocationService.onTokenIdRevoked(new TokenIdRevokedEvent("jti-1", expiration));
+
+        assertThat(tokenRevocationService.isTokenRevoked("jti-1")).isTrue();
+        assertThat(tokenRevocationService.isTokenRevoked("jti-2")).isFalse();
+        assertThat(tokenRevocationService.isTokenRevoked(null)).isFalse();
+    }
+
+    @Test
+    void refresh_appliesTokensRevokedByOtherInstances_andForgetsExpiredOnes() {
+        LocalDateTime latest = LocalDateTime.now().minusSeconds(5);
+        when(revokedTokenRepository.findRevokedSince(any(), any())).thenReturn(List.of(
+                revokedToken(1L, "jti-1", latest, LocalDateTime.now().plusMinutes(10)),
+                revokedToken(2L, "jti-2", latest.minusSeconds(1), LocalDateTime.now().minusSeconds(1))));
+
+        tokenRevocationService.refresh();
+        tokenRevocationService.refresh();
+
+        assertThat(tokenRevocationService.isTokenRevoked("jti-1")).isTrue();
+        assertThat(tokenRevocationService.isTokenRevoked("jti-2")).isFalse();
+        assertThat(tokenRevocationService.revokedTokenCount()).isEqualTo(1);
+        verify(revokedTokenRepository).findRevokedSince(eq(latest.minusNanos(OVERLAP_MS * 1_000_000)), any());
+    }
+
+    private static RevokedToken revokedToken(Long id, String tokenId, LocalDateTime revokedAt, LocalDateTime expiresAt) {
+        return RevokedToken.builder().id(id).tokenId(tokenId).revokedAt(revokedAt).expiresAt(expiresAt).build();
+    }
+
+    private static TokenRevocation revocation(Long id, Long userId, int version, LocalDateTime revokedAt) {
+        return TokenRevocation.builder().id(id).userId(userId).tokenVersion(version).revokedAt(revokedAt).build();
+    }
+}
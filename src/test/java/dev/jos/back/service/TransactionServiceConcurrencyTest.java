@@ -0,0 +1,107 @@
+package dev.jos.back.service;
+
+import dev.jos.back.dto.cart.CartItemRequestDTO;
+import dev.jos.back.dto.payment.CheckoutRequestDTO;
+import dev.jos.back.entities.*;
+import dev.jos.back.exceptions.event.EventSoldOutException;
+import dev.jos.back.repository.*;
+import dev.jos.back.support.TestFixtures;
+import dev.jos.back.util.enums.PaymentMethod;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie sur H2 que des centaines d'acheteurs simultanés sur le même événement (ajout au
+ * panier puis checkout) ne vendent jamais plus de billets que sa capacité.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:checkout-concurrency")
+@ActiveProfiles("test")
+class TransactionServiceConcurrencyTest {
+
+    private static final int CAPACITY = 50;
+    private static final int BUYERS = 300;
+    private static final int THREADS = 32;
+
+    private static final CheckoutRequestDTO CHECKOUT_DTO =
+            new CheckoutRequestDTO("4242424242424242", 12, 2030, "123", PaymentMethod.CREDIT_CARD);
+
+    @Autowired TransactionService transactionService;
+    @Autowired CartService cartService;
+    @Autowired UserRepository userRepository;
+    @Autowired EventRepository eventRepository;
+    @Autowired SportRepository sportRepository;
+    @Autowired OfferRepository offerRepository;
+    @Autowired TicketRepository ticketRepository;
+
+    @MockitoBean PdfTicketService pdfTicketService;
+    @MockitoBean EmailService emailService;
+
+    @Test
+    void parallelBuyers_neverSellMoreThanCapacity() throws Exception {
+        Sport sport = sportRepository.save(Sport.builder()
+                .name("Athlétisme").description("desc").icon("icon.svg").build());
+        Event event = TestFixtures.event("100m Finale", CAPACITY);
+        event.setCapacity(CAPACITY);
+        event.setSport(sport);
+        event = eventRepository.save(event);
+        Offer offer = offerRepository.save(TestFixtures.offer("Solo", 50.0, 1));
+
+        List<String> buyers = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            User user = userRepository.save(TestFixtures.user("buyer" + i + "@jo2024.fr"));
+            buyers.add(user.getEmail());
+        }
+        CartItemRequestDTO addDto = new CartItemRequestDTO(event.getId(), offer.getId(), 1);
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String email : buyers) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        cartService.addItem(email, addDto);
+                        transactionService.checkout(email, CHECKOUT_DTO);
+                        succeeded.incrementAndGet();
+                    } catch (EventSoldOutException e) {
+                        soldOut.incrementAndGet();
+                    } catch (Throwable t) {
+                        unexpected.add(t);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Event reloaded = eventRepository.findById(event.getId()).orElseThrow();
+        long soldTickets = ticketRepository.count();
+
+        assertThat(unexpected).isEmpty();
+        assertThat(soldTickets).isLessThanOrEqualTo(CAPACITY);
+        assertThat(soldTickets).isEqualTo(CAPACITY);
+        assertThat(succeeded.get()).isEqualTo(CAPACITY);
+        assertThat(soldOut.get()).isEqualTo(BUYERS - CAPACITY);
+        assertThat(reloaded.getAvailableSlots()).isZero();
+    }
+}
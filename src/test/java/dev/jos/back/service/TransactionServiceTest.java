@@ -4,19 +4,19 @@ import dev.jos.back.dto.payment.CheckoutRequestDTO;
 import dev.jos.back.dto.payment.TicketGroupResponseDTO;
 import dev.jos.back.dto.payment.TransactionResponseDTO;
 import dev.jos.back.entities.*;
-import dev.jos.back.exceptions.cart.CartNotFoundException;
-import dev.jos.back.exceptions.payment.CartAlreadyConvertedException;
-import dev.jos.back.exceptions.payment.CartEmptyException;
+import dev.jos.back.exceptions.event.EventSoldOutException;
 import dev.jos.back.exceptions.payment.PaymentDeclinedException;
+import dev.jos.back.exceptions.payment.ReservationExpiredException;
 import dev.jos.back.exceptions.payment.TransactionNotFoundException;
 import dev.jos.back.exceptions.user.UserNotFoundException;
 import dev.jos.back.mapper.TicketMapper;
 import dev.jos.back.repository.*;
 import dev.jos.back.util.PaymentResult;
-import dev.jos.back.util.enums.CartStatus;
 import dev.jos.back.util.enums.PaymentMethod;
+import dev.jos.back.util.enums.TransactionStatus;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -31,6 +31,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -38,170 +42,193 @@ import static org.mockito.Mockito.when;
 class TransactionServiceTest {
 
     @Mock UserRepository userRepository;
-    @Mock CartRepository cartRepository;
     @Mock TransactionRepository transactionRepository;
     @Mock TicketRepository ticketRepository;
-    @Mock EventRepository eventRepository;
     @Mock PaymentGateway paymentGateway;
     @Mock PdfTicketService pdfTicketService;
-    @Mock EmailService emailService;
     @Mock TicketMapper ticketMapper;
+    @Mock CheckoutReservationService reservationService;
+    @Mock CheckoutIdempotencyService idempotencyService;
     @InjectMocks TransactionService transactionService;
 
     private static final CheckoutRequestDTO CHECKOUT_DTO =
             new CheckoutRequestDTO("4111111111111111", 12, 2025, "123", PaymentMethod.CREDIT_CARD);
 
-    // ── checkout : cas nominaux ───────────────────────────────────────────────
+    // ── checkout : orchestration réservation → paiement → confirmation ──────
 
     @Test
-    void checkout_savesTransactionAndTickets_andConvertsCart() {
-        User user = buildUser("alice@example.com");
-        Event event = buildEvent(1L, 50);
-        Offer offer = buildOffer(1);
-        CartItems item = buildItem(event, offer, 1, 100.0);
-        Cart cart = buildActiveCart(1L, Set.of(item));
+    void checkout_reservesThenPaysThenConfirms() {
+        TransactionResponseDTO expectedDTO = TransactionResponseDTO.builder().id(7L).build();
 
-        TransactionResponseDTO expectedDTO = TransactionResponseDTO.builder().id(1L).build();
-
-        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
-        when(cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)).thenReturn(Optional.of(cart));
+        when(reservationService.reserve("alice@example.com", PaymentMethod.CREDIT_CARD)).thenReturn(7L);
         when(paymentGateway.processPayment("4111111111111111")).thenReturn(PaymentResult.success());
-        when(ticketMapper.toTransactionResponseDTO(any(Transaction.class), anyList())).thenReturn(expectedDTO);
+        when(reservationService.confirm(7L, null)).thenReturn(expectedDTO);
 
         TransactionResponseDTO result = transactionService.checkout("alice@example.com", CHECKOUT_DTO);
 
-        assertThat(result.id()).isEqualTo(1L);
-        assertThat(cart.getStatus()).isEqualTo(CartStatus.CONVERTED);
-        verify(transactionRepository).save(any(Transaction.class));
-        verify(ticketRepository).saveAll(anyList());
-        verify(cartRepository).save(cart);
+        assertThat(result).isSameAs(expectedDTO);
+        InOrder inOrder = inOrder(reservationService, paymentGateway);
+        inOrder.verify(reservationService).reserve("alice@example.com", PaymentMethod.CREDIT_CARD);
+        inOrder.verify(paymentGateway).processPayment("4111111111111111");
+        inOrder.verify(reservationService).confirm(7L, null);
+        verify(reservationService, never()).release(anyLong(), any());
     }
 
     @Test
-    void checkout_generatesCorrectNumberOfTickets_perOfferNumberOfTickets() {
-        User user = buildUser("alice@example.com");
-        Event event = buildEvent(1L, 50);
-        Offer offer = buildOffer(2); // offre duo = 2 billets par quantité
-        CartItems item = buildItem(event, offer, 3, 200.0); // 3 × 2 = 6 billets attendus
-        Cart cart = buildActiveCart(1L, Set.of(item));
-
-        TransactionResponseDTO expectedDTO = TransactionResponseDTO.builder().id(1L).build();
-
-        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
-        when(cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)).thenReturn(Optional.of(cart));
-        when(paymentGateway.processPayment("4111111111111111")).thenReturn(PaymentResult.success());
-        when(ticketMapper.toTransactionResponseDTO(any(Transaction.class), anyList())).thenReturn(expectedDTO);
-
-        transactionService.checkout("alice@example.com", CHECKOUT_DTO);
+    void checkout_throwsPaymentDeclinedException_andReleasesReservation_whenPaymentFails() {
+        when(reservationService.reserve("alice@example.com", PaymentMethod.CREDIT_CARD)).thenReturn(7L);
+        when(paymentGateway.processPayment("4111111111111111"))
+                .thenReturn(PaymentResult.failure("Carte déclinée"));
 
-        // 3 quantités × 2 billets/offre = 6 tickets sauvegardés
-        verify(ticketRepository).saveAll(argThatHasSize(6));
+        assertThatThrownBy(() -> transactionService.checkout("alice@example.com", CHECKOUT_DTO))
+                .isInstanceOf(PaymentDeclinedException.class)
+                .hasMessageContaining("Carte déclinée");
+        verify(reservationService).release(7L, TransactionStatus.FAILED);
+        verify(reservationService, never()).confirm(anyLong(), any());
     }
 
     @Test
-    void checkout_calculatesAmountFromCartItems() {
-        User user = buildUser("alice@example.com");
-        Event event = buildEvent(1L, 50);
-        Offer offer = buildOffer(1);
-        CartItems item = buildItem(event, offer, 2, 75.0); // 2 × 75 = 150
-        Cart cart = buildActiveCart(1L, Set.of(item));
+    void checkout_releasesReservation_andRethrows_whenGatewayErrors() {
+        when(reservationService.reserve("alice@example.com", PaymentMethod.CREDIT_CARD)).thenReturn(7L);
+        when(paymentGateway.processPayment("4111111111111111"))
+                .thenThrow(new IllegalStateException("gateway timeout"));
 
-        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
-        when(cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)).thenReturn(Optional.of(cart));
-        when(paymentGateway.processPayment("4111111111111111")).thenReturn(PaymentResult.success());
-        when(ticketMapper.toTransactionResponseDTO(any(Transaction.class), anyList()))
-                .thenReturn(TransactionResponseDTO.builder().id(1L).build());
+        assertThatThrownBy(() -> transactionService.checkout("alice@example.com", CHECKOUT_DTO))
+                .isInstanceOf(IllegalStateException.class);
+        verify(reservationService).release(7L, TransactionStatus.FAILED);
+        verify(reservationService, never()).confirm(anyLong(), any());
+    }
 
-        transactionService.checkout("alice@example.com", CHECKOUT_DTO);
+    @Test
+    void checkout_neverCallsGateway_whenReservationFails() {
+        when(reservationService.reserve("alice@example.com", PaymentMethod.CREDIT_CARD))
+                .thenThrow(new EventSoldOutException("Plus assez de places"));
 
-        // Vérifie que la transaction sauvegardée a le bon montant
-        org.mockito.ArgumentCaptor<Transaction> txCaptor =
-                org.mockito.ArgumentCaptor.forClass(Transaction.class);
-        verify(transactionRepository).save(txCaptor.capture());
-        assertThat(txCaptor.getValue().getAmount()).isEqualByComparingTo(BigDecimal.valueOf(150.0));
+        assertThatThrownBy(() -> transactionService.checkout("alice@example.com", CHECKOUT_DTO))
+                .isInstanceOf(EventSoldOutException.class);
+        verify(paymentGateway, never()).processPayment(any());
     }
 
-    // ── checkout : cas d'erreur ───────────────────────────────────────────────
-
     @Test
-    void checkout_throwsUserNotFoundException_whenUserNotFound() {
-        when(userRepository.findByEmail("unknown@example.com")).thenReturn(Optional.empty());
+    void checkout_refundsThePayment_whenTheReservationExpiredDuringIt() {
+        Transaction expired = new Transaction();
+        expired.setPaymentReference("REF-A1B2C3D4");
+        expired.setAmount(new BigDecimal("150.00"));
+        when(reservationService.reserve("alice@example.com", PaymentMethod.CREDIT_CARD)).thenReturn(7L);
+        when(paymentGateway.processPayment("4111111111111111")).thenReturn(PaymentResult.success());
+        when(reservationService.confirm(7L, null)).thenThrow(new ReservationExpiredException("expirée"));
+        when(reservationService.requireRefund(7L)).thenReturn(Optional.of(expired));
 
-        assertThatThrownBy(() -> transactionService.checkout("unknown@example.com", CHECKOUT_DTO))
-                .isInstanceOf(UserNotFoundException.class);
+        assertThatThrownBy(() -> transactionService.checkout("alice@example.com", CHECKOUT_DTO))
+                .isInstanceOf(ReservationExpiredException.class);
+        InOrder inOrder = inOrder(reservationService, paymentGateway);
+        inOrder.verify(reservationService).requireRefund(7L);
+        inOrder.verify(paymentGateway).refund("REF-A1B2C3D4", new BigDecimal("150.00"));
+        inOrder.verify(reservationService).markRefunded(7L);
     }
 
     @Test
-    void checkout_throwsCartNotFoundException_whenNoActiveCart() {
-        User user = buildUser("alice@example.com");
-
-        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
-        when(cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)).thenReturn(Optional.empty());
+    void checkout_leavesTheRefundRequired_whenTheRefundFails() {
+        Transaction expired = new Transaction();
+        expired.setPaymentReference("REF-A1B2C3D4");
+        expired.setAmount(new BigDecimal("150.00"));
+        when(reservationService.reserve("alice@example.com", PaymentMethod.CREDIT_CARD)).thenReturn(7L);
+        when(paymentGateway.processPayment("4111111111111111")).thenReturn(PaymentResult.success());
+        when(reservationService.confirm(7L, null)).thenThrow(new ReservationExpiredException("expirée"));
+        when(reservationService.requireRefund(7L)).thenReturn(Optional.of(expired));
+        doThrow(new IllegalStateException("gateway timeout"))
+                .when(paymentGateway).refund("REF-A1B2C3D4", new BigDecimal("150.00"));
 
         assertThatThrownBy(() -> transactionService.checkout("alice@example.com", CHECKOUT_DTO))
-                .isInstanceOf(CartNotFoundException.class);
+                .isInstanceOf(ReservationExpiredException.class);
+        verify(reservationService, never()).markRefunded(anyLong());
     }
 
+    // ── getTransaction ────────────────────────────────────────────────────────
+
+    // ── checkout avec Idempotency-Key ────────────────────────────────────────
+
     @Test
-    void checkout_throwsCartNotFoundException_whenCartExpired() {
-        User user = buildUser("alice@example.com");
-        Cart cart = new Cart();
-        cart.setStatus(CartStatus.ACTIVE);
-        cart.setExpiresAt(LocalDateTime.now().minusMinutes(1)); // déjà expiré
+    void checkoutWithKey_replaysStoredResponse_withoutPaying() {
+        TransactionResponseDTO stored = TransactionResponseDTO.builder().id(7L).build();
+        when(idempotencyService.begin("alice@example.com", "key-1", CHECKOUT_DTO)).thenReturn(Optional.of(stored));
 
-        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
-        when(cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)).thenReturn(Optional.of(cart));
+        TransactionResponseDTO result = transactionService.checkout("alice@example.com", "key-1", CHECKOUT_DTO);
 
-        assertThatThrownBy(() -> transactionService.checkout("alice@example.com", CHECKOUT_DTO))
-                .isInstanceOf(CartNotFoundException.class);
-        verify(cartRepository).save(cart); // sauvegarde du statut ABANDONED
+        assertThat(result).isSameAs(stored);
+        verify(reservationService, never()).reserve(any(), any());
+        verify(paymentGateway, never()).processPayment(any());
     }
 
     @Test
-    void checkout_throwsCartAlreadyConvertedException_whenCartAlreadyPaid() {
-        User user = buildUser("alice@example.com");
-        Cart cart = new Cart();
-        cart.setStatus(CartStatus.CONVERTED);
-        cart.setExpiresAt(LocalDateTime.now().plusMinutes(30)); // non expiré
+    void checkoutWithKey_marksKeyPaid_thenConfirmsWithIt() {
+        TransactionResponseDTO expectedDTO = TransactionResponseDTO.builder().id(7L).build();
+        when(idempotencyService.begin("alice@example.com", "key-1", CHECKOUT_DTO)).thenReturn(Optional.empty());
+        when(reservationService.reserve("alice@example.com", PaymentMethod.CREDIT_CARD)).thenReturn(7L);
+        when(paymentGateway.processPayment("4111111111111111")).thenReturn(PaymentResult.success());
+        when(reservationService.confirm(7L, "key-1")).thenReturn(expectedDTO);
 
-        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
-        when(cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)).thenReturn(Optional.of(cart));
+        TransactionResponseDTO result = transactionService.checkout("alice@example.com", "key-1", CHECKOUT_DTO);
 
-        assertThatThrownBy(() -> transactionService.checkout("alice@example.com", CHECKOUT_DTO))
-                .isInstanceOf(CartAlreadyConvertedException.class);
+        assertThat(result).isSameAs(expectedDTO);
+        InOrder inOrder = inOrder(idempotencyService, reservationService);
+        inOrder.verify(idempotencyService).markPaid("alice@example.com", "key-1");
+        inOrder.verify(reservationService).confirm(7L, "key-1");
+        verify(idempotencyService, never()).abandon(any(), any());
     }
 
     @Test
-    void checkout_throwsCartEmptyException_whenCartHasNoItems() {
-        User user = buildUser("alice@example.com");
-        Cart cart = buildActiveCart(1L, Set.of()); // panier vide
-
-        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
-        when(cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)).thenReturn(Optional.of(cart));
+    void checkoutWithKey_releasesKey_whenCheckoutFails() {
+        when(idempotencyService.begin("alice@example.com", "key-1", CHECKOUT_DTO)).thenReturn(Optional.empty());
+        when(reservationService.reserve("alice@example.com", PaymentMethod.CREDIT_CARD)).thenReturn(7L);
+        when(paymentGateway.processPayment("4111111111111111"))
+                .thenReturn(PaymentResult.failure("Carte déclinée"));
 
-        assertThatThrownBy(() -> transactionService.checkout("alice@example.com", CHECKOUT_DTO))
-                .isInstanceOf(CartEmptyException.class);
+        assertThatThrownBy(() -> transactionService.checkout("alice@example.com", "key-1", CHECKOUT_DTO))
+                .isInstanceOf(PaymentDeclinedException.class);
+        verify(idempotencyService).abandon("alice@example.com", "key-1");
+        verify(idempotencyService, never()).markPaid(any(), any());
     }
 
     @Test
-    void checkout_throwsPaymentDeclinedException_whenPaymentFails() {
-        User user = buildUser("alice@example.com");
-        Event event = buildEvent(1L, 50);
-        Offer offer = buildOffer(1);
-        CartItems item = buildItem(event, offer, 1, 100.0);
-        Cart cart = buildActiveCart(1L, Set.of(item));
+    void checkoutWithKey_releasesKey_whenReservationFails() {
+        when(idempotencyService.begin("alice@example.com", "key-1", CHECKOUT_DTO)).thenReturn(Optional.empty());
+        when(reservationService.reserve("alice@example.com", PaymentMethod.CREDIT_CARD))
+                .thenThrow(new EventSoldOutException("Plus assez de places"));
+
+        assertThatThrownBy(() -> transactionService.checkout("alice@example.com", "key-1", CHECKOUT_DTO))
+                .isInstanceOf(EventSoldOutException.class);
+        verify(idempotencyService).abandon("alice@example.com", "key-1");
+    }
 
-        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
-        when(cartRepository.findByUserAndStatus(user, CartStatus.ACTIVE)).thenReturn(Optional.of(cart));
+    @Test
+    void checkoutWithKey_keepsKey_whenTheGatewayOutcomeIsUnknown() {
+        when(idempotencyService.begin("alice@example.com", "key-1", CHECKOUT_DTO)).thenReturn(Optional.empty());
+        when(reservationService.reserve("alice@example.com", PaymentMethod.CREDIT_CARD)).thenReturn(7L);
         when(paymentGateway.processPayment("4111111111111111"))
-                .thenReturn(PaymentResult.failure("Carte déclinée"));
+                .thenThrow(new IllegalStateException("gateway timeout"));
 
-        assertThatThrownBy(() -> transactionService.checkout("alice@example.com", CHECKOUT_DTO))
-                .isInstanceOf(PaymentDeclinedException.class)
-                .hasMessageContaining("Carte déclinée");
+        assertThatThrownBy(() -> transactionService.checkout("alice@example.com", "key-1", CHECKOUT_DTO))
+                .isInstanceOf(IllegalStateException.class);
+        verify(reservationService).release(7L, TransactionStatus.FAILED);
+        verify(idempotencyService, never()).abandon(any(), any());
     }
 
-    // ── getTransaction ────────────────────────────────────────────────────────
+    @Test
+    void checkoutWithKey_keepsKeyMarkedPaid_whenConfirmationFailsAfterPayment() {
+        when(idempotencyService.begin("alice@example.com", "key-1", CHECKOUT_DTO)).thenReturn(Optional.empty());
+        when(reservationService.reserve("alice@example.com", PaymentMethod.CREDIT_CARD)).thenReturn(7L);
+        when(paymentGateway.processPayment("4111111111111111")).thenReturn(PaymentResult.success());
+        when(reservationService.confirm(7L, "key-1")).thenThrow(new IllegalStateException("base indisponible"));
+
+        assertThatThrownBy(() -> transactionService.checkout("alice@example.com", "key-1", CHECKOUT_DTO))
+                .isInstanceOf(IllegalStateException.class);
+        InOrder inOrder = inOrder(paymentGateway, idempotencyService, reservationService);
+        inOrder.verify(paymentGateway).processPayment("4111111111111111");
+        inOrder.verify(idempotencyService).markPaid("alice@example.com", "key-1");
+        inOrder.verify(reservationService).confirm(7L, "key-1");
+        verify(idempotencyService, never()).abandon(any(), any());
+    }
 
     @Test
     void getTransaction_returnsDTO_whenFound() {
@@ -361,29 +388,4 @@ class TransactionServiceTest {
         offer.setNumberOfTickets(numberOfTickets);
         return offer;
     }
-
-    private CartItems buildItem(Event event, Offer offer, int quantity, double unitPrice) {
-        CartItems item = new CartItems();
-        item.setEvent(event);
-        item.setOffer(offer);
-        item.setQuantity(quantity);
-        item.setUnitPrice(unitPrice);
-        return item;
-    }
-
-    private Cart buildActiveCart(Long id, Set<CartItems> items) {
-        Cart cart = new Cart();
-        cart.setId(id);
-        cart.setStatus(CartStatus.ACTIVE);
-        cart.setExpiresAt(LocalDateTime.now().plusMinutes(30));
-        items.forEach(cart.getCartItems()::add);
-        return cart;
-    }
-
-    /**
-     * Matcher Mockito permettant de vérifier la taille d'une liste passée en argument.
-     */
-    private static <T> List<T> argThatHasSize(int size) {
-        return org.mockito.ArgumentMatchers.argThat(list -> list != null && list.size() == size);
-    }
 }
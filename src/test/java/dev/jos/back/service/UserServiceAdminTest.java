@@ -29,6 +29,7 @@ class UserServiceAdminTest {
     @Mock PasswordEncoder passwordEncoder;
     @Mock EmailService emailService;
     @Mock UserMapper userMapper;
+    @Mock TokenRevocationService tokenRevocationService;
     @InjectMocks UserService userService;
 
     @Test
@@ -55,6 +56,7 @@ class UserServiceAdminTest {
         userService.deleteUser(1L);
 
         verify(userRepository).deleteById(1L);
+        verify(tokenRevocationService).revokeAll(1L);
     }
 
     @Test
@@ -80,6 +82,7 @@ class UserServiceAdminTest {
 
         assertThat(result.role()).isEqualTo(Role.ROLE_ADMIN);
         assertThat(user.getRole()).isEqualTo(Role.ROLE_ADMIN);
+        verify(tokenRevocationService).revoke(user);
     }
 
     @Test
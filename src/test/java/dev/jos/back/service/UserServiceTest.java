@@ -37,6 +37,7 @@ class UserServiceTest {
     @Mock PasswordEncoder passwordEncoder;
     @Mock EmailService emailService;
     @Mock UserMapper userMapper;
+    @Mock TokenRevocationService tokenRevocationService;
     @InjectMocks UserService userService;
 
     // ── createUser ────────────────────────────────────────────────────────────
@@ -102,6 +103,22 @@ class UserServiceTest {
         assertThat(user.getFirstName()).isEqualTo("John");
         assertThat(user.getLastName()).isEqualTo("Doe");
         assertThat(user.isMfaEnabled()).isTrue();
+        verify(tokenRevocationService, never()).revoke(any());
+    }
+
+    @Test
+    void updateUser_revokesIssuedTokens_whenEmailChanges() {
+        User user = new User();
+        user.setEmail("old@example.com");
+
+        when(userRepository.existsByEmail("new@example.com")).thenReturn(false);
+        when(userRepository.findByEmail("old@example.com")).thenReturn(Optional.of(user));
+        when(userRepository.saveAndFlush(user)).thenReturn(user);
+
+        userService.updateUser("old@example.com", "new@example.com", "John", "Doe", false);
+
+        assertThat(user.getEmail()).isEqualTo("new@example.com");
+        verify(tokenRevocationService).revoke(user);
     }
 
     @Test
@@ -155,9 +172,10 @@ class UserServiceTest {
         when(passwordEncoder.encode("new123")).thenReturn("hashed-new");
         when(userRepository.saveAndFlush(user)).thenReturn(user);
 
-        userService.updatePassword("john@example.com", "old123", "new123");
+        assertThat(userService.updatePassword("john@example.com", "old123", "new123")).isSameAs(user);
 
         assertThat(user.getPasswordHash()).isEqualTo("hashed-new");
+        verify(tokenRevocationService).revoke(user);
     }
 
     @Test
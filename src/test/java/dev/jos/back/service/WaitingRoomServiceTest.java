@@ -0,0 +1,222 @@
+package dev.jos.back.service;
+
+import dev.jos.back.dto.queue.QueueStatusDTO;
+import dev.jos.back.entities.Event;
+import dev.jos.back.exceptions.event.EventNotFoundException;
+import dev.jos.back.exceptions.queue.InvalidQueueTokenException;
+import dev.jos.back.exceptions.queue.QueueAdmissionRequiredException;
+import dev.jos.back.properties.QueueProperties;
+import dev.jos.back.repository.EventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WaitingRoomServiceTest {
+
+    private static final String EMAIL = "buyer@test.com";
+
+    private final MutableClock clock = new MutableClock();
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private QueueProperties properties;
+    private WaitingRoomService waitingRoom;
+
+    @BeforeEach
+    void setUp() {
+        properties = new QueueProperties();
+        properties.setSecret("test-secret-key-for-unit-tests-only");
+        properties.setAdmitPerSecond(10);
+        properties.setBurst(2);
+        properties.setTokenTtlMinutes(60);
+        when(eventRepository.findById(anyLong())).thenAnswer(call -> Optional.of(event(call.getArgument(0), true, 30)));
+        waitingRoom = new WaitingRoomService(properties, eventRepository, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void join_admitsImmediately_withinBurst() {
+        assertThat(waitingRoom.join(1L, EMAIL).admitted()).isTrue();
+        assertThat(waitingRoom.join(1L, EMAIL).admitted()).isTrue();
+
+        QueueStatusDTO third = waitingRoom.join(1L, EMAIL);
+        assertThat(third.admitted()).isFalse();
+        assertThat(third.position()).isEqualTo(3);
+        assertThat(third.estimatedWaitSeconds()).isEqualTo(1);
+    }
+
+    @Test
+    void status_admitsAtConfiguredRate() {
+        String token = null;
+        for (int i = 0; i < 12; i++) {
+            token = waitingRoom.join(1L, EMAIL).token();
+        }
+        assertThat(waitingRoom.status(token).admitted()).isFalse();
+
+        clock.advance(500);
+        assertThat(waitingRoom.status(token).admittedUpTo()).isEqualTo(7);
+
+        clock.advance(500);
+        assertThat(waitingRoom.status(token).admitted()).isTrue();
+    }
+
+    @Test
+    void queues_areIndependentPerEvent() {
+        waitingRoom.join(1L, EMAIL);
+        waitingRoom.join(1L, EMAIL);
+        waitingRoom.join(1L, EMAIL);
+
+        assertThat(waitingRoom.join(2L, EMAIL).position()).isEqualTo(1);
+    }
+
+    @Test
+    void idleQueue_doesNotBankMoreThanBurst() {
+        waitingRoom.join(1L, EMAIL);
+        clock.advance(60_000);
+
+        assertThat(waitingRoom.join(1L, EMAIL).admitted()).isTrue();
+        assertThat(waitingRoom.join(1L, EMAIL).admitted()).isTrue();
+        assertThat(waitingRoom.join(1L, EMAIL).admitted()).isTrue();
+        assertThat(waitingRoom.join(1L, EMAIL).admitted()).isFalse();
+    }
+
+    @Test
+    void check_rejectsTamperedToken() {
+        waitingRoom.join(1L, EMAIL);
+        waitingRoom.join(1L, EMAIL);
+        String token = waitingRoom.join(1L, EMAIL).token();
+        String forged = encode("1:1:" + clock.millis() + ":" + EMAIL) + token.substring(token.indexOf('.'));
+
+        assertThat(waitingRoom.check(token)).isPresent();
+        assertThat(waitingRoom.check(forged)).isEmpty();
+        assertThat(waitingRoom.check("not-a-token")).isEmpty();
+        assertThat(waitingRoom.check(null)).isEmpty();
+    }
+
+    @Test
+    void status_throws_whenTokenExpired() {
+        String token = waitingRoom.join(1L, EMAIL).token();
+        clock.advance(61 * 60_000L);
+
+        assertThatThrownBy(() -> waitingRoom.status(token))
+                .isInstanceOf(InvalidQueueTokenException.class);
+    }
+
+    @Test
+    void join_throws_whenEventMissingOrNotOnSale() {
+        when(eventRepository.findById(7L)).thenReturn(Optional.empty());
+        when(eventRepository.findById(8L)).thenReturn(Optional.of(event(8L, false, 30)));
+        when(eventRepository.findById(9L)).thenReturn(Optional.of(event(9L, true, -1)));
+
+        assertThatThrownBy(() -> waitingRoom.join(7L, EMAIL)).isInstanceOf(EventNotFoundException.class);
+        assertThatThrownBy(() -> waitingRoom.join(8L, EMAIL)).isInstanceOf(EventNotFoundException.class);
+        assertThatThrownBy(() -> waitingRoom.join(9L, EMAIL)).isInstanceOf(EventNotFoundException.class);
+    }
+
+    @Test
+    void check_rejectsTokenOfAnotherUser() {
+        String token = waitingRoom.join(1L, EMAIL).token();
+
+        assertThat(waitingRoom.check(token, EMAIL)).isPresent();
+        assertThat(waitingRoom.check(token, "other@test.com")).isEmpty();
+    }
+
+    @Test
+    void constructor_requiresDedicatedSecret_whenQueueEnabled() {
+        properties.setSecret(null);
+        properties.setEnabled(true);
+
+        assertThatThrownBy(() -> new WaitingRoomService(properties, eventRepository, clock))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void purgeIdleQueues_dropsQueuesWithoutRecentJoin() {
+        String stale = waitingRoom.join(1L, EMAIL).token();
+        clock.advance(61 * 60_000L);
+        String fresh = waitingRoom.join(2L, EMAIL).token();
+
+        waitingRoom.purgeIdleQueues();
+
+        assertThat(waitingRoom.check(fresh)).isPresent();
+        assertThat(waitingRoom.join(1L, EMAIL).position()).isEqualTo(1);
+        assertThat(waitingRoom.check(stale)).isEmpty();
+    }
+
+    @Test
+    void requireAdmitted_checksEventsAgainstAdmittedTokens() {
+        assertThatCode(() -> waitingRoom.requireAdmitted(List.of(1L))).doesNotThrowAnyException();
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(WaitingRoomService.ADMITTED_EVENTS_ATTRIBUTE, Set.of(1L));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        assertThatCode(() -> waitingRoom.requireAdmitted(List.of(1L))).doesNotThrowAnyException();
+        assertThatThrownBy(() -> waitingRoom.requireAdmitted(List.of(1L, 2L)))
+                .isInstanceOf(QueueAdmissionRequiredException.class);
+    }
+
+    private Event event(Long id, boolean active, int daysAhead) {
+        Event event = new Event();
+        event.setId(id);
+        event.setIsActive(active);
+        event.setEventDate(LocalDateTime.ofInstant(clock.instant(), ZoneOffset.UTC).plusDays(daysAhead));
+        return event;
+    }
+
+    private static String encode(String payload) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class MutableClock extends Clock {
+
+        private long millis = 1_700_000_000_000L;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package dev.jos.back.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Conserve le SQL émis par Hibernate, pour examiner le plan d'exécution des requêtes générées.
+ * À déclarer via {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    public static void clear() {
+        STATEMENTS.clear();
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS);
+    }
+}
@@ -0,0 +1,40 @@
+package dev.jos.back.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_neverMissesAnAddedValue() {
+        BloomFilter filter = new BloomFilter(1_000);
+        for (int i = 0; i < 1_000; i++) {
+            filter.add("jti-" + i);
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(filter.mightContain("jti-" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void mightContain_rarelyMatchesOtherValues_atCapacity() {
+        BloomFilter filter = new BloomFilter(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(UUID.randomUUID().toString());
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        // environ 1 % attendu
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
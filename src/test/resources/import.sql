@@ -0,0 +1,2 @@
+-- Séquence créée par Liquibase (028) hors tests : Hibernate ne la génère pas, aucune entité ne l'utilise comme identifiant.
+CREATE SEQUENCE ticket_barcode_seq START WITH 1 INCREMENT BY 100;